@@ -6,6 +6,8 @@ import io.advantageous.qbit.annotation.QueueCallback;
 import io.advantageous.qbit.annotation.QueueCallbackType;
 import io.advantageous.qbit.service.ServiceProxyUtils;
 import io.advantageous.qbit.service.discovery.*;
+import io.advantageous.qbit.service.stats.Histogram;
+import io.advantageous.qbit.service.stats.HistogramSnapshot;
 import io.advantageous.qbit.util.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,6 +41,7 @@ public class ClusteredStatReplicator implements StatReplicator, ServiceChangedEv
     private final int tallyInterval;
     private final int flushInterval;
     private final ConcurrentHashMap<String, LocalCount> countMap = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Histogram> histogramMap = new ConcurrentHashMap<>();
     private long currentTime;
     private long lastReconnectTime;
     private long lastSendTime;
@@ -114,6 +117,34 @@ public class ClusteredStatReplicator implements StatReplicator, ServiceChangedEv
         localCount.count = level;
     }
 
+    @Override
+    public void replicateTimingHistogram(final String name, final HistogramSnapshot snapshot, final long time) {
+
+        Histogram histogram = histogramMap.get(name);
+
+        if (histogram == null) {
+            histogram = new Histogram();
+            histogramMap.put(name, histogram);
+        }
+        histogram.add(snapshot);
+    }
+
+    private void doRecordHistogram(Pair<EndpointDefinition, StatReplicator> statReplicator,
+                                   final String name, final HistogramSnapshot snapshot, final long now) {
+
+        try {
+            final StatReplicator replicator = statReplicator.getSecond();
+            /* A peer proxy may be an older stat service that only knows replicateTiming. */
+            if (ServiceProxyUtils.isServiceProxy(replicator)) {
+                replicator.replicateTiming(name, snapshot.getMax(), now);
+            } else {
+                replicator.replicateTimingHistogram(name, snapshot, now);
+            }
+        } catch (Exception ex) {
+            logger.error(sputs("ClusteredStatReplicator::Replicator failed", statReplicator), ex);
+        }
+    }
+
     private void doRecordCount(Pair<EndpointDefinition, StatReplicator> statReplicator,
                                final String name, final long count, final long now) {
 
@@ -158,6 +189,16 @@ public class ClusteredStatReplicator implements StatReplicator, ServiceChangedEv
             if (countMap.size() > 10_000_000) {
                 countMap.clear();
             }
+
+            histogramMap.forEach((name, histogram) -> {
+                if (!histogram.isEmpty()) {
+                    final HistogramSnapshot snapshot = histogram.snapshot();
+                    statReplicators.forEach(
+                            statReplicator -> doRecordHistogram(statReplicator, name, snapshot, currentTime)
+                    );
+                    histogram.reset();
+                }
+            });
             flushReplicatorsAll();
         }
 
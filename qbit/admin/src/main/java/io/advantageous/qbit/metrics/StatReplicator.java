@@ -21,6 +21,7 @@ package io.advantageous.qbit.metrics;
 import io.advantageous.qbit.client.RemoteTCPClientProxy;
 import io.advantageous.qbit.service.ServiceFlushable;
 import io.advantageous.qbit.service.Stoppable;
+import io.advantageous.qbit.service.stats.HistogramSnapshot;
 
 /**
  * Stat Replicator.
@@ -33,4 +34,15 @@ public interface StatReplicator extends RemoteTCPClientProxy, ServiceFlushable,
     void replicateLevel(String name, long level, long time);
 
     void replicateTiming(String name, long timing, long time);
+
+    /**
+     * Replicate a batch of timings. Replicators that do not keep histograms get the max timing of the batch.
+     *
+     * @param name     name of the metric
+     * @param snapshot timings
+     * @param time     time
+     */
+    default void replicateTimingHistogram(String name, HistogramSnapshot snapshot, long time) {
+        replicateTiming(name, snapshot.getMax(), time);
+    }
 }
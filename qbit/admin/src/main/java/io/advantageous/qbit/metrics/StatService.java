@@ -19,6 +19,7 @@
 package io.advantageous.qbit.metrics;
 
 import io.advantageous.qbit.reactive.Callback;
+import io.advantageous.qbit.service.stats.HistogramSnapshot;
 import io.advantageous.qbit.service.stats.Stats;
 import io.advantageous.qbit.service.stats.StatsCollector;
 
@@ -56,6 +57,35 @@ public interface StatService extends StatsCollector {
     default void statsForLastSeconds(Callback<Stats> callback, String name, int secondCount) {
     }
 
+    /**
+     * Get the timing histogram of the current minute.
+     * Use it to get percentiles, for example `snapshot.valueAtPercentile(99.9)`.
+     *
+     * @param callback callback to get the histogram snapshot
+     * @param name     name of metric
+     */
+    default void histogramForCurrentMinute(Callback<HistogramSnapshot> callback, String name) {
+    }
+
+    /**
+     * Get the timing histogram of the last full minute.
+     *
+     * @param callback callback to get the histogram snapshot
+     * @param name     name of metric
+     */
+    default void histogramForLastMinute(Callback<HistogramSnapshot> callback, String name) {
+    }
+
+    /**
+     * Get a timing percentile of the current minute, for example 50, 99 or 99.9.
+     *
+     * @param callback   callback
+     * @param name       name of metric
+     * @param percentile percentile, 0 to 100
+     */
+    default void percentileForCurrentMinute(Callback<Long> callback, String name, double percentile) {
+    }
+
     /**
      * Gets the average last n Seconds of of a level.
      *
@@ -25,6 +25,9 @@ import io.advantageous.qbit.queue.QueueCallBackHandler;
 import io.advantageous.qbit.service.ServiceProxyUtils;
 import io.advantageous.qbit.service.discovery.ServiceChangedEventChannel;
 import io.advantageous.qbit.service.discovery.ServiceDiscovery;
+import io.advantageous.qbit.service.stats.Histogram;
+import io.advantageous.qbit.service.stats.HistogramSnapshot;
+import io.advantageous.qbit.service.stats.StatCounterRegistry;
 import io.advantageous.qbit.service.stats.Stats;
 import io.advantageous.qbit.util.Timer;
 import org.slf4j.Logger;
@@ -49,8 +52,14 @@ public class StatServiceImpl implements QueueCallBackHandler, ServiceChangedEven
     private final Logger logger = LoggerFactory.getLogger(StatServiceImpl.class);
     private final boolean debug = GlobalConstants.DEBUG || logger.isDebugEnabled();
     private final long timeToLiveCheckInterval;
+    private final StatCounterRegistry counterRegistry;
+    /* A replica that is a proxy to an older remote stat service only knows replicateTiming. */
+    private final boolean replicateHistograms;
+    private final StatCounterRegistry.CountConsumer foldCount = (name, count) -> recordCountWithTime(name, count, this.now);
     private Map<String, MinuteStat> currentMinuteOfStatsMap;
     private Map<String, MinuteStat> lastMinuteOfStatsMap;
+    private Map<String, Histogram> currentMinuteOfHistogramsMap;
+    private Map<String, Histogram> lastMinuteOfHistogramsMap;
     private long lastHealthCheck = 0;
     private long now;
     private long startMinute;
@@ -63,17 +72,35 @@ public class StatServiceImpl implements QueueCallBackHandler, ServiceChangedEven
                            final String serviceId,
                            final int numStats,
                            final long timeToLiveCheckInterval) {
+        this(recorder, replica, timer, serviceDiscovery, serviceId, numStats, timeToLiveCheckInterval, null);
+    }
+
+    /**
+     * @param counterRegistry counters that other threads update directly, folded in on each process, may be null
+     */
+    public StatServiceImpl(final StatRecorder recorder,
+                           final StatReplicator replica,
+                           final Timer timer,
+                           final ServiceDiscovery serviceDiscovery,
+                           final String serviceId,
+                           final int numStats,
+                           final long timeToLiveCheckInterval,
+                           final StatCounterRegistry counterRegistry) {
 
+        this.counterRegistry = counterRegistry;
         this.serviceId = serviceId;
         this.serviceDiscovery = serviceDiscovery;
         this.recorder = recorder;
         this.currentMinuteOfStatsMap = new ConcurrentHashMap<>(numStats);
         this.lastMinuteOfStatsMap = new ConcurrentHashMap<>(numStats);
+        this.currentMinuteOfHistogramsMap = new ConcurrentHashMap<>(numStats);
+        this.lastMinuteOfHistogramsMap = new ConcurrentHashMap<>(numStats);
         this.timer = timer;
         this.sizeOfMaps = numStats;
         now = timer.now();
         startMinute = now;
         this.replica = replica;
+        this.replicateHistograms = !ServiceProxyUtils.isServiceProxy(replica);
         this.timeToLiveCheckInterval = timeToLiveCheckInterval;
 
 
@@ -93,6 +120,10 @@ public class StatServiceImpl implements QueueCallBackHandler, ServiceChangedEven
         recordTimingWithTime(name, duration, now);
     }
 
+    public void recordTimingHistogram(String name, HistogramSnapshot snapshot) {
+        recordTimingHistogramWithTime(name, snapshot, now);
+    }
+
     public void increment(String name) {
         recordCountWithTime(name, 1, now);
     }
@@ -107,6 +138,21 @@ public class StatServiceImpl implements QueueCallBackHandler, ServiceChangedEven
         return oneMinuteOfStats(name).statsForLastSeconds(now, secondCount);
     }
 
+    public HistogramSnapshot histogramForCurrentMinute(String name) {
+        final Histogram histogram = this.currentMinuteOfHistogramsMap.get(name);
+        return histogram == null ? HistogramSnapshot.empty() : histogram.snapshot();
+    }
+
+    public HistogramSnapshot histogramForLastMinute(String name) {
+        final Histogram histogram = this.lastMinuteOfHistogramsMap.get(name);
+        return histogram == null ? HistogramSnapshot.empty() : histogram.snapshot();
+    }
+
+    public long percentileForCurrentMinute(String name, double percentile) {
+        final Histogram histogram = this.currentMinuteOfHistogramsMap.get(name);
+        return histogram == null ? 0 : histogram.valueAtPercentile(percentile);
+    }
+
     public long averageLastLevel(String name, int secondCount) {
         return oneMinuteOfStats(name).averageLastLevel(now, secondCount);
     }
@@ -160,9 +206,20 @@ public class StatServiceImpl implements QueueCallBackHandler, ServiceChangedEven
 
     public void recordTimingWithTime(String name, long duration, long now) {
         oneMinuteOfStats(name).recordLevel(duration, now);
+        oneMinuteOfHistogram(name).record(duration);
         replica.replicateTiming(name, duration, now);
     }
 
+    public void recordTimingHistogramWithTime(String name, HistogramSnapshot snapshot, long now) {
+        oneMinuteOfStats(name).recordLevel(snapshot.getMax(), now);
+        oneMinuteOfHistogram(name).add(snapshot);
+        if (replicateHistograms) {
+            replica.replicateTimingHistogram(name, snapshot, now);
+        } else {
+            replica.replicateTiming(name, snapshot.getMax(), now);
+        }
+    }
+
 
     public void recordLevelWithTime(String name, long level, long now) {
         oneMinuteOfStats(name).recordLevel(level, now);
@@ -178,6 +235,11 @@ public class StatServiceImpl implements QueueCallBackHandler, ServiceChangedEven
         oneMinuteOfStats(name).recordLevel(level, time);
     }
 
+    public void replicateTimingHistogram(String name, HistogramSnapshot snapshot, long time) {
+        oneMinuteOfStats(name).recordLevel(snapshot.getMax(), time);
+        oneMinuteOfHistogram(name).add(snapshot);
+    }
+
     public void recordAll(final long timestamp,
                           final String[] names,
                           final long[] counts) {
@@ -210,6 +272,15 @@ public class StatServiceImpl implements QueueCallBackHandler, ServiceChangedEven
         return oneMinuteOfStats;
     }
 
+    private Histogram oneMinuteOfHistogram(String name) {
+        Histogram histogram = this.currentMinuteOfHistogramsMap.get(name);
+        if (histogram == null) {
+            histogram = new Histogram();
+            this.currentMinuteOfHistogramsMap.put(name, histogram);
+        }
+        return histogram;
+    }
+
     private MinuteStat lastOneMinuteOfStats(String name) {
         MinuteStat oneMinuteOfStats = this.lastMinuteOfStatsMap.get(name);
         if (oneMinuteOfStats == null) {
@@ -227,12 +298,24 @@ public class StatServiceImpl implements QueueCallBackHandler, ServiceChangedEven
         process();
     }
 
+    public void queueIdle() {
+        process();
+    }
+
+    public StatCounterRegistry getCounterRegistry() {
+        return counterRegistry;
+    }
+
     public void tick() {
         now = timer.now();
     }
 
     void process() {
         tick();
+
+        if (counterRegistry != null) {
+            counterRegistry.drain(foldCount);
+        }
         long lastProcess = 0;
         long duration = now - lastProcess;
         if (duration > 50) {
@@ -270,6 +353,8 @@ public class StatServiceImpl implements QueueCallBackHandler, ServiceChangedEven
             this.recorder.record(stats);
             this.lastMinuteOfStatsMap = currentMinuteOfStatsMap;
             this.currentMinuteOfStatsMap = new ConcurrentHashMap<>(sizeOfMaps);
+            this.lastMinuteOfHistogramsMap = currentMinuteOfHistogramsMap;
+            this.currentMinuteOfHistogramsMap = new ConcurrentHashMap<>(sizeOfMaps);
         }
     }
 
@@ -4,6 +4,8 @@ import io.advantageous.qbit.metrics.StatReplicator;
 import io.advantageous.qbit.queue.QueueCallBackHandler;
 import io.advantageous.qbit.reactive.Reactor;
 import io.advantageous.qbit.reactive.ReactorBuilder;
+import io.advantageous.qbit.service.stats.Histogram;
+import io.advantageous.qbit.service.stats.HistogramSnapshot;
 import io.advantageous.qbit.service.stats.StatList;
 import io.advantageous.qbit.util.Timer;
 
@@ -63,11 +65,26 @@ public class LocalStatsCollector implements StatReplicator, QueueCallBackHandler
         }
 
         metric.stats.add(timing);
+        metric.histogram.record(timing);
         metric.value = timing;
 
 
     }
 
+    @Override
+    public void replicateTimingHistogram(String name, HistogramSnapshot snapshot, long time) {
+
+        Metric metric = statsMap.get(name);
+        if (metric == null) {
+            metric = Metric.timing(name);
+            statsMap.put(name, metric);
+        }
+
+        metric.stats.add(snapshot.getMax());
+        metric.histogram.add(snapshot);
+        metric.value = snapshot.getMax();
+    }
+
     @Override
     public void queueProcess() {
 
@@ -121,7 +138,7 @@ public class LocalStatsCollector implements StatReplicator, QueueCallBackHandler
         final Set<Map.Entry<String, Metric>> entries = statsMap.entrySet();
 
         entries.stream().filter(entry -> entry.getValue().type == MetricType.TIMING && entry.getValue().value != 0)
-                .forEach(entry -> collectTiming(entry.getValue(), metricsTimingMap));
+                .forEach(entry -> collectTiming(entry.getValue(), metricsTimingMap, metricsLevelMap));
 
 
         entries.stream().filter(entry -> entry.getValue().type == MetricType.COUNT && entry.getValue().value != 0)
@@ -142,7 +159,16 @@ public class LocalStatsCollector implements StatReplicator, QueueCallBackHandler
 
     }
 
-    private void collectTiming(final Metric metric, final Map<String, List<Number>> metricsTimingMap) {
+    private void collectTiming(final Metric metric, final Map<String, List<Number>> metricsTimingMap,
+                               final Map<String, Number> metricsLevelMap) {
+
+        if (!metric.histogram.isEmpty()) {
+            metricsLevelMap.put(metric.name + ".p50", metric.histogram.valueAtPercentile(50));
+            metricsLevelMap.put(metric.name + ".p90", metric.histogram.valueAtPercentile(90));
+            metricsLevelMap.put(metric.name + ".p99", metric.histogram.valueAtPercentile(99));
+            metricsLevelMap.put(metric.name + ".p999", metric.histogram.valueAtPercentile(99.9));
+            metric.histogram.reset();
+        }
 
         if (metric.stats.size() > 0) {
             metricsTimingMap.put(metric.name, new ArrayList<>(metric.stats));
@@ -177,6 +203,7 @@ public class LocalStatsCollector implements StatReplicator, QueueCallBackHandler
     final static class Metric {
 
         final StatList stats;
+        final Histogram histogram;
         final String name;
         final MetricType type;
         long value;
@@ -186,6 +213,7 @@ public class LocalStatsCollector implements StatReplicator, QueueCallBackHandler
             this.name = name;
             this.type = type;
             this.stats = new StatList(100);
+            this.histogram = type == MetricType.TIMING ? new Histogram() : null;
         }
 
         public static Metric count(String name) {
@@ -19,7 +19,9 @@
 package io.advantageous.qbit.metrics.support;
 
 import io.advantageous.qbit.metrics.StatReplicator;
+import io.advantageous.qbit.service.ServiceProxyUtils;
 import io.advantageous.qbit.service.discovery.ServiceChangedEventChannel;
+import io.advantageous.qbit.service.stats.HistogramSnapshot;
 
 import java.util.List;
 
@@ -57,6 +59,17 @@ public class ReplicatorHub implements StatReplicator, ServiceChangedEventChannel
 
     }
 
+    @Override
+    public void replicateTimingHistogram(String name, HistogramSnapshot snapshot, long time) {
+        for (StatReplicator replicator : list) {
+            if (ServiceProxyUtils.isServiceProxy(replicator)) {
+                replicator.replicateTiming(name, snapshot.getMax(), time);
+            } else {
+                replicator.replicateTimingHistogram(name, snapshot, time);
+            }
+        }
+    }
+
 
     @SuppressWarnings("CodeBlock2Expr")
     @Override
@@ -32,6 +32,7 @@ import io.advantageous.qbit.server.ServiceEndpointServer;
 import io.advantageous.qbit.service.ServiceBuilder;
 import io.advantageous.qbit.service.ServiceQueue;
 import io.advantageous.qbit.service.discovery.ServiceDiscovery;
+import io.advantageous.qbit.service.stats.StatCounterRegistry;
 import io.advantageous.qbit.service.stats.StatsCollector;
 import io.advantageous.qbit.service.stats.StatsCollectorBuffer;
 import io.advantageous.qbit.util.Timer;
@@ -343,7 +344,7 @@ public class StatServiceBuilder {
 
 
         return new StatServiceImpl(this.getRecorder(), replicator, getTimer(), getServiceDiscovery(),
-                getLocalServiceId(), getNumStats(), getTimeToLiveCheckInterval());
+                getLocalServiceId(), getNumStats(), getTimeToLiveCheckInterval(), new StatCounterRegistry());
 
     }
 
@@ -497,12 +498,21 @@ public class StatServiceBuilder {
         return this;
     }
 
+    /**
+     * Build a stats collector for one service.
+     * Counters from {@code counter(name)} are updated directly and folded in by the stats service.
+     *
+     * @return stats collector
+     */
     public StatsCollector buildStatsCollector() {
-        return new StatsCollectorBuffer(getServiceQueue().createProxy(StatService.class));
+        /* The proxy calls our own StatServiceImpl, which takes histograms. */
+        return new StatsCollectorBuffer(getServiceQueue().createProxy(StatService.class),
+                getStatServiceImpl().getCounterRegistry(), true);
     }
 
 
     public StatsCollector buildStatsCollectorWithAutoFlush() {
-        return new StatsCollectorBuffer(getServiceQueue().createProxyWithAutoFlush(StatsCollector.class, 1, TimeUnit.SECONDS));
+        return new StatsCollectorBuffer(getServiceQueue().createProxyWithAutoFlush(StatsCollector.class, 1, TimeUnit.SECONDS),
+                getStatServiceImpl().getCounterRegistry(), true);
     }
 }
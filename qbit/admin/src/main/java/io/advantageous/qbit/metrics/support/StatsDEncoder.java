@@ -0,0 +1,205 @@
+package io.advantageous.qbit.metrics.support;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Writes StatsD lines straight into a reusable direct buffer.
+ * <p>
+ * Names are passed in already encoded (see {@link #encodeName(String)}) and whole number values, type suffixes
+ * and DogStatsD tags are written byte by byte so encoding a metric does not allocate.
+ * The buffer is sized to the datagram payload so a full buffer is exactly one packet.
+ * <p>
+ * Lines match what StatsDReplicator always sent: gauges as Java prints a double ({@code 5.0}, {@code 0.25},
+ * {@code 1.0E10}) and sample rates with six decimals ({@code |@0.500000}).
+ * <p>
+ * Not thread safe, it is owned by the StatsDReplicator service thread.
+ *
+ * @author rhightower
+ */
+public class StatsDEncoder {
+
+    static final byte[] COUNT = {'|', 'c'};
+    static final byte[] GAUGE = {'|', 'g'};
+    static final byte[] TIMING = {'|', 'm', 's'};
+
+    private static final byte[] LONG_MIN = Long.toString(Long.MIN_VALUE).getBytes(StandardCharsets.UTF_8);
+    private static final byte[] POINT_ZERO = {'.', '0'};
+    private static final byte[] NO_BYTES = new byte[0];
+    /* Double.toString switches to scientific notation from here on. */
+    private static final double PLAIN_LIMIT = 1e7;
+
+    private final ByteBuffer buffer;
+    private final byte[] tags;
+    /* Callers use one or two sample rates, the last one is kept encoded. */
+    private double sampleRate = 1.0;
+    private byte[] sampleRateBytes = NO_BYTES;
+
+
+    public StatsDEncoder(final int packetSize, final Map<String, String> tags) {
+        this.buffer = ByteBuffer.allocateDirect(packetSize);
+        this.tags = encodeTags(tags);
+    }
+
+    public static byte[] encodeName(final String name) {
+        return name.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Encodes the tags once as <code>|#name:value,name2:value2</code>.
+     *
+     * @param tags tags, may be null or empty
+     * @return encoded tag suffix
+     */
+    static byte[] encodeTags(final Map<String, String> tags) {
+        if (tags == null || tags.isEmpty()) {
+            return NO_BYTES;
+        }
+        final StringBuilder builder = new StringBuilder("|#");
+        tags.forEach((name, value) -> {
+            if (builder.length() > 2) {
+                builder.append(',');
+            }
+            builder.append(name);
+            if (value != null && !value.isEmpty()) {
+                builder.append(':').append(value);
+            }
+        });
+        return builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Appends a line with a whole number value.
+     *
+     * @return false if the line does not fit in what is left of the packet
+     */
+    public boolean encode(final byte[] name, final long value, final byte[] type, final double sampleRate) {
+        final byte[] rate = sampleRateBytes(sampleRate);
+        final int length = name.length + 1 + longLength(value) + type.length + rate.length + tags.length;
+        if (!reserve(length)) {
+            return false;
+        }
+        buffer.put(name).put((byte) ':');
+        putLong(value);
+        finishLine(type, rate);
+        return true;
+    }
+
+    /**
+     * Appends a line with a decimal value, used by gauges.
+     *
+     * @return false if the line does not fit in what is left of the packet
+     */
+    public boolean encode(final byte[] name, final double value, final byte[] type, final double sampleRate) {
+        final boolean plainWhole = isPlainWhole(value);
+        final byte[] text = plainWhole ? null : Double.toString(value).getBytes(StandardCharsets.US_ASCII);
+        final int valueLength = plainWhole ? longLength((long) value) + POINT_ZERO.length : text.length;
+        final byte[] rate = sampleRateBytes(sampleRate);
+        final int length = name.length + 1 + valueLength + type.length + rate.length + tags.length;
+        if (!reserve(length)) {
+            return false;
+        }
+        buffer.put(name).put((byte) ':');
+        if (plainWhole) {
+            putLong((long) value);
+            buffer.put(POINT_ZERO);
+        } else {
+            buffer.put(text);
+        }
+        finishLine(type, rate);
+        return true;
+    }
+
+    public boolean isEmpty() {
+        return buffer.position() == 0;
+    }
+
+    public int size() {
+        return buffer.position();
+    }
+
+    /**
+     * Flips the buffer for sending. Call {@link #clear()} when the packet is out.
+     */
+    public ByteBuffer packet() {
+        buffer.flip();
+        return buffer;
+    }
+
+    public void clear() {
+        buffer.clear();
+    }
+
+    private boolean reserve(final int length) {
+        final int needed = buffer.position() > 0 ? length + 1 : length;
+        if (buffer.remaining() < needed) {
+            return false;
+        }
+        if (buffer.position() > 0) {
+            buffer.put((byte) '\n');
+        }
+        return true;
+    }
+
+    private void finishLine(final byte[] type, final byte[] rate) {
+        buffer.put(type);
+        buffer.put(rate);
+        buffer.put(tags);
+    }
+
+    private byte[] sampleRateBytes(final double sampleRate) {
+        if (!(sampleRate < 1.0)) {
+            return NO_BYTES;
+        }
+        if (sampleRate != this.sampleRate) {
+            this.sampleRate = sampleRate;
+            this.sampleRateBytes = String.format(Locale.ENGLISH, "|@%f", sampleRate).getBytes(StandardCharsets.US_ASCII);
+        }
+        return sampleRateBytes;
+    }
+
+    /**
+     * True if Double.toString would print the value as a whole number followed by {@code .0},
+     * those are written without going through a String.
+     */
+    private static boolean isPlainWhole(final double value) {
+        return Math.abs(value) < PLAIN_LIMIT && value == (long) value
+                && (value != 0 || Double.doubleToRawLongBits(value) == 0L);
+    }
+
+    private void putLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            buffer.put(LONG_MIN);
+            return;
+        }
+        if (value < 0) {
+            buffer.put((byte) '-');
+            value = -value;
+        }
+        final int end = buffer.position() + digitCount(value);
+        int position = end;
+        do {
+            buffer.put(--position, (byte) ('0' + value % 10));
+            value /= 10;
+        } while (value != 0);
+        buffer.position(end);
+    }
+
+    static int longLength(final long value) {
+        if (value == Long.MIN_VALUE) {
+            return LONG_MIN.length;
+        }
+        return value < 0 ? 1 + digitCount(-value) : digitCount(value);
+    }
+
+    private static int digitCount(long value) {
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+        return digits;
+    }
+}
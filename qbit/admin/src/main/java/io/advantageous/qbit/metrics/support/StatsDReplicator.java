@@ -10,20 +10,24 @@ import java.io.IOException;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.StandardSocketOptions;
-import java.nio.ByteBuffer;
 import java.nio.channels.DatagramChannel;
-import java.util.Locale;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
 import java.util.Random;
 import java.util.concurrent.ConcurrentHashMap;
 
 
 /**
+ * Sends stats to StatsD over UDP.
+ * Lines are written by a {@link StatsDEncoder} into one reusable packet buffer which is sent
+ * when the next line would not fit or on flush.
  * created by rhightower on 5/22/15.
  */
 public class StatsDReplicator implements StatReplicator, QueueCallBackHandler {
 
     private final int flushRateIntervalMS;
-    private final ByteBuffer sendBuffer;
+    private final StatsDEncoder encoder;
     private final boolean multiMetrics;
 
     private final Random random = new Random();
@@ -51,6 +55,20 @@ If the count at flush is 0 then you can opt to send no metric at all for this se
     }
 
     public StatsDReplicator(InetAddress host, int port, boolean multiMetrics, int bufferSize, int flushRateIntervalMS) throws IOException {
+        this(host, port, multiMetrics, bufferSize, flushRateIntervalMS, Collections.emptyMap());
+    }
+
+    public StatsDReplicator(String host, int port, boolean multiMetrics, int bufferSize, int flushRateIntervalMS,
+                            Map<String, String> tags) throws IOException {
+        this(InetAddress.getByName(host), port, multiMetrics, bufferSize, flushRateIntervalMS, tags);
+    }
+
+    /**
+     * @param bufferSize max datagram payload, lines are packed up to this size
+     * @param tags       DogStatsD tags added to every line, empty for plain StatsD
+     */
+    public StatsDReplicator(InetAddress host, int port, boolean multiMetrics, int bufferSize, int flushRateIntervalMS,
+                            Map<String, String> tags) throws IOException {
         address = new InetSocketAddress(host, port);
 
         this.bufferSize = bufferSize;
@@ -59,7 +77,7 @@ If the count at flush is 0 then you can opt to send no metric at all for this se
 
         this.multiMetrics = multiMetrics;
         this.flushRateIntervalMS = flushRateIntervalMS;
-        sendBuffer = ByteBuffer.allocate(bufferSize + 100);
+        encoder = new StatsDEncoder(bufferSize, tags);
 
     }
 
@@ -100,7 +118,7 @@ If the count at flush is 0 then you can opt to send no metric at all for this se
     }
 
     public boolean timingWithSampleRate(String key, long value, double sampleRate) {
-        return send(sampleRate, String.format(Locale.ENGLISH, "%s:%d|ms", key, value));
+        return send(StatsDEncoder.encodeName(key), value, StatsDEncoder.TIMING, sampleRate);
     }
 
     public boolean increment(String key) {
@@ -112,8 +130,7 @@ If the count at flush is 0 then you can opt to send no metric at all for this se
     }
 
     public boolean incrementWithMagnitudeAndSampleRate(String key, long magnitude, double sampleRate) {
-        String stat = String.format(Locale.ENGLISH, "%s:%s|c", key, magnitude);
-        return send(sampleRate, stat);
+        return send(StatsDEncoder.encodeName(key), magnitude, StatsDEncoder.COUNT, sampleRate);
     }
 
     @SuppressWarnings("UnusedReturnValue")
@@ -123,71 +140,63 @@ If the count at flush is 0 then you can opt to send no metric at all for this se
     }
 
     public boolean gaugeWithSampleRate(String key, double magnitude, double sampleRate) {
-        final String stat = String.format(Locale.ENGLISH, "%s:%s|g", key, magnitude);
-        return send(sampleRate, stat);
+        return sendGauge(StatsDEncoder.encodeName(key), magnitude, sampleRate);
     }
 
-    private boolean send(double sampleRate, String... stats) {
-
-        boolean sentSomething = false; // didn't send anything
-        if (sampleRate < 1.0) {
-            for (String stat : stats) {
-                if (random.nextDouble() <= sampleRate) {
-                    stat = String.format(Locale.ENGLISH, "%s|@%f", stat, sampleRate);
-                    if (doSend(stat)) {
-                        sentSomething = true;
-                    }
-                }
-            }
-        } else {
-            for (String stat : stats) {
-                if (doSend(stat)) {
-                    sentSomething = true;
-                }
+    private boolean sendGauge(final byte[] name, final double magnitude, final double sampleRate) {
+        if (sampleRate < 1.0 && random.nextDouble() > sampleRate) {
+            return false;
+        }
+        if (!encoder.encode(name, magnitude, StatsDEncoder.GAUGE, sampleRate)) {
+            if (!flushForLine(name)) {
+                return false;
             }
+            encoder.encode(name, magnitude, StatsDEncoder.GAUGE, sampleRate);
         }
-
-        return sentSomething;
+        return lineAdded();
     }
 
-    private boolean doSend(String stat) {
-        try {
-            final byte[] data = stat.getBytes("utf-8");
-
-            // If we're going to go past the threshold of the buffer then flush.
-            // the +1 is for the potential '\n' in multi_metrics below
-            if (sendBuffer.remaining() < (data.length + 1)) {
-                if (!flushStatSend()) {
-                    logger.error("Buffer overflow, connection might be down");
-                    return false;
-                }
-            }
+    private boolean send(final byte[] name, final long value, final byte[] type, final double sampleRate) {
 
-            if (sendBuffer.position() > 0) {         // multiple metrics are separated by '\n'
-                sendBuffer.put((byte) '\n');
-            }
-
-            sendBuffer.put(data);   // append the data
+        if (sampleRate < 1.0 && random.nextDouble() > sampleRate) {
+            return false;
+        }
 
-            if (!multiMetrics) {
-                flushStatSend();
+        if (!encoder.encode(name, value, type, sampleRate)) {
+            if (!flushForLine(name)) {
+                return false;
             }
+            /* An empty packet takes any line that fits in the buffer, flushForLine checked that. */
+            encoder.encode(name, value, type, sampleRate);
+        }
+        return lineAdded();
+    }
 
-            return true;
-
-        } catch (IOException e) {
-            logger.error(
-                    String.format("Could not send stat %s to host %s:%d",
-                            sendBuffer.toString(), address.getHostName(),
-                            address.getPort()), e);
+    /* The line did not fit, so send what we have and make room. */
+    private boolean flushForLine(final byte[] name) {
+        if (encoder.isEmpty()) {
+            logger.error("Stat {} is larger than the buffer size {}, dropping it",
+                    new String(name, StandardCharsets.UTF_8), bufferSize);
             return false;
         }
+        if (!flushStatSend()) {
+            logger.error("Buffer overflow, connection might be down");
+            encoder.clear();
+        }
+        return true;
+    }
+
+    private boolean lineAdded() {
+        if (!multiMetrics) {
+            flushStatSend();
+        }
+        return true;
     }
 
     @SuppressWarnings("UnusedReturnValue")
     public boolean flushStatSend() {
         try {
-            final int sizeOfBuffer = sendBuffer.position();
+            final int sizeOfBuffer = encoder.size();
 
             if (sizeOfBuffer <= 0) {
                 return false;
@@ -198,16 +207,14 @@ If the count at flush is 0 then you can opt to send no metric at all for this se
             if (sizeOfBuffer == sentByteCount) {
                 return true;
             } else {
-                logger.error(String.format(
-                        "Could not send all of stat %s to host %s:%d. Only sent %d bytes out of %d bytes", sendBuffer.toString(),
-                        address.getHostName(), address.getPort(), sentByteCount, sizeOfBuffer));
+                logger.error("Could not send all of stats to host {}:{}. Only sent {} bytes out of {} bytes",
+                        address.getHostName(), address.getPort(), sentByteCount, sizeOfBuffer);
                 return false;
             }
 
         } catch (IOException e) {
-            logger.error(
-                    String.format("Could not send stat %s to host %s:%d", sendBuffer.toString(), address.getHostName(),
-                            address.getPort()), e);
+            logger.error(String.format("Could not send stats to host %s:%d", address.getHostName(),
+                    address.getPort()), e);
             return false;
         }
     }
@@ -220,16 +227,14 @@ If the count at flush is 0 then you can opt to send no metric at all for this se
         }
 
         try {
-            sendBuffer.flip();
             /* Made this async. */
-            final int sentByteCount = channel.send(sendBuffer, address);
-            sendBuffer.limit(sendBuffer.capacity());
-            sendBuffer.rewind();
-
-
+            final int sentByteCount = channel.send(encoder.packet(), address);
+            encoder.clear();
             return sentByteCount;
         } catch (IOException ex) {
 
+            encoder.clear();
+
             DatagramChannel oldChannel = channel;
             channel = null;
 
@@ -271,7 +276,7 @@ If the count at flush is 0 then you can opt to send no metric at all for this se
             /* Set the initial level. */
             localCount.value = level;
             /* Send the gauge. */
-            gauge(name, level);
+            sendGauge(localCount.nameBytes, level, 1.0);
         }
 
         localCount.value = level;
@@ -296,7 +301,7 @@ If the count at flush is 0 then you can opt to send no metric at all for this se
             /* Set the initial timingWithSampleRate. */
             localCount.value = timed;
             /* Send the timingWithSampleRate. */
-            timing(name, timed);
+            send(localCount.nameBytes, timed, StatsDEncoder.TIMING, 1.0);
         }
 
 
@@ -310,24 +315,24 @@ If the count at flush is 0 then you can opt to send no metric at all for this se
     private void flushIfNeeded() {
         long delta = time - lastFlush;
         if (delta > flushRateIntervalMS) {
-            countMap.entrySet().forEach(entry -> {
+            for (Metric metric : countMap.values()) {
 
-                if (entry.getValue().value != 0) {
+                if (metric.value != 0) {
 
-                    switch (entry.getValue().type) {
+                    switch (metric.type) {
                         case COUNT:
-                            incrementBy(entry.getKey(), entry.getValue().value);
+                            send(metric.nameBytes, metric.value, StatsDEncoder.COUNT, 1.0);
                             break;
                         case TIMING:
-                            timing(entry.getKey(), entry.getValue().value);
+                            send(metric.nameBytes, metric.value, StatsDEncoder.TIMING, 1.0);
                             break;
                         case LEVEL:
-                            gauge(entry.getKey(), entry.getValue().value);
+                            sendGauge(metric.nameBytes, metric.value, 1.0);
                             break;
                     }
-                    entry.getValue().value = 0;
+                    metric.value = 0;
                 }
-            });
+            }
             flushStatSend();
             lastFlush = time;
         }
@@ -357,12 +362,14 @@ If the count at flush is 0 then you can opt to send no metric at all for this se
     final static class Metric {
 
         final String name;
+        final byte[] nameBytes;
         final MetricType type;
         long value;
 
 
         public Metric(String name, MetricType type) {
             this.name = name;
+            this.nameBytes = StatsDEncoder.encodeName(name);
             this.type = type;
         }
 
@@ -11,6 +11,8 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
@@ -26,6 +28,7 @@ public class StatsDReplicatorBuilder {
     private boolean multiMetrics = true;
     private int bufferSize = 1500;
     private int flushRateIntervalMS = 1000;
+    private Map<String, String> tags = new LinkedHashMap<>();
     private ServiceBuilder serviceBuilder;
     private ServiceQueue serviceQueue;
 
@@ -40,6 +43,7 @@ public class StatsDReplicatorBuilder {
         this.multiMetrics = propertyResolver.getBooleanProperty("multiMetrics", multiMetrics);
         this.bufferSize = propertyResolver.getIntegerProperty("bufferSize", bufferSize);
         this.flushRateIntervalMS = propertyResolver.getIntegerProperty("flushRateIntervalMS", flushRateIntervalMS);
+        parseTags(propertyResolver.getStringProperty("tags", ""));
 
     }
 
@@ -118,37 +122,52 @@ public class StatsDReplicatorBuilder {
     }
 
 
-    private void buildQueue() {
-
-        final StatsDReplicator statsDReplicator = createStatsDReplicator();
-
-        final ServiceBuilder serviceBuilder = this.getServiceBuilder();
-        serviceBuilder.getRequestQueueBuilder().setUnableToEnqueueHandler(
-                new UnableToEnqueueHandler() {
-                    public boolean unableToEnqueue(BlockingQueue<Object> queue, String queueName, Object item) {
-
-                        final Logger logger = LoggerFactory.getLogger(StatsDReplicator.class);
+    public Map<String, String> getTags() {
+        return tags;
+    }
 
-                        logger.error("Unable to send method call to StatsDReplicator " + queueName);
-                        queue.clear();
-                        return false;
-                    }
-                }
-        );
+    /**
+     * DogStatsD tags sent with every metric. Leave empty for plain StatsD.
+     *
+     * @param tags tags
+     * @return this
+     */
+    public StatsDReplicatorBuilder setTags(Map<String, String> tags) {
+        this.tags = tags;
+        return this;
+    }
 
-        serviceBuilder.getResponseQueueBuilder().setUnableToEnqueueHandler(new UnableToEnqueueHandler() {
+    public StatsDReplicatorBuilder addTag(String name, String value) {
+        this.tags.put(name, value);
+        return this;
+    }
 
+    /* Tags from config look like env:prod,region:us-west. */
+    private void parseTags(final String tagsProperty) {
+        for (String tag : tagsProperty.split(",")) {
+            tag = tag.trim();
+            if (tag.isEmpty()) {
+                continue;
+            }
+            final int colon = tag.indexOf(':');
+            if (colon == -1) {
+                tags.put(tag, "");
+            } else {
+                tags.put(tag.substring(0, colon), tag.substring(colon + 1));
+            }
+        }
+    }
 
-            public boolean unableToEnqueue(BlockingQueue<Object> queue, String queueName, Object item) {
 
-                final Logger logger = LoggerFactory.getLogger(StatsDReplicator.class);
+    private void buildQueue() {
 
+        final StatsDReplicator statsDReplicator = createStatsDReplicator();
 
-                logger.error("Unable to send response from method call from StatsDReplicator " + queueName);
-                queue.clear();
-                return false;
-            }
-        });
+        final ServiceBuilder serviceBuilder = this.getServiceBuilder();
+        serviceBuilder.getRequestQueueBuilder().setUnableToEnqueueHandler(
+                new DropBacklogHandler("Unable to send method call to StatsDReplicator "));
+        serviceBuilder.getResponseQueueBuilder().setUnableToEnqueueHandler(
+                new DropBacklogHandler("Unable to send response from method call from StatsDReplicator "));
         serviceBuilder.setServiceObject(statsDReplicator);
         this.serviceQueue = serviceBuilder.buildAndStartAll();
 
@@ -181,10 +200,29 @@ public class StatsDReplicatorBuilder {
         try {
             return new StatsDReplicator(getHost(),
                     getPort(), this.isMultiMetrics(),
-                    this.getBufferSize(), this.getFlushRateIntervalMS());
+                    this.getBufferSize(), this.getFlushRateIntervalMS(), this.getTags());
         } catch (IOException e) {
             throw new IllegalStateException(e);
         }
     }
-}
 
+    /**
+     * Stats are not worth blocking for, when the queue is full the backlog is dropped.
+     */
+    static final class DropBacklogHandler implements UnableToEnqueueHandler {
+
+        private final Logger logger = LoggerFactory.getLogger(StatsDReplicator.class);
+        private final String message;
+
+        DropBacklogHandler(final String message) {
+            this.message = message;
+        }
+
+        @Override
+        public boolean unableToEnqueue(BlockingQueue<Object> queue, String queueName, Object item) {
+            logger.error(message + queueName);
+            queue.clear();
+            return false;
+        }
+    }
+}
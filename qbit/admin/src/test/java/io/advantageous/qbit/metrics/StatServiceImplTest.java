@@ -24,6 +24,11 @@ import io.advantageous.qbit.metrics.support.DebugRecorder;
 import io.advantageous.qbit.metrics.support.DebugReplicator;
 import io.advantageous.qbit.metrics.support.NoOpReplicator;
 import io.advantageous.qbit.metrics.support.StatServiceBuilder;
+import io.advantageous.qbit.service.stats.Histogram;
+import io.advantageous.qbit.service.stats.HistogramSnapshot;
+import io.advantageous.qbit.service.stats.StatCounter;
+import io.advantageous.qbit.service.stats.StatsCollector;
+import io.advantageous.qbit.service.stats.StatsCollectorBuffer;
 import io.advantageous.qbit.util.Timer;
 import org.junit.After;
 import org.junit.Before;
@@ -31,6 +36,7 @@ import org.junit.Test;
 
 import static io.advantageous.boon.core.Exceptions.die;
 import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
 
 
 public class StatServiceImplTest {
@@ -61,6 +67,63 @@ public class StatServiceImplTest {
 
     }
 
+    @Test
+    public void directCounterTest() throws Exception {
+
+        final StatsCollectorBuffer buffer = new StatsCollectorBuffer(new StatsCollector() {
+        }, statServiceImpl.getCounterRegistry());
+
+        final StatCounter counter = buffer.counter("direct");
+        final Thread[] threads = new Thread[4];
+        for (int index = 0; index < threads.length; index++) {
+            threads[index] = new Thread(() -> {
+                for (int count = 0; count < 10_000; count++) {
+                    counter.increment();
+                }
+            });
+            threads[index].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(0, statServiceImpl.currentMinuteCount("direct"));
+
+        /* Counts are folded in when the stats service processes. */
+        statServiceImpl.queueIdle();
+        assertEquals(40_000, statServiceImpl.currentMinuteCount("direct"));
+        assertEquals(40_000, statServiceImpl.currentSecondCount("direct"));
+    }
+
+    @Test
+    public void timingPercentilesTest() throws Exception {
+
+        for (int index = 1; index <= 1000; index++) {
+            statServiceImpl.recordTiming("mytiming", index);
+        }
+
+        final Histogram histogram = new Histogram();
+        histogram.record(5_000, 10);
+        statServiceImpl.recordTimingHistogram("mytiming", histogram.snapshot());
+
+        final HistogramSnapshot snapshot = statServiceImpl.histogramForCurrentMinute("mytiming");
+        assertEquals(1010, snapshot.getCount());
+        assertEquals(5_000, snapshot.getMax());
+
+        final long median = statServiceImpl.percentileForCurrentMinute("mytiming", 50);
+        assertTrue("median " + median, median >= 505 && median <= 505 * 1.07);
+        assertEquals(5_000, statServiceImpl.percentileForCurrentMinute("mytiming", 99.9));
+
+        assertEquals(0, statServiceImpl.histogramForLastMinute("mytiming").getCount());
+        assertEquals(0, statServiceImpl.percentileForCurrentMinute("nothing", 99));
+
+        /* A minute later the histogram moves to the last minute. */
+        testTimer.seconds(61);
+        statServiceImpl.process();
+        assertEquals(1010, statServiceImpl.histogramForLastMinute("mytiming").getCount());
+        assertEquals(0, statServiceImpl.histogramForCurrentMinute("mytiming").getCount());
+    }
+
     @Test
     public void lastFiveSecondCountTest() throws Exception {
 
@@ -0,0 +1,75 @@
+package io.advantageous.qbit.metrics.support;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import static io.advantageous.boon.core.IO.puts;
+
+/**
+ * Encoding cost of the old String.format lines vs the StatsDEncoder.
+ * Only encoding is measured, nothing is sent. Run with -verbose:gc to see the allocation difference.
+ */
+public class StatsDEncoderPerfMain {
+
+    private static final int METRICS = 10_000;
+    private static final int FLUSHES = 500;
+    private static final int RUNS = 5;
+
+    public static void main(String... args) {
+
+        final String[] names = new String[METRICS];
+        final byte[][] encodedNames = new byte[METRICS][];
+        for (int index = 0; index < METRICS; index++) {
+            names[index] = "service.endpoint" + index + ".requests";
+            encodedNames[index] = StatsDEncoder.encodeName(names[index]);
+        }
+
+        for (int run = 0; run < RUNS; run++) {
+            runFormat(names);
+            runEncoder(encodedNames);
+        }
+    }
+
+    private static void runFormat(final String[] names) {
+        final ByteBuffer buffer = ByteBuffer.allocate(1500);
+        long bytes = 0;
+        final long start = System.nanoTime();
+        for (int flush = 0; flush < FLUSHES; flush++) {
+            for (int index = 0; index < names.length; index++) {
+                final byte[] data = String.format(Locale.ENGLISH, "%s:%s|c", names[index], index + flush)
+                        .getBytes(StandardCharsets.UTF_8);
+                if (buffer.remaining() < data.length + 1) {
+                    bytes += buffer.position();
+                    buffer.clear();
+                }
+                if (buffer.position() > 0) {
+                    buffer.put((byte) '\n');
+                }
+                buffer.put(data);
+            }
+        }
+        report("String.format", start, bytes);
+    }
+
+    private static void runEncoder(final byte[][] names) {
+        final StatsDEncoder encoder = new StatsDEncoder(1500, null);
+        long bytes = 0;
+        final long start = System.nanoTime();
+        for (int flush = 0; flush < FLUSHES; flush++) {
+            for (int index = 0; index < names.length; index++) {
+                if (!encoder.encode(names[index], index + flush, StatsDEncoder.COUNT, 1.0)) {
+                    bytes += encoder.size();
+                    encoder.clear();
+                    encoder.encode(names[index], index + flush, StatsDEncoder.COUNT, 1.0);
+                }
+            }
+        }
+        report("encoder", start, bytes);
+    }
+
+    private static void report(final String name, final long start, final long bytes) {
+        final long time = System.nanoTime() - start;
+        puts(name, "bytes", bytes, "ns/metric", (double) time / ((long) METRICS * FLUSHES));
+    }
+}
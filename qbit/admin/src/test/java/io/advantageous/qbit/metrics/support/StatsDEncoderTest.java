@@ -0,0 +1,129 @@
+package io.advantageous.qbit.metrics.support;
+
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class StatsDEncoderTest {
+
+    private static String read(final StatsDEncoder encoder) {
+        final ByteBuffer packet = encoder.packet();
+        final byte[] bytes = new byte[packet.remaining()];
+        packet.get(bytes);
+        encoder.clear();
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testTypes() {
+        final StatsDEncoder encoder = new StatsDEncoder(1500, null);
+        final byte[] name = StatsDEncoder.encodeName("foo.bar");
+
+        assertTrue(encoder.encode(name, 42, StatsDEncoder.COUNT, 1.0));
+        assertTrue(encoder.encode(name, 0, StatsDEncoder.TIMING, 1.0));
+        assertTrue(encoder.encode(name, -17, StatsDEncoder.GAUGE, 1.0));
+        assertTrue(encoder.encode(name, Long.MAX_VALUE, StatsDEncoder.COUNT, 1.0));
+        assertTrue(encoder.encode(name, Long.MIN_VALUE, StatsDEncoder.COUNT, 1.0));
+
+        assertEquals("foo.bar:42|c\nfoo.bar:0|ms\nfoo.bar:-17|g\n" +
+                "foo.bar:9223372036854775807|c\nfoo.bar:-9223372036854775808|c", read(encoder));
+        assertTrue(encoder.isEmpty());
+    }
+
+    @Test
+    public void testDecimalsAndSampleRate() {
+        final StatsDEncoder encoder = new StatsDEncoder(1500, Collections.emptyMap());
+        final byte[] name = StatsDEncoder.encodeName("g");
+
+        encoder.encode(name, 1.5, StatsDEncoder.GAUGE, 1.0);
+        encoder.encode(name, -0.25, StatsDEncoder.GAUGE, 1.0);
+        encoder.encode(name, 100.0, StatsDEncoder.GAUGE, 1.0);
+        encoder.encode(name, 3.0000004, StatsDEncoder.GAUGE, 1.0);
+        encoder.encode(name, 7, StatsDEncoder.COUNT, 0.1);
+        encoder.encode(name, 7, StatsDEncoder.COUNT, 0.123456);
+
+        /* Same text as the String.format based replicator sent. */
+        assertEquals("g:1.5|g\ng:-0.25|g\ng:100.0|g\ng:3.0000004|g\ng:7|c|@0.100000\ng:7|c|@0.123456",
+                read(encoder));
+    }
+
+    @Test
+    public void testDoublesMatchJavaFormatting() {
+        final StatsDEncoder encoder = new StatsDEncoder(1500, null);
+        final byte[] name = StatsDEncoder.encodeName("g");
+        final double[] values = {0.0, -0.0, 5.0, -17.0, 9_999_999.0, 10_000_000.0, 1e19, -1e19, 1e300,
+                0.001, 0.0001, Double.NaN, Double.POSITIVE_INFINITY, Double.MIN_VALUE};
+
+        for (double value : values) {
+            assertTrue(encoder.encode(name, value, StatsDEncoder.GAUGE, 1.0));
+            assertEquals(String.format(Locale.ENGLISH, "%s:%s|g", "g", value), read(encoder));
+        }
+        for (double sampleRate : new double[]{0.5, 0.25, 0.0000004, 0.9999999}) {
+            assertTrue(encoder.encode(name, 1L, StatsDEncoder.COUNT, sampleRate));
+            assertEquals(String.format(Locale.ENGLISH, "g:1|c|@%f", sampleRate), read(encoder));
+        }
+    }
+
+    @Test
+    public void testTags() {
+        final Map<String, String> tags = new LinkedHashMap<>();
+        tags.put("env", "prod");
+        tags.put("canary", "");
+        final StatsDEncoder encoder = new StatsDEncoder(1500, tags);
+
+        encoder.encode(StatsDEncoder.encodeName("hits"), 3, StatsDEncoder.COUNT, 0.5);
+        assertEquals("hits:3|c|@0.500000|#env:prod,canary", read(encoder));
+    }
+
+    @Test
+    public void testPacksToPacketSize() {
+        final StatsDEncoder encoder = new StatsDEncoder(20, null);
+        final byte[] name = StatsDEncoder.encodeName("abc");
+
+        assertTrue(encoder.encode(name, 1, StatsDEncoder.COUNT, 1.0)); // 7 bytes
+        assertTrue(encoder.encode(name, 2, StatsDEncoder.COUNT, 1.0)); // 15 bytes with newline
+        assertFalse(encoder.encode(name, 3, StatsDEncoder.COUNT, 1.0));
+        assertEquals("abc:1|c\nabc:2|c", read(encoder));
+
+        assertFalse(encoder.encode(StatsDEncoder.encodeName("a.name.too.long.for.the.packet"), 1,
+                StatsDEncoder.COUNT, 1.0));
+        assertTrue(encoder.isEmpty());
+    }
+
+    @Test
+    public void testReplicatorSendsPackedTaggedLines() throws Exception {
+        try (DatagramChannel receiver = DatagramChannel.open()) {
+            receiver.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            final int port = ((InetSocketAddress) receiver.getLocalAddress()).getPort();
+
+            final StatsDReplicator replicator = new StatsDReplicator(InetAddress.getLoopbackAddress(), port,
+                    true, 1500, 0, Collections.singletonMap("env", "test"));
+
+            replicator.replicateCount("requests", 5, 0);
+            replicator.replicateCount("requests", 2, 0);
+            replicator.replicateTiming("latency", 12, 0);
+            replicator.replicateLevel("queue", 5, 0);
+            Thread.sleep(5);
+            replicator.queueProcess();
+
+            final ByteBuffer buffer = ByteBuffer.allocate(1500);
+            receiver.receive(buffer);
+            buffer.flip();
+            final String packet = StandardCharsets.UTF_8.decode(buffer).toString();
+
+            assertTrue(packet, packet.contains("requests:7|c|#env:test"));
+            assertTrue(packet, packet.contains("latency:12|ms|#env:test"));
+            assertTrue(packet, packet.contains("queue:5.0|g|#env:test"));
+        }
+    }
+}
@@ -2,10 +2,19 @@ package io.advantageous.qbit.metrics.support;
 
 import io.advantageous.boon.core.Sys;
 import io.advantageous.qbit.metrics.StatReplicator;
+import io.advantageous.qbit.queue.Queue;
+import io.advantageous.qbit.queue.QueueBuilder;
+import io.advantageous.qbit.queue.ReceiveQueue;
+import io.advantageous.qbit.queue.SendQueue;
 import org.junit.Test;
 
 import java.util.Random;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
 public class StatsDReplicatorBuilderTest {
 
     @Test
@@ -71,4 +80,27 @@ public class StatsDReplicatorBuilderTest {
 
         Sys.sleep(1000);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testFullRingBufferQueueDropsBacklog() {
+        final Queue<String> queue = QueueBuilder.queueBuilder().setName("statsd").setBatchSize(1)
+                .setRingBufferQueue(4)
+                .setUnableToEnqueueHandler(new StatsDReplicatorBuilder.DropBacklogHandler("Queue full "))
+                .build();
+        final SendQueue<String> sendQueue = queue.sendQueue();
+        final ReceiveQueue<String> receiveQueue = queue.receiveQueue();
+
+        for (int index = 0; index < 4; index++) {
+            assertTrue(sendQueue.send("stat" + index));
+        }
+        assertEquals(4, queue.size());
+
+        /* Full, the handler clears the ring and the item is dropped. */
+        assertFalse(sendQueue.send("dropped"));
+        assertEquals(0, queue.size());
+        assertNull(receiveQueue.poll());
+
+        assertTrue(sendQueue.send("after"));
+        assertEquals("after", receiveQueue.poll());
+    }
+}
@@ -137,6 +137,10 @@ public interface Factory {
         throw new UnsupportedOperationException();
     }
 
+    default ServiceMethodHandler createServiceMethodHandler(boolean invokeDynamic, boolean generatedInvokers) {
+        return createServiceMethodHandler(invokeDynamic);
+    }
+
     default ServiceQueue createService(String rootAddress, String serviceAddress,
                                        Object object,
                                        Queue<Response<Object>> responseQueue,
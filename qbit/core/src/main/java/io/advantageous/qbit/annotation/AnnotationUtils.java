@@ -62,6 +62,17 @@ public class AnnotationUtils {
         return listen;
     }
 
+    /**
+     * Listen annotations without a batch attribute get one event per call.
+     *
+     * @param listen listen annotation data
+     * @return true if the listen method takes a list of the event bodies
+     */
+    public static boolean isBatchListen(AnnotationData listen) {
+        final Object batch = listen.getValues().get("batch");
+        return batch instanceof Boolean && (Boolean) batch;
+    }
+
 
     public static String readServiceName(Object annotated) {
 
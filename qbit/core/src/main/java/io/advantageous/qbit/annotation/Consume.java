@@ -39,4 +39,7 @@ public @interface Consume {
      */
     boolean consume() default true;
 
+    /* Take all the events of a flush as one List of event bodies. */
+    boolean batch() default false;
+
 }
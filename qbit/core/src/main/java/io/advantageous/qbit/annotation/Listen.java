@@ -37,4 +37,12 @@ public @interface Listen {
 
     boolean consume() default false;
 
+    /**
+     * Get all the events for the channel that arrive in one flush as a single call,
+     * the method takes a {@code List} of the event bodies.
+     *
+     * @return true if the method takes the events as a list
+     */
+    boolean batch() default false;
+
 }
@@ -22,6 +22,7 @@ import io.advantageous.qbit.Factory;
 import io.advantageous.qbit.boon.events.impl.BoonEventBusProxyCreator;
 import io.advantageous.qbit.boon.service.impl.BoonServiceMethodCallHandler;
 import io.advantageous.qbit.boon.service.impl.BoonServiceProxyFactory;
+import io.advantageous.qbit.boon.service.impl.GeneratedServiceMethodCallHandler;
 import io.advantageous.qbit.boon.spi.BoonJsonMapper;
 import io.advantageous.qbit.boon.spi.BoonProtocolEncoder;
 import io.advantageous.qbit.boon.spi.BoonProtocolParser;
@@ -302,6 +303,13 @@ public class BoonQBitFactory implements Factory {
         return new BoonServiceMethodCallHandler(invokeDynamic);
     }
 
+    @Override
+    public ServiceMethodHandler createServiceMethodHandler(boolean invokeDynamic, boolean generatedInvokers) {
+
+        return generatedInvokers ? new GeneratedServiceMethodCallHandler(invokeDynamic) :
+                new BoonServiceMethodCallHandler(invokeDynamic);
+    }
+
 
     @Override
     public ProtocolEncoder createEncoder() {
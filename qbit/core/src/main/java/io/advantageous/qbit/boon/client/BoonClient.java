@@ -36,6 +36,7 @@ import io.advantageous.qbit.message.impl.MethodCallImpl;
 import io.advantageous.qbit.reactive.Callback;
 import io.advantageous.qbit.sender.Sender;
 import io.advantageous.qbit.service.BeforeMethodCall;
+import io.advantageous.qbit.util.CallbackRegistry;
 import io.advantageous.reakt.promise.Promise;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -45,9 +46,7 @@ import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.net.ConnectException;
 import java.util.List;
-import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
@@ -84,7 +83,7 @@ public class BoonClient implements Client {
     /**
      * Map of handlers so we can do the whole async call back thing.
      */
-    private final Map<HandlerKey, Callback<Object>> handlers = new ConcurrentHashMap<>();
+    private final CallbackRegistry<Callback<Object>> handlers = new CallbackRegistry<>();
     /**
      * List of client proxies that we are managing for periodic flush.
      */
@@ -153,12 +152,11 @@ public class BoonClient implements Client {
             if (message instanceof Response) {
                 @SuppressWarnings("unchecked") final Response<Object> response = ((Response) message);
                 final String[] split = StringScanner.split(response.returnAddress(), (char) PROTOCOL_ARG_SEPARATOR);
-                final HandlerKey key = split.length == 2 ? new HandlerKey(split[1], response.id()) : new HandlerKey(split[0], response.id());
-                final Callback<Object> handler = handlers.get(key);
+                final String returnAddress = split.length == 2 ? split[1] : split[0];
+                final Callback<Object> handler = handlers.remove(response.id(), returnAddress);
 
                 if (handler != null) {
                     handleAsyncCallback(response, handler);
-                    handlers.remove(key);
                 } // else there was no handler, it was a one way method.
             }
         }
@@ -329,7 +327,7 @@ public class BoonClient implements Client {
         final Callback callback = call.callback();
 
         if (callback != null) {
-            handlers.put(new HandlerKey(call.returnAddress(), call.id()),
+            handlers.put(call.id(), call.returnAddress(), call.timestamp(),
                     createHandler(serviceInterface, call, callback));
         }
     }
@@ -484,38 +482,4 @@ public class BoonClient implements Client {
         connected.set(true);
 
     }
-
-    /**
-     * Key to store callbackWithTimeout in call back map.
-     */
-    private class HandlerKey {
-        /**
-         * Return address
-         */
-        final String returnAddress;
-        /**
-         * Message id
-         */
-        final long messageId;
-
-        private HandlerKey(String returnAddress, long messageId) {
-            this.returnAddress = returnAddress;
-            this.messageId = messageId;
-        }
-
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            if (o == null || getClass() != o.getClass()) return false;
-            HandlerKey that = (HandlerKey) o;
-            return messageId == that.messageId && !(returnAddress != null ? !returnAddress.equals(that.returnAddress) : that.returnAddress != null);
-        }
-
-        @Override
-        public int hashCode() {
-            int result = returnAddress != null ? returnAddress.hashCode() : 0;
-            result = 31 * result + (int) (messageId ^ (messageId >>> 32));
-            return result;
-        }
-    }
 }
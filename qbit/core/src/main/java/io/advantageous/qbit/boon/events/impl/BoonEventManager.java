@@ -31,6 +31,7 @@ import io.advantageous.qbit.annotation.QueueCallbackType;
 import io.advantageous.qbit.events.*;
 import io.advantageous.qbit.events.EventListener;
 import io.advantageous.qbit.events.impl.EventBusImpl;
+import io.advantageous.qbit.events.impl.TopicTrie;
 import io.advantageous.qbit.events.spi.EventConnector;
 import io.advantageous.qbit.events.spi.EventTransferObject;
 import io.advantageous.qbit.message.Event;
@@ -105,9 +106,10 @@ public class BoonEventManager implements EventManager {
         for (Map.Entry<String, List<Object>> entry : entries) {
             String channelName = entry.getKey();
             final List<Object> events = entry.getValue();
-            for (Object event : events) {
-                eventBus.send(channelName, event);
+            if (events.isEmpty()) {
+                continue;
             }
+            eventBus.sendBatch(channelName, events);
             events.clear();
         }
 
@@ -287,9 +289,9 @@ public class BoonEventManager implements EventManager {
 
 
                 if (serviceQueue == null) {
-                    extractListenerForRegularObject(listener, methodAccess, channelName, false);
+                    extractListenerForRegularObject(listener, methodAccess, channelName, false, false);
                 } else {
-                    extractListenerForService(serviceQueue, channelName, false);
+                    extractListenerForService(serviceQueue, channelName, false, false);
                 }
             }
 
@@ -313,28 +315,30 @@ public class BoonEventManager implements EventManager {
             return;
         }
         final boolean consume = (boolean) listen.getValues().get("consume");
+        final boolean batch = isBatchListen(listen);
 
 
         if (serviceQueue == null) {
-            extractListenerForRegularObject(listener, methodAccess, channel, consume);
+            extractListenerForRegularObject(listener, methodAccess, channel, consume, batch);
         } else {
-            extractListenerForService(serviceQueue, channel, consume);
+            extractListenerForService(serviceQueue, channel, consume, batch);
         }
     }
 
 
     private void extractListenerForService(final ServiceQueue serviceQueue,
                                            final String channel,
-                                           final boolean consume) {
+                                           final boolean consume,
+                                           final boolean batch) {
 
 
-        logger.info("EventManager {}:: {} is listening on channel {} and is consuming? {}",
-                name, serviceQueue.name(), channel, consume);
+        logger.info("EventManager {}:: {} is listening on channel {} and is consuming? {} batch? {}",
+                name, serviceQueue.name(), channel, consume, batch);
 
         if (consume) {
-            this.consume(channel, serviceQueue);
+            this.consume(channel, serviceQueue, batch);
         } else {
-            this.subscribe(channel, serviceQueue);
+            this.subscribe(channel, serviceQueue, batch);
         }
     }
 
@@ -343,10 +347,11 @@ public class BoonEventManager implements EventManager {
     private void extractListenerForRegularObject(final Object listener,
                                                  final MethodAccess methodAccess,
                                                  final String channel,
-                                                 final boolean consume) {
+                                                 final boolean consume,
+                                                 final boolean batch) {
 
-        logger.info("EventManager {}:: {} is listening with method {} on channel {} and is consuming? {}",
-                name, listener.getClass().getSimpleName(), methodAccess.name(), channel, consume);
+        logger.info("EventManager {}:: {} is listening with method {} on channel {} and is consuming? {} batch? {}",
+                name, listener.getClass().getSimpleName(), methodAccess.name(), channel, consume, batch);
         if (consume) {
 
 
@@ -355,7 +360,20 @@ public class BoonEventManager implements EventManager {
                 @Override
                 public void listen(Event<Object> event) {
 
-                    invokeEventMethod(event, methodAccess, listener);
+                    if (batch) {
+                        methodAccess.invokeDynamic(listener, bodies(Collections.singletonList(event)));
+                    } else {
+                        invokeEventMethod(event, methodAccess, listener);
+                    }
+                }
+
+                @Override
+                public void listenBatch(List<Event<Object>> events) {
+                    if (batch) {
+                        methodAccess.invokeDynamic(listener, bodies(events));
+                    } else {
+                        EventConsumer.super.listenBatch(events);
+                    }
                 }
             });
         } else {
@@ -364,12 +382,33 @@ public class BoonEventManager implements EventManager {
                 @Override
                 public void listen(Event<Object> event) {
 
-                    invokeEventMethod(event, methodAccess, listener);
+                    if (batch) {
+                        methodAccess.invokeDynamic(listener, bodies(Collections.singletonList(event)));
+                    } else {
+                        invokeEventMethod(event, methodAccess, listener);
+                    }
+                }
+
+                @Override
+                public void listenBatch(List<Event<Object>> events) {
+                    if (batch) {
+                        methodAccess.invokeDynamic(listener, bodies(events));
+                    } else {
+                        EventSubscriber.super.listenBatch(events);
+                    }
                 }
             });
         }
     }
 
+    private static List<Object> bodies(final List<Event<Object>> events) {
+        final List<Object> bodies = new ArrayList<>(events.size());
+        for (int index = 0; index < events.size(); index++) {
+            bodies.add(events.get(index).body());
+        }
+        return bodies;
+    }
+
     private void invokeEventMethod(Event<Object> event, MethodAccess methodAccess, Object listener) {
         if (event.body() instanceof Object[]) {
             methodAccess.invokeDynamic(listener, (Object[]) event.body());
@@ -410,7 +449,7 @@ public class BoonEventManager implements EventManager {
     }
 
     @SuppressWarnings("Convert2Lambda")
-    private void subscribe(final String channelName, final ServiceQueue serviceQueue) {
+    private void subscribe(final String channelName, final ServiceQueue serviceQueue, final boolean batch) {
 
         final SendQueue<Event<Object>> sendQueue = serviceQueue.events();
 
@@ -420,6 +459,8 @@ public class BoonEventManager implements EventManager {
 
         final AtomicReference<EventSubscriber<Object>> ref = new AtomicReference<>();
 
+        final boolean pattern = TopicTrie.isPattern(channelName);
+
         final EventSubscriber<Object> eventConsumer = new EventSubscriber<Object>() {
             @Override
             public void listen(Event<Object> event) {
@@ -428,7 +469,21 @@ public class BoonEventManager implements EventManager {
                     eventBus.unregister(channelName, ref.get());
                     queuesToFlush.remove(sendQueue);
                 }
-                sendQueue.send(event);
+                if (batch) {
+                    sendQueue.send(forBatch(Collections.singletonList(event), channelName));
+                } else {
+                    sendQueue.send(pattern ? forPattern(event, channelName) : event);
+                }
+            }
+
+            @Override
+            public void listenBatch(List<Event<Object>> events) {
+
+                if (!serviceQueue.running()) {
+                    eventBus.unregister(channelName, ref.get());
+                    queuesToFlush.remove(sendQueue);
+                }
+                sendToService(sendQueue, events, channelName, pattern, batch);
             }
         };
 
@@ -437,8 +492,44 @@ public class BoonEventManager implements EventManager {
 
     }
 
+    /**
+     * The service looks up the listen method by channel name, so an event that matched a wildcard subscription
+     * is sent to the service under the wildcard name.
+     */
+    private static Event<Object> forPattern(final Event<Object> event, final String pattern) {
+        return new EventTransferObject<>(event.body(), event.id(), pattern);
+    }
+
+    /**
+     * A batch listen method gets the bodies of the flush as one event, the service passes the list as is.
+     */
+    private static Event<Object> forBatch(final List<Event<Object>> events, final String channelName) {
+        return new EventTransferObject<>(bodies(events), events.get(events.size() - 1).id(), channelName);
+    }
+
+    /**
+     * Everything a channel got in one flush goes to the service queue as one array enqueue.
+     */
+    private static void sendToService(final SendQueue<Event<Object>> sendQueue,
+                                      final List<Event<Object>> events,
+                                      final String channelName,
+                                      final boolean pattern,
+                                      final boolean batch) {
+        if (batch) {
+            sendQueue.send(forBatch(events, channelName));
+        } else if (pattern) {
+            final List<Event<Object>> renamed = new ArrayList<>(events.size());
+            for (int index = 0; index < events.size(); index++) {
+                renamed.add(forPattern(events.get(index), channelName));
+            }
+            sendQueue.sendBatch(renamed);
+        } else {
+            sendQueue.sendBatch(events);
+        }
+    }
+
     @SuppressWarnings("Convert2Lambda")
-    private void consume(final String channelName, final ServiceQueue serviceQueue) {
+    private void consume(final String channelName, final ServiceQueue serviceQueue, final boolean batch) {
 
         final SendQueue<Event<Object>> sendQueue = serviceQueue.events();
 
@@ -448,6 +539,8 @@ public class BoonEventManager implements EventManager {
 
         final AtomicReference<EventConsumer<Object>> ref = new AtomicReference<>();
 
+        final boolean pattern = TopicTrie.isPattern(channelName);
+
         final EventConsumer<Object> eventConsumer = new EventConsumer<Object>() {
             @Override
             public void listen(Event<Object> event) {
@@ -456,7 +549,21 @@ public class BoonEventManager implements EventManager {
                     eventBus.unregister(channelName, ref.get());
                     queuesToFlush.remove(sendQueue);
                 }
-                sendQueue.send(event);
+                if (batch) {
+                    sendQueue.send(forBatch(Collections.singletonList(event), channelName));
+                } else {
+                    sendQueue.send(pattern ? forPattern(event, channelName) : event);
+                }
+            }
+
+            @Override
+            public void listenBatch(List<Event<Object>> events) {
+
+                if (!serviceQueue.running()) {
+                    eventBus.unregister(channelName, ref.get());
+                    queuesToFlush.remove(sendQueue);
+                }
+                sendToService(sendQueue, events, channelName, pattern, batch);
             }
         };
 
@@ -37,6 +37,8 @@ class BoonInvocationHandlerForEndPoint implements InvocationHandler {
     private Map<String, Boolean> methodMetaMap = new HashMap<>();
 
     private Map<String, Boolean> promiseMap = new HashMap<>();
+    private Map<String, Integer> methodIdMap = new HashMap<>();
+    private final int serviceSlot;
 
     BoonInvocationHandlerForEndPoint(AtomicLong generatedMessageId, Class<?> serviceInterface, String serviceName, String host, int port,
                                      AtomicBoolean connected, EndPoint endPoint,
@@ -55,9 +57,15 @@ class BoonInvocationHandlerForEndPoint implements InvocationHandler {
         this.generatedMessageId = generatedMessageId;
 
 
+        /* Local bundles can resolve the service and its methods now so calls do not need name lookups. */
+        this.serviceSlot = port == 0 && endPoint != null ? endPoint.serviceSlot(serviceName) : -1;
+
         for (Method method : serviceInterface.getMethods()) {
             promiseMap.put(method.getName(), Promise.class.isAssignableFrom(method.getReturnType()) );
             methodMetaMap.put(method.getName(), hasReaktCallback(method.getParameterTypes()));
+            if (serviceSlot != -1) {
+                methodIdMap.put(method.getName(), endPoint.methodId(serviceSlot, method.getName()));
+            }
         }
         timestamp = Timer.timer().now();
         times = 10;
@@ -146,10 +154,17 @@ class BoonInvocationHandlerForEndPoint implements InvocationHandler {
                 .setObjectName(serviceName)
                 .setReturnAddress(returnAddress)
                 .setName(method.getName())
+                .setServiceSlot(serviceSlot)
+                .setMethodId(methodId(method.getName()))
                 .setTimestamp(timestamp)
                 .setBody(args);
     }
 
+    private int methodId(final String name) {
+        final Integer methodId = methodIdMap.get(name);
+        return methodId == null ? -1 : methodId;
+    }
+
     private String createAddress(Method method) {
         final CharBuf addressBuf = addressCreatorBufRef.get();
 
@@ -5,6 +5,7 @@ import io.advantageous.qbit.message.MethodCall;
 import io.advantageous.qbit.message.MethodCallBuilder;
 import io.advantageous.qbit.queue.SendQueue;
 import io.advantageous.qbit.reakt.Reakt;
+import io.advantageous.qbit.service.ServiceQueue;
 import io.advantageous.qbit.util.Timer;
 import io.advantageous.reakt.Callback;
 import io.advantageous.reakt.CallbackHandler;
@@ -29,11 +30,23 @@ public class BoonInvocationHandlerForSendQueue implements InvocationHandler {
     private int times;
     private Map<String, Boolean> methodMetaMap = new HashMap<>();
     private Map<String, Boolean> promiseMap = new HashMap<>();
+    private Map<String, Integer> methodIdMap = new HashMap<>();
 
     public BoonInvocationHandlerForSendQueue(SendQueue<MethodCall<Object>> sendQueue,
                                              Class<?> serviceInterface,
                                              String serviceName,
                                              BeforeMethodSent beforeMethodSent) {
+        this(sendQueue, serviceInterface, serviceName, beforeMethodSent, null);
+    }
+
+    /**
+     * @param serviceQueue service queue the send queue belongs to, used to resolve method ids up front, can be null
+     */
+    public BoonInvocationHandlerForSendQueue(SendQueue<MethodCall<Object>> sendQueue,
+                                             Class<?> serviceInterface,
+                                             String serviceName,
+                                             BeforeMethodSent beforeMethodSent,
+                                             ServiceQueue serviceQueue) {
         this.serviceName = serviceName;
         this.returnAddress = serviceInterface.getName() + "::" + UUID.randomUUID().toString();
         this.sendQueue = sendQueue;
@@ -43,6 +56,7 @@ public class BoonInvocationHandlerForSendQueue implements InvocationHandler {
         for (Method method : serviceInterface.getMethods()) {
             promiseMap.put(method.getName(), Promise.class.isAssignableFrom(method.getReturnType()));
             methodMetaMap.put(method.getName(), hasReaktCallback(method.getParameterTypes()));
+            methodIdMap.put(method.getName(), serviceQueue == null ? -1 : serviceQueue.methodId(method.getName()));
         }
         timestamp = Timer.timer().now();
         times = 10;
@@ -120,12 +134,18 @@ public class BoonInvocationHandlerForSendQueue implements InvocationHandler {
                 .setLocal(true)
                 .setAddress(name)
                 .setName(name)
+                .setMethodId(methodId(name))
                 .setReturnAddress(returnAddress)
                 .setTimestamp(timestamp).setId(messageId)
                 .setBodyArgs(args);
     }
 
 
+    private int methodId(final String name) {
+        final Integer methodId = methodIdMap.get(name);
+        return methodId == null ? -1 : methodId;
+    }
+
     private Boolean isPromise(Method method) {
         return promiseMap.get(method.getName());
     }
@@ -64,6 +64,13 @@ public class BoonServiceMethodCallHandler implements ServiceMethodHandler {
      */
     private final Object context = Sys.contextToHold();
     private final Map<String, MethodAccess> eventMap = new ConcurrentHashMap<>();
+    /* Channels whose listen method takes the list of event bodies of a flush. */
+    private final Set<String> batchChannels = ConcurrentHashMap.newKeySet();
+    private final Map<String, Integer> methodIds = new HashMap<>();
+    /**
+     * Methods by method id, null where a name can not be called by id (overloaded).
+     */
+    private MethodAccess[] methodsById = new MethodAccess[0];
     protected Object service;
     SendQueue<Response<Object>> responseSendQueue;
     private ClassMeta<Class<?>> classMeta;
@@ -98,7 +105,7 @@ public class BoonServiceMethodCallHandler implements ServiceMethodHandler {
         }
     }
 
-    private Response<Object> mapArgsAsyncHandlersAndInvoke(MethodCall<Object> methodCall, MethodAccess serviceMethod) {
+    protected Response<Object> mapArgsAsyncHandlersAndInvoke(MethodCall<Object> methodCall, MethodAccess serviceMethod) {
         return this.mapAndInvoke.mapArgsAsyncHandlersAndInvoke(methodCall, serviceMethod);
     }
 
@@ -334,7 +341,7 @@ public class BoonServiceMethodCallHandler implements ServiceMethodHandler {
     }
 
     private Response<Object> invokeByName(MethodCall<Object> methodCall) {
-        final MethodAccess method = classMeta.method(methodCall.name());
+        final MethodAccess method = lookupMethod(methodCall);
 
         if (method != null) {
             return mapArgsAsyncHandlersAndInvoke(methodCall, method);
@@ -361,6 +368,39 @@ public class BoonServiceMethodCallHandler implements ServiceMethodHandler {
         }
     }
 
+    /**
+     * Local proxies send the method id, everyone else the name.
+     */
+    private MethodAccess lookupMethod(final MethodCall<Object> methodCall) {
+        final int methodId = methodCall.methodId();
+        if (methodId >= 0 && methodId < methodsById.length) {
+            final MethodAccess method = methodsById[methodId];
+            if (method != null && method.name().equals(methodCall.name())) {
+                return method;
+            }
+        }
+        return classMeta.method(methodCall.name());
+    }
+
+    @Override
+    public int methodId(final String name) {
+        final Integer methodId = methodIds.get(name);
+        return methodId == null ? -1 : methodId;
+    }
+
+    /**
+     * Ids are positions in classMeta.methods() order of each distinct name.
+     *
+     * @return method ids by name
+     */
+    protected Map<String, Integer> methodIds() {
+        return methodIds;
+    }
+
+    protected MethodAccess methodById(final int methodId) {
+        return methodsById[methodId];
+    }
+
     @Override
     public void init(
             Object service,
@@ -424,6 +464,9 @@ public class BoonServiceMethodCallHandler implements ServiceMethodHandler {
             }
             String channel = listen.getValues().get("value").toString();
             eventMap.put(channel, methodAccess);
+            if (isBatchListen(listen)) {
+                batchChannels.add(channel);
+            }
         }
 
         final Class<?>[] interfaces = classMeta.cls().getInterfaces();
@@ -461,6 +504,7 @@ public class BoonServiceMethodCallHandler implements ServiceMethodHandler {
         }
 
         readMethodMetaData();
+        readMethodIds();
         initQueueHandlerMethods();
 
     }
@@ -494,6 +538,20 @@ public class BoonServiceMethodCallHandler implements ServiceMethodHandler {
         addresses.addAll(methodMap.keySet());
     }
 
+    private void readMethodIds() {
+        methodIds.clear();
+        final List<MethodAccess> methods = new ArrayList<>();
+        for (MethodAccess methodAccess : classMeta.methods()) {
+            if (methodIds.containsKey(methodAccess.name())) {
+                continue;
+            }
+            final MethodAccess method = classMeta.method(methodAccess.name());
+            methodIds.put(methodAccess.name(), methods.size());
+            methods.add(method != null && method.method() != null ? method : null);
+        }
+        methodsById = methods.toArray(new MethodAccess[methods.size()]);
+    }
+
     private void registerMethod(MethodAccess methodAccess) {
 
         if (!methodAccess.isPrivate()) {
@@ -541,6 +599,15 @@ public class BoonServiceMethodCallHandler implements ServiceMethodHandler {
         MethodAccess methodAccess = eventMap.get(event.channel());
 
 
+        if (!batchChannels.isEmpty() && batchChannels.contains(event.channel())) {
+            if (invokeDynamic) {
+                methodAccess.invokeDynamic(service, event.body());
+            } else {
+                methodAccess.invoke(service, event.body());
+            }
+            return;
+        }
+
         if (invokeDynamic) {
             final Object body = event.body();
 
@@ -0,0 +1,262 @@
+/*
+ * Copyright (c) 2015. Rick Hightower, Geoff Chandler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * QBit - The Microservice lib for Java : JSON, WebSocket, REST. Be The Web!
+ */
+
+package io.advantageous.qbit.boon.service.impl;
+
+import io.advantageous.boon.core.reflection.MethodAccess;
+import io.advantageous.qbit.message.MethodCall;
+import io.advantageous.qbit.message.Response;
+import io.advantageous.qbit.message.impl.ResponseImpl;
+import io.advantageous.qbit.queue.SendQueue;
+import io.advantageous.qbit.reactive.Callback;
+import io.advantageous.qbit.service.impl.ServiceConstants;
+import io.advantageous.reakt.promise.Promise;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Service method handler that calls the service through a generated {@link ServiceInvoker}
+ * instead of Boon MethodAccess reflection.
+ * <p>
+ * The invoker is generated when the handler is initialized with the service object.
+ * Calls whose arguments already are the parameter types (the usual case for calls from local proxies)
+ * go straight through the invoker. Anything that needs coercion, for example JSON maps that have to be turned
+ * into objects, and services or methods we can not generate for, are handled by the Boon path as before.
+ * <p>
+ * This is opt in, turn it on with ServiceBuilder.setGeneratedInvokers(true)
+ * or for every service with the system property qbit.service.generatedInvokers=true.
+ *
+ * @author rhightower
+ */
+public class GeneratedServiceMethodCallHandler extends BoonServiceMethodCallHandler {
+
+    private final Logger logger = LoggerFactory.getLogger(GeneratedServiceMethodCallHandler.class);
+    private Invocation[] invocations = new Invocation[0];
+    private ServiceInvoker serviceInvoker;
+
+    public GeneratedServiceMethodCallHandler(final boolean invokeDynamic) {
+        super(invokeDynamic);
+    }
+
+    @Override
+    public void init(final Object service,
+                     final String rootAddress,
+                     final String serviceAddress,
+                     final SendQueue<Response<Object>> responseSendQueue) {
+        super.init(service, rootAddress, serviceAddress, responseSendQueue);
+        generateInvoker(service.getClass());
+    }
+
+    private void generateInvoker(final Class<?> serviceClass) {
+
+        if (!ServiceInvokerGenerator.canGenerate(serviceClass)) {
+            logger.debug("Using reflection for {}, the class is not public or can not see qbit", serviceClass.getName());
+            return;
+        }
+
+        /* Same ids as the Boon handler so method ids from local proxies index straight into invocations. */
+        final int methodCount = methodIds().size();
+        final List<Method> methods = new ArrayList<>();
+        final List<Integer> methodIdList = new ArrayList<>();
+
+        for (int methodId = 0; methodId < methodCount; methodId++) {
+            final MethodAccess methodAccess = methodById(methodId);
+            if (methodAccess != null && ServiceInvokerGenerator.canGenerate(methodAccess.method())) {
+                methods.add(methodAccess.method());
+                methodIdList.add(methodId);
+            }
+        }
+
+        try {
+            serviceInvoker = ServiceInvokerGenerator.invoker(serviceClass, methods);
+        } catch (RuntimeException | LinkageError ex) {
+            logger.warn("Unable to generate invoker for " + serviceClass.getName() + ", using reflection", ex);
+            return;
+        }
+
+        final Invocation[] newInvocations = new Invocation[methodCount];
+        for (int index = 0; index < methods.size(); index++) {
+            final int methodId = methodIdList.get(index);
+            newInvocations[methodId] = new Invocation(index, methodId, methodById(methodId));
+        }
+        invocations = newInvocations;
+    }
+
+    @Override
+    protected Response<Object> mapArgsAsyncHandlersAndInvoke(final MethodCall<Object> methodCall,
+                                                             final MethodAccess serviceMethod) {
+
+        final Invocation invocation = invocation(methodCall, serviceMethod);
+        if (invocation == null) {
+            return super.mapArgsAsyncHandlersAndInvoke(methodCall, serviceMethod);
+        }
+
+        final Object[] args = invocation.arguments(methodCall, this);
+        if (args == null) {
+            return super.mapArgsAsyncHandlersAndInvoke(methodCall, serviceMethod);
+        }
+
+        final Object returnValue;
+        try {
+            returnValue = serviceInvoker.invoke(invocation.index, service, args);
+        } catch (LinkageError error) {
+            logger.warn("Generated invoker failed for " + serviceMethod.name() + ", using reflection", error);
+            invocations[invocation.methodId] = null;
+            return super.mapArgsAsyncHandlersAndInvoke(methodCall, serviceMethod);
+        }
+
+        if (invocation.returnsPromise && returnValue instanceof Promise) {
+            @SuppressWarnings("unchecked") final Promise<Object> promise = (Promise<Object>) returnValue;
+            promise.then(value -> responseSendQueue.send(ResponseImpl.response(methodCall, value)))
+                    .catchError(error -> responseSendQueue.send(ResponseImpl.error(methodCall, error)))
+                    .invoke();
+            return ServiceConstants.VOID;
+        }
+        return response(serviceMethod, methodCall, returnValue);
+    }
+
+    private Invocation invocation(final MethodCall<Object> methodCall, final MethodAccess serviceMethod) {
+        int methodId = methodCall.methodId();
+        if (methodId < 0 || methodId >= invocations.length) {
+            methodId = methodId(serviceMethod.name());
+            if (methodId < 0 || methodId >= invocations.length) {
+                return null;
+            }
+        }
+        final Invocation invocation = invocations[methodId];
+        return invocation != null && invocation.methodAccess == serviceMethod ? invocation : null;
+    }
+
+    boolean isGenerated(final String methodName) {
+        final int methodId = methodId(methodName);
+        return methodId >= 0 && methodId < invocations.length && invocations[methodId] != null;
+    }
+
+
+    /**
+     * What we know about a generated method so we do not look at parameter types on every call.
+     */
+    private static final class Invocation {
+        private final int index;
+        private final int methodId;
+        private final MethodAccess methodAccess;
+        private final Class<?>[] parameterTypes;
+        private final boolean[] callbackParameters;
+        private final boolean[] primitiveParameters;
+        private final int callbackCount;
+        private final boolean returnsPromise;
+
+        private Invocation(final int index, final int methodId, final MethodAccess methodAccess) {
+            this.index = index;
+            this.methodId = methodId;
+            this.methodAccess = methodAccess;
+            final Class<?>[] types = methodAccess.method().getParameterTypes();
+            this.parameterTypes = new Class<?>[types.length];
+            this.callbackParameters = new boolean[types.length];
+            this.primitiveParameters = new boolean[types.length];
+            int count = 0;
+            for (int i = 0; i < types.length; i++) {
+                parameterTypes[i] = boxed(types[i]);
+                callbackParameters[i] = types[i] == Callback.class;
+                primitiveParameters[i] = types[i].isPrimitive();
+                if (callbackParameters[i]) {
+                    count++;
+                }
+            }
+            this.callbackCount = count;
+            this.returnsPromise = Promise.class.isAssignableFrom(methodAccess.returnType());
+        }
+
+        /**
+         * Lines up the body with the parameters and injects callbacks.
+         *
+         * @return arguments or null if the body does not line up and the Boon path has to coerce it
+         */
+        private Object[] arguments(final MethodCall<Object> methodCall, final GeneratedServiceMethodCallHandler handler) {
+
+            final Object body = methodCall.body();
+            final Object[] input;
+            if (body instanceof Object[]) {
+                input = (Object[]) body;
+            } else if (body instanceof List) {
+                input = ((List<?>) body).toArray();
+            } else if (body == null) {
+                input = new Object[0];
+            } else {
+                input = new Object[]{body};
+            }
+
+            final int length = parameterTypes.length;
+            final boolean positional;
+            if (input.length == length) {
+                positional = true;
+            } else if (input.length == length - callbackCount) {
+                positional = false;
+            } else {
+                return null;
+            }
+
+            if (callbackCount == 0) {
+                return matches(input) ? input : null;
+            }
+
+            final Object[] args = new Object[length];
+            for (int index = 0, inputIndex = 0; index < length; index++) {
+                if (callbackParameters[index]) {
+                    args[index] = handler.createCallBackHandler(methodCall);
+                    if (positional) {
+                        inputIndex++;
+                    }
+                    continue;
+                }
+                args[index] = input[inputIndex++];
+            }
+            return matches(args) ? args : null;
+        }
+
+        private boolean matches(final Object[] args) {
+            for (int index = 0; index < args.length; index++) {
+                final Object arg = args[index];
+                if (arg == null) {
+                    if (primitiveParameters[index]) {
+                        return false;
+                    }
+                } else if (!parameterTypes[index].isInstance(arg)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static Class<?> boxed(final Class<?> type) {
+            if (!type.isPrimitive()) return type;
+            if (type == int.class) return Integer.class;
+            if (type == long.class) return Long.class;
+            if (type == boolean.class) return Boolean.class;
+            if (type == double.class) return Double.class;
+            if (type == float.class) return Float.class;
+            if (type == short.class) return Short.class;
+            if (type == byte.class) return Byte.class;
+            return Character.class;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2015. Rick Hightower, Geoff Chandler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * QBit - The Microservice lib for Java : JSON, WebSocket, REST. Be The Web!
+ */
+
+package io.advantageous.qbit.boon.service.impl;
+
+/**
+ * Base class for the invokers that ServiceInvokerGenerator writes, one per service class.
+ * The generated invoke method is a switch over the method index that casts and unboxes the arguments
+ * and calls the service method directly, so there is no reflection on the call path.
+ *
+ * @author rhightower
+ */
+public abstract class ServiceInvoker {
+
+    protected ServiceInvoker() {
+    }
+
+    /**
+     * Calls a service method.
+     *
+     * @param methodIndex index of the method as passed to the generator
+     * @param service     service object
+     * @param args        arguments, already the exact (boxed) parameter types
+     * @return boxed return value or null for void methods
+     */
+    public abstract Object invoke(int methodIndex, Object service, Object[] args);
+
+    protected Object unknownMethod(final int methodIndex) {
+        throw new IllegalArgumentException("No generated method for index " + methodIndex);
+    }
+}
@@ -0,0 +1,527 @@
+/*
+ * Copyright (c) 2015. Rick Hightower, Geoff Chandler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * QBit - The Microservice lib for Java : JSON, WebSocket, REST. Be The Web!
+ */
+
+package io.advantageous.qbit.boon.service.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Writes a ServiceInvoker subclass for a service class.
+ * <p>
+ * The class is written straight to the class file format so we do not need a bytecode library.
+ * It targets class file version 49 which does not need stack map frames.
+ * The generated invoke method looks like
+ * <pre>
+ *     switch (methodIndex) {
+ *         case 0: return Integer.valueOf(((AdderService) service).sum());
+ *         case 1: ((AdderService) service).add((String) args[0], ((Integer) args[1]).intValue()); return null;
+ *         default: return unknownMethod(methodIndex);
+ *     }
+ * </pre>
+ * Only public, non static methods of a public class whose parameter types are public can be generated,
+ * see {@link #canGenerate(Class)} and {@link #canGenerate(Method)}.
+ *
+ * @author rhightower
+ */
+final class ServiceInvokerGenerator {
+
+    private static final String GENERATED_PACKAGE = "io/advantageous/qbit/boon/service/impl/generated/";
+    private static final String SUPER_CLASS = ServiceInvoker.class.getName().replace('.', '/');
+    private static final String INVOKE_DESCRIPTOR = "(ILjava/lang/Object;[Ljava/lang/Object;)Ljava/lang/Object;";
+    private static final AtomicInteger classCount = new AtomicInteger();
+    /**
+     * Workers often share a service class, so invokers are generated once per class and method list.
+     * ClassValue keeps us from pinning the service class loader.
+     */
+    private static final ClassValue<Map<List<Method>, ServiceInvoker>> invokers =
+            new ClassValue<Map<List<Method>, ServiceInvoker>>() {
+                @Override
+                protected Map<List<Method>, ServiceInvoker> computeValue(final Class<?> type) {
+                    return new ConcurrentHashMap<>();
+                }
+            };
+
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+
+    private static final int ACONST_NULL = 0x01;
+    private static final int ICONST_0 = 0x03;
+    private static final int BIPUSH = 0x10;
+    private static final int SIPUSH = 0x11;
+    private static final int ILOAD_1 = 0x1b;
+    private static final int ALOAD_0 = 0x2a;
+    private static final int ALOAD_2 = 0x2c;
+    private static final int ALOAD_3 = 0x2d;
+    private static final int AALOAD = 0x32;
+    private static final int TABLESWITCH = 0xaa;
+    private static final int ARETURN = 0xb0;
+    private static final int RETURN = 0xb1;
+    private static final int INVOKEVIRTUAL = 0xb6;
+    private static final int INVOKESPECIAL = 0xb7;
+    private static final int INVOKESTATIC = 0xb8;
+    private static final int INVOKEINTERFACE = 0xb9;
+    private static final int CHECKCAST = 0xc0;
+
+    private ServiceInvokerGenerator() {
+    }
+
+    static boolean canGenerate(final Class<?> serviceClass) {
+        return Modifier.isPublic(serviceClass.getModifiers())
+                && !serviceClass.isArray()
+                && !serviceClass.isPrimitive()
+                && visible(serviceClass);
+    }
+
+    static boolean canGenerate(final Method method) {
+        final int modifiers = method.getModifiers();
+        if (!Modifier.isPublic(modifiers) || Modifier.isStatic(modifiers)
+                || method.isBridge() || method.isSynthetic()
+                || method.getDeclaringClass() == Object.class) {
+            return false;
+        }
+        for (Class<?> parameterType : method.getParameterTypes()) {
+            Class<?> type = parameterType;
+            while (type.isArray()) {
+                type = type.getComponentType();
+            }
+            if (!type.isPrimitive() && !Modifier.isPublic(type.getModifiers())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The generated class is loaded by a child of the service class loader so that loader has to see qbit.
+     */
+    private static boolean visible(final Class<?> serviceClass) {
+        final ClassLoader classLoader = serviceClass.getClassLoader();
+        if (classLoader == null) {
+            return false;
+        }
+        try {
+            return classLoader.loadClass(ServiceInvoker.class.getName()) == ServiceInvoker.class;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the invoker for the class and methods, generating it the first time.
+     *
+     * @param serviceClass service class, must pass {@link #canGenerate(Class)}
+     * @param methods      methods of the service class, the list index is the method index used by invoke
+     * @return invoker
+     */
+    static ServiceInvoker invoker(final Class<?> serviceClass, final List<Method> methods) {
+        return invokers.get(serviceClass).computeIfAbsent(new ArrayList<>(methods),
+                key -> generate(serviceClass, key));
+    }
+
+    /**
+     * Generates and loads the invoker.
+     *
+     * @param serviceClass service class, must pass {@link #canGenerate(Class)}
+     * @param methods      methods of the service class, the list index is the method index used by invoke
+     * @return new invoker
+     */
+    static ServiceInvoker generate(final Class<?> serviceClass, final List<Method> methods) {
+        final String className = GENERATED_PACKAGE + serviceClass.getSimpleName() + "Invoker$" + classCount.incrementAndGet();
+        final byte[] bytes = writeClass(className, serviceClass, methods);
+        final Class<?> invokerClass = new InvokerClassLoader(serviceClass.getClassLoader())
+                .define(className.replace('/', '.'), bytes);
+        try {
+            return (ServiceInvoker) invokerClass.newInstance();
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new IllegalStateException("Unable to create invoker for " + serviceClass.getName(), e);
+        }
+    }
+
+    static byte[] writeClass(final String className, final Class<?> serviceClass, final List<Method> methods) {
+        final ConstantPool pool = new ConstantPool();
+        final int thisClass = pool.classRef(className);
+        final int superClass = pool.classRef(SUPER_CLASS);
+        final int codeName = pool.utf8("Code");
+        final int constructorName = pool.utf8("<init>");
+        final int constructorDescriptor = pool.utf8("()V");
+        final int invokeName = pool.utf8("invoke");
+        final int invokeDescriptor = pool.utf8(INVOKE_DESCRIPTOR);
+
+        final byte[] constructorCode = writeConstructor(pool);
+        final Code invokeCode = writeInvoke(pool, className, serviceClass, methods);
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(49);
+            pool.write(out);
+            out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(0); // interfaces
+            out.writeShort(0); // fields
+            out.writeShort(2); // methods
+            writeMethod(out, constructorName, constructorDescriptor, codeName, 1, 1, constructorCode);
+            writeMethod(out, invokeName, invokeDescriptor, codeName,
+                    invokeCode.maxStack, 4, invokeCode.toByteArray());
+            out.writeShort(0); // attributes
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeMethod(final DataOutputStream out, final int name, final int descriptor, final int codeName,
+                                    final int maxStack, final int maxLocals, final byte[] code) throws IOException {
+        if (code.length > 0xFFFF) {
+            throw new IllegalStateException("Generated method is too large");
+        }
+        out.writeShort(ACC_PUBLIC);
+        out.writeShort(name);
+        out.writeShort(descriptor);
+        out.writeShort(1);
+        out.writeShort(codeName);
+        out.writeInt(12 + code.length);
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(code.length);
+        out.write(code);
+        out.writeShort(0); // exception table
+        out.writeShort(0); // attributes
+    }
+
+    private static byte[] writeConstructor(final ConstantPool pool) {
+        final Code code = new Code();
+        code.op(ALOAD_0);
+        code.op(INVOKESPECIAL);
+        code.u2(pool.methodRef(SUPER_CLASS, "<init>", "()V", false));
+        code.op(RETURN);
+        return code.toByteArray();
+    }
+
+    private static Code writeInvoke(final ConstantPool pool, final String className,
+                                    final Class<?> serviceClass, final List<Method> methods) {
+        final Code code = new Code();
+        final String serviceName = internalName(serviceClass);
+        final int serviceClassRef = pool.classRef(serviceName);
+        code.maxStack = 2;
+
+        if (methods.isEmpty()) {
+            writeDefault(code, pool, className);
+            return code;
+        }
+
+        code.op(ILOAD_1);
+        final int switchStart = code.size();
+        code.op(TABLESWITCH);
+        while (code.size() % 4 != 0) {
+            code.op(0);
+        }
+        final int defaultOffsetAt = code.size();
+        code.u4(0);
+        code.u4(0);
+        code.u4(methods.size() - 1);
+        final int caseOffsetsAt = code.size();
+        for (int index = 0; index < methods.size(); index++) {
+            code.u4(0);
+        }
+
+        for (int index = 0; index < methods.size(); index++) {
+            code.putU4(caseOffsetsAt + index * 4, code.size() - switchStart);
+
+            final Method method = methods.get(index);
+            int stack = 1;
+            code.op(ALOAD_2);
+            code.op(CHECKCAST);
+            code.u2(serviceClassRef);
+
+            final Class<?>[] parameterTypes = method.getParameterTypes();
+            for (int argIndex = 0; argIndex < parameterTypes.length; argIndex++) {
+                final Class<?> parameterType = parameterTypes[argIndex];
+                code.op(ALOAD_3);
+                pushInt(code, argIndex);
+                code.op(AALOAD);
+                code.maxStack = Math.max(code.maxStack, stack + 2);
+                if (parameterType.isPrimitive()) {
+                    final Class<?> wrapper = wrapperType(parameterType);
+                    code.op(CHECKCAST);
+                    code.u2(pool.classRef(internalName(wrapper)));
+                    code.op(INVOKEVIRTUAL);
+                    code.u2(pool.methodRef(internalName(wrapper), parameterType.getName() + "Value",
+                            "()" + descriptor(parameterType), false));
+                    stack += slots(parameterType);
+                } else {
+                    if (parameterType != Object.class) {
+                        code.op(CHECKCAST);
+                        code.u2(pool.classRef(internalName(parameterType)));
+                    }
+                    stack++;
+                }
+                code.maxStack = Math.max(code.maxStack, stack);
+            }
+
+            final boolean isInterface = serviceClass.isInterface();
+            code.op(isInterface ? INVOKEINTERFACE : INVOKEVIRTUAL);
+            code.u2(pool.methodRef(serviceName, method.getName(), methodDescriptor(method), isInterface));
+            if (isInterface) {
+                code.op(stack);
+                code.op(0);
+            }
+
+            final Class<?> returnType = method.getReturnType();
+            if (returnType == void.class) {
+                code.op(ACONST_NULL);
+            } else if (returnType.isPrimitive()) {
+                final Class<?> wrapper = wrapperType(returnType);
+                code.op(INVOKESTATIC);
+                code.u2(pool.methodRef(internalName(wrapper), "valueOf",
+                        "(" + descriptor(returnType) + ")" + descriptor(wrapper), false));
+            }
+            code.maxStack = Math.max(code.maxStack, 2);
+            code.op(ARETURN);
+        }
+
+        code.putU4(defaultOffsetAt, code.size() - switchStart);
+        writeDefault(code, pool, className);
+        return code;
+    }
+
+    private static void writeDefault(final Code code, final ConstantPool pool, final String className) {
+        code.op(ALOAD_0);
+        code.op(ILOAD_1);
+        code.op(INVOKEVIRTUAL);
+        code.u2(pool.methodRef(className, "unknownMethod", "(I)Ljava/lang/Object;", false));
+        code.op(ARETURN);
+    }
+
+    private static void pushInt(final Code code, final int value) {
+        if (value <= 5) {
+            code.op(ICONST_0 + value);
+        } else if (value <= Byte.MAX_VALUE) {
+            code.op(BIPUSH);
+            code.op(value);
+        } else {
+            code.op(SIPUSH);
+            code.u2(value);
+        }
+    }
+
+    private static int slots(final Class<?> type) {
+        return type == long.class || type == double.class ? 2 : 1;
+    }
+
+    private static Class<?> wrapperType(final Class<?> primitive) {
+        if (primitive == int.class) return Integer.class;
+        if (primitive == long.class) return Long.class;
+        if (primitive == boolean.class) return Boolean.class;
+        if (primitive == double.class) return Double.class;
+        if (primitive == float.class) return Float.class;
+        if (primitive == short.class) return Short.class;
+        if (primitive == byte.class) return Byte.class;
+        if (primitive == char.class) return Character.class;
+        throw new IllegalArgumentException("Not a primitive " + primitive);
+    }
+
+    /**
+     * Class names in the form checkcast and the constant pool want them, arrays use their descriptor.
+     */
+    private static String internalName(final Class<?> type) {
+        return type.getName().replace('.', '/');
+    }
+
+    private static String descriptor(final Class<?> type) {
+        if (type.isArray()) {
+            return internalName(type);
+        }
+        if (type.isPrimitive()) {
+            if (type == int.class) return "I";
+            if (type == long.class) return "J";
+            if (type == boolean.class) return "Z";
+            if (type == double.class) return "D";
+            if (type == float.class) return "F";
+            if (type == short.class) return "S";
+            if (type == byte.class) return "B";
+            if (type == char.class) return "C";
+            return "V";
+        }
+        return "L" + internalName(type) + ";";
+    }
+
+    private static String methodDescriptor(final Method method) {
+        final StringBuilder builder = new StringBuilder("(");
+        for (Class<?> parameterType : method.getParameterTypes()) {
+            builder.append(descriptor(parameterType));
+        }
+        return builder.append(')').append(descriptor(method.getReturnType())).toString();
+    }
+
+
+    private static final class Code {
+        private byte[] bytes = new byte[256];
+        private int size;
+        private int maxStack;
+
+        void op(final int value) {
+            ensure(1);
+            bytes[size++] = (byte) value;
+        }
+
+        void u2(final int value) {
+            op(value >>> 8);
+            op(value);
+        }
+
+        void u4(final int value) {
+            u2(value >>> 16);
+            u2(value);
+        }
+
+        void putU4(final int at, final int value) {
+            bytes[at] = (byte) (value >>> 24);
+            bytes[at + 1] = (byte) (value >>> 16);
+            bytes[at + 2] = (byte) (value >>> 8);
+            bytes[at + 3] = (byte) value;
+        }
+
+        int size() {
+            return size;
+        }
+
+        private void ensure(final int count) {
+            if (size + count > bytes.length) {
+                final byte[] newBytes = new byte[bytes.length * 2];
+                System.arraycopy(bytes, 0, newBytes, 0, size);
+                bytes = newBytes;
+            }
+        }
+
+        byte[] toByteArray() {
+            final byte[] result = new byte[size];
+            System.arraycopy(bytes, 0, result, 0, size);
+            return result;
+        }
+    }
+
+
+    private static final class ConstantPool {
+        private static final int UTF8 = 1;
+        private static final int CLASS = 7;
+        private static final int METHOD_REF = 10;
+        private static final int INTERFACE_METHOD_REF = 11;
+        private static final int NAME_AND_TYPE = 12;
+
+        private final Map<String, Integer> entries = new HashMap<>();
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private int count = 1;
+
+        int utf8(final String value) {
+            final Integer existing = entries.get("U" + value);
+            if (existing != null) {
+                return existing;
+            }
+            try {
+                out.writeByte(UTF8);
+                out.writeUTF(value);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            return add("U" + value);
+        }
+
+        int classRef(final String internalName) {
+            final Integer existing = entries.get("C" + internalName);
+            if (existing != null) {
+                return existing;
+            }
+            final int name = utf8(internalName);
+            writeEntry(CLASS, name);
+            return add("C" + internalName);
+        }
+
+        int methodRef(final String owner, final String name, final String descriptor, final boolean isInterface) {
+            final String key = (isInterface ? "I" : "M") + owner + "." + name + descriptor;
+            final Integer existing = entries.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            final int ownerIndex = classRef(owner);
+            final int nameAndType = nameAndType(name, descriptor);
+            writeEntry(isInterface ? INTERFACE_METHOD_REF : METHOD_REF, ownerIndex, nameAndType);
+            return add(key);
+        }
+
+        private int nameAndType(final String name, final String descriptor) {
+            final String key = "N" + name + descriptor;
+            final Integer existing = entries.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            final int nameIndex = utf8(name);
+            final int descriptorIndex = utf8(descriptor);
+            writeEntry(NAME_AND_TYPE, nameIndex, descriptorIndex);
+            return add(key);
+        }
+
+        private void writeEntry(final int tag, final int... indexes) {
+            try {
+                out.writeByte(tag);
+                for (int index : indexes) {
+                    out.writeShort(index);
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private int add(final String key) {
+            final int index = count++;
+            entries.put(key, index);
+            return index;
+        }
+
+        void write(final DataOutputStream classOut) throws IOException {
+            classOut.writeShort(count);
+            classOut.write(bytes.toByteArray());
+        }
+    }
+
+
+    private static final class InvokerClassLoader extends ClassLoader {
+
+        InvokerClassLoader(final ClassLoader parent) {
+            super(parent);
+        }
+
+        Class<?> define(final String name, final byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
@@ -30,8 +30,15 @@ import io.advantageous.boon.json.JsonParserAndMapper;
 import io.advantageous.boon.json.JsonParserFactory;
 import io.advantageous.boon.json.JsonSerializer;
 import io.advantageous.boon.json.JsonSerializerFactory;
+import io.advantageous.boon.primitive.CharBuf;
 import io.advantageous.qbit.json.JsonMapper;
 
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.function.Consumer;
 
@@ -57,6 +64,19 @@ public class BoonJsonMapper implements JsonMapper {
     };
 
 
+    /**
+     * Holds the decoder that turns UTF-8 JSON bytes into the char[] the parser reads.
+     */
+    private final ThreadLocal<CharsetDecoder> decoder = new ThreadLocal<CharsetDecoder>() {
+        @Override
+        protected CharsetDecoder initialValue() {
+            return StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
+    };
+
+
     /**
      * Holds the JsonSerializer to deserialize JSON into Java objects.
      */
@@ -69,6 +89,23 @@ public class BoonJsonMapper implements JsonMapper {
     };
 
 
+    /**
+     * Largest UTF-8 buffer kept per thread for toJsonBuffer, bigger responses get a buffer of their own.
+     */
+    private static final int MAX_POOLED_BUFFER = 4 * 1024 * 1024;
+
+
+    /**
+     * Holds the buffer that toJsonBuffer encodes UTF-8 into.
+     */
+    private final ThreadLocal<byte[]> utf8Buffer = new ThreadLocal<byte[]>() {
+        @Override
+        protected byte[] initialValue() {
+            return new byte[1024];
+        }
+    };
+
+
     /**
      * Holds the Mapper to convert Maps into Java objects.
      */
@@ -133,6 +170,46 @@ public class BoonJsonMapper implements JsonMapper {
     }
 
 
+    /**
+     * Convert UTF-8 JSON bytes into one Java Object.
+     *
+     * @param json UTF-8 json
+     * @return Java object
+     */
+    @Override
+    public Object fromJson(byte[] json) {
+        return parser.get().parse(chars(json));
+    }
+
+
+    /**
+     * Convert from UTF-8 JSON bytes using Class as a suggestion for how to do the parse.
+     *
+     * @param json UTF-8 json
+     * @param cls  cls
+     * @param <T>  Type
+     * @return Java object of Type T
+     */
+    @Override
+    public <T> T fromJson(byte[] json, Class<T> cls) {
+        return parser.get().parse(cls, chars(json));
+    }
+
+
+    /**
+     * Converts from UTF-8 JSON bytes using componentClass as a guide to a List.
+     *
+     * @param json           UTF-8 json
+     * @param componentClass componentClass
+     * @param <T>            Type
+     * @return List of Java objects of Type T.
+     */
+    @Override
+    public <T> List<T> fromJsonArray(byte[] json, Class<T> componentClass) {
+        return parser.get().parseList(componentClass, chars(json));
+    }
+
+
     /**
      * Converts from Object into JSON string.
      *
@@ -145,6 +222,69 @@ public class BoonJsonMapper implements JsonMapper {
     }
 
 
+    /**
+     * Converts from Object into UTF-8 JSON in a buffer owned by the calling thread.
+     * The serializer already reuses its CharBuf per thread, the chars are encoded from it
+     * without building a String.
+     *
+     * @param object object to convert to JSON.
+     * @return UTF-8 json, valid until the next call on this thread
+     */
+    @Override
+    public ByteBuffer toJsonBuffer(Object object) {
+        final CharBuf json = serializer.get().serialize(object);
+        final int length = json.len();
+        return utf8(json.readForRecycle(), length);
+    }
+
+    private ByteBuffer utf8(final char[] chars, final int length) {
+        byte[] bytes = utf8Buffer.get();
+        if (bytes.length < length) {
+            bytes = pool(new byte[Math.max(length, bytes.length * 2)]);
+        }
+
+        int position = 0;
+        for (int index = 0; index < length; index++) {
+            final char c = chars[index];
+            if (c < 0x80) {
+                bytes[position++] = (byte) c;
+                continue;
+            }
+
+            /* Keep room for the rest of the chars at one byte each plus this one at four. */
+            if (position + 4 + length - index > bytes.length) {
+                bytes = pool(Arrays.copyOf(bytes, Math.max(position + 4 + length - index, bytes.length * 2)));
+            }
+
+            if (c < 0x800) {
+                bytes[position++] = (byte) (0xC0 | (c >> 6));
+                bytes[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && index + 1 < length && Character.isLowSurrogate(chars[index + 1])) {
+                final int codePoint = Character.toCodePoint(c, chars[++index]);
+                bytes[position++] = (byte) (0xF0 | (codePoint >> 18));
+                bytes[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                bytes[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                bytes[position++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                /* Unpaired surrogate, same as String.getBytes. */
+                bytes[position++] = '?';
+            } else {
+                bytes[position++] = (byte) (0xE0 | (c >> 12));
+                bytes[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                bytes[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return ByteBuffer.wrap(bytes, 0, position);
+    }
+
+    private byte[] pool(final byte[] bytes) {
+        if (bytes.length <= MAX_POOLED_BUFFER) {
+            utf8Buffer.set(bytes);
+        }
+        return bytes;
+    }
+
+
     /**
      * Converts from a json string using componentClassKey and componentClassValue as a guide to a Map.
      *
@@ -157,11 +297,78 @@ public class BoonJsonMapper implements JsonMapper {
      */
     @Override
     public <K, V> Map<K, V> fromJsonMap(String json, Class<K> componentClassKey, Class<V> componentClassValue) {
-        Map map = (Map) parser.get().parse(json);
+        final Map<Object, Object> map = jsonObject(parser.get().parse(json));
         final Mapper mapper = this.mapper.get();
         return extractMap(componentClassKey, componentClassValue, map, mapper);
     }
 
+
+    /**
+     * Converts from UTF-8 JSON bytes using componentClassKey and componentClassValue as a guide to a Map.
+     *
+     * @param json                UTF-8 json
+     * @param componentClassKey   componentClassKey type of Key
+     * @param componentClassValue componentClassValue type of value
+     * @param <K>                 K type of map key
+     * @param <V>                 V type of map value
+     * @return Map
+     */
+    @Override
+    public <K, V> Map<K, V> fromJsonMap(byte[] json, Class<K> componentClassKey, Class<V> componentClassValue) {
+        final Map<Object, Object> map = jsonObject(parser.get().parse(chars(json)));
+        final Mapper mapper = this.mapper.get();
+        return extractMap(componentClassKey, componentClassValue, map, mapper);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Object, Object> jsonObject(final Object parsed) {
+        return (Map<Object, Object>) parsed;
+    }
+
+    /**
+     * Decodes UTF-8 into a char[] of exactly the decoded length, which the parser reads in place.
+     * new String(bytes) would size a char[] by the byte count and then copy it down to the String.
+     *
+     * @param json UTF-8 json
+     * @return chars
+     */
+    private char[] chars(final byte[] json) {
+        int length = 0;
+        boolean ascii = true;
+        for (byte b : json) {
+            if (b >= 0) {
+                length++;
+            } else {
+                ascii = false;
+                if ((b & 0xC0) != 0x80) {
+                    /* Lead byte, four byte sequences decode to a surrogate pair. */
+                    length += (b & 0xF8) == 0xF0 ? 2 : 1;
+                }
+            }
+        }
+
+        final char[] chars = new char[length];
+        if (ascii) {
+            for (int index = 0; index < json.length; index++) {
+                chars[index] = (char) json[index];
+            }
+            return chars;
+        }
+
+        final CharsetDecoder decoder = this.decoder.get().reset();
+        final CharBuffer out = CharBuffer.wrap(chars);
+        final ByteBuffer in = ByteBuffer.wrap(json);
+        CoderResult result = decoder.decode(in, out, true);
+        if (!result.isOverflow()) {
+            result = decoder.flush(out);
+        }
+        if (result.isOverflow() || out.position() != chars.length) {
+            /* Malformed input decodes to a different length than the lead bytes predict. */
+            return new String(json, StandardCharsets.UTF_8).toCharArray();
+        }
+        return chars;
+    }
+
     private <K, V> Map<K, V> extractMap(Class<K> componentClassKey, Class<V> componentClassValue, Map<Object, Object> map, Mapper mapper) {
         final Map<K, V> results = new TreeMap<>();
 
@@ -21,6 +21,8 @@ package io.advantageous.qbit.events;
 import io.advantageous.qbit.events.spi.EventTransferObject;
 import io.advantageous.qbit.service.ServiceFlushable;
 
+import java.util.List;
+
 /**
  * An event bus. You can register for events, send events, and unregister for events.
  * created by rhightower on 2/3/15.
@@ -44,6 +46,20 @@ public interface EventBus extends ServiceFlushable {
      */
     <T> void send(String channel, T event);
 
+    /**
+     * Send the events to the channel as one batch, listeners get them with one
+     * {@link EventListener#listenBatch(List)} call.
+     *
+     * @param channel channel
+     * @param events  events in send order
+     * @param <T>     event type
+     */
+    default <T> void sendBatch(String channel, List<T> events) {
+        for (T event : events) {
+            send(channel, event);
+        }
+    }
+
 
     /**
      * This method can only be called outside of a service.
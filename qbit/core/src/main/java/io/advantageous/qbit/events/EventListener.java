@@ -20,6 +20,8 @@ package io.advantageous.qbit.events;
 
 import io.advantageous.qbit.message.Event;
 
+import java.util.List;
+
 /**
  * EventListener listens to events.
  *
@@ -35,4 +37,16 @@ public interface EventListener<T> {
 
     void listen(Event<T> event);
 
+    /**
+     * All the events sent to the channel in one flush, in send order.
+     * The list belongs to the caller and is only valid during the call.
+     *
+     * @param events events
+     */
+    default void listenBatch(List<Event<T>> events) {
+        for (int index = 0; index < events.size(); index++) {
+            listen(events.get(index));
+        }
+    }
+
 }
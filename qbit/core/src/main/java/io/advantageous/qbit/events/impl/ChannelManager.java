@@ -99,6 +99,13 @@ public class ChannelManager<T> {
         }
     }
 
+    /**
+     * @return true if the channel has no listeners and no consumer
+     */
+    public boolean isEmpty() {
+        return listeners.isEmpty() && consumer instanceof NoOpEventConsumer;
+    }
+
     public void send(final Event<T> event) {
 
         if (debug) logger.debug("ChannelManager::send() {}", event);
@@ -122,5 +129,33 @@ public class ChannelManager<T> {
         consumer.listen(event);
     }
 
+    /**
+     * Send the events to every listener with one call per listener.
+     *
+     * @param events events
+     */
+    public void sendBatch(final List<Event<T>> events) {
+
+        if (debug) logger.debug("ChannelManager::sendBatch() {} events", events.size());
+
+
+        sentCount += events.size();
+        if (sentCount > 20) {
+            stats.recordCount(sentCountStatKey, sentCount);
+            sentCount = 0;
+        }
+
+
+        for (EventListener<T> listener : listeners) {
+            try {
+                listener.listenBatch(events);
+            } catch (Exception ex) {
+                logger.error("Unable to send events for Channel" + name, ex);
+            }
+        }
+
+        consumer.listenBatch(events);
+    }
+
 
 }
@@ -22,22 +22,34 @@ import io.advantageous.qbit.events.EventBus;
 import io.advantageous.qbit.events.EventListener;
 import io.advantageous.qbit.events.spi.EventConnector;
 import io.advantageous.qbit.events.spi.EventTransferObject;
+import io.advantageous.qbit.message.Event;
 import io.advantageous.qbit.service.ServiceProxyUtils;
 import io.advantageous.qbit.service.stats.StatsCollector;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
+ * Channels are looked up by exact name. Channels registered with a wildcard name (see {@link TopicTrie}) are kept
+ * in a topic trie, the wildcard channels that match a sent channel name are cached per name until a wildcard
+ * channel is added or removed. At most {@link #MAX_PATTERN_MATCHES} names are cached, past that the cache is
+ * cleared and filled again. With no wildcard channels a send is one map lookup.
+ * A batch send looks the channels up once for the whole batch.
+ *
  * @author rhightower
  *         on 2/3/15.
  */
 public class EventBusImpl implements EventBus {
 
+    static final int MAX_PATTERN_MATCHES = 10_000;
 
     final Map<String, ChannelManager<Object>> channelMap = new ConcurrentHashMap<>(20);
+    final TopicTrie<ChannelManager<Object>> patternChannels = new TopicTrie<>();
+    final Map<String, List<ChannelManager<Object>>> patternMatches = new ConcurrentHashMap<>(20);
     private final Logger logger = LoggerFactory.getLogger(EventBusImpl.class);
     private final EventConnector eventConnector;
     private final StatsCollector stats;
@@ -54,8 +66,68 @@ public class EventBusImpl implements EventBus {
 
     @Override
     public <T> void register(String channelName, EventListener<T> listener) {
-        //noinspection unchecked
-        channel(channelName).add((EventListener<Object>) listener);
+        if (TopicTrie.isPattern(channelName)) {
+            patternChannel(channelName).add(objectListener(listener));
+            return;
+        }
+        channel(channelName).add(objectListener(listener));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> EventListener<Object> objectListener(final EventListener<T> listener) {
+        return (EventListener<Object>) listener;
+    }
+
+    private ChannelManager<Object> patternChannel(String pattern) {
+        ChannelManager<Object> channelManager = patternChannels.get(pattern);
+
+        if (channelManager == null) {
+
+            channelManager = new ChannelManager<>(name, pattern, stats);
+            patternChannels.put(pattern, channelManager);
+            patternMatches.clear();
+        }
+        return channelManager;
+    }
+
+    private void deliver(final String channel, final EventTransferObject<Object> event) {
+
+        channel(channel).send(event);
+
+        if (patternChannels.isEmpty()) {
+            return;
+        }
+
+        final List<ChannelManager<Object>> matches = patternMatches(channel);
+        for (int index = 0; index < matches.size(); index++) {
+            matches.get(index).send(event);
+        }
+    }
+
+    private List<ChannelManager<Object>> patternMatches(final String channel) {
+        List<ChannelManager<Object>> matches = patternMatches.get(channel);
+        if (matches == null) {
+            matches = patternChannels.match(channel);
+            if (patternMatches.size() >= MAX_PATTERN_MATCHES) {
+                patternMatches.clear();
+            }
+            patternMatches.put(channel, matches);
+        }
+        return matches;
+    }
+
+    private void deliverBatch(final String channel, final List<Event<Object>> events) {
+
+        channel(channel).sendBatch(events);
+
+        if (patternChannels.isEmpty()) {
+            return;
+        }
+
+        final List<ChannelManager<Object>> matches = patternMatches(channel);
+        for (int index = 0; index < matches.size(); index++) {
+            matches.get(index).sendBatch(events);
+        }
     }
 
     private ChannelManager<Object> channel(String channelName) {
@@ -63,8 +135,7 @@ public class EventBusImpl implements EventBus {
 
         if (channelManager == null) {
 
-            //noinspection unchecked
-            channelManager = new ChannelManager(name, channelName, stats);
+            channelManager = new ChannelManager<>(name, channelName, stats);
             channelMap.put(channelName, channelManager);
         }
         return channelManager;
@@ -82,14 +153,46 @@ public class EventBusImpl implements EventBus {
             logger.error("EventBus " + name + " :: Error sending event " + eventMessage, ex);
         }
 
-        channel(channel).send(eventMessage);
+        deliver(channel, eventMessage);
 
     }
 
+    @Override
+    public <T> void sendBatch(final String channel, final List<T> events) {
+
+        if (events.isEmpty()) {
+            return;
+        }
+
+        final List<Event<Object>> eventMessages = new ArrayList<>(events.size());
+        for (T event : events) {
+            messageCounter++;
+            final EventTransferObject<Object> eventMessage = new EventTransferObject<>(event, messageCounter, channel);
+            try {
+                eventConnector.forwardEvent(eventMessage);
+            } catch (Exception ex) {
+                logger.error("EventBus " + name + " :: Error sending event " + eventMessage, ex);
+            }
+            eventMessages.add(eventMessage);
+        }
+
+        deliverBatch(channel, eventMessages);
+    }
+
     @Override
     public <T> void unregister(String channelName, EventListener<T> listener) {
-        //noinspection unchecked
-        channel(channelName).remove((EventListener<Object>) listener);
+        if (TopicTrie.isPattern(channelName)) {
+            final ChannelManager<Object> channelManager = patternChannels.get(channelName);
+            if (channelManager != null) {
+                channelManager.remove(objectListener(listener));
+                if (channelManager.isEmpty()) {
+                    patternChannels.remove(channelName);
+                    patternMatches.clear();
+                }
+            }
+            return;
+        }
+        channel(channelName).remove(objectListener(listener));
     }
 
     @Override
@@ -98,7 +201,7 @@ public class EventBusImpl implements EventBus {
         if (!event.wasReplicated()) {
             eventConnector.forwardEvent(event);
         }
-        channel(event.channel()).send(event);
+        deliver(event.channel(), event);
     }
 
     @Override
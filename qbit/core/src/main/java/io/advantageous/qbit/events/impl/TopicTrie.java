@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2015. Rick Hightower, Geoff Chandler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * QBit - The Microservice lib for Java : JSON, WebSocket, REST. Be The Web!
+ */
+
+package io.advantageous.qbit.events.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Holds wildcard channel subscriptions and finds the ones that match a channel name.
+ * <p>
+ * Channel names are dot separated segments, <code>orders.eu.created</code>. In a pattern a <code>*</code>
+ * segment matches exactly one segment and a <code>#</code> segment matches zero or more segments, so
+ * <code>orders.*.created</code> and <code>orders.#</code> both match <code>orders.eu.created</code>.
+ * Not thread safe.
+ *
+ * @param <V> value kept per pattern
+ * @author rhightower
+ */
+public class TopicTrie<V> {
+
+    public static final String SEPARATOR = ".";
+    public static final String ONE = "*";
+    public static final String ANY = "#";
+
+    private final Node<V> root = new Node<>();
+    private int size;
+
+    /**
+     * @param channelName channel name
+     * @return true if a segment of the channel name is a wildcard
+     */
+    public static boolean isPattern(final String channelName) {
+        if (channelName == null || (channelName.indexOf('*') == -1 && channelName.indexOf('#') == -1)) {
+            return false;
+        }
+        for (String segment : segments(channelName)) {
+            if (ONE.equals(segment) || ANY.equals(segment)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String[] segments(final String channelName) {
+        return channelName.split("\\.", -1);
+    }
+
+    public V get(final String pattern) {
+        Node<V> node = root;
+        for (String segment : segments(pattern)) {
+            node = node.children.get(segment);
+            if (node == null) {
+                return null;
+            }
+        }
+        return node.value;
+    }
+
+    public void put(final String pattern, final V value) {
+        Node<V> node = root;
+        for (String segment : segments(pattern)) {
+            node = node.children.computeIfAbsent(segment, key -> new Node<>());
+        }
+        if (node.value == null) {
+            size++;
+        }
+        node.value = value;
+    }
+
+    public V remove(final String pattern) {
+        final String[] segments = segments(pattern);
+        final List<Node<V>> path = new ArrayList<>(segments.length + 1);
+        Node<V> node = root;
+        path.add(node);
+        for (String segment : segments) {
+            node = node.children.get(segment);
+            if (node == null) {
+                return null;
+            }
+            path.add(node);
+        }
+        final V value = node.value;
+        if (value == null) {
+            return null;
+        }
+        node.value = null;
+        size--;
+
+        /* Prune the nodes that no longer lead anywhere. */
+        for (int index = segments.length; index > 0; index--) {
+            final Node<V> current = path.get(index);
+            if (current.value != null || !current.children.isEmpty()) {
+                break;
+            }
+            path.get(index - 1).children.remove(segments[index - 1]);
+        }
+        return value;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Find the values of every pattern that matches the channel name, each value is in the list once.
+     *
+     * @param channelName channel name with no wildcards
+     * @return matching values
+     */
+    public List<V> match(final String channelName) {
+        final List<V> matches = new ArrayList<>(2);
+        if (size > 0) {
+            match(root, segments(channelName), 0, matches);
+        }
+        return matches;
+    }
+
+    private void match(final Node<V> node, final String[] segments, final int index, final List<V> matches) {
+
+        final Node<V> any = node.children.get(ANY);
+        if (any != null) {
+            for (int next = index; next <= segments.length; next++) {
+                match(any, segments, next, matches);
+            }
+        }
+
+        if (index == segments.length) {
+            if (node.value != null && !contains(matches, node.value)) {
+                matches.add(node.value);
+            }
+            return;
+        }
+
+        final Node<V> exact = node.children.get(segments[index]);
+        if (exact != null) {
+            match(exact, segments, index + 1, matches);
+        }
+
+        final Node<V> one = node.children.get(ONE);
+        if (one != null && one != exact) {
+            match(one, segments, index + 1, matches);
+        }
+    }
+
+    private static <V> boolean contains(final List<V> matches, final V value) {
+        for (V match : matches) {
+            if (match == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Node<V> {
+        private final Map<String, Node<V>> children = new HashMap<>(4);
+        private V value;
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright (c) 2015. Rick Hightower, Geoff Chandler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * QBit - The Microservice lib for Java : JSON, WebSocket, REST. Be The Web!
+ */
+
+package io.advantageous.qbit.events.journal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * The journal of one channel, an append only log of event bodies in memory mapped segment files.
+ * <p>
+ * Each event gets the next offset of the channel. A segment file is named after the offset of its first event and
+ * keeps an in memory index of where each of its events starts, so a read from an offset is a map lookup and an
+ * array lookup. Opening the log scans the segments to rebuild the index, the scan stops at the first zeroed or
+ * torn record of a segment. The offsets after a torn record in an older segment are lost, a read skips them and
+ * goes on with the next segment.
+ * <p>
+ * Record layout is body length (int), CRC32 of the time and body (int), time (long), body bytes.
+ * Not thread safe, it is owned by the event manager thread.
+ *
+ * @author rhightower
+ */
+final class ChannelLog {
+
+    private static final int HEADER_SIZE = 16;
+    private static final String SUFFIX = ".log";
+
+    private final Logger logger = LoggerFactory.getLogger(ChannelLog.class);
+    private final File directory;
+    private final int segmentSize;
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    private final CRC32 crc = new CRC32();
+    private final ByteBuffer crcTime = ByteBuffer.allocate(8);
+    private Segment head;
+    private boolean dirty;
+
+    ChannelLog(final File directory, final int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IllegalStateException("Unable to create directory " + directory);
+        }
+        load();
+    }
+
+    private void load() {
+        final File[] files = directory.listFiles((dir, name) -> name.endsWith(SUFFIX));
+        if (files != null) {
+            for (File file : files) {
+                final String name = file.getName();
+                final long baseOffset = Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+                final Segment segment = openSegment(baseOffset);
+                scan(segment);
+                segments.put(baseOffset, segment);
+            }
+        }
+        head = segments.isEmpty() ? newSegment(0) : segments.lastEntry().getValue();
+        for (Segment segment : segments.values()) {
+            final Long nextBaseOffset = segments.higherKey(segment.baseOffset);
+            if (nextBaseOffset != null && segment.baseOffset + segment.count < nextBaseOffset) {
+                logger.warn("Journal segment {} is torn, offsets {} to {} are lost", segment.file,
+                        segment.baseOffset + segment.count, nextBaseOffset - 1);
+            }
+        }
+    }
+
+    private void scan(final Segment segment) {
+        final MappedByteBuffer buffer = segment.buffer;
+        int position = 0;
+        while (position + HEADER_SIZE <= segmentSize) {
+            final int length = buffer.getInt(position);
+            if (length <= 0 || position + HEADER_SIZE + length > segmentSize
+                    || buffer.getInt(position + 4) != checksum(buffer, position, length, buffer.getLong(position + 8))) {
+                break;
+            }
+            segment.add(position, buffer.getLong(position + 8));
+            position += HEADER_SIZE + length;
+        }
+        segment.position = position;
+    }
+
+    /**
+     * @param body event body
+     * @param time time the event was journaled
+     * @return offset of the event, or -1 if it does not fit in a segment
+     */
+    long append(final byte[] body, final long time) {
+        final int length = HEADER_SIZE + body.length;
+        if (length > segmentSize) {
+            return -1;
+        }
+        if (head.position + length > segmentSize) {
+            force();
+            head = newSegment(nextOffset());
+        }
+        final MappedByteBuffer buffer = head.buffer;
+        final int position = head.position;
+        buffer.position(position + HEADER_SIZE);
+        buffer.put(body);
+        buffer.putLong(position + 8, time);
+        buffer.putInt(position + 4, checksum(buffer, position, body.length, time));
+        buffer.putInt(position, body.length);
+        head.add(position, time);
+        head.position += length;
+        dirty = true;
+        return head.baseOffset + head.count - 1;
+    }
+
+    /**
+     * Read events in offset order starting at an offset.
+     *
+     * @param from   first offset to read, offsets that were removed by retention start at the earliest offset
+     * @param max    most events to read
+     * @param reader gets the offset and body of each event
+     * @return offset after the last event read
+     */
+    long read(final long from, final int max, final Reader reader) {
+        long offset = Math.max(from, earliestOffset());
+        final long end = nextOffset();
+        int read = 0;
+        while (offset < end && read < max) {
+            final Map.Entry<Long, Segment> entry = segments.floorEntry(offset);
+            final Segment segment = entry.getValue();
+            final long index = offset - segment.baseOffset;
+            if (index >= segment.count) {
+                /* Past a torn record, the rest of the segment is lost. */
+                offset = segments.higherKey(offset);
+                continue;
+            }
+            final int position = segment.positions[(int) index];
+            final byte[] body = new byte[segment.buffer.getInt(position)];
+            final ByteBuffer data = segment.buffer.duplicate();
+            data.position(position + HEADER_SIZE);
+            data.get(body);
+            reader.read(offset, body);
+            offset++;
+            read++;
+        }
+        return offset;
+    }
+
+    /**
+     * Drop the oldest segments while the log is over its size or the segment's newest event is too old.
+     * The segment being written to is always kept.
+     *
+     * @param maxBytes     most disk the log may use
+     * @param oldestToKeep segments with no event at or after this time are dropped
+     * @return number of segments dropped
+     */
+    int retain(final long maxBytes, final long oldestToKeep) {
+        int dropped = 0;
+        while (segments.size() > 1) {
+            final Segment oldest = segments.firstEntry().getValue();
+            if ((long) segments.size() * segmentSize <= maxBytes && oldest.lastTime >= oldestToKeep) {
+                break;
+            }
+            segments.pollFirstEntry();
+            if (!oldest.file.delete()) {
+                logger.warn("Unable to delete journal segment {}", oldest.file);
+            }
+            dropped++;
+        }
+        return dropped;
+    }
+
+    long earliestOffset() {
+        return segments.firstKey();
+    }
+
+    long nextOffset() {
+        return head.baseOffset + head.count;
+    }
+
+    int segmentCount() {
+        return segments.size();
+    }
+
+    void force() {
+        if (dirty) {
+            head.buffer.force();
+            dirty = false;
+        }
+    }
+
+    private int checksum(final MappedByteBuffer buffer, final int position, final int length, final long time) {
+        crc.reset();
+        crcTime.clear();
+        crcTime.putLong(time).flip();
+        crc.update(crcTime);
+        final ByteBuffer data = buffer.duplicate();
+        data.limit(position + HEADER_SIZE + length).position(position + HEADER_SIZE);
+        crc.update(data);
+        return (int) crc.getValue();
+    }
+
+    private Segment newSegment(final long baseOffset) {
+        final Segment segment = openSegment(baseOffset);
+        segments.put(baseOffset, segment);
+        return segment;
+    }
+
+    private Segment openSegment(final long baseOffset) {
+        final File file = new File(directory, String.format("%020d%s", baseOffset, SUFFIX));
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            if (randomAccessFile.length() == 0) {
+                randomAccessFile.setLength(segmentSize);
+            } else if (randomAccessFile.length() != segmentSize) {
+                throw new IllegalStateException(String.format("Segment %s is %d bytes, the segment size is %d",
+                        file, randomAccessFile.length(), segmentSize));
+            }
+            final MappedByteBuffer buffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            return new Segment(baseOffset, file, buffer);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to map segment " + file, e);
+        }
+    }
+
+    interface Reader {
+        void read(long offset, byte[] body);
+    }
+
+    private static final class Segment {
+        final long baseOffset;
+        final File file;
+        final MappedByteBuffer buffer;
+        int[] positions = new int[64];
+        int count;
+        int position;
+        long lastTime = Long.MIN_VALUE;
+
+        Segment(final long baseOffset, final File file, final MappedByteBuffer buffer) {
+            this.baseOffset = baseOffset;
+            this.file = file;
+            this.buffer = buffer;
+        }
+
+        void add(final int position, final long time) {
+            if (count == positions.length) {
+                positions = Arrays.copyOf(positions, count * 2);
+            }
+            positions[count++] = position;
+            lastTime = time;
+        }
+    }
+}
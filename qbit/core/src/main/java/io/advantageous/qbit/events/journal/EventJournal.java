@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2015. Rick Hightower, Geoff Chandler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * QBit - The Microservice lib for Java : JSON, WebSocket, REST. Be The Web!
+ */
+
+package io.advantageous.qbit.events.journal;
+
+import io.advantageous.qbit.events.spi.EventTransferObject;
+import io.advantageous.qbit.json.JsonMapper;
+import io.advantageous.qbit.message.Event;
+
+import java.io.File;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Durable journal of the events sent to a set of channels.
+ * <p>
+ * Every journaled channel gets its own directory of memory mapped segments (see {@link ChannelLog}) and its own
+ * offsets, starting at 0. Event bodies are stored as JSON, so events read back have the JSON form of the body
+ * (maps, lists, strings and numbers) and the offset as their id.
+ * Not thread safe, it is owned by the event manager thread.
+ *
+ * @author rhightower
+ */
+public class EventJournal {
+
+    private final File directory;
+    private final int segmentSize;
+    private final long retentionBytes;
+    private final long retentionTime;
+    private final Predicate<String> channels;
+    private final JsonMapper jsonMapper;
+    private final Map<String, ChannelLog> logs = new HashMap<>();
+
+    /**
+     * @param directory      directory that holds a directory per channel
+     * @param segmentSize    size of each segment file in bytes, an event bigger than this is not journaled
+     * @param retentionBytes most disk a channel may use before its oldest segments are dropped
+     * @param retentionTime  how long in ms events are kept before their segment is dropped
+     * @param channels       which channels are journaled
+     * @param jsonMapper     stores and reads back the event bodies
+     */
+    public EventJournal(final File directory,
+                        final int segmentSize,
+                        final long retentionBytes,
+                        final long retentionTime,
+                        final Predicate<String> channels,
+                        final JsonMapper jsonMapper) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.retentionBytes = retentionBytes;
+        this.retentionTime = retentionTime;
+        this.channels = channels;
+        this.jsonMapper = jsonMapper;
+    }
+
+    /**
+     * @param channel channel
+     * @return true if events sent to the channel are journaled
+     */
+    public boolean journaled(final String channel) {
+        return channels.test(channel);
+    }
+
+    /**
+     * Journal an event body.
+     *
+     * @param channel channel
+     * @param body    event body
+     * @param time    time the event was sent
+     * @return offset of the event, or -1 if the channel is not journaled or the event does not fit in a segment
+     */
+    public long append(final String channel, final Object body, final long time) {
+        if (!journaled(channel)) {
+            return -1;
+        }
+        return log(channel).append(jsonMapper.toJson(body).getBytes(StandardCharsets.UTF_8), time);
+    }
+
+    /**
+     * Read events of a channel in offset order.
+     *
+     * @param channel channel
+     * @param from    first offset to read, an offset that retention removed starts at the earliest offset
+     * @param max     most events to read
+     * @return events with the offset as the id
+     */
+    public List<Event<Object>> read(final String channel, final long from, final int max) {
+        final List<Event<Object>> events = new ArrayList<>(Math.min(max, 1000));
+        log(channel).read(from, max, (offset, body) -> events.add(
+                new EventTransferObject<>(jsonMapper.fromJson(new String(body, StandardCharsets.UTF_8)), offset, channel)));
+        return events;
+    }
+
+    /**
+     * @param channel channel
+     * @return oldest offset still in the journal
+     */
+    public long earliestOffset(final String channel) {
+        return log(channel).earliestOffset();
+    }
+
+    /**
+     * @param channel channel
+     * @return offset the next event sent to the channel gets
+     */
+    public long nextOffset(final String channel) {
+        return log(channel).nextOffset();
+    }
+
+    /**
+     * Drop segments that are past the size or time retention.
+     *
+     * @param now current time
+     * @return number of segments dropped
+     */
+    public int retain(final long now) {
+        int dropped = 0;
+        for (ChannelLog log : logs.values()) {
+            dropped += log.retain(retentionBytes, now - retentionTime);
+        }
+        return dropped;
+    }
+
+    /**
+     * @param channel channel
+     * @return number of segment files of the channel
+     */
+    public int segmentCount(final String channel) {
+        return log(channel).segmentCount();
+    }
+
+    /**
+     * Force the written events to disk.
+     */
+    public void force() {
+        logs.values().forEach(ChannelLog::force);
+    }
+
+    public void close() {
+        force();
+    }
+
+    private ChannelLog log(final String channel) {
+        ChannelLog log = logs.get(channel);
+        if (log == null) {
+            log = new ChannelLog(new File(directory, directoryName(channel)), segmentSize);
+            logs.put(channel, log);
+        }
+        return log;
+    }
+
+    private static String directoryName(final String channel) {
+        try {
+            return URLEncoder.encode(channel, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
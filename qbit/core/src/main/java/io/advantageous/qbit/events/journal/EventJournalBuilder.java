@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2015. Rick Hightower, Geoff Chandler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * QBit - The Microservice lib for Java : JSON, WebSocket, REST. Be The Web!
+ */
+
+package io.advantageous.qbit.events.journal;
+
+import io.advantageous.qbit.QBit;
+import io.advantageous.qbit.json.JsonMapper;
+import io.advantageous.qbit.time.Duration;
+import io.advantageous.qbit.util.Timer;
+
+import java.io.File;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Builds an {@link EventJournalConnector}.
+ * <p>
+ * With no channels added and no channel filter set every channel is journaled.
+ *
+ * @author rhightower
+ */
+public class EventJournalBuilder {
+
+    private File directory;
+    private int segmentSize = 16 * 1024 * 1024;
+    private long retentionBytes = 1024L * 1024 * 1024;
+    private Duration retentionTime = Duration.ONE_WEEK;
+    private Duration retentionCheckInterval = Duration.ONE_MINUTE;
+    private final Set<String> channels = new LinkedHashSet<>();
+    private Predicate<String> channelFilter;
+    private int batchSize = 1_000;
+    private boolean forceOnFlush;
+    private JsonMapper jsonMapper;
+    private Timer timer;
+
+    public static EventJournalBuilder eventJournalBuilder() {
+        return new EventJournalBuilder();
+    }
+
+    public File getDirectory() {
+        if (directory == null) {
+            throw new IllegalStateException("The event journal needs a directory");
+        }
+        return directory;
+    }
+
+    public EventJournalBuilder setDirectory(final File directory) {
+        this.directory = directory;
+        return this;
+    }
+
+    public int getSegmentSize() {
+        return segmentSize;
+    }
+
+    public EventJournalBuilder setSegmentSize(final int segmentSize) {
+        this.segmentSize = segmentSize;
+        return this;
+    }
+
+    public long getRetentionBytes() {
+        return retentionBytes;
+    }
+
+    /**
+     * @param retentionBytes most disk each channel may use, the oldest segments are dropped past this
+     * @return this
+     */
+    public EventJournalBuilder setRetentionBytes(final long retentionBytes) {
+        this.retentionBytes = retentionBytes;
+        return this;
+    }
+
+    public Duration getRetentionTime() {
+        return retentionTime;
+    }
+
+    /**
+     * @param retentionTime how long events are kept, a segment is dropped once its newest event is older
+     * @return this
+     */
+    public EventJournalBuilder setRetentionTime(final Duration retentionTime) {
+        this.retentionTime = retentionTime;
+        return this;
+    }
+
+    public Duration getRetentionCheckInterval() {
+        return retentionCheckInterval;
+    }
+
+    public EventJournalBuilder setRetentionCheckInterval(final Duration retentionCheckInterval) {
+        this.retentionCheckInterval = retentionCheckInterval;
+        return this;
+    }
+
+    public EventJournalBuilder addChannel(final String channel) {
+        this.channels.add(channel);
+        return this;
+    }
+
+    public Predicate<String> getChannelFilter() {
+        if (channelFilter == null) {
+            if (channels.isEmpty()) {
+                channelFilter = channel -> true;
+            } else {
+                final Set<String> journaled = new LinkedHashSet<>(channels);
+                channelFilter = journaled::contains;
+            }
+        }
+        return channelFilter;
+    }
+
+    public EventJournalBuilder setChannelFilter(final Predicate<String> channelFilter) {
+        this.channelFilter = channelFilter;
+        return this;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * @param batchSize most events a subscription that is catching up reads from the journal per flush
+     * @return this
+     */
+    public EventJournalBuilder setBatchSize(final int batchSize) {
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    public boolean isForceOnFlush() {
+        return forceOnFlush;
+    }
+
+    /**
+     * @param forceOnFlush force the journal to disk every time the event manager flushes
+     * @return this
+     */
+    public EventJournalBuilder setForceOnFlush(final boolean forceOnFlush) {
+        this.forceOnFlush = forceOnFlush;
+        return this;
+    }
+
+    public JsonMapper getJsonMapper() {
+        if (jsonMapper == null) {
+            jsonMapper = QBit.factory().createJsonMapper();
+        }
+        return jsonMapper;
+    }
+
+    public EventJournalBuilder setJsonMapper(final JsonMapper jsonMapper) {
+        this.jsonMapper = jsonMapper;
+        return this;
+    }
+
+    public Timer getTimer() {
+        if (timer == null) {
+            timer = Timer.timer();
+        }
+        return timer;
+    }
+
+    public EventJournalBuilder setTimer(final Timer timer) {
+        this.timer = timer;
+        return this;
+    }
+
+    public EventJournal buildJournal() {
+        return new EventJournal(getDirectory(), getSegmentSize(), getRetentionBytes(), getRetentionTime().toMillis(),
+                getChannelFilter(), getJsonMapper());
+    }
+
+    public EventJournalConnector build() {
+        return new EventJournalConnector(buildJournal(), getTimer(), getBatchSize(), isForceOnFlush(),
+                getRetentionCheckInterval().toMillis());
+    }
+}
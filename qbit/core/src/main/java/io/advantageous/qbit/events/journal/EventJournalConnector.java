@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2015. Rick Hightower, Geoff Chandler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * QBit - The Microservice lib for Java : JSON, WebSocket, REST. Be The Web!
+ */
+
+package io.advantageous.qbit.events.journal;
+
+import io.advantageous.qbit.events.EventListener;
+import io.advantageous.qbit.events.spi.EventConnector;
+import io.advantageous.qbit.events.spi.EventTransferObject;
+import io.advantageous.qbit.message.Event;
+import io.advantageous.qbit.util.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Event connector that writes the events of the journaled channels to an {@link EventJournal} and replays them to
+ * {@link JournalSubscription}s.
+ * <p>
+ * Add it to the event manager's connector (or to an {@link io.advantageous.qbit.events.impl.EventConnectorHub}) and
+ * every event sent to a journaled channel is appended as it is sent, publishers do not change.
+ * The event manager calls {@link #flush()} from its own thread when it flushes or goes idle. Each flush hands a
+ * subscription that is behind one batch read from the journal, and a subscription that has caught up the events
+ * sent since the last flush straight from memory. Live events keep the body object that was sent, events read
+ * from the journal have the JSON form of the body.
+ *
+ * @author rhightower
+ */
+public class EventJournalConnector implements EventConnector {
+
+    private final Logger logger = LoggerFactory.getLogger(EventJournalConnector.class);
+    private final EventJournal journal;
+    private final Timer timer;
+    private final int batchSize;
+    private final boolean forceOnFlush;
+    private final long retentionCheckInterval;
+    private final ConcurrentLinkedQueue<JournalSubscription> newSubscriptions = new ConcurrentLinkedQueue<>();
+    private final Map<String, List<Reader>> readers = new HashMap<>();
+    private long lastRetentionCheck;
+
+    /**
+     * @param journal                journal
+     * @param timer                  timer used for the event times and retention
+     * @param batchSize              most events read from the journal for a subscription per flush
+     * @param forceOnFlush           force the journal to disk on every flush
+     * @param retentionCheckInterval how often in ms segments past retention are dropped
+     */
+    public EventJournalConnector(final EventJournal journal,
+                                 final Timer timer,
+                                 final int batchSize,
+                                 final boolean forceOnFlush,
+                                 final long retentionCheckInterval) {
+        this.journal = journal;
+        this.timer = timer;
+        this.batchSize = batchSize;
+        this.forceOnFlush = forceOnFlush;
+        this.retentionCheckInterval = retentionCheckInterval;
+        this.lastRetentionCheck = timer.now();
+    }
+
+    /**
+     * Read a journaled channel starting at an offset. Can be called from any thread, delivery starts on the
+     * next flush.
+     *
+     * @param channel  journaled channel
+     * @param offset   offset to start at, or {@link JournalSubscription#EARLIEST} or {@link JournalSubscription#LATEST}
+     * @param listener gets the events in batches
+     * @return subscription
+     */
+    public JournalSubscription subscribe(final String channel, final long offset, final EventListener<Object> listener) {
+        if (!journal.journaled(channel)) {
+            throw new IllegalArgumentException(String.format("Channel %s is not journaled", channel));
+        }
+        final JournalSubscription subscription = new JournalSubscription(channel, offset, listener);
+        newSubscriptions.add(subscription);
+        return subscription;
+    }
+
+    @Override
+    public void forwardEvent(final EventTransferObject<Object> event) {
+        final String channel = event.channel();
+        if (!journal.journaled(channel)) {
+            return;
+        }
+        final long offset = journal.append(channel, event.body(), timer.now());
+        if (offset == -1) {
+            logger.warn("Event on channel {} is bigger than a journal segment and was not journaled", channel);
+            return;
+        }
+        final List<Reader> channelReaders = readers.get(channel);
+        if (channelReaders == null) {
+            return;
+        }
+        for (int index = 0; index < channelReaders.size(); index++) {
+            final Reader reader = channelReaders.get(index);
+            if (reader.subscription.live() && reader.subscription.offset() == offset) {
+                reader.pending.add(new EventTransferObject<>(event.body(), offset, channel));
+                reader.subscription.offset(offset + 1);
+            }
+        }
+    }
+
+    @Override
+    public void flush() {
+        startNewSubscriptions();
+
+        for (Map.Entry<String, List<Reader>> entry : readers.entrySet()) {
+            final String channel = entry.getKey();
+            final Iterator<Reader> iterator = entry.getValue().iterator();
+            while (iterator.hasNext()) {
+                final Reader reader = iterator.next();
+                if (reader.subscription.cancelled()) {
+                    iterator.remove();
+                } else if (reader.subscription.live()) {
+                    if (!reader.pending.isEmpty()) {
+                        deliver(reader, reader.pending);
+                        reader.pending.clear();
+                    }
+                } else {
+                    catchUp(channel, reader);
+                }
+            }
+        }
+
+        if (forceOnFlush) {
+            journal.force();
+        }
+
+        final long now = timer.now();
+        if (now - lastRetentionCheck >= retentionCheckInterval) {
+            lastRetentionCheck = now;
+            final int dropped = journal.retain(now);
+            if (dropped > 0) {
+                logger.info("Dropped {} journal segments past retention", dropped);
+            }
+        }
+    }
+
+    /**
+     * Force the journal to disk and stop.
+     */
+    public void close() {
+        journal.close();
+    }
+
+    public EventJournal journal() {
+        return journal;
+    }
+
+    private void startNewSubscriptions() {
+        JournalSubscription subscription = newSubscriptions.poll();
+        while (subscription != null) {
+            final String channel = subscription.channel();
+            if (subscription.offset() == JournalSubscription.LATEST) {
+                subscription.offset(journal.nextOffset(channel));
+            } else {
+                subscription.offset(Math.max(subscription.offset(), journal.earliestOffset(channel)));
+            }
+            subscription.live(subscription.offset() >= journal.nextOffset(channel));
+            readers.computeIfAbsent(channel, key -> new ArrayList<>()).add(new Reader(subscription));
+            subscription = newSubscriptions.poll();
+        }
+    }
+
+    private void catchUp(final String channel, final Reader reader) {
+        final JournalSubscription subscription = reader.subscription;
+        final List<Event<Object>> events = journal.read(channel, subscription.offset(), batchSize);
+        if (!events.isEmpty()) {
+            subscription.offset(events.get(events.size() - 1).id() + 1);
+            deliver(reader, events);
+        }
+        if (subscription.offset() >= journal.nextOffset(channel)) {
+            subscription.live(true);
+        }
+    }
+
+    private void deliver(final Reader reader, final List<Event<Object>> events) {
+        try {
+            reader.subscription.listener().listenBatch(events);
+        } catch (Exception ex) {
+            logger.error("Journal subscriber for channel " + reader.subscription.channel() + " failed", ex);
+        }
+    }
+
+    private static final class Reader {
+        final JournalSubscription subscription;
+        final List<Event<Object>> pending = new ArrayList<>();
+
+        Reader(final JournalSubscription subscription) {
+            this.subscription = subscription;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2015. Rick Hightower, Geoff Chandler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * QBit - The Microservice lib for Java : JSON, WebSocket, REST. Be The Web!
+ */
+
+package io.advantageous.qbit.events.journal;
+
+import io.advantageous.qbit.events.EventListener;
+
+/**
+ * A listener reading a journaled channel from an offset.
+ * <p>
+ * The subscription reads the journal in batches until it has caught up, then it gets new events as they are
+ * sent. Both come to the listener through {@link EventListener#listenBatch(java.util.List)} with the offset as the
+ * event id, so a listener that saves the last id it handled can subscribe from the next one after a restart.
+ *
+ * @author rhightower
+ */
+public class JournalSubscription {
+
+    /**
+     * Start with the oldest event still in the journal.
+     */
+    public static final long EARLIEST = 0;
+
+    /**
+     * Start with the next event sent to the channel.
+     */
+    public static final long LATEST = -1;
+
+    private final String channel;
+    private final EventListener<Object> listener;
+    private volatile long offset;
+    private volatile boolean live;
+    private volatile boolean cancelled;
+
+    JournalSubscription(final String channel, final long offset, final EventListener<Object> listener) {
+        this.channel = channel;
+        this.offset = offset;
+        this.listener = listener;
+    }
+
+    public String channel() {
+        return channel;
+    }
+
+    /**
+     * @return offset of the next event the listener gets
+     */
+    public long offset() {
+        return offset;
+    }
+
+    /**
+     * @return true once the subscription has caught up and gets events as they are sent
+     */
+    public boolean live() {
+        return live;
+    }
+
+    /**
+     * Stop delivering events to the listener.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean cancelled() {
+        return cancelled;
+    }
+
+    EventListener<Object> listener() {
+        return listener;
+    }
+
+    void offset(final long offset) {
+        this.offset = offset;
+    }
+
+    void live(final boolean live) {
+        this.live = live;
+    }
+}
@@ -292,6 +292,11 @@ public class HttpRequestBuilder {
                     return innerHttpResponse.isText();
                 }
 
+                @Override
+                public boolean isByteBuffer() {
+                    return innerHttpResponse.isByteBuffer();
+                }
+
                 @Override
                 public void response(int code, String contentType, Object body, MultiMap headers) {
                     //noinspection unchecked
@@ -39,6 +39,16 @@ public interface HttpResponseReceiver<T> {
         return true;
     }
 
+    /**
+     * Receivers that copy the body out before response returns can take a UTF-8 ByteBuffer body,
+     * which the caller reuses for the next response.
+     *
+     * @return true if the body can be a ByteBuffer
+     */
+    default boolean isByteBuffer() {
+        return false;
+    }
+
     void response(int code, String contentType, T body);
 
 
@@ -1,11 +1,17 @@
 package io.advantageous.qbit.http.request.decorator;
 
+import io.advantageous.qbit.http.request.HttpBinaryResponse;
 import io.advantageous.qbit.http.request.HttpTextResponse;
 
 public class HttpTextResponseHolder {
 
     private HttpTextResponse httpTextResponse;
 
+    /**
+     * Set instead of the text response when the decorator replaces the text with bytes, a compressed body for one.
+     */
+    private HttpBinaryResponse httpBinaryResponse;
+
 
     public HttpTextResponse getHttpTextResponse() {
         return httpTextResponse;
@@ -25,4 +31,13 @@ public class HttpTextResponseHolder {
         this.httpTextResponse = httpTextResponse;
         return this;
     }
+
+    public HttpBinaryResponse getHttpBinaryResponse() {
+        return httpBinaryResponse;
+    }
+
+    public HttpTextResponseHolder setHttpBinaryResponse(HttpBinaryResponse httpBinaryResponse) {
+        this.httpBinaryResponse = httpBinaryResponse;
+        return this;
+    }
 }
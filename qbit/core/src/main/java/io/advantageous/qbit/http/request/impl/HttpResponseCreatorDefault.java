@@ -3,7 +3,6 @@ package io.advantageous.qbit.http.request.impl;
 import io.advantageous.qbit.http.request.HttpBinaryResponse;
 import io.advantageous.qbit.http.request.HttpResponse;
 import io.advantageous.qbit.http.request.HttpResponseCreator;
-import io.advantageous.qbit.http.request.HttpTextResponse;
 import io.advantageous.qbit.http.request.decorator.HttpBinaryResponseHolder;
 import io.advantageous.qbit.http.request.decorator.HttpResponseDecorator;
 import io.advantageous.qbit.http.request.decorator.HttpTextResponseHolder;
@@ -36,7 +35,7 @@ public class HttpResponseCreatorDefault implements HttpResponseCreator {
         }
     }
 
-    private HttpTextResponse createTextResponse(final CopyOnWriteArrayList<HttpResponseDecorator> decorators,
+    private HttpResponse<?> createTextResponse(final CopyOnWriteArrayList<HttpResponseDecorator> decorators,
                                                 final String requestPath,
                                                 final String requestMethod,
                                                 final int code,
@@ -46,18 +45,20 @@ public class HttpResponseCreatorDefault implements HttpResponseCreator {
                                                 final MultiMap<String, String> requestHeaders,
                                                 final MultiMap<String, String> requestParams) {
 
-        HttpTextResponse httpTextResponse = null;
+        HttpResponse<?> httpResponse = null;
         if (decorators.size() >= 0) {
             HttpTextResponseHolder holder = new HttpTextResponseHolder();
             for (HttpResponseDecorator decorator : decorators) {
                 if (decorator.decorateTextResponse(holder, requestPath, requestMethod, code, contentType,
                         payload, responseHeaders, requestHeaders, requestParams)) {
-                    httpTextResponse = holder.getHttpTextResponse();
+                    /* A text decorator may hand back bytes, a compressed body for one. */
+                    httpResponse = holder.getHttpBinaryResponse() != null
+                            ? holder.getHttpBinaryResponse() : holder.getHttpTextResponse();
                     break;
                 }
             }
         }
-        return httpTextResponse;
+        return httpResponse;
     }
 
     private HttpBinaryResponse createBinaryResponse(final CopyOnWriteArrayList<HttpResponseDecorator> decorators,
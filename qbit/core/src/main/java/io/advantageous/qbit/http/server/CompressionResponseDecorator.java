@@ -0,0 +1,407 @@
+package io.advantageous.qbit.http.server;
+
+import io.advantageous.qbit.http.request.HttpBinaryResponse;
+import io.advantageous.qbit.http.request.HttpResponseBuilder;
+import io.advantageous.qbit.http.request.decorator.HttpBinaryResponseHolder;
+import io.advantageous.qbit.http.request.decorator.HttpResponseDecorator;
+import io.advantageous.qbit.http.request.decorator.HttpTextResponseHolder;
+import io.advantageous.qbit.service.ServiceProxyUtils;
+import io.advantageous.qbit.service.stats.StatsCollector;
+import io.advantageous.qbit.util.MultiMap;
+import io.advantageous.qbit.util.MultiMapImpl;
+import io.advantageous.qbit.util.Timer;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Compresses response bodies with gzip or deflate when the request's Accept-Encoding allows it.
+ * <p>
+ * Bodies under the size threshold, responses that already have a Content-Encoding and content types that are
+ * not text are sent as they are. Deflaters are pooled and reused. With a cache size set, the compressed body of
+ * a response that has an ETag is kept and sent again for the same ETag of the same request path and method
+ * without compressing it again.
+ * <p>
+ * A decorator that returns true ends the decorator chain, so register this one last. Decorators before it that
+ * only add headers should return false.
+ * Build it with {@link CompressionSupportBuilder}.
+ *
+ * @author rhightower
+ */
+public class CompressionResponseDecorator implements HttpResponseDecorator {
+
+    public static final String GZIP = "gzip";
+    public static final String DEFLATE = "deflate";
+
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    private static final int GZIP_TRAILER_SIZE = 8;
+
+    private final int minSize;
+    private final int level;
+    private final List<String> contentTypes;
+    private final BlockingQueue<Deflater> gzipDeflaters;
+    private final BlockingQueue<Deflater> deflateDeflaters;
+    private final Map<String, CachedBody> cache;
+
+    private final StatsCollector statsCollector;
+    private final String statKeyPrefix;
+    private final long statsReportIntervalMillis;
+    private final Timer timer;
+    private final ThreadMXBean threadMXBean;
+    private final boolean useThreadCpuTime;
+
+    private final Stat responses = new Stat();
+    private final Stat compressions = new Stat();
+    private final Stat cacheHits = new Stat();
+    private final Stat bytesIn = new Stat();
+    private final Stat bytesOut = new Stat();
+    private final Stat compressNanos = new Stat();
+    private final AtomicLong lastStatsReport = new AtomicLong();
+
+    public CompressionResponseDecorator(final int minSize,
+                                        final int level,
+                                        final List<String> contentTypes,
+                                        final int deflaterPoolSize,
+                                        final int cacheSize,
+                                        final StatsCollector statsCollector,
+                                        final String statKeyPrefix,
+                                        final long statsReportIntervalMillis,
+                                        final Timer timer) {
+        this.minSize = minSize;
+        this.level = level;
+        this.contentTypes = contentTypes;
+        this.gzipDeflaters = new ArrayBlockingQueue<>(deflaterPoolSize);
+        this.deflateDeflaters = new ArrayBlockingQueue<>(deflaterPoolSize);
+        this.cache = cacheSize > 0 ? Collections.synchronizedMap(new BodyCache(cacheSize)) : null;
+        this.statsCollector = statsCollector;
+        this.statKeyPrefix = statKeyPrefix;
+        this.statsReportIntervalMillis = statsReportIntervalMillis;
+        this.timer = timer;
+        this.threadMXBean = ManagementFactory.getThreadMXBean();
+        this.useThreadCpuTime = threadMXBean.isCurrentThreadCpuTimeSupported() && threadMXBean.isThreadCpuTimeEnabled();
+    }
+
+    /**
+     * Pick the encoding for a request.
+     *
+     * @param acceptEncoding Accept-Encoding header value
+     * @return {@link #GZIP}, {@link #DEFLATE} or null if the client takes neither
+     */
+    public static String negotiate(final String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isEmpty()) {
+            return null;
+        }
+
+        float gzip = -1;
+        float deflate = -1;
+        float any = -1;
+        for (String part : acceptEncoding.split(",")) {
+            final int semicolon = part.indexOf(';');
+            final String coding = (semicolon == -1 ? part : part.substring(0, semicolon)).trim().toLowerCase();
+            final float quality = semicolon == -1 ? 1f : quality(part.substring(semicolon + 1));
+            switch (coding) {
+                case "gzip":
+                case "x-gzip":
+                    gzip = quality;
+                    break;
+                case DEFLATE:
+                    deflate = quality;
+                    break;
+                case "*":
+                    any = quality;
+                    break;
+                default:
+            }
+        }
+
+        if (gzip < 0) {
+            gzip = any;
+        }
+        if (deflate < 0) {
+            deflate = any;
+        }
+        if (gzip <= 0 && deflate <= 0) {
+            return null;
+        }
+        return gzip >= deflate ? GZIP : DEFLATE;
+    }
+
+    private static float quality(final String parameters) {
+        for (String parameter : parameters.split(";")) {
+            final String trimmed = parameter.trim();
+            if (trimmed.startsWith("q=")) {
+                try {
+                    return Float.parseFloat(trimmed.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0f;
+                }
+            }
+        }
+        return 1f;
+    }
+
+    @Override
+    public boolean decorateTextResponse(final HttpTextResponseHolder responseHolder,
+                                        final String requestPath, final String requestMethod,
+                                        final int code, final String contentType, final String payload,
+                                        final MultiMap<String, String> responseHeaders,
+                                        final MultiMap<String, String> requestHeaders,
+                                        final MultiMap<String, String> requestParams) {
+
+        /* Text bodies are measured in chars, close enough for JSON. */
+        final String encoding = encoding(code, contentType, payload.length(), responseHeaders, requestHeaders);
+        if (encoding == null) {
+            return false;
+        }
+        responseHolder.setHttpBinaryResponse(compressResponse(requestPath, requestMethod, code, contentType,
+                payload.getBytes(StandardCharsets.UTF_8), encoding, responseHeaders));
+        return true;
+    }
+
+    @Override
+    public boolean decorateBinaryResponse(final HttpBinaryResponseHolder responseHolder,
+                                          final String requestPath, final String requestMethod,
+                                          final int code, final String contentType, final byte[] payload,
+                                          final MultiMap<String, String> responseHeaders,
+                                          final MultiMap<String, String> requestHeaders,
+                                          final MultiMap<String, String> requestParams) {
+
+        final String encoding = encoding(code, contentType, payload.length, responseHeaders, requestHeaders);
+        if (encoding == null) {
+            return false;
+        }
+        responseHolder.setHttpBinaryResponse(compressResponse(requestPath, requestMethod, code, contentType, payload,
+                encoding, responseHeaders));
+        return true;
+    }
+
+    private String encoding(final int code, final String contentType, final int size,
+                            final MultiMap<String, String> responseHeaders,
+                            final MultiMap<String, String> requestHeaders) {
+
+        if (size < minSize || code < 200 || code == 204 || code == 304 || !isCompressible(contentType)) {
+            return null;
+        }
+        if (responseHeaders != null && header(responseHeaders, "Content-Encoding") != null) {
+            return null;
+        }
+        return requestHeaders == null ? null : negotiate(header(requestHeaders, "Accept-Encoding"));
+    }
+
+    private static String header(final MultiMap<String, String> headers, final String name) {
+        final String value = headers.getFirst(name);
+        return value != null ? value : headers.getFirst(name.toLowerCase());
+    }
+
+    private boolean isCompressible(final String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        final String type = contentType.toLowerCase();
+        for (String compressible : contentTypes) {
+            if (type.contains(compressible)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private HttpBinaryResponse compressResponse(final String requestPath, final String requestMethod,
+                                                final int code, final String contentType, final byte[] body,
+                                                final String encoding,
+                                                final MultiMap<String, String> responseHeaders) {
+
+        /* An ETag is only unique for one resource, so the path and method are part of the key. */
+        final String eTag = cache == null || responseHeaders == null ? null : header(responseHeaders, "ETag");
+        final String cacheKey = eTag == null ? null
+                : encoding + '|' + requestMethod + '|' + requestPath + '|' + eTag;
+        final CachedBody cached = cacheKey == null ? null : cache.get(cacheKey);
+
+        final byte[] compressed;
+        if (cached != null && cached.length == body.length) {
+            compressed = cached.compressed;
+            cacheHits.adder.increment();
+        } else {
+            final long start = now();
+            compressed = compress(body, GZIP.equals(encoding));
+            compressNanos.adder.add(now() - start);
+            compressions.adder.increment();
+            if (cacheKey != null) {
+                cache.put(cacheKey, new CachedBody(body.length, compressed));
+            }
+        }
+
+        responses.adder.increment();
+        bytesIn.adder.add(body.length);
+        bytesOut.adder.add(compressed.length);
+        reportStats();
+
+        final MultiMap<String, String> headers = new MultiMapImpl<>();
+        if (responseHeaders != null) {
+            headers.putAllCopyLists(responseHeaders);
+        }
+        headers.put("Content-Encoding", encoding);
+        headers.put("Vary", "Accept-Encoding");
+
+        return HttpResponseBuilder.httpResponseBuilder().setCode(code).setContentType(contentType)
+                .setHeaders(headers).setBody(compressed).buildBinaryResponse();
+    }
+
+    private long now() {
+        return useThreadCpuTime ? threadMXBean.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+
+    /**
+     * Compress the body with a pooled deflater, gzip framing is written here so the deflater stays raw.
+     *
+     * @param body body
+     * @param gzip gzip if true, zlib deflate if false
+     * @return compressed body
+     */
+    byte[] compress(final byte[] body, final boolean gzip) {
+        final BlockingQueue<Deflater> pool = gzip ? gzipDeflaters : deflateDeflaters;
+        Deflater deflater = pool.poll();
+        if (deflater == null) {
+            deflater = new Deflater(level, gzip);
+        }
+
+        try {
+            deflater.setInput(body);
+            deflater.finish();
+
+            byte[] out = new byte[Math.max(64, body.length / 4)];
+            int position = 0;
+            if (gzip) {
+                System.arraycopy(GZIP_HEADER, 0, out, 0, GZIP_HEADER.length);
+                position = GZIP_HEADER.length;
+            }
+            while (!deflater.finished()) {
+                if (position == out.length) {
+                    out = Arrays.copyOf(out, out.length * 2);
+                }
+                position += deflater.deflate(out, position, out.length - position);
+            }
+
+            if (gzip) {
+                if (position + GZIP_TRAILER_SIZE > out.length) {
+                    out = Arrays.copyOf(out, position + GZIP_TRAILER_SIZE);
+                }
+                final CRC32 crc = new CRC32();
+                crc.update(body, 0, body.length);
+                position = writeIntLittleEndian(out, position, (int) crc.getValue());
+                position = writeIntLittleEndian(out, position, body.length);
+            }
+            return position == out.length ? out : Arrays.copyOf(out, position);
+        } finally {
+            deflater.reset();
+            if (!pool.offer(deflater)) {
+                deflater.end();
+            }
+        }
+    }
+
+    private static int writeIntLittleEndian(final byte[] out, int position, final int value) {
+        out[position++] = (byte) value;
+        out[position++] = (byte) (value >> 8);
+        out[position++] = (byte) (value >> 16);
+        out[position++] = (byte) (value >> 24);
+        return position;
+    }
+
+    /**
+     * Send what was recorded since the last report, at most once per report interval, from whichever
+     * thread gets there first.
+     */
+    private void reportStats() {
+        if (statsCollector == null) {
+            return;
+        }
+        final long now = timer.now();
+        final long last = lastStatsReport.get();
+        if (now - last < statsReportIntervalMillis || !lastStatsReport.compareAndSet(last, now)) {
+            return;
+        }
+
+        synchronized (statsCollector) {
+            final long responseCount = responses.drain();
+            final long compressionCount = compressions.drain();
+            final long in = bytesIn.drain();
+            final long out = bytesOut.drain();
+            final long nanos = compressNanos.drain();
+
+            statsCollector.recordCount(statKeyPrefix + ".responses", responseCount);
+            statsCollector.recordCount(statKeyPrefix + ".cache.hits", cacheHits.drain());
+            statsCollector.recordCount(statKeyPrefix + ".bytes.in", in);
+            statsCollector.recordCount(statKeyPrefix + ".bytes.out", out);
+            if (in > 0) {
+                /* Compressed size as a percent of the original. */
+                statsCollector.recordLevel(statKeyPrefix + ".ratio", out * 100 / in);
+            }
+            if (compressionCount > 0) {
+                /* Average CPU time per compression in microseconds. */
+                statsCollector.recordTiming(statKeyPrefix + ".cpu.micros", nanos / compressionCount / 1000);
+            }
+            ServiceProxyUtils.flushServiceProxy(statsCollector);
+        }
+    }
+
+    public int getCacheSize() {
+        return cache == null ? 0 : cache.size();
+    }
+
+    private static final class CachedBody {
+        private final int length;
+        private final byte[] compressed;
+
+        private CachedBody(final int length, final byte[] compressed) {
+            this.length = length;
+            this.compressed = compressed;
+        }
+    }
+
+    /**
+     * Least recently used compressed bodies.
+     */
+    private static final class BodyCache extends LinkedHashMap<String, CachedBody> {
+        private static final long serialVersionUID = 1L;
+        private final int maxSize;
+
+        private BodyCache(final int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, CachedBody> eldest) {
+            return size() > maxSize;
+        }
+    }
+
+    /**
+     * Counter any thread can add to, drained by the thread that reports.
+     */
+    private static final class Stat {
+        private final LongAdder adder = new LongAdder();
+        private long drained;
+
+        private long drain() {
+            /* Never reset the adder, a reset could lose an add that races with it. */
+            final long total = adder.sum();
+            final long count = total - drained;
+            drained = total;
+            return count;
+        }
+    }
+}
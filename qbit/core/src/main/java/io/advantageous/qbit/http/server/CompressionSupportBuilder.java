@@ -0,0 +1,163 @@
+package io.advantageous.qbit.http.server;
+
+import io.advantageous.qbit.service.stats.StatsCollector;
+import io.advantageous.qbit.util.Timer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.Deflater;
+
+/**
+ * Builds a {@link CompressionResponseDecorator}, add it to the server with
+ * {@link HttpServerBuilder#addResponseDecorator}.
+ *
+ * @author rhightower
+ */
+public class CompressionSupportBuilder {
+
+    private int minSize = 1024;
+    private int level = Deflater.DEFAULT_COMPRESSION;
+    private List<String> contentTypes;
+    private int deflaterPoolSize = -1;
+    private int cacheSize;
+    private StatsCollector statsCollector;
+    private String statKeyPrefix;
+    private Duration statsReportInterval;
+    private Timer timer;
+
+    public static CompressionSupportBuilder compressionSupportBuilder() {
+        return new CompressionSupportBuilder();
+    }
+
+    public int getMinSize() {
+        return minSize;
+    }
+
+    /**
+     * @param minSize bodies smaller than this many bytes are sent uncompressed
+     * @return this
+     */
+    public CompressionSupportBuilder setMinSize(final int minSize) {
+        this.minSize = minSize;
+        return this;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * @param level deflater level, 1 is fastest and 9 is smallest
+     * @return this
+     */
+    public CompressionSupportBuilder setLevel(final int level) {
+        this.level = level;
+        return this;
+    }
+
+    public List<String> getContentTypes() {
+        if (contentTypes == null) {
+            contentTypes = new ArrayList<>(Arrays.asList("json", "text/", "javascript", "xml"));
+        }
+        return contentTypes;
+    }
+
+    /**
+     * @param contentTypes a response is compressed if its content type contains one of these
+     * @return this
+     */
+    public CompressionSupportBuilder setContentTypes(final List<String> contentTypes) {
+        this.contentTypes = contentTypes;
+        return this;
+    }
+
+    public CompressionSupportBuilder addContentType(final String contentType) {
+        getContentTypes().add(contentType.toLowerCase());
+        return this;
+    }
+
+    public int getDeflaterPoolSize() {
+        if (deflaterPoolSize == -1) {
+            deflaterPoolSize = Runtime.getRuntime().availableProcessors() * 2;
+        }
+        return deflaterPoolSize;
+    }
+
+    /**
+     * @param deflaterPoolSize deflaters kept for reuse for each of gzip and deflate
+     * @return this
+     */
+    public CompressionSupportBuilder setDeflaterPoolSize(final int deflaterPoolSize) {
+        this.deflaterPoolSize = deflaterPoolSize;
+        return this;
+    }
+
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    /**
+     * @param cacheSize compressed bodies kept by ETag, 0 turns the cache off
+     * @return this
+     */
+    public CompressionSupportBuilder setCacheSize(final int cacheSize) {
+        this.cacheSize = cacheSize;
+        return this;
+    }
+
+    public StatsCollector getStatsCollector() {
+        return statsCollector;
+    }
+
+    /**
+     * @param statsCollector gets the compression ratio, bytes and CPU time, not reported if null
+     * @return this
+     */
+    public CompressionSupportBuilder setStatsCollector(final StatsCollector statsCollector) {
+        this.statsCollector = statsCollector;
+        return this;
+    }
+
+    public String getStatKeyPrefix() {
+        if (statKeyPrefix == null) {
+            statKeyPrefix = "http.compression";
+        }
+        return statKeyPrefix;
+    }
+
+    public CompressionSupportBuilder setStatKeyPrefix(final String statKeyPrefix) {
+        this.statKeyPrefix = statKeyPrefix;
+        return this;
+    }
+
+    public Duration getStatsReportInterval() {
+        if (statsReportInterval == null) {
+            statsReportInterval = Duration.ofSeconds(1);
+        }
+        return statsReportInterval;
+    }
+
+    public CompressionSupportBuilder setStatsReportInterval(final Duration statsReportInterval) {
+        this.statsReportInterval = statsReportInterval;
+        return this;
+    }
+
+    public Timer getTimer() {
+        if (timer == null) {
+            timer = Timer.timer();
+        }
+        return timer;
+    }
+
+    public CompressionSupportBuilder setTimer(final Timer timer) {
+        this.timer = timer;
+        return this;
+    }
+
+    public CompressionResponseDecorator buildResponseDecorator() {
+        return new CompressionResponseDecorator(getMinSize(), getLevel(), getContentTypes(), getDeflaterPoolSize(),
+                getCacheSize(), getStatsCollector(), getStatKeyPrefix(), getStatsReportInterval().toMillis(), getTimer());
+    }
+}
@@ -18,6 +18,8 @@
 
 package io.advantageous.qbit.json;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 
@@ -66,6 +68,19 @@ public interface JsonMapper {
      */
     String toJson(Object object);
 
+    /**
+     * Converts from Object into UTF-8 JSON.
+     * Mappers that can serialize into a buffer they reuse per thread override this to skip the String
+     * and byte[] copies. The buffer may be reused by the next call on the same thread, so write it out
+     * or copy it before serializing again.
+     *
+     * @param object object to convert to JSON.
+     * @return UTF-8 json between the buffer position and limit
+     */
+    default ByteBuffer toJsonBuffer(Object object) {
+        return ByteBuffer.wrap(toJson(object).getBytes(StandardCharsets.UTF_8));
+    }
+
     /**
      * Converts from a json string using componentClassKey and componentClassValue as a guide to a Map.
      *
@@ -77,4 +92,53 @@ public interface JsonMapper {
      * @return Map
      */
     <K, V> Map<K, V> fromJsonMap(String json, Class<K> componentClassKey, Class<V> componentClassValue);
+
+    /**
+     * Convert UTF-8 JSON bytes into one Java Object.
+     * Mappers that can parse bytes directly override this to skip the String copy.
+     *
+     * @param json UTF-8 json
+     * @return Java object
+     */
+    default Object fromJson(byte[] json) {
+        return fromJson(new String(json, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Convert from UTF-8 JSON bytes using Class as a suggestion for how to do the parse.
+     *
+     * @param json UTF-8 json
+     * @param cls  cls
+     * @param <T>  Type
+     * @return Java object of Type T
+     */
+    default <T> T fromJson(byte[] json, Class<T> cls) {
+        return fromJson(new String(json, StandardCharsets.UTF_8), cls);
+    }
+
+    /**
+     * Converts from UTF-8 JSON bytes using componentClass as a guide to a List.
+     *
+     * @param json           UTF-8 json
+     * @param componentClass componentClass
+     * @param <T>            Type
+     * @return List of Java objects of Type T.
+     */
+    default <T> List<T> fromJsonArray(byte[] json, Class<T> componentClass) {
+        return fromJsonArray(new String(json, StandardCharsets.UTF_8), componentClass);
+    }
+
+    /**
+     * Converts from UTF-8 JSON bytes using componentClassKey and componentClassValue as a guide to a Map.
+     *
+     * @param json                UTF-8 json
+     * @param componentClassKey   componentClassKey type of Key
+     * @param componentClassValue componentClassValue type of value
+     * @param <K>                 K type of map key
+     * @param <V>                 V type of map value
+     * @return Map
+     */
+    default <K, V> Map<K, V> fromJsonMap(byte[] json, Class<K> componentClassKey, Class<V> componentClassValue) {
+        return fromJsonMap(new String(json, StandardCharsets.UTF_8), componentClassKey, componentClassValue);
+    }
 }
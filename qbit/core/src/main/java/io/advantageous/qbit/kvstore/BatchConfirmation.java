@@ -0,0 +1,79 @@
+package io.advantageous.qbit.kvstore;
+
+import io.advantageous.qbit.reactive.Callback;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Builds a confirmed batch write out of confirmed single key writes for writers that do not have a batch write.
+ * <p>
+ * The batch is confirmed once every key confirms. The first key that is not written, errors or times out
+ * fails the batch, later answers are ignored.
+ *
+ * @author rhightower
+ */
+public final class BatchConfirmation {
+
+    private BatchConfirmation() {
+    }
+
+    /**
+     * Write every key with the confirmed single key write and confirm the batch once all of them are back.
+     *
+     * @param batch        keys and values
+     * @param write        confirmed single key write
+     * @param confirmation confirmation for the batch
+     * @param <V>          value type
+     */
+    public static <V> void writeEach(final Map<String, V> batch,
+                                     final KeyWrite<V> write,
+                                     final Callback<Boolean> confirmation) {
+        if (batch.isEmpty()) {
+            confirmation.resolve(true);
+            return;
+        }
+        final AtomicInteger remaining = new AtomicInteger(batch.size());
+        final AtomicBoolean failed = new AtomicBoolean();
+        final Callback<Boolean> keyConfirmation = new Callback<Boolean>() {
+            @Override
+            public void accept(final Boolean success) {
+                if (!Boolean.TRUE.equals(success)) {
+                    if (failed.compareAndSet(false, true)) {
+                        confirmation.resolve(false);
+                    }
+                    return;
+                }
+                if (remaining.decrementAndGet() == 0 && !failed.get()) {
+                    confirmation.resolve(true);
+                }
+            }
+
+            @Override
+            public void onError(final Throwable error) {
+                if (failed.compareAndSet(false, true)) {
+                    confirmation.onError(error);
+                }
+            }
+
+            @Override
+            public void onTimeout() {
+                if (failed.compareAndSet(false, true)) {
+                    confirmation.onTimeout();
+                }
+            }
+        };
+        batch.forEach((key, value) -> write.write(keyConfirmation, key, value));
+    }
+
+    /**
+     * Confirmed single key write.
+     *
+     * @param <V> value type
+     */
+    @FunctionalInterface
+    public interface KeyWrite<V> {
+        void write(Callback<Boolean> confirmation, String key, V value);
+    }
+}
@@ -2,6 +2,8 @@ package io.advantageous.qbit.kvstore;
 
 import io.advantageous.qbit.reactive.Callback;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
 
 public interface FallbackReader<T> {
@@ -14,6 +16,16 @@ public interface FallbackReader<T> {
         callback.resolve(false);
     }
 
+    /**
+     * Read a batch of keys, the callback gets the keys that were found.
+     *
+     * @param callback callback
+     * @param keys     keys
+     */
+    default void getAll(Callback<Map<String, T>> callback, Collection<String> keys) {
+        MultiGet.multiGet(keys, this::get, callback);
+    }
+
     default void flushRequests() {
 
     }
@@ -0,0 +1,170 @@
+package io.advantageous.qbit.kvstore;
+
+import io.advantageous.qbit.events.EventListener;
+import io.advantageous.qbit.events.EventManager;
+import io.advantageous.qbit.message.Event;
+import io.advantageous.qbit.service.ServiceProxyUtils;
+import io.advantageous.qbit.time.Duration;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Near cache invalidation between {@link LocalKeyValueStoreService} instances that share a backend.
+ * <p>
+ * Keys written or deleted by the store are collected and published as one {@link KeyInvalidationEvent} per
+ * batch interval through the event manager, which forwards them to its event connector (other nodes).
+ * Events from the other stores are received on the event manager thread and handed to the store thread,
+ * which drops the keys from its local cache. Events a store sent itself are ignored.
+ * At most maxReceivedKeys keys wait for the store thread. Past that the keys are not queued and the next drain
+ * tells the store to drop its whole local cache, which is always safe.
+ * <p>
+ * The event manager should be a proxy to an event manager service, for example
+ * {@link io.advantageous.qbit.QBit#factory()}.systemEventManager().
+ *
+ * @author rhightower
+ */
+public class KeyInvalidationChannel implements EventListener<Object> {
+
+    private final EventManager eventManager;
+    private final String channel;
+    private final Duration batchInterval;
+    private final int maxBatchSize;
+    private final int maxReceivedKeys;
+    private final String source = UUID.randomUUID().toString();
+    private final ConcurrentLinkedQueue<List<String>> received = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger receivedKeys = new AtomicInteger();
+    private volatile boolean overflowed;
+    private LinkedHashSet<String> pending = new LinkedHashSet<>();
+
+    public KeyInvalidationChannel(final EventManager eventManager,
+                                  final String channel,
+                                  final Duration batchInterval,
+                                  final int maxBatchSize) {
+        this(eventManager, channel, batchInterval, maxBatchSize, maxBatchSize * 10);
+    }
+
+    public KeyInvalidationChannel(final EventManager eventManager,
+                                  final String channel,
+                                  final Duration batchInterval,
+                                  final int maxBatchSize,
+                                  final int maxReceivedKeys) {
+        this.eventManager = eventManager;
+        this.channel = channel;
+        this.batchInterval = batchInterval;
+        this.maxBatchSize = maxBatchSize;
+        this.maxReceivedKeys = maxReceivedKeys;
+        eventManager.register(channel, this);
+        ServiceProxyUtils.flushServiceProxy(eventManager);
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public Duration getBatchInterval() {
+        return batchInterval;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    @Override
+    public void listen(final Event<Object> event) {
+        final Object body = event.body();
+        if (body instanceof KeyInvalidationEvent) {
+            final KeyInvalidationEvent invalidation = (KeyInvalidationEvent) body;
+            if (!source.equals(invalidation.getSource())) {
+                receive(invalidation.getKeys());
+            }
+        } else if (body instanceof Map) {
+            /* Came over a connector that sends the body as JSON. */
+            final Map<?, ?> invalidation = (Map<?, ?>) body;
+            if (!source.equals(invalidation.get("source")) && invalidation.get("keys") instanceof List) {
+                final List<String> keys = new ArrayList<>();
+                ((List<?>) invalidation.get("keys")).forEach(key -> keys.add(String.valueOf(key)));
+                receive(keys);
+            }
+        }
+    }
+
+    private void receive(final List<String> keys) {
+        if (overflowed) {
+            return;
+        }
+        if (receivedKeys.addAndGet(keys.size()) > maxReceivedKeys) {
+            overflowed = true;
+            return;
+        }
+        received.add(keys);
+    }
+
+    /**
+     * Called by the store thread for each written or deleted key.
+     *
+     * @param key key
+     */
+    public void keyChanged(final String key) {
+        pending.add(key);
+        if (pending.size() >= maxBatchSize) {
+            publish();
+        }
+    }
+
+    /**
+     * Called by the store thread every batch interval.
+     *
+     * @return number of keys sent
+     */
+    public int publish() {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        final List<String> keys = new ArrayList<>(pending);
+        pending = new LinkedHashSet<>();
+        eventManager.send(channel, new KeyInvalidationEvent(source, keys));
+        ServiceProxyUtils.flushServiceProxy(eventManager);
+        return keys.size();
+    }
+
+    /**
+     * Called by the store thread to apply the invalidations sent by the other stores.
+     *
+     * @param invalidate    drops one key
+     * @param invalidateAll drops every key, called instead when more keys came in than could be queued
+     * @return number of keys received
+     */
+    public int drain(final Consumer<String> invalidate, final Runnable invalidateAll) {
+        if (overflowed) {
+            received.clear();
+            final int count = receivedKeys.getAndSet(0);
+            overflowed = false;
+            invalidateAll.run();
+            return count;
+        }
+        int count = 0;
+        List<String> keys = received.poll();
+        while (keys != null) {
+            keys.forEach(invalidate);
+            count += keys.size();
+            receivedKeys.addAndGet(-keys.size());
+            keys = received.poll();
+        }
+        return count;
+    }
+
+    /**
+     * Stops listening on the channel. Called by the store thread when the store shuts down.
+     */
+    public void unregister() {
+        eventManager.unregister(channel, this);
+        ServiceProxyUtils.flushServiceProxy(eventManager);
+    }
+}
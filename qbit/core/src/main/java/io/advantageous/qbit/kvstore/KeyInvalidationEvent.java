@@ -0,0 +1,39 @@
+package io.advantageous.qbit.kvstore;
+
+import java.util.List;
+
+/**
+ * Keys that were written or deleted by one store, sent so the other stores drop them from their local caches.
+ *
+ * @author rhightower
+ */
+public class KeyInvalidationEvent {
+
+    /**
+     * Id of the store that sent the event, a store ignores its own events.
+     */
+    private final String source;
+
+    private final List<String> keys;
+
+    public KeyInvalidationEvent(final String source, final List<String> keys) {
+        this.source = source;
+        this.keys = keys;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public List<String> getKeys() {
+        return keys;
+    }
+
+    @Override
+    public String toString() {
+        return "KeyInvalidationEvent{" +
+                "source='" + source + '\'' +
+                ", keys=" + keys +
+                '}';
+    }
+}
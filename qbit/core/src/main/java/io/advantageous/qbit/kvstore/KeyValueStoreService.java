@@ -4,6 +4,8 @@ package io.advantageous.qbit.kvstore;
 import io.advantageous.qbit.reactive.Callback;
 import io.advantageous.qbit.time.Duration;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -77,6 +79,29 @@ public interface KeyValueStoreService<T> {
     }
 
 
+    /**
+     * Get many keys at once.
+     * The callback gets a map of the keys that were found, missing keys are left out.
+     *
+     * @param callback callback
+     * @param keys     keys
+     */
+    default void getAll(final Callback<Map<String, T>> callback,
+                        final Collection<String> keys) {
+        MultiGet.multiGet(keys, this::get, callback);
+    }
+
+
+    /**
+     * Store many key values at once.
+     *
+     * @param values keys and values
+     */
+    default void putAll(final Map<String, T> values) {
+        values.forEach(this::put);
+    }
+
+
     /**
      * Check to see if the store has the key
      *
@@ -98,6 +123,16 @@ public interface KeyValueStoreService<T> {
     }
 
 
+    /**
+     * Delete many keys at once.
+     *
+     * @param keys keys
+     */
+    default void deleteAll(final Collection<String> keys) {
+        keys.forEach(this::delete);
+    }
+
+
     /**
      * Delete the key with confirmation.
      *
@@ -1,8 +1,10 @@
 package io.advantageous.qbit.kvstore;
 
-import io.advantageous.boon.primitive.SimpleLRUCache;
 import io.advantageous.qbit.annotation.QueueCallback;
 import io.advantageous.qbit.annotation.QueueCallbackType;
+import io.advantageous.qbit.kvstore.cache.CacheType;
+import io.advantageous.qbit.kvstore.cache.LocalCache;
+import io.advantageous.qbit.kvstore.cache.ReadCollapser;
 import io.advantageous.qbit.reactive.Callback;
 import io.advantageous.qbit.reactive.CallbackBuilder;
 import io.advantageous.qbit.reactive.Reactor;
@@ -12,9 +14,44 @@ import io.advantageous.qbit.util.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
-
+/**
+ * Local cache in front of a fallback reader and a write behind writer.
+ * <p>
+ * Plain puts and puts with confirmation are coalesced in a dirty set (last write wins) and flushed to
+ * {@link WriteBehindWriter#writeBatchWithConfirmation(Callback, java.util.Map)} when the set reaches the batch size
+ * or the oldest dirty key reaches the max age. Confirmations fire when the batch holding the key is confirmed.
+ * Puts with a timeout and deletes go straight to the writer and drop any pending dirty value for the key. The
+ * confirmations waiting on the dropped value resolve true right away, as they would for a put coalesced into a
+ * later one.
+ * <p>
+ * When the dirty set is at its limit new keys are not coalesced: puts with confirmation are rejected and plain
+ * puts are written through. A batch size of 1 or less turns the write behind stage off, which is the default.
+ * Until a batch is confirmed its values are read from the batch, even after the cache evicted them, and the
+ * dirty set is flushed when the service queue shuts down.
+ * <p>
+ * Entries with a timeout are removed by an incremental expiry sweep run by the reactor, scheduled with the first
+ * put that has a timeout. With the
+ * {@link CacheType#TINY_LFU} cache the whole cache is not thrown away every flushEvery, the admission policy
+ * keeps the hot set.
+ * <p>
+ * Misses are read from the fallback reader once per key, gets for a key that is already being read wait for that
+ * read. With a negative cache TTL a read that finds nothing is remembered for that long.
+ * The misses of a {@link #getAll(Callback, Collection)} are read with one
+ * {@link FallbackReader#getAll(Callback, Collection)}, except keys a get is already reading, those wait for that read.
+ * <p>
+ * With a {@link KeyInvalidationChannel} the keys this store writes or deletes are published to the other stores in
+ * batches, and keys the other stores publish are dropped from the local cache.
+ *
+ * @author rhightower
+ */
 public class LocalKeyValueStoreService<T> implements KeyValueStoreService<T> {
 
     private final StatsCollector statsCollector;
@@ -27,7 +64,26 @@ public class LocalKeyValueStoreService<T> implements KeyValueStoreService<T> {
     private final Timer timer;
     private long time = 0;
     private int cacheSize = 0;
-    private SimpleLRUCache<String, CacheEntry<T>> cache;
+    private static final int EXPIRY_SWEEP_MAX = 1_000;
+    private final CacheType cacheType;
+    private LocalCache<CacheEntry<T>> cache;
+    private final Duration expirySweepInterval;
+    private boolean expirySweepScheduled;
+    private final ReadCollapser<T> readCollapser;
+    private final KeyInvalidationChannel invalidationChannel;
+
+    private final boolean writeThrough;
+    private final int writeBehindBatchSize;
+    private final long writeBehindMaxAgeMS;
+    private final int writeBehindMaxDirty;
+    private final int writeBehindMaxBatchesInFlight;
+    private LinkedHashMap<String, T> dirty = new LinkedHashMap<>();
+    private Map<String, List<Callback<Boolean>>> dirtyConfirmations = new HashMap<>();
+    private long oldestDirtyTime;
+    private long dirtyWrites;
+    private int batchesInFlight;
+    private final Map<String, PendingWrite<T>> writing = new HashMap<>();
+    private long batchNumber;
 
     public LocalKeyValueStoreService(
             final Reactor reactor,
@@ -40,16 +96,102 @@ public class LocalKeyValueStoreService<T> implements KeyValueStoreService<T> {
             final String statKey,
             final Duration debugInterval,
             final boolean debug) {
+        this(reactor, timer, fallbackReader, writeBehindWriter, cacheSize, flushEvery, statsCollector, statKey,
+                debugInterval, debug, 1, Duration.NEVER, Integer.MAX_VALUE, 1, CacheType.LRU, Duration.NEVER);
+    }
+
+    public LocalKeyValueStoreService(
+            final Reactor reactor,
+            final Timer timer,
+            final FallbackReader<T> fallbackReader,
+            final WriteBehindWriter<T> writeBehindWriter,
+            final int cacheSize,
+            final Duration flushEvery,
+            final StatsCollector statsCollector,
+            final String statKey,
+            final Duration debugInterval,
+            final boolean debug,
+            final int writeBehindBatchSize,
+            final Duration writeBehindMaxAge,
+            final int writeBehindMaxDirty,
+            final int writeBehindMaxBatchesInFlight,
+            final CacheType cacheType,
+            final Duration expirySweepInterval) {
+        this(reactor, timer, fallbackReader, writeBehindWriter, cacheSize, flushEvery, statsCollector, statKey,
+                debugInterval, debug, writeBehindBatchSize, writeBehindMaxAge, writeBehindMaxDirty,
+                writeBehindMaxBatchesInFlight, cacheType, expirySweepInterval, Duration.NEVER, 0);
+    }
+
+    public LocalKeyValueStoreService(
+            final Reactor reactor,
+            final Timer timer,
+            final FallbackReader<T> fallbackReader,
+            final WriteBehindWriter<T> writeBehindWriter,
+            final int cacheSize,
+            final Duration flushEvery,
+            final StatsCollector statsCollector,
+            final String statKey,
+            final Duration debugInterval,
+            final boolean debug,
+            final int writeBehindBatchSize,
+            final Duration writeBehindMaxAge,
+            final int writeBehindMaxDirty,
+            final int writeBehindMaxBatchesInFlight,
+            final CacheType cacheType,
+            final Duration expirySweepInterval,
+            final Duration negativeCacheTTL,
+            final int negativeCacheSize) {
+        this(reactor, timer, fallbackReader, writeBehindWriter, cacheSize, flushEvery, statsCollector, statKey,
+                debugInterval, debug, writeBehindBatchSize, writeBehindMaxAge, writeBehindMaxDirty,
+                writeBehindMaxBatchesInFlight, cacheType, expirySweepInterval, negativeCacheTTL, negativeCacheSize,
+                null);
+    }
 
+    public LocalKeyValueStoreService(
+            final Reactor reactor,
+            final Timer timer,
+            final FallbackReader<T> fallbackReader,
+            final WriteBehindWriter<T> writeBehindWriter,
+            final int cacheSize,
+            final Duration flushEvery,
+            final StatsCollector statsCollector,
+            final String statKey,
+            final Duration debugInterval,
+            final boolean debug,
+            final int writeBehindBatchSize,
+            final Duration writeBehindMaxAge,
+            final int writeBehindMaxDirty,
+            final int writeBehindMaxBatchesInFlight,
+            final CacheType cacheType,
+            final Duration expirySweepInterval,
+            final Duration negativeCacheTTL,
+            final int negativeCacheSize,
+            final KeyInvalidationChannel invalidationChannel) {
+
+        this.cacheType = cacheType;
+        this.expirySweepInterval = expirySweepInterval;
+        this.writeThrough = writeBehindBatchSize <= 1;
+        this.writeBehindBatchSize = writeBehindBatchSize;
+        this.writeBehindMaxAgeMS = writeBehindMaxAge.toMillis();
+        this.writeBehindMaxDirty = writeBehindMaxDirty;
+        this.writeBehindMaxBatchesInFlight = writeBehindMaxBatchesInFlight;
 
         this.fallbackReader = fallbackReader;
         this.writeBehindWriter = writeBehindWriter;
         this.cacheSize = cacheSize;
         this.reactor = reactor;
-        this.reactor.addRepeatingTask(flushEvery, this::initCache);
+        if (cacheType == CacheType.LRU) {
+            this.reactor.addRepeatingTask(flushEvery, this::initCache);
+        }
         this.statsCollector = statsCollector;
         this.timer = timer;
         this.statKey = statKey;
+        this.readCollapser = new ReadCollapser<>(timer,
+                negativeCacheTTL == Duration.NEVER ? 0 : negativeCacheTTL.toMillis(), negativeCacheSize);
+        this.invalidationChannel = invalidationChannel;
+        if (invalidationChannel != null) {
+            this.reactor.addRepeatingTask(invalidationChannel.getBatchInterval(), this::publishInvalidations);
+        }
 
         if (debugInterval != Duration.NEVER) {
             this.reactor.addRepeatingTask(flushEvery, this::debugCache);
@@ -67,7 +209,33 @@ public class LocalKeyValueStoreService<T> implements KeyValueStoreService<T> {
 
     private void initCache() {
         logger.info("flushing cache");
-        cache = new SimpleLRUCache<>(this.cacheSize);
+        cache = LocalCache.localCache(cacheType, cacheSize, key -> statsCollector.increment(statKey + "cacheEvict"));
+    }
+
+    private void expireEntries() {
+        final int expired = cache.expire(timer.time(), EXPIRY_SWEEP_MAX);
+        if (expired > 0) {
+            statsCollector.recordCount(statKey + "expire", expired);
+        }
+    }
+
+    private long expireAt(final Duration expiry) {
+        final long millis = expiry.toMillis();
+        if (millis >= LocalCache.NO_EXPIRY - time - 1) {
+            return LocalCache.NO_EXPIRY;
+        }
+        scheduleExpirySweep();
+        return time + millis + 1;
+    }
+
+    /**
+     * Stores that never put with a timeout have nothing to sweep.
+     */
+    private void scheduleExpirySweep() {
+        if (!expirySweepScheduled && expirySweepInterval != Duration.NEVER) {
+            expirySweepScheduled = true;
+            reactor.addRepeatingTask(expirySweepInterval, this::expireEntries);
+        }
     }
 
     private CacheEntry<T> cacheEntry(final String key, final T value) {
@@ -85,7 +253,13 @@ public class LocalKeyValueStoreService<T> implements KeyValueStoreService<T> {
     public void put(final String key,
                     final T value) {
         cache.put(key, cacheEntry(key, value));
-        writeBehindWriter.write(key, value);
+        keyChanged(key);
+        if (writeThrough || !markDirty(key, value)) {
+            writing.remove(key);
+            writeBehindWriter.write(key, value);
+        } else {
+            flushWriteBehindIfFull();
+        }
     }
 
     @Override
@@ -95,7 +269,19 @@ public class LocalKeyValueStoreService<T> implements KeyValueStoreService<T> {
 
         /* Write it local. */
         cache.put(key, cacheEntry(key, value));
+        keyChanged(key);
 
+        if (!writeThrough) {
+            if (markDirty(key, value)) {
+                dirtyConfirmations.computeIfAbsent(key, dirtyKey -> new ArrayList<>(1)).add(confirmation);
+                flushWriteBehindIfFull();
+            } else {
+                statsCollector.increment(statKey + "writeBehindRejected");
+                confirmation.onError(new IllegalStateException(
+                        String.format("Write behind is backed up, %d dirty keys, unable to put %s", dirty.size(), key)));
+            }
+            return;
+        }
 
         final CallbackBuilder callbackBuilder = reactor.callbackBuilder();
         if (debug) {
@@ -114,7 +300,9 @@ public class LocalKeyValueStoreService<T> implements KeyValueStoreService<T> {
                                               final Duration expiry) {
 
 
-        cache.put(key, cacheEntryWithExpiry(key, value, expiry));
+        cache.put(key, cacheEntryWithExpiry(key, value, expiry), expireAt(expiry));
+        dropPending(key);
+        keyChanged(key);
 
 
         final CallbackBuilder callbackBuilder = reactor.callbackBuilder();
@@ -133,7 +321,9 @@ public class LocalKeyValueStoreService<T> implements KeyValueStoreService<T> {
     public void putWithTimeout(final String key,
                                final T value,
                                final Duration expiry) {
-        cache.put(key, cacheEntryWithExpiry(key, value, expiry));
+        cache.put(key, cacheEntryWithExpiry(key, value, expiry), expireAt(expiry));
+        dropPending(key);
+        keyChanged(key);
         writeBehindWriter.writeWithTimeout(key, value, expiry);
     }
 
@@ -144,17 +334,109 @@ public class LocalKeyValueStoreService<T> implements KeyValueStoreService<T> {
         final CacheEntry<T> cacheEntry = doGetCacheEntry(callback, key);
 
         if (cacheEntry == null) {
+            final T pendingValue = pendingValue(key);
+            if (pendingValue != null) {
+                callback.resolve(Optional.of(pendingValue));
+                return;
+            }
+            statsCollector.increment(statKey + "cacheMiss");
+            switch (readCollapser.join(key, callback)) {
+                case COLLAPSED:
+                    statsCollector.increment(statKey + "readCollapsed");
+                    return;
+                case NEGATIVE_HIT:
+                    statsCollector.increment(statKey + "negativeHit");
+                    return;
+            }
+            final Callback<Optional<T>> readCallback = readCollapser.completion(key);
             final CallbackBuilder callbackBuilder = reactor.callbackBuilder();
             if (debug) {
-                callbackBuilder.wrapWithLogging(callback, logger,
+                callbackBuilder.wrapWithLogging(readCallback, logger,
                         String.format("get  %s", key));
             } else {
-                callbackBuilder.wrapWithLogging(callback, logger, "get operation");
+                callbackBuilder.wrapWithLogging(readCallback, logger, "get operation");
             }
             fallbackReader.get(callbackBuilder.build(), key);
         }
     }
 
+    @Override
+    public void getAll(final Callback<Map<String, T>> callback,
+                       final Collection<String> keys) {
+
+        final Map<String, T> values = new LinkedHashMap<>(keys.size());
+        List<String> misses = null;
+
+        for (String key : keys) {
+            final CacheEntry<T> cacheEntry = cache.get(key);
+            if (cacheEntry != null) {
+                if (!cacheEntry.isExpired(time)) {
+                    statsCollector.increment(statKey + "cacheHit");
+                    if (cacheEntry.getValue() != null) {
+                        values.put(key, cacheEntry.getValue());
+                    }
+                    continue;
+                }
+                statsCollector.increment(statKey + "expire");
+                cache.remove(key);
+            }
+            final T pendingValue = pendingValue(key);
+            if (pendingValue != null) {
+                values.put(key, pendingValue);
+                continue;
+            }
+            if (readCollapser.isMiss(key)) {
+                statsCollector.increment(statKey + "negativeHit");
+                continue;
+            }
+            if (misses == null) {
+                misses = new ArrayList<>();
+            }
+            misses.add(key);
+        }
+
+        if (misses == null) {
+            callback.resolve(values);
+            return;
+        }
+
+        statsCollector.recordCount(statKey + "cacheMiss", misses.size());
+
+        /* Keys a single get is already reading wait for that read, the rest are read in one batch. */
+        final GetAllGather gather = new GetAllGather(callback, values);
+        List<String> reads = null;
+        for (String key : misses) {
+            if (readCollapser.outstanding() > 0 && readCollapser.joinIfReading(key, gather.forKey(key))) {
+                gather.joined();
+                statsCollector.increment(statKey + "readCollapsed");
+                continue;
+            }
+            if (reads == null) {
+                reads = new ArrayList<>(misses.size());
+            }
+            reads.add(key);
+        }
+
+        if (reads != null) {
+            statsCollector.increment(statKey + "batchRead");
+            gather.batchRead();
+            final CallbackBuilder callbackBuilder = reactor.callbackBuilder();
+            if (debug) {
+                callbackBuilder.delegateWithLogging(gather, logger, String.format("get all %s", reads));
+            } else {
+                callbackBuilder.delegateWithLogging(gather, logger, "get all operation");
+            }
+            callbackBuilder.withCallback(gather);
+            fallbackReader.getAll(callbackBuilder.build(), reads);
+        }
+        gather.start();
+    }
+
+    @Override
+    public void putAll(final Map<String, T> values) {
+        values.forEach(this::put);
+    }
+
     private CacheEntry<T> doGetCacheEntry(final Callback<Optional<T>> callback,
                                           final String key) {
         CacheEntry<T> cacheEntry = cache.get(key);
@@ -195,6 +477,17 @@ public class LocalKeyValueStoreService<T> implements KeyValueStoreService<T> {
             }
         }
 
+        if (dirty.containsKey(key) || writing.containsKey(key)) {
+            hasKeyCallback.resolve(true);
+            return;
+        }
+
+        if (readCollapser.isMiss(key)) {
+            statsCollector.increment(statKey + "negativeHit");
+            hasKeyCallback.resolve(false);
+            return;
+        }
+
         final CallbackBuilder callbackBuilder = reactor.callbackBuilder();
         if (debug) {
             callbackBuilder.wrapWithLogging(hasKeyCallback, logger,
@@ -210,14 +503,29 @@ public class LocalKeyValueStoreService<T> implements KeyValueStoreService<T> {
     public void delete(final String key) {
 
         cache.remove(key);
+        dropPending(key);
+        keyChanged(key);
         writeBehindWriter.delete(key);
 
     }
 
+    @Override
+    public void deleteAll(final Collection<String> keys) {
+
+        for (String key : keys) {
+            cache.remove(key);
+            dropPending(key);
+            keyChanged(key);
+        }
+        writeBehindWriter.deleteBatch(keys);
+    }
+
     @Override
     public void deleteWithConfirmation(Callback<Boolean> confirmation, String key) {
 
         cache.remove(key);
+        dropPending(key);
+        keyChanged(key);
 
         final CallbackBuilder callbackBuilder = reactor.callbackBuilder();
         if (debug) {
@@ -232,16 +540,287 @@ public class LocalKeyValueStoreService<T> implements KeyValueStoreService<T> {
     @Override
     public void wipeCache() {
         initCache();
+        readCollapser.clearMisses();
     }
 
     @QueueCallback({QueueCallbackType.EMPTY, QueueCallbackType.LIMIT, QueueCallbackType.IDLE})
     public void process() {
         reactor.process();
         time = timer.time();
+        if (invalidationChannel != null) {
+            final int received = invalidationChannel.drain(this::invalidatedByPeer, this::allInvalidatedByPeer);
+            if (received > 0) {
+                statsCollector.recordCount(statKey + "invalidationsReceived", received);
+            }
+        }
+        if (!dirty.isEmpty() && time - oldestDirtyTime >= writeBehindMaxAgeMS) {
+            flushWriteBehind();
+        }
         fallbackReader.flushRequests();
         writeBehindWriter.flushRequests();
     }
 
+    /**
+     * Writes out the dirty set even if the batches in flight are at their limit, publishes the last invalidations
+     * and stops listening for the other stores.
+     */
+    @QueueCallback(QueueCallbackType.SHUTDOWN)
+    public void shutdown() {
+        if (!dirty.isEmpty()) {
+            writeDirty();
+        }
+        writeBehindWriter.flushRequests();
+        if (invalidationChannel != null) {
+            publishInvalidations();
+            invalidationChannel.unregister();
+        }
+    }
+
+    /**
+     * The key was written or deleted by this store.
+     */
+    private void keyChanged(final String key) {
+        readCollapser.invalidate(key);
+        if (invalidationChannel != null) {
+            invalidationChannel.keyChanged(key);
+        }
+    }
+
+    /**
+     * The key was written or deleted by another store, pending writes of this store are kept.
+     */
+    private void invalidatedByPeer(final String key) {
+        cache.remove(key);
+        readCollapser.invalidate(key);
+    }
+
+    /**
+     * Too many keys came from the other stores to queue them, drop the whole local cache.
+     */
+    private void allInvalidatedByPeer() {
+        initCache();
+        readCollapser.invalidateAll();
+    }
+
+    private void publishInvalidations() {
+        final int sent = invalidationChannel.publish();
+        if (sent > 0) {
+            statsCollector.recordCount(statKey + "invalidationsSent", sent);
+        }
+    }
+
+    /**
+     * Value written by this store that the writer has not confirmed yet.
+     */
+    private T pendingValue(final String key) {
+        final T dirtyValue = dirty.get(key);
+        if (dirtyValue != null) {
+            return dirtyValue;
+        }
+        final PendingWrite<T> pendingWrite = writing.get(key);
+        return pendingWrite == null ? null : pendingWrite.value;
+    }
+
+    /**
+     * A later write or delete of the key goes to the writer on its own.
+     */
+    private void dropPending(final String key) {
+        if (dirty.remove(key) != null && !dirtyConfirmations.isEmpty()) {
+            final List<Callback<Boolean>> confirmations = dirtyConfirmations.remove(key);
+            if (confirmations != null) {
+                confirmations.forEach(confirmation -> confirmation.resolve(true));
+            }
+        }
+        writing.remove(key);
+    }
+
+    /**
+     * Coalesces the write into the dirty set.
+     *
+     * @return false if the key is new and the dirty set is full
+     */
+    private boolean markDirty(final String key, final T value) {
+        if (dirty.size() >= writeBehindMaxDirty && !dirty.containsKey(key)) {
+            return false;
+        }
+        if (dirty.isEmpty()) {
+            oldestDirtyTime = time;
+        }
+        dirty.put(key, value);
+        dirtyWrites++;
+        return true;
+    }
+
+    private void flushWriteBehindIfFull() {
+        if (dirty.size() >= writeBehindBatchSize) {
+            flushWriteBehind();
+        }
+    }
+
+    private void flushWriteBehind() {
+
+        if (dirty.isEmpty() || batchesInFlight >= writeBehindMaxBatchesInFlight) {
+            return;
+        }
+        writeDirty();
+    }
+
+    private void writeDirty() {
+
+        final LinkedHashMap<String, T> batch = dirty;
+        final List<Callback<Boolean>> confirmations = new ArrayList<>();
+        dirtyConfirmations.values().forEach(confirmations::addAll);
+        dirty = new LinkedHashMap<>();
+        dirtyConfirmations = new HashMap<>();
+
+        statsCollector.recordCount(statKey + "writeBehindWrites", dirtyWrites);
+        statsCollector.recordCount(statKey + "writeBehindKeysFlushed", batch.size());
+        dirtyWrites = 0;
+        batchesInFlight++;
+
+        final long batchId = ++batchNumber;
+        batch.forEach((key, value) -> writing.put(key, new PendingWrite<>(value, batchId)));
+
+        final long startTime = timer.now();
+
+        final Callback<Boolean> batchConfirmation = reactor.callbackBuilder()
+                .withBooleanCallback(success -> {
+                    batchDone(startTime, batch, batchId);
+                    if (!success) {
+                        statsCollector.increment(statKey + "writeBehindFailed");
+                        logger.error("Write behind batch of {} keys was not written", batch.size());
+                    }
+                    confirmations.forEach(confirmation -> confirmation.resolve(success));
+                })
+                .withErrorHandler(error -> {
+                    batchDone(startTime, batch, batchId);
+                    statsCollector.increment(statKey + "writeBehindFailed");
+                    logger.error(String.format("Write behind batch of %d keys failed", batch.size()), error);
+                    confirmations.forEach(confirmation -> confirmation.onError(error));
+                })
+                .withTimeoutHandler(() -> {
+                    batchDone(startTime, batch, batchId);
+                    statsCollector.increment(statKey + "writeBehindTimeout");
+                    logger.error("Write behind batch of {} keys timed out", batch.size());
+                    confirmations.forEach(Callback::onTimeout);
+                })
+                .build();
+
+        writeBehindWriter.writeBatchWithConfirmation(batchConfirmation, batch);
+    }
+
+    private void batchDone(final long startTime, final Map<String, T> batch, final long batchId) {
+        batchesInFlight--;
+        for (String key : batch.keySet()) {
+            final PendingWrite<T> pendingWrite = writing.get(key);
+            if (pendingWrite != null && pendingWrite.batchId == batchId) {
+                writing.remove(key);
+            }
+        }
+        statsCollector.recordTiming(statKey + "writeBehindFlush", timer.now() - startTime);
+        flushWriteBehindIfFull();
+    }
+
+    /**
+     * Resolves a getAll once its batch read and the outstanding single reads it joined are back.
+     * Every part completes on the service thread.
+     */
+    private final class GetAllGather implements Callback<Map<String, T>> {
+
+        private final Callback<Map<String, T>> callback;
+        private final Map<String, T> values;
+        private int pending;
+        private boolean started;
+        private boolean done;
+
+        private GetAllGather(final Callback<Map<String, T>> callback, final Map<String, T> values) {
+            this.callback = callback;
+            this.values = values;
+        }
+
+        private Callback<Optional<T>> forKey(final String key) {
+            return new Callback<Optional<T>>() {
+                @Override
+                public void accept(final Optional<T> value) {
+                    if (value != null && value.isPresent()) {
+                        values.put(key, value.get());
+                    }
+                    partDone();
+                }
+
+                @Override
+                public void onError(final Throwable error) {
+                    GetAllGather.this.onError(error);
+                }
+
+                @Override
+                public void onTimeout() {
+                    GetAllGather.this.onTimeout();
+                }
+            };
+        }
+
+        /* The callback of forKey was parked behind a read. */
+        private void joined() {
+            pending++;
+        }
+
+        private void batchRead() {
+            pending++;
+        }
+
+        private void start() {
+            started = true;
+            if (pending == 0 && !done) {
+                done = true;
+                callback.resolve(values);
+            }
+        }
+
+        private void partDone() {
+            pending--;
+            if (started && pending == 0 && !done) {
+                done = true;
+                callback.resolve(values);
+            }
+        }
+
+        @Override
+        public void accept(final Map<String, T> found) {
+            if (found != null) {
+                values.putAll(found);
+            }
+            partDone();
+        }
+
+        @Override
+        public void onError(final Throwable error) {
+            if (!done) {
+                done = true;
+                callback.onError(error);
+            }
+        }
+
+        @Override
+        public void onTimeout() {
+            if (!done) {
+                done = true;
+                callback.onTimeout();
+            }
+        }
+    }
+
+    private static final class PendingWrite<V> {
+
+        private final V value;
+        private final long batchId;
+
+        private PendingWrite(final V value, final long batchId) {
+            this.value = value;
+            this.batchId = batchId;
+        }
+    }
+
     private class CacheEntry<V> {
 
 
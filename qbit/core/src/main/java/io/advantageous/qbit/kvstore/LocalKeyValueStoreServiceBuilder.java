@@ -1,6 +1,9 @@
 package io.advantageous.qbit.kvstore;
 
+import io.advantageous.qbit.QBit;
 import io.advantageous.qbit.client.ClientProxy;
+import io.advantageous.qbit.events.EventManager;
+import io.advantageous.qbit.kvstore.cache.CacheType;
 import io.advantageous.qbit.kvstore.impl.StringDecoderEncoderKeyValueStore;
 import io.advantageous.qbit.kvstore.lowlevel.LowLevelKeyValueStoreService;
 import io.advantageous.qbit.reactive.Callback;
@@ -13,6 +16,8 @@ import io.advantageous.qbit.service.stats.StatsCollector;
 import io.advantageous.qbit.time.Duration;
 import io.advantageous.qbit.util.Timer;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
 
 public class LocalKeyValueStoreServiceBuilder<T> {
@@ -29,6 +34,19 @@ public class LocalKeyValueStoreServiceBuilder<T> {
     private String statKey = "qbit.kv.object.store.";
     private Duration debugInterval = Duration.NEVER;
     private ServiceBuilder serviceBuilder;
+    private int writeBehindBatchSize = 1;
+    private Duration writeBehindMaxAge = Duration.FIFTY_MILLIS;
+    private int writeBehindMaxDirty = 100_000;
+    private int writeBehindMaxBatchesInFlight = 4;
+    private CacheType cacheType = CacheType.LRU;
+    private Duration expirySweepInterval = Duration.ONE_SECOND;
+    private Duration negativeCacheTTL = Duration.NEVER;
+    private int negativeCacheSize = 10_000;
+    private String invalidationChannel;
+    private EventManager invalidationEventManager;
+    private Duration invalidationBatchInterval = Duration.FIFTY_MILLIS;
+    private int invalidationMaxBatchSize = 1_000;
+    private int invalidationMaxReceivedKeys = 10_000;
 
     public static <T> LocalKeyValueStoreServiceBuilder<T> localKeyValueStoreServiceBuilder(final Class<T> classType) {
         LocalKeyValueStoreServiceBuilder<T> builder = new LocalKeyValueStoreServiceBuilder<>();
@@ -49,10 +67,7 @@ public class LocalKeyValueStoreServiceBuilder<T> {
     public LocalKeyValueStoreServiceBuilder<T> setWriteBehindAndReadFallback(
             final KeyValueStoreService<T> keyValueStoreServiceInternal) {
 
-        final KeyValueStoreService<T> keyValueStoreService =
-                keyValueStoreServiceInternal instanceof ClientProxy ? keyValueStoreServiceInternal
-                        : getServiceBuilder().setServiceObject(keyValueStoreServiceInternal).buildAndStartAll()
-                        .createProxy(KeyValueStoreService.class);
+        final KeyValueStoreService<T> keyValueStoreService = serviceProxy(keyValueStoreServiceInternal);
 
         setWriteBehind(keyValueStoreService);
         setReadFallback(keyValueStoreService);
@@ -60,12 +75,16 @@ public class LocalKeyValueStoreServiceBuilder<T> {
         return this;
     }
 
+    @SuppressWarnings("unchecked")
+    private KeyValueStoreService<T> serviceProxy(final KeyValueStoreService<T> keyValueStoreServiceInternal) {
+        return keyValueStoreServiceInternal instanceof ClientProxy ? keyValueStoreServiceInternal
+                : getServiceBuilder().setServiceObject(keyValueStoreServiceInternal).buildAndStartAll()
+                .createProxy(KeyValueStoreService.class);
+    }
+
     public LocalKeyValueStoreServiceBuilder<T> setWriteBehind(final KeyValueStoreService<T> keyValueStoreServiceInternal) {
 
-        final KeyValueStoreService<T> keyValueStoreService =
-                keyValueStoreServiceInternal instanceof ClientProxy ? keyValueStoreServiceInternal
-                        : getServiceBuilder().setServiceObject(keyValueStoreServiceInternal).buildAndStartAll()
-                        .createProxy(KeyValueStoreService.class);
+        final KeyValueStoreService<T> keyValueStoreService = serviceProxy(keyValueStoreServiceInternal);
 
         setWriteBehindWriter(new WriteBehindWriter<T>() {
             @Override
@@ -90,11 +109,26 @@ public class LocalKeyValueStoreServiceBuilder<T> {
 
             }
 
+            @Override
+            public void writeBatchWithConfirmation(Callback<Boolean> confirmation, Map<String, T> batch) {
+                BatchConfirmation.writeEach(batch, keyValueStoreService::putWithConfirmation, confirmation);
+            }
+
+            @Override
+            public void writeBatch(Map<String, T> batch) {
+                keyValueStoreService.putAll(batch);
+            }
+
             @Override
             public void delete(String key) {
                 keyValueStoreService.delete(key);
             }
 
+            @Override
+            public void deleteBatch(Collection<String> keys) {
+                keyValueStoreService.deleteAll(keys);
+            }
+
             @Override
             public void deleteWithConfirmation(Callback<Boolean> confirmation, String key) {
                 keyValueStoreService.deleteWithConfirmation(confirmation, key);
@@ -112,10 +146,7 @@ public class LocalKeyValueStoreServiceBuilder<T> {
 
     public LocalKeyValueStoreServiceBuilder<T> setReadFallback(final KeyValueStoreService<T> keyValueStoreServiceInternal) {
 
-        final KeyValueStoreService<T> keyValueStoreService =
-                keyValueStoreServiceInternal instanceof ClientProxy ? keyValueStoreServiceInternal
-                        : getServiceBuilder().setServiceObject(keyValueStoreServiceInternal).buildAndStartAll()
-                        .createProxy(KeyValueStoreService.class);
+        final KeyValueStoreService<T> keyValueStoreService = serviceProxy(keyValueStoreServiceInternal);
 
         setFallbackReader(new FallbackReader<T>() {
 
@@ -124,6 +155,11 @@ public class LocalKeyValueStoreServiceBuilder<T> {
                 keyValueStoreService.get(callback, key);
             }
 
+            @Override
+            public void getAll(Callback<Map<String, T>> callback, Collection<String> keys) {
+                keyValueStoreService.getAll(callback, keys);
+            }
+
             @Override
             public void hasKey(Callback<Boolean> callback, String key) {
                 keyValueStoreService.hasKey(callback, key);
@@ -146,7 +182,7 @@ public class LocalKeyValueStoreServiceBuilder<T> {
         return serviceBuilder.copy();
     }
 
-    public LocalKeyValueStoreServiceBuilder setServiceBuilder(ServiceBuilder serviceBuilder) {
+    public LocalKeyValueStoreServiceBuilder<T> setServiceBuilder(ServiceBuilder serviceBuilder) {
         this.serviceBuilder = serviceBuilder;
         return this;
     }
@@ -158,7 +194,7 @@ public class LocalKeyValueStoreServiceBuilder<T> {
         return reactor;
     }
 
-    public LocalKeyValueStoreServiceBuilder setReactor(Reactor reactor) {
+    public LocalKeyValueStoreServiceBuilder<T> setReactor(Reactor reactor) {
         this.reactor = reactor;
         return this;
     }
@@ -170,7 +206,7 @@ public class LocalKeyValueStoreServiceBuilder<T> {
         return timer;
     }
 
-    public LocalKeyValueStoreServiceBuilder setTimer(Timer timer) {
+    public LocalKeyValueStoreServiceBuilder<T> setTimer(Timer timer) {
         this.timer = timer;
         return this;
     }
@@ -179,7 +215,7 @@ public class LocalKeyValueStoreServiceBuilder<T> {
         return classType;
     }
 
-    public LocalKeyValueStoreServiceBuilder setClassType(Class<T> classType) {
+    public LocalKeyValueStoreServiceBuilder<T> setClassType(Class<T> classType) {
         this.classType = classType;
         return this;
     }
@@ -193,7 +229,7 @@ public class LocalKeyValueStoreServiceBuilder<T> {
         return fallbackReader;
     }
 
-    public LocalKeyValueStoreServiceBuilder setFallbackReader(FallbackReader<T> fallbackReader) {
+    public LocalKeyValueStoreServiceBuilder<T> setFallbackReader(FallbackReader<T> fallbackReader) {
         this.fallbackReader = fallbackReader;
         return this;
     }
@@ -206,7 +242,7 @@ public class LocalKeyValueStoreServiceBuilder<T> {
         return writeBehindWriter;
     }
 
-    public LocalKeyValueStoreServiceBuilder setWriteBehindWriter(WriteBehindWriter<T> writeBehindWriter) {
+    public LocalKeyValueStoreServiceBuilder<T> setWriteBehindWriter(WriteBehindWriter<T> writeBehindWriter) {
 
         this.writeBehindWriter = writeBehindWriter;
         return this;
@@ -216,7 +252,7 @@ public class LocalKeyValueStoreServiceBuilder<T> {
         return cacheSize;
     }
 
-    public LocalKeyValueStoreServiceBuilder setCacheSize(int cacheSize) {
+    public LocalKeyValueStoreServiceBuilder<T> setCacheSize(int cacheSize) {
         this.cacheSize = cacheSize;
         return this;
     }
@@ -225,7 +261,7 @@ public class LocalKeyValueStoreServiceBuilder<T> {
         return flushEvery;
     }
 
-    public LocalKeyValueStoreServiceBuilder setFlushEvery(Duration flushEvery) {
+    public LocalKeyValueStoreServiceBuilder<T> setFlushEvery(Duration flushEvery) {
         this.flushEvery = flushEvery;
         return this;
     }
@@ -238,7 +274,7 @@ public class LocalKeyValueStoreServiceBuilder<T> {
         return statsCollector;
     }
 
-    public LocalKeyValueStoreServiceBuilder setStatsCollector(StatsCollector statsCollector) {
+    public LocalKeyValueStoreServiceBuilder<T> setStatsCollector(StatsCollector statsCollector) {
         this.statsCollector = statsCollector;
         return this;
     }
@@ -247,7 +283,7 @@ public class LocalKeyValueStoreServiceBuilder<T> {
         return statKey;
     }
 
-    public LocalKeyValueStoreServiceBuilder setStatKey(String statKey) {
+    public LocalKeyValueStoreServiceBuilder<T> setStatKey(String statKey) {
         this.statKey = statKey;
         return this;
     }
@@ -256,11 +292,219 @@ public class LocalKeyValueStoreServiceBuilder<T> {
         return debugInterval;
     }
 
-    public LocalKeyValueStoreServiceBuilder setDebugInterval(Duration debugInterval) {
+    public LocalKeyValueStoreServiceBuilder<T> setDebugInterval(Duration debugInterval) {
         this.debugInterval = debugInterval;
         return this;
     }
 
+    public int getWriteBehindBatchSize() {
+        return writeBehindBatchSize;
+    }
+
+    /**
+     * Number of dirty keys that triggers a write behind flush. 1 or less writes every put through, which is the
+     * default, so write behind is opt in.
+     *
+     * @param writeBehindBatchSize batch size
+     * @return this
+     */
+    public LocalKeyValueStoreServiceBuilder<T> setWriteBehindBatchSize(int writeBehindBatchSize) {
+        this.writeBehindBatchSize = writeBehindBatchSize;
+        return this;
+    }
+
+    public Duration getWriteBehindMaxAge() {
+        return writeBehindMaxAge;
+    }
+
+    /**
+     * How long a dirty key can wait before the dirty set is flushed.
+     *
+     * @param writeBehindMaxAge max age
+     * @return this
+     */
+    public LocalKeyValueStoreServiceBuilder<T> setWriteBehindMaxAge(Duration writeBehindMaxAge) {
+        this.writeBehindMaxAge = writeBehindMaxAge;
+        return this;
+    }
+
+    public int getWriteBehindMaxDirty() {
+        return writeBehindMaxDirty;
+    }
+
+    /**
+     * Limit on dirty keys, past this puts with confirmation are rejected and plain puts are written through.
+     *
+     * @param writeBehindMaxDirty max dirty keys
+     * @return this
+     */
+    public LocalKeyValueStoreServiceBuilder<T> setWriteBehindMaxDirty(int writeBehindMaxDirty) {
+        this.writeBehindMaxDirty = writeBehindMaxDirty;
+        return this;
+    }
+
+    public int getWriteBehindMaxBatchesInFlight() {
+        return writeBehindMaxBatchesInFlight;
+    }
+
+    /**
+     * Number of batches that can be waiting on the writer before flushes hold off.
+     *
+     * @param writeBehindMaxBatchesInFlight max batches in flight
+     * @return this
+     */
+    public LocalKeyValueStoreServiceBuilder<T> setWriteBehindMaxBatchesInFlight(int writeBehindMaxBatchesInFlight) {
+        this.writeBehindMaxBatchesInFlight = writeBehindMaxBatchesInFlight;
+        return this;
+    }
+
+    public CacheType getCacheType() {
+        return cacheType;
+    }
+
+    /**
+     * Eviction policy of the local cache. With {@link CacheType#TINY_LFU} the cache is not wiped every flushEvery.
+     *
+     * @param cacheType cache type
+     * @return this
+     */
+    public LocalKeyValueStoreServiceBuilder<T> setCacheType(CacheType cacheType) {
+        this.cacheType = cacheType;
+        return this;
+    }
+
+    public Duration getExpirySweepInterval() {
+        return expirySweepInterval;
+    }
+
+    /**
+     * How often the reactor removes expired entries from the local cache, Duration.NEVER to only expire on read.
+     *
+     * @param expirySweepInterval sweep interval
+     * @return this
+     */
+    public LocalKeyValueStoreServiceBuilder<T> setExpirySweepInterval(Duration expirySweepInterval) {
+        this.expirySweepInterval = expirySweepInterval;
+        return this;
+    }
+
+    public Duration getNegativeCacheTTL() {
+        return negativeCacheTTL;
+    }
+
+    /**
+     * How long a fallback read that found nothing is remembered, Duration.NEVER to not remember misses.
+     *
+     * @param negativeCacheTTL negative cache time to live
+     * @return this
+     */
+    public LocalKeyValueStoreServiceBuilder<T> setNegativeCacheTTL(Duration negativeCacheTTL) {
+        this.negativeCacheTTL = negativeCacheTTL;
+        return this;
+    }
+
+    public int getNegativeCacheSize() {
+        return negativeCacheSize;
+    }
+
+    /**
+     * Max number of misses remembered by the negative cache.
+     *
+     * @param negativeCacheSize negative cache size
+     * @return this
+     */
+    public LocalKeyValueStoreServiceBuilder<T> setNegativeCacheSize(int negativeCacheSize) {
+        this.negativeCacheSize = negativeCacheSize;
+        return this;
+    }
+
+    public String getInvalidationChannel() {
+        return invalidationChannel;
+    }
+
+    /**
+     * Turns on near cache invalidation. Keys written or deleted by this store are published on the channel and
+     * keys published by the other stores on the channel are dropped from the local cache.
+     *
+     * @param invalidationChannel event channel name
+     * @return this
+     */
+    public LocalKeyValueStoreServiceBuilder<T> setInvalidationChannel(String invalidationChannel) {
+        this.invalidationChannel = invalidationChannel;
+        return this;
+    }
+
+    public EventManager getInvalidationEventManager() {
+        if (invalidationEventManager == null) {
+            invalidationEventManager = QBit.factory().systemEventManager();
+        }
+        return invalidationEventManager;
+    }
+
+    /**
+     * Event manager used for invalidation, defaults to the system event manager.
+     *
+     * @param invalidationEventManager event manager
+     * @return this
+     */
+    public LocalKeyValueStoreServiceBuilder<T> setInvalidationEventManager(EventManager invalidationEventManager) {
+        this.invalidationEventManager = invalidationEventManager;
+        return this;
+    }
+
+    public Duration getInvalidationBatchInterval() {
+        return invalidationBatchInterval;
+    }
+
+    /**
+     * How often changed keys are published.
+     *
+     * @param invalidationBatchInterval batch interval
+     * @return this
+     */
+    public LocalKeyValueStoreServiceBuilder<T> setInvalidationBatchInterval(Duration invalidationBatchInterval) {
+        this.invalidationBatchInterval = invalidationBatchInterval;
+        return this;
+    }
+
+    public int getInvalidationMaxBatchSize() {
+        return invalidationMaxBatchSize;
+    }
+
+    /**
+     * Number of changed keys that are published without waiting for the batch interval.
+     *
+     * @param invalidationMaxBatchSize max keys per event
+     * @return this
+     */
+    public LocalKeyValueStoreServiceBuilder<T> setInvalidationMaxBatchSize(int invalidationMaxBatchSize) {
+        this.invalidationMaxBatchSize = invalidationMaxBatchSize;
+        return this;
+    }
+
+    public int getInvalidationMaxReceivedKeys() {
+        return invalidationMaxReceivedKeys;
+    }
+
+    /**
+     * Number of keys from the other stores that can wait for this store, past that the whole local cache is dropped.
+     *
+     * @param invalidationMaxReceivedKeys max keys waiting
+     * @return this
+     */
+    public LocalKeyValueStoreServiceBuilder<T> setInvalidationMaxReceivedKeys(int invalidationMaxReceivedKeys) {
+        this.invalidationMaxReceivedKeys = invalidationMaxReceivedKeys;
+        return this;
+    }
+
+    private KeyInvalidationChannel buildInvalidationChannel() {
+        if (getInvalidationChannel() == null) {
+            return null;
+        }
+        return new KeyInvalidationChannel(getInvalidationEventManager(), getInvalidationChannel(),
+                getInvalidationBatchInterval(), getInvalidationMaxBatchSize(), getInvalidationMaxReceivedKeys());
+    }
+
     public LocalKeyValueStoreService<T> build() {
 
         return new LocalKeyValueStoreService<>(
@@ -273,7 +517,16 @@ public class LocalKeyValueStoreServiceBuilder<T> {
                 getStatsCollector(),
                 getStatKey(),
                 getDebugInterval(),
-                getDebug());
+                getDebug(),
+                getWriteBehindBatchSize(),
+                getWriteBehindMaxAge(),
+                getWriteBehindMaxDirty(),
+                getWriteBehindMaxBatchesInFlight(),
+                getCacheType(),
+                getExpirySweepInterval(),
+                getNegativeCacheTTL(),
+                getNegativeCacheSize(),
+                buildInvalidationChannel());
     }
 
 
@@ -293,7 +546,7 @@ public class LocalKeyValueStoreServiceBuilder<T> {
         return debug;
     }
 
-    public LocalKeyValueStoreServiceBuilder setDebug(boolean debug) {
+    public LocalKeyValueStoreServiceBuilder<T> setDebug(boolean debug) {
 
         this.debug = debug;
         return this;
@@ -0,0 +1,87 @@
+package io.advantageous.qbit.kvstore;
+
+import io.advantageous.qbit.reactive.Callback;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiConsumer;
+
+/**
+ * Builds a bulk get out of single key gets for stores that do not have a batch read.
+ * <p>
+ * The single gets can resolve on any thread and in any order. The callback gets the keys that were found
+ * in the order they were asked for, or the first error or timeout.
+ *
+ * @author rhightower
+ */
+public final class MultiGet {
+
+    private MultiGet() {
+    }
+
+    /**
+     * Get every key with the single key get and resolve the callback once all of them are back.
+     *
+     * @param keys     keys
+     * @param get      single key get
+     * @param callback gets the found values by key
+     * @param <V>      value type
+     */
+    public static <V> void multiGet(final Collection<String> keys,
+                                    final BiConsumer<Callback<Optional<V>>, String> get,
+                                    final Callback<Map<String, V>> callback) {
+
+        final List<String> keyList = new ArrayList<>(new LinkedHashSet<>(keys));
+        if (keyList.isEmpty()) {
+            callback.resolve(Collections.<String, V>emptyMap());
+            return;
+        }
+
+        final AtomicReferenceArray<V> values = new AtomicReferenceArray<>(keyList.size());
+        final AtomicInteger remaining = new AtomicInteger(keyList.size());
+        final AtomicBoolean done = new AtomicBoolean();
+
+        for (int index = 0; index < keyList.size(); index++) {
+            final int slot = index;
+            get.accept(new Callback<Optional<V>>() {
+                @Override
+                public void accept(final Optional<V> value) {
+                    values.set(slot, value == null ? null : value.orElse(null));
+                    if (remaining.decrementAndGet() == 0 && done.compareAndSet(false, true)) {
+                        final Map<String, V> found = new LinkedHashMap<>(values.length());
+                        for (int position = 0; position < values.length(); position++) {
+                            final V foundValue = values.get(position);
+                            if (foundValue != null) {
+                                found.put(keyList.get(position), foundValue);
+                            }
+                        }
+                        callback.resolve(found);
+                    }
+                }
+
+                @Override
+                public void onError(final Throwable error) {
+                    if (done.compareAndSet(false, true)) {
+                        callback.onError(error);
+                    }
+                }
+
+                @Override
+                public void onTimeout() {
+                    if (done.compareAndSet(false, true)) {
+                        callback.onTimeout();
+                    }
+                }
+            }, keyList.get(slot));
+        }
+    }
+}
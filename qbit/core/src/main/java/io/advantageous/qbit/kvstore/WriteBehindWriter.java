@@ -4,6 +4,9 @@ package io.advantageous.qbit.kvstore;
 import io.advantageous.qbit.reactive.Callback;
 import io.advantageous.qbit.time.Duration;
 
+import java.util.Collection;
+import java.util.Map;
+
 public interface WriteBehindWriter<T> {
 
     default void writeWithConfirmation(Callback<Boolean> confirmation, String key, T value) {
@@ -30,6 +33,36 @@ public interface WriteBehindWriter<T> {
     }
 
 
+    /**
+     * Writes a batch of coalesced puts, only the last value for each key is in the batch.
+     *
+     * @param batch keys and values in the order they were first written
+     */
+    default void writeBatch(Map<String, T> batch) {
+        batch.forEach(this::write);
+    }
+
+    /**
+     * Writes a batch of coalesced puts. The confirmation must only be resolved once the whole batch is durable.
+     * By default each key is written with {@link #writeWithConfirmation(Callback, String, Object)} and the batch
+     * is confirmed once every key is, or fails with the first key that is not.
+     *
+     * @param confirmation confirmation for the batch
+     * @param batch        keys and values in the order they were first written
+     */
+    default void writeBatchWithConfirmation(Callback<Boolean> confirmation, Map<String, T> batch) {
+        BatchConfirmation.writeEach(batch, this::writeWithConfirmation, confirmation);
+    }
+
+    /**
+     * Deletes a batch of keys.
+     *
+     * @param keys keys
+     */
+    default void deleteBatch(Collection<String> keys) {
+        keys.forEach(this::delete);
+    }
+
     default void flushRequests() {
 
     }
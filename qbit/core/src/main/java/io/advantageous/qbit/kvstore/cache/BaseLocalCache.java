@@ -0,0 +1,246 @@
+package io.advantageous.qbit.kvstore.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the key map and the expiry queue, the subclass keeps the nodes in its policy lists.
+ * <p>
+ * Expiry records are kept in a priority queue ordered by expire time. Changing the expire time of an entry
+ * adds a new record and the old one is skipped by the sweep. The queue is rebuilt when stale records
+ * outnumber live entries.
+ *
+ * @param <V> value type
+ * @author rhightower
+ */
+abstract class BaseLocalCache<V> implements LocalCache<V> {
+
+    protected final int maximumSize;
+    private final HashMap<String, Node<V>> map;
+    private final Consumer<String> evictionListener;
+    private PriorityQueue<Expiry<V>> expiryQueue = new PriorityQueue<>();
+
+    BaseLocalCache(final int maximumSize, final Consumer<String> evictionListener) {
+        this.maximumSize = Math.max(1, maximumSize);
+        this.map = new HashMap<>(Math.min(this.maximumSize, 1 << 16));
+        this.evictionListener = evictionListener == null ? key -> {
+        } : evictionListener;
+    }
+
+    /**
+     * A new node, the policy must add it and evict if it is over size.
+     */
+    protected abstract void onAdd(Node<V> node);
+
+    /**
+     * A read or update of a node.
+     */
+    protected abstract void onHit(Node<V> node);
+
+    /**
+     * A read of a key that is not in the cache.
+     */
+    protected void onMiss(final String key) {
+    }
+
+    /**
+     * The node is leaving the cache, unlink it from the policy lists.
+     */
+    protected abstract void onRemove(Node<V> node);
+
+    @Override
+    public V get(final String key) {
+        final Node<V> node = map.get(key);
+        if (node == null) {
+            onMiss(key);
+            return null;
+        }
+        onHit(node);
+        return node.value;
+    }
+
+    @Override
+    public V getSilent(final String key) {
+        final Node<V> node = map.get(key);
+        return node == null ? null : node.value;
+    }
+
+    @Override
+    public void put(final String key, final V value, final long expireAt) {
+        Node<V> node = map.get(key);
+        if (node != null) {
+            node.value = value;
+            setExpiry(node, expireAt);
+            onHit(node);
+            return;
+        }
+        node = new Node<>(key, value);
+        map.put(key, node);
+        setExpiry(node, expireAt);
+        onAdd(node);
+    }
+
+    @Override
+    public V remove(final String key) {
+        final Node<V> node = map.remove(key);
+        if (node == null) {
+            return null;
+        }
+        onRemove(node);
+        node.expiry = null;
+        return node.value;
+    }
+
+    /**
+     * Called by the policy to throw out a node to make room.
+     */
+    protected void evict(final Node<V> node) {
+        map.remove(node.key);
+        onRemove(node);
+        node.expiry = null;
+        evictionListener.accept(node.key);
+    }
+
+    private void setExpiry(final Node<V> node, final long expireAt) {
+        if (expireAt == NO_EXPIRY) {
+            node.expiry = null;
+            return;
+        }
+        if (node.expiry != null && node.expiry.expireAt == expireAt) {
+            return;
+        }
+        node.expiry = new Expiry<>(expireAt, node);
+        expiryQueue.add(node.expiry);
+        if (expiryQueue.size() > 64 && expiryQueue.size() > map.size() * 2) {
+            compactExpiryQueue();
+        }
+    }
+
+    private void compactExpiryQueue() {
+        final PriorityQueue<Expiry<V>> live = new PriorityQueue<>(Math.max(16, map.size()));
+        map.values().forEach(node -> {
+            if (node.expiry != null) {
+                live.add(node.expiry);
+            }
+        });
+        expiryQueue = live;
+    }
+
+    @Override
+    public int expire(final long now, final int maxCheck) {
+        int removed = 0;
+        for (int checked = 0; checked < maxCheck; checked++) {
+            final Expiry<V> expiry = expiryQueue.peek();
+            if (expiry == null || expiry.expireAt > now) {
+                break;
+            }
+            expiryQueue.poll();
+            if (expiry.node.expiry == expiry) {
+                remove(expiry.node.key);
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    public Collection<String> keys() {
+        return new ArrayList<>(map.keySet());
+    }
+
+    @Override
+    public Collection<V> values() {
+        final List<V> values = new ArrayList<>(map.size());
+        map.values().forEach(node -> values.add(node.value));
+        return values;
+    }
+
+    @Override
+    public void clear() {
+        new ArrayList<>(map.keySet()).forEach(this::remove);
+        expiryQueue.clear();
+    }
+
+    static final class Node<V> {
+        final String key;
+        V value;
+        Expiry<V> expiry;
+        Node<V> prev;
+        Node<V> next;
+        /* Which policy list the node is on. */
+        int queue;
+
+        Node(final String key, final V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    static final class Expiry<V> implements Comparable<Expiry<V>> {
+        final long expireAt;
+        final Node<V> node;
+
+        Expiry(final long expireAt, final Node<V> node) {
+            this.expireAt = expireAt;
+            this.node = node;
+        }
+
+        @Override
+        public int compareTo(final Expiry<V> other) {
+            return Long.compare(expireAt, other.expireAt);
+        }
+    }
+
+    /**
+     * Intrusive doubly linked list of nodes, head is the oldest.
+     */
+    static final class NodeList<V> {
+        Node<V> head;
+        Node<V> tail;
+        int size;
+
+        void addLast(final Node<V> node) {
+            node.prev = tail;
+            node.next = null;
+            if (tail == null) {
+                head = node;
+            } else {
+                tail.next = node;
+            }
+            tail = node;
+            size++;
+        }
+
+        void unlink(final Node<V> node) {
+            if (node.prev == null) {
+                head = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                tail = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+            size--;
+        }
+
+        void moveToLast(final Node<V> node) {
+            if (node != tail) {
+                unlink(node);
+                addLast(node);
+            }
+        }
+    }
+}
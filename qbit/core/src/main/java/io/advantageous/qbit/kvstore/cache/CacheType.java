@@ -0,0 +1,21 @@
+package io.advantageous.qbit.kvstore.cache;
+
+/**
+ * Eviction policy for a {@link LocalCache}.
+ *
+ * @author rhightower
+ */
+public enum CacheType {
+
+    /**
+     * Least recently used, the cache the KV stores have always used.
+     */
+    LRU,
+
+    /**
+     * Window TinyLFU. A small LRU window in front of a segmented LRU main area, entries leaving the window
+     * only get into the main area if the frequency sketch says they are used more than the entry they replace.
+     * Scans and one hit wonders do not flush the hot set.
+     */
+    TINY_LFU
+}
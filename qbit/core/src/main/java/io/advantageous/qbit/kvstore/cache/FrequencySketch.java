@@ -0,0 +1,87 @@
+package io.advantageous.qbit.kvstore.cache;
+
+/**
+ * Count-min sketch of 4 bit counters, sixteen to a long, used to estimate how often a key was seen.
+ * <p>
+ * The table has one long per cache entry so the heap used is fixed by the cache size. Once the number of
+ * increments reaches ten times the cache size every counter is halved, so old popularity fades.
+ *
+ * @author rhightower
+ */
+final class FrequencySketch {
+
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long ONE_MASK = 0x1111111111111111L;
+    private static final int MAX_COUNT = 15;
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int size;
+
+    FrequencySketch(final int maximumSize) {
+        final int maximum = Math.max(1, Math.min(maximumSize, 1 << 30));
+        final int length = maximum == 1 ? 1 : Integer.highestOneBit(maximum - 1) << 1;
+        this.table = new long[length];
+        this.tableMask = length - 1;
+        this.sampleSize = 10 * maximum;
+    }
+
+    int frequency(final Object key) {
+        final int hash = spread(key.hashCode());
+        final int start = (hash & 3) << 2;
+        int frequency = MAX_COUNT;
+        for (int depth = 0; depth < 4; depth++) {
+            final int index = indexOf(hash, depth);
+            final int count = (int) ((table[index] >>> ((start + depth) << 2)) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    void increment(final Object key) {
+        final int hash = spread(key.hashCode());
+        final int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int depth = 0; depth < 4; depth++) {
+            added |= incrementAt(indexOf(hash, depth), start + depth);
+        }
+        if (added && ++size >= sampleSize) {
+            reset();
+        }
+    }
+
+    private boolean incrementAt(final int index, final int counter) {
+        final int offset = counter << 2;
+        final long mask = 0xfL << offset;
+        if ((table[index] & mask) != mask) {
+            table[index] += 1L << offset;
+            return true;
+        }
+        return false;
+    }
+
+    /* Halve every counter. */
+    private void reset() {
+        int odd = 0;
+        for (int index = 0; index < table.length; index++) {
+            odd += Long.bitCount(table[index] & ONE_MASK);
+            table[index] = (table[index] >>> 1) & RESET_MASK;
+        }
+        size = (size >>> 1) - (odd >>> 2);
+    }
+
+    private int indexOf(final int hash, final int depth) {
+        long value = (hash + SEEDS[depth]) * SEEDS[depth];
+        value += value >>> 32;
+        return ((int) value) & tableMask;
+    }
+
+    private static int spread(int hash) {
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        return (hash >>> 16) ^ hash;
+    }
+}
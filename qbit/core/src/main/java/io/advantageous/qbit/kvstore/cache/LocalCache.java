@@ -0,0 +1,76 @@
+package io.advantageous.qbit.kvstore.cache;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * Bounded in memory cache used by the KV stores.
+ * <p>
+ * Entries can carry an expire time which is swept a bit at a time by {@link #expire(long, int)}, so expired
+ * entries do not have to wait for a read to be removed.
+ * Not thread safe, it is owned by the service thread.
+ *
+ * @param <V> value type
+ * @author rhightower
+ */
+public interface LocalCache<V> {
+
+    long NO_EXPIRY = Long.MAX_VALUE;
+
+    static <V> LocalCache<V> localCache(final CacheType cacheType,
+                                        final int maximumSize,
+                                        final Consumer<String> evictionListener) {
+        switch (cacheType) {
+            case TINY_LFU:
+                return new TinyLfuLocalCache<>(maximumSize, evictionListener);
+            default:
+                return new LruLocalCache<>(maximumSize, evictionListener);
+        }
+    }
+
+    /**
+     * Get the value and record the access with the eviction policy.
+     *
+     * @param key key
+     * @return value or null
+     */
+    V get(String key);
+
+    /**
+     * Get the value without touching the eviction policy.
+     *
+     * @param key key
+     * @return value or null
+     */
+    V getSilent(String key);
+
+    default void put(String key, V value) {
+        put(key, value, NO_EXPIRY);
+    }
+
+    /**
+     * @param key      key
+     * @param value    value
+     * @param expireAt time when the sweep can remove the entry, {@link #NO_EXPIRY} for never
+     */
+    void put(String key, V value, long expireAt);
+
+    V remove(String key);
+
+    /**
+     * Removes entries whose expire time is at or before now.
+     *
+     * @param now      current time
+     * @param maxCheck most expiry records to look at in this call
+     * @return number of entries removed
+     */
+    int expire(long now, int maxCheck);
+
+    int size();
+
+    Collection<String> keys();
+
+    Collection<V> values();
+
+    void clear();
+}
@@ -0,0 +1,36 @@
+package io.advantageous.qbit.kvstore.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Least recently used cache.
+ *
+ * @param <V> value type
+ * @author rhightower
+ */
+public class LruLocalCache<V> extends BaseLocalCache<V> {
+
+    private final NodeList<V> list = new NodeList<>();
+
+    public LruLocalCache(final int maximumSize, final Consumer<String> evictionListener) {
+        super(maximumSize, evictionListener);
+    }
+
+    @Override
+    protected void onAdd(final Node<V> node) {
+        list.addLast(node);
+        if (list.size > maximumSize) {
+            evict(list.head);
+        }
+    }
+
+    @Override
+    protected void onHit(final Node<V> node) {
+        list.moveToLast(node);
+    }
+
+    @Override
+    protected void onRemove(final Node<V> node) {
+        list.unlink(node);
+    }
+}
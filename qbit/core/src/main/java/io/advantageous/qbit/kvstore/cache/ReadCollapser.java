@@ -0,0 +1,235 @@
+package io.advantageous.qbit.kvstore.cache;
+
+import io.advantageous.qbit.reactive.Callback;
+import io.advantageous.qbit.util.Timer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Single flight reads for the KV stores.
+ * <p>
+ * The first miss for a key starts a read. Misses for the same key that arrive while that read is outstanding are
+ * parked and resolved with the same result. A read that finds nothing can be remembered for a short time
+ * (negative caching) so the next misses for the key are answered without a read.
+ * A write or delete of the key must call {@link #invalidate(String)}, the outstanding read is detached so its
+ * result is not remembered and the next miss starts a new read.
+ * Not thread safe, it is owned by the service thread.
+ *
+ * @param <V> value type
+ * @author rhightower
+ */
+public class ReadCollapser<V> {
+
+    /**
+     * What {@link #join(String, Callback)} did with the callback.
+     */
+    public enum Join {
+        /**
+         * No read was outstanding, the caller must do the read and complete it with {@link #completion(String)}.
+         */
+        READ,
+        /**
+         * Parked behind the outstanding read.
+         */
+        COLLAPSED,
+        /**
+         * Resolved empty from the negative cache.
+         */
+        NEGATIVE_HIT
+    }
+
+    private final HashMap<String, Flight> flights = new HashMap<>();
+    private final MissCache misses;
+    private final long negativeTTL;
+    private final Timer timer;
+
+    /**
+     * @param timer             timer used for the negative cache expiry
+     * @param negativeTTL       how long a miss is remembered in ms, 0 or less turns negative caching off
+     * @param negativeCacheSize how many misses are remembered, the oldest are dropped first
+     */
+    public ReadCollapser(final Timer timer, final long negativeTTL, final int negativeCacheSize) {
+        this.timer = timer;
+        this.negativeTTL = negativeTTL;
+        final int maxMisses = negativeTTL > 0 ? Math.max(1, negativeCacheSize) : 0;
+        this.misses = new MissCache(maxMisses);
+    }
+
+    /**
+     * Join the outstanding read for the key, or answer from the negative cache, or start a new read.
+     *
+     * @param key      key
+     * @param callback callback to resolve with the read
+     * @return what was done with the callback
+     */
+    public Join join(final String key, final Callback<Optional<V>> callback) {
+        final Flight flight = flights.get(key);
+        if (flight != null) {
+            flight.waiters.add(callback);
+            return Join.COLLAPSED;
+        }
+        if (isMiss(key)) {
+            callback.resolve(Optional.<V>empty());
+            return Join.NEGATIVE_HIT;
+        }
+        flights.put(key, new Flight(key, callback));
+        return Join.READ;
+    }
+
+    /**
+     * Park the callback behind the outstanding read of the key, if there is one.
+     *
+     * @param key      key
+     * @param callback callback to resolve with the read
+     * @return false if no read of the key is outstanding, the callback was not used
+     */
+    public boolean joinIfReading(final String key, final Callback<Optional<V>> callback) {
+        final Flight flight = flights.get(key);
+        if (flight == null) {
+            return false;
+        }
+        flight.waiters.add(callback);
+        return true;
+    }
+
+    /**
+     * The callback the read started by {@link #join(String, Callback)} must be completed with.
+     *
+     * @param key key
+     * @return callback that resolves every waiter of the read
+     */
+    public Callback<Optional<V>> completion(final String key) {
+        final Flight flight = flights.get(key);
+        if (flight == null) {
+            throw new IllegalStateException(String.format("No read outstanding for key %s", key));
+        }
+        return flight;
+    }
+
+    /**
+     * True if the key is in the negative cache and has not expired.
+     *
+     * @param key key
+     * @return true if a recent read found nothing
+     */
+    public boolean isMiss(final String key) {
+        if (misses.isEmpty()) {
+            return false;
+        }
+        final Long expireAt = misses.get(key);
+        if (expireAt == null) {
+            return false;
+        }
+        if (expireAt <= timer.time()) {
+            misses.remove(key);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * The key was written or deleted.
+     *
+     * @param key key
+     */
+    public void invalidate(final String key) {
+        if (!misses.isEmpty()) {
+            misses.remove(key);
+        }
+        if (!flights.isEmpty()) {
+            final Flight flight = flights.remove(key);
+            if (flight != null) {
+                flight.detached = true;
+            }
+        }
+    }
+
+    /**
+     * Every key may have been written or deleted, forget all misses and detach every outstanding read.
+     */
+    public void invalidateAll() {
+        misses.clear();
+        flights.values().forEach(flight -> flight.detached = true);
+        flights.clear();
+    }
+
+    /**
+     * Forget all misses, outstanding reads are left alone.
+     */
+    public void clearMisses() {
+        misses.clear();
+    }
+
+    /**
+     * @return number of keys with a read outstanding
+     */
+    public int outstanding() {
+        return flights.size();
+    }
+
+    private void done(final Flight flight) {
+        if (!flight.detached) {
+            flights.remove(flight.key);
+            flight.detached = true;
+        }
+    }
+
+    private final class Flight implements Callback<Optional<V>> {
+
+        private final String key;
+        private final List<Callback<Optional<V>>> waiters = new ArrayList<>(1);
+        private boolean detached;
+
+        private Flight(final String key, final Callback<Optional<V>> callback) {
+            this.key = key;
+            this.waiters.add(callback);
+        }
+
+        @Override
+        public void accept(final Optional<V> value) {
+            final boolean remember = !detached && negativeTTL > 0 && (value == null || !value.isPresent());
+            done(this);
+            if (remember) {
+                misses.put(key, timer.time() + negativeTTL);
+            }
+            waiters.forEach(waiter -> waiter.resolve(value));
+        }
+
+        @Override
+        public void onError(final Throwable error) {
+            done(this);
+            waiters.forEach(waiter -> waiter.onError(error));
+        }
+
+        @Override
+        public void onTimeout() {
+            done(this);
+            waiters.forEach(Callback::onTimeout);
+        }
+    }
+
+    /**
+     * Expire time of each remembered miss, the oldest miss is dropped past the max size.
+     */
+    private static final class MissCache extends LinkedHashMap<String, Long> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int maxMisses;
+
+        private MissCache(final int maxMisses) {
+            super(16, 0.75f, false);
+            this.maxMisses = maxMisses;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, Long> eldest) {
+            return size() > maxMisses;
+        }
+    }
+}
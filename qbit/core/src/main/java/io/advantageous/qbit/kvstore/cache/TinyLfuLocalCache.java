@@ -0,0 +1,111 @@
+package io.advantageous.qbit.kvstore.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Window TinyLFU cache.
+ * <p>
+ * New entries go into a small LRU window (1% of the size). An entry pushed out of the window competes with the
+ * oldest entry of the probation segment, and the one the {@link FrequencySketch} has seen more often stays.
+ * A hit in probation promotes the entry to the protected segment (80% of the main area), protected overflow is
+ * demoted back to probation. A scan of cold keys only churns the window and probation.
+ *
+ * @param <V> value type
+ * @author rhightower
+ */
+public class TinyLfuLocalCache<V> extends BaseLocalCache<V> {
+
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+
+    private final NodeList<V> window = new NodeList<>();
+    private final NodeList<V> probation = new NodeList<>();
+    private final NodeList<V> protectedList = new NodeList<>();
+    private final FrequencySketch sketch;
+    private final int windowMaximum;
+    private final int mainMaximum;
+    private final int protectedMaximum;
+
+    public TinyLfuLocalCache(final int maximumSize, final Consumer<String> evictionListener) {
+        super(maximumSize, evictionListener);
+        this.windowMaximum = Math.max(1, this.maximumSize / 100);
+        this.mainMaximum = this.maximumSize - windowMaximum;
+        this.protectedMaximum = (int) (mainMaximum * 0.8);
+        this.sketch = new FrequencySketch(this.maximumSize);
+    }
+
+    @Override
+    protected void onAdd(final Node<V> node) {
+        sketch.increment(node.key);
+        node.queue = WINDOW;
+        window.addLast(node);
+        if (window.size > windowMaximum) {
+            admit(window.head);
+        }
+    }
+
+    /* The candidate is leaving the window, it goes to probation or is evicted. */
+    private void admit(final Node<V> candidate) {
+        window.unlink(candidate);
+
+        if (probation.size + protectedList.size < mainMaximum) {
+            candidate.queue = PROBATION;
+            probation.addLast(candidate);
+            return;
+        }
+
+        final Node<V> victim = probation.head != null ? probation.head : protectedList.head;
+        if (victim != null && sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+            evict(victim);
+            candidate.queue = PROBATION;
+            probation.addLast(candidate);
+        } else {
+            /* Put it back so evict can unlink it from the list it is on. */
+            window.addLast(candidate);
+            evict(candidate);
+        }
+    }
+
+    @Override
+    protected void onHit(final Node<V> node) {
+        sketch.increment(node.key);
+        switch (node.queue) {
+            case WINDOW:
+                window.moveToLast(node);
+                break;
+            case PROBATION:
+                probation.unlink(node);
+                node.queue = PROTECTED;
+                protectedList.addLast(node);
+                if (protectedList.size > protectedMaximum) {
+                    final Node<V> demoted = protectedList.head;
+                    protectedList.unlink(demoted);
+                    demoted.queue = PROBATION;
+                    probation.addLast(demoted);
+                }
+                break;
+            default:
+                protectedList.moveToLast(node);
+        }
+    }
+
+    @Override
+    protected void onMiss(final String key) {
+        sketch.increment(key);
+    }
+
+    @Override
+    protected void onRemove(final Node<V> node) {
+        switch (node.queue) {
+            case WINDOW:
+                window.unlink(node);
+                break;
+            case PROBATION:
+                probation.unlink(node);
+                break;
+            default:
+                protectedList.unlink(node);
+        }
+    }
+}
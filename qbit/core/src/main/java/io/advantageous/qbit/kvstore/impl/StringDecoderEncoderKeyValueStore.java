@@ -11,6 +11,9 @@ import io.advantageous.qbit.time.Duration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Function;
 
@@ -104,6 +107,28 @@ public class StringDecoderEncoderKeyValueStore<T> implements KeyValueStoreServic
         kvStore.getString(callbackBuilder.build(), key);
     }
 
+    @Override
+    public void getAll(final Callback<Map<String, T>> callback, final Collection<String> keys) {
+
+        final CallbackBuilder callbackBuilder = reactor.callbackBuilder().delegateWithLogging(callback,
+                logger, String.format("Getting %d keys", keys.size()));
+
+        callbackBuilder.withMapCallback(String.class, String.class, encoded -> {
+            final Map<String, T> values = new LinkedHashMap<>(encoded.size());
+            encoded.forEach((key, value) -> values.put(key, fromStringFunction.apply(value)));
+            callback.accept(values);
+        });
+
+        kvStore.getAllStrings(callbackBuilder.build(), keys);
+    }
+
+    @Override
+    public void putAll(final Map<String, T> values) {
+        final Map<String, String> encoded = new LinkedHashMap<>(values.size());
+        values.forEach((key, value) -> encoded.put(key, toStringFunction.apply(value)));
+        kvStore.putAllStrings(encoded);
+    }
+
     @Override
     public void hasKey(Callback<Boolean> hasKeyCallback, String key) {
         kvStore.hasKey(
@@ -117,6 +142,11 @@ public class StringDecoderEncoderKeyValueStore<T> implements KeyValueStoreServic
 
     }
 
+    @Override
+    public void deleteAll(final Collection<String> keys) {
+        kvStore.deleteAll(keys);
+    }
+
     @Override
     public void deleteWithConfirmation(final Callback<Boolean> confirmation, String key) {
 
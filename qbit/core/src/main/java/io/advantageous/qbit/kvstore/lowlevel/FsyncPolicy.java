@@ -0,0 +1,24 @@
+package io.advantageous.qbit.kvstore.lowlevel;
+
+/**
+ * When the mapped log store forces writes to disk.
+ *
+ * @author rhightower
+ */
+public enum FsyncPolicy {
+
+    /**
+     * Leave it to the OS, a process crash loses nothing but a machine crash can lose recent writes.
+     */
+    NEVER,
+
+    /**
+     * Force on a timer, a machine crash loses at most the last interval.
+     */
+    INTERVAL,
+
+    /**
+     * Force after every write. Slow but nothing confirmed is lost.
+     */
+    EVERY_WRITE
+}
@@ -1,8 +1,11 @@
 package io.advantageous.qbit.kvstore.lowlevel;
 
+import io.advantageous.qbit.kvstore.MultiGet;
 import io.advantageous.qbit.reactive.Callback;
 import io.advantageous.qbit.time.Duration;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -124,6 +127,52 @@ public interface LowLevelKeyValueStoreService {
                   final String key);
 
 
+    /**
+     * Get many string values at once.
+     * The callback gets a map of the keys that were found, missing keys are left out.
+     *
+     * @param callback callback
+     * @param keys     keys
+     */
+    default void getAllStrings(final Callback<Map<String, String>> callback,
+                               final Collection<String> keys) {
+        MultiGet.multiGet(keys, this::getString, callback);
+    }
+
+
+    /**
+     * Get many byte array values at once.
+     * The callback gets a map of the keys that were found, missing keys are left out.
+     *
+     * @param callback callback
+     * @param keys     keys
+     */
+    default void getAllBytes(final Callback<Map<String, byte[]>> callback,
+                             final Collection<String> keys) {
+        MultiGet.multiGet(keys, this::getBytes, callback);
+    }
+
+
+    /**
+     * Store many string values at once.
+     *
+     * @param values keys and values
+     */
+    default void putAllStrings(final Map<String, String> values) {
+        values.forEach(this::putString);
+    }
+
+
+    /**
+     * Store many byte array values at once.
+     *
+     * @param values keys and values
+     */
+    default void putAllBytes(final Map<String, byte[]> values) {
+        values.forEach(this::putBytes);
+    }
+
+
     /**
      * Check to see if the store has the key
      *
@@ -142,6 +191,16 @@ public interface LowLevelKeyValueStoreService {
     void delete(final String key);
 
 
+    /**
+     * Delete many keys at once.
+     *
+     * @param keys keys
+     */
+    default void deleteAll(final Collection<String> keys) {
+        keys.forEach(this::delete);
+    }
+
+
     /**
      * Delete the key with confirmation.
      *
@@ -1,8 +1,9 @@
 package io.advantageous.qbit.kvstore.lowlevel;
 
-import io.advantageous.boon.primitive.SimpleLRUCache;
 import io.advantageous.qbit.annotation.QueueCallback;
 import io.advantageous.qbit.annotation.QueueCallbackType;
+import io.advantageous.qbit.kvstore.cache.CacheType;
+import io.advantageous.qbit.kvstore.cache.LocalCache;
 import io.advantageous.qbit.reactive.Callback;
 import io.advantageous.qbit.reactive.Reactor;
 import io.advantageous.qbit.service.stats.StatsCollector;
@@ -11,6 +12,9 @@ import io.advantageous.qbit.util.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
 
 import static io.advantageous.qbit.time.Duration.FIVE_SECONDS;
@@ -19,19 +23,29 @@ import static io.advantageous.qbit.time.Duration.TEN_SECONDS;
 /**
  * ***LowLevelLocalKeyValueStoreService*** (implements `LowLevelKeyValueStoreService`)
  * is a near cache (in memory) for byte arrays and strings.
+ * Entries with a timeout are removed by an incremental expiry sweep as well as on read.
+ * The sweep is scheduled with the first put that has a timeout.
  */
 public class LowLevelLocalKeyValueStoreService implements LowLevelKeyValueStoreService {
 
     public final String BASE_STAT_KEY = "qbit.kv.store.";
     public final String CACHE_SIZE_AT_FLUSH = BASE_STAT_KEY + "flush.size";
     public final String CACHE_SIZE = BASE_STAT_KEY + "cache.size";
+    public final String CACHE_HIT = BASE_STAT_KEY + "cache.hit";
+    public final String CACHE_MISS = BASE_STAT_KEY + "cache.miss";
+    public final String CACHE_EVICT = BASE_STAT_KEY + "cache.evict";
+    public final String CACHE_EXPIRE = BASE_STAT_KEY + "cache.expire";
+    private static final int EXPIRY_SWEEP_MAX = 1_000;
     private final int localCacheSize;
     private final Timer timer;
     private final Reactor reactor;
     private final StatsCollector statsCollector;
     private final Logger logger = LoggerFactory.getLogger(LowLevelLocalKeyValueStoreService.class);
-    private SimpleLRUCache<String, CacheEntry> localCache;
+    private final CacheType cacheType;
+    private LocalCache<CacheEntry> localCache;
     private long time;
+    private final Duration expirySweepInterval;
+    private boolean expirySweepScheduled;
 
 
     public LowLevelLocalKeyValueStoreService(final Timer timer,
@@ -40,17 +54,31 @@ public class LowLevelLocalKeyValueStoreService implements LowLevelKeyValueStoreS
                                              final StatsCollector statsCollector,
                                              final Optional<Duration> flushCacheDuration,
                                              final boolean debug) {
+        this(timer, reactor, localCacheSize, statsCollector, flushCacheDuration, debug, CacheType.LRU, Duration.NEVER);
+    }
+
+    public LowLevelLocalKeyValueStoreService(final Timer timer,
+                                             final Reactor reactor,
+                                             final int localCacheSize,
+                                             final StatsCollector statsCollector,
+                                             final Optional<Duration> flushCacheDuration,
+                                             final boolean debug,
+                                             final CacheType cacheType,
+                                             final Duration expirySweepInterval) {
         this.localCacheSize = localCacheSize;
+        this.cacheType = cacheType;
+        this.expirySweepInterval = expirySweepInterval;
         this.timer = timer;
         this.reactor = reactor;
         this.statsCollector = statsCollector;
 
         reactor.addServiceToFlush(statsCollector);
 
-        if (flushCacheDuration.isPresent()) {
+        if (flushCacheDuration.isPresent() && cacheType == CacheType.LRU) {
             reactor.addRepeatingTask(flushCacheDuration.get(), this::localCacheInit);
         }
 
+
         if (debug || logger.isDebugEnabled()) {
             reactor.addRepeatingTask(TEN_SECONDS, this::debug);
         }
@@ -83,7 +111,33 @@ public class LowLevelLocalKeyValueStoreService implements LowLevelKeyValueStoreS
         if (localCache != null) {
             statsCollector.recordLevel(CACHE_SIZE_AT_FLUSH, this.localCache.size());
         }
-        localCache = new SimpleLRUCache<>(this.localCacheSize);
+        localCache = LocalCache.localCache(cacheType, localCacheSize, key -> statsCollector.increment(CACHE_EVICT));
+    }
+
+    private void expireEntries() {
+        final int expired = localCache.expire(timer.time(), EXPIRY_SWEEP_MAX);
+        if (expired > 0) {
+            statsCollector.recordCount(CACHE_EXPIRE, expired);
+        }
+    }
+
+    private long expireAt(final Duration expiry) {
+        final long millis = expiry.toMillis();
+        if (millis >= LocalCache.NO_EXPIRY - time - 1) {
+            return LocalCache.NO_EXPIRY;
+        }
+        scheduleExpirySweep();
+        return time + millis + 1;
+    }
+
+    /**
+     * Stores that never put with a timeout have nothing to sweep.
+     */
+    private void scheduleExpirySweep() {
+        if (!expirySweepScheduled && expirySweepInterval != Duration.NEVER) {
+            expirySweepScheduled = true;
+            reactor.addRepeatingTask(expirySweepInterval, this::expireEntries);
+        }
     }
 
     @Override
@@ -123,13 +177,13 @@ public class LowLevelLocalKeyValueStoreService implements LowLevelKeyValueStoreS
                                                     final String key,
                                                     final String value,
                                                     final Duration expiry) {
-        localCache.put(key, new CacheStringEntry(key, Optional.of(expiry), time, value));
+        localCache.put(key, new CacheStringEntry(key, Optional.of(expiry), time, value), expireAt(expiry));
         confirmation.resolve(true);
     }
 
     @Override
     public void putBytesWithConfirmationAndTimeout(Callback<Boolean> confirmation, String key, byte[] value, Duration expiry) {
-        localCache.put(key, new CacheBytesEntry(key, Optional.of(expiry), time, value));
+        localCache.put(key, new CacheBytesEntry(key, Optional.of(expiry), time, value), expireAt(expiry));
         confirmation.resolve(true);
     }
 
@@ -137,14 +191,14 @@ public class LowLevelLocalKeyValueStoreService implements LowLevelKeyValueStoreS
     public void putStringWithTimeout(final String key,
                                      final String value,
                                      final Duration expiry) {
-        localCache.put(key, new CacheStringEntry(key, Optional.of(expiry), time, value));
+        localCache.put(key, new CacheStringEntry(key, Optional.of(expiry), time, value), expireAt(expiry));
     }
 
     @Override
     public void putBytesWithTimeout(final String key,
                                     final byte[] value,
                                     final Duration expiry) {
-        localCache.put(key, new CacheBytesEntry(key, Optional.of(expiry), time, value));
+        localCache.put(key, new CacheBytesEntry(key, Optional.of(expiry), time, value), expireAt(expiry));
     }
 
     @Override
@@ -153,6 +207,7 @@ public class LowLevelLocalKeyValueStoreService implements LowLevelKeyValueStoreS
 
         final CacheEntry cacheEntry = localCache.get(key);
         if (cacheEntry == null) {
+            statsCollector.increment(CACHE_MISS);
             callback.resolve(Optional.<String>empty());
             return;
         }
@@ -160,6 +215,7 @@ public class LowLevelLocalKeyValueStoreService implements LowLevelKeyValueStoreS
             localCache.remove(key);
             callback.resolve(Optional.<String>empty());
         } else {
+            statsCollector.increment(CACHE_HIT);
             final String value = ((CacheStringEntry) cacheEntry).value;
             if (value == null) {
                 callback.resolve(Optional.<String>empty());
@@ -175,6 +231,7 @@ public class LowLevelLocalKeyValueStoreService implements LowLevelKeyValueStoreS
 
         final CacheEntry cacheEntry = localCache.get(key);
         if (cacheEntry == null) {
+            statsCollector.increment(CACHE_MISS);
             callback.resolve(Optional.<byte[]>empty());
             return;
         }
@@ -182,6 +239,7 @@ public class LowLevelLocalKeyValueStoreService implements LowLevelKeyValueStoreS
             localCache.remove(key);
             callback.resolve(Optional.<byte[]>empty());
         } else {
+            statsCollector.increment(CACHE_HIT);
             final byte[] value = ((CacheBytesEntry) cacheEntry).value;
             if (value == null) {
                 callback.resolve(Optional.<byte[]>empty());
@@ -191,6 +249,25 @@ public class LowLevelLocalKeyValueStoreService implements LowLevelKeyValueStoreS
         }
     }
 
+    /**
+     * Reads are local and resolve right away, so the values are gathered without a callback per key.
+     */
+    @Override
+    public void getAllStrings(final Callback<Map<String, String>> callback,
+                              final Collection<String> keys) {
+        final Map<String, String> values = new LinkedHashMap<>(keys.size());
+        keys.forEach(key -> getString(value -> value.ifPresent(found -> values.put(key, found)), key));
+        callback.resolve(values);
+    }
+
+    @Override
+    public void getAllBytes(final Callback<Map<String, byte[]>> callback,
+                            final Collection<String> keys) {
+        final Map<String, byte[]> values = new LinkedHashMap<>(keys.size());
+        keys.forEach(key -> getBytes(value -> value.ifPresent(found -> values.put(key, found)), key));
+        callback.resolve(values);
+    }
+
     @Override
     public void hasKey(final Callback<Boolean> hasKeyCallback,
                        final String key) {
@@ -1,5 +1,6 @@
 package io.advantageous.qbit.kvstore.lowlevel;
 
+import io.advantageous.qbit.kvstore.cache.CacheType;
 import io.advantageous.qbit.reactive.Reactor;
 import io.advantageous.qbit.reactive.ReactorBuilder;
 import io.advantageous.qbit.service.ServiceBuilder;
@@ -8,6 +9,7 @@ import io.advantageous.qbit.service.stats.StatsCollector;
 import io.advantageous.qbit.time.Duration;
 import io.advantageous.qbit.util.Timer;
 
+import java.io.File;
 import java.util.Optional;
 
 public class LowLevelLocalKeyValueStoreServiceBuilder {
@@ -18,6 +20,17 @@ public class LowLevelLocalKeyValueStoreServiceBuilder {
     private Duration flushCacheDuration;
     private boolean debug;
     private ServiceBuilder serviceBuilder;
+    private CacheType cacheType = CacheType.LRU;
+    private Duration expirySweepInterval = Duration.ONE_SECOND;
+    private boolean offHeap;
+    private long offHeapCapacity = 256L * 1024 * 1024;
+    private int offHeapSegmentSize = 4 * 1024 * 1024;
+    private File persistentDirectory;
+    private int persistentSegmentSize = 64 * 1024 * 1024;
+    private FsyncPolicy fsyncPolicy = FsyncPolicy.INTERVAL;
+    private Duration fsyncInterval = Duration.ONE_SECOND;
+    private Duration compactionInterval = Duration.TEN_SECONDS;
+    private double compactionThreshold = 0.5;
 
     public static LowLevelLocalKeyValueStoreServiceBuilder localKeyValueStoreBuilder() {
         return new LowLevelLocalKeyValueStoreServiceBuilder();
@@ -129,6 +142,176 @@ public class LowLevelLocalKeyValueStoreServiceBuilder {
         return this;
     }
 
+    public CacheType getCacheType() {
+        return cacheType;
+    }
+
+    /**
+     * Eviction policy of the local cache. With {@link CacheType#TINY_LFU} the cache is not wiped every
+     * flushCacheDuration.
+     *
+     * @param cacheType cache type
+     * @return this
+     */
+    public LowLevelLocalKeyValueStoreServiceBuilder setCacheType(CacheType cacheType) {
+        this.cacheType = cacheType;
+        return this;
+    }
+
+    public Duration getExpirySweepInterval() {
+        return expirySweepInterval;
+    }
+
+    public LowLevelLocalKeyValueStoreServiceBuilder setExpirySweepInterval(Duration expirySweepInterval) {
+        this.expirySweepInterval = expirySweepInterval;
+        return this;
+    }
+
+    public boolean isOffHeap() {
+        return offHeap;
+    }
+
+    /**
+     * Keep keys and values in direct memory instead of the heap, see {@link OffHeapLowLevelKeyValueStoreService}.
+     * Used by buildAsService, or call buildOffHeap directly.
+     *
+     * @param offHeap off heap
+     * @return this
+     */
+    public LowLevelLocalKeyValueStoreServiceBuilder setOffHeap(boolean offHeap) {
+        this.offHeap = offHeap;
+        return this;
+    }
+
+    public long getOffHeapCapacity() {
+        return offHeapCapacity;
+    }
+
+    /**
+     * Most bytes of direct memory the off heap store uses for records, the index is extra.
+     *
+     * @param offHeapCapacity capacity in bytes
+     * @return this
+     */
+    public LowLevelLocalKeyValueStoreServiceBuilder setOffHeapCapacity(long offHeapCapacity) {
+        this.offHeapCapacity = offHeapCapacity;
+        return this;
+    }
+
+    public int getOffHeapSegmentSize() {
+        return offHeapSegmentSize;
+    }
+
+    /**
+     * Size of the off heap segments, this is the unit of eviction and the largest record that can be stored.
+     *
+     * @param offHeapSegmentSize segment size in bytes
+     * @return this
+     */
+    public LowLevelLocalKeyValueStoreServiceBuilder setOffHeapSegmentSize(int offHeapSegmentSize) {
+        this.offHeapSegmentSize = offHeapSegmentSize;
+        return this;
+    }
+
+    public OffHeapLowLevelKeyValueStoreService buildOffHeap() {
+        return new OffHeapLowLevelKeyValueStoreService(
+                getTimer(),
+                getReactor(),
+                getOffHeapCapacity(),
+                getOffHeapSegmentSize(),
+                getStatsCollector(),
+                getExpirySweepInterval());
+    }
+
+    public File getPersistentDirectory() {
+        return persistentDirectory;
+    }
+
+    /**
+     * Directory of the mapped log, see {@link MappedLogLowLevelKeyValueStoreService}.
+     * When set buildAsService builds the persistent store.
+     *
+     * @param persistentDirectory directory
+     * @return this
+     */
+    public LowLevelLocalKeyValueStoreServiceBuilder setPersistentDirectory(File persistentDirectory) {
+        this.persistentDirectory = persistentDirectory;
+        return this;
+    }
+
+    public int getPersistentSegmentSize() {
+        return persistentSegmentSize;
+    }
+
+    /**
+     * Size of each log file. It must not change between restarts of the same directory.
+     *
+     * @param persistentSegmentSize segment size in bytes
+     * @return this
+     */
+    public LowLevelLocalKeyValueStoreServiceBuilder setPersistentSegmentSize(int persistentSegmentSize) {
+        this.persistentSegmentSize = persistentSegmentSize;
+        return this;
+    }
+
+    public FsyncPolicy getFsyncPolicy() {
+        return fsyncPolicy;
+    }
+
+    public LowLevelLocalKeyValueStoreServiceBuilder setFsyncPolicy(FsyncPolicy fsyncPolicy) {
+        this.fsyncPolicy = fsyncPolicy;
+        return this;
+    }
+
+    public Duration getFsyncInterval() {
+        return fsyncInterval;
+    }
+
+    public LowLevelLocalKeyValueStoreServiceBuilder setFsyncInterval(Duration fsyncInterval) {
+        this.fsyncInterval = fsyncInterval;
+        return this;
+    }
+
+    public Duration getCompactionInterval() {
+        return compactionInterval;
+    }
+
+    public LowLevelLocalKeyValueStoreServiceBuilder setCompactionInterval(Duration compactionInterval) {
+        this.compactionInterval = compactionInterval;
+        return this;
+    }
+
+    public double getCompactionThreshold() {
+        return compactionThreshold;
+    }
+
+    /**
+     * Segments with less than this share of live bytes are compacted.
+     *
+     * @param compactionThreshold live ratio, 0.5 is half
+     * @return this
+     */
+    public LowLevelLocalKeyValueStoreServiceBuilder setCompactionThreshold(double compactionThreshold) {
+        this.compactionThreshold = compactionThreshold;
+        return this;
+    }
+
+    public MappedLogLowLevelKeyValueStoreService buildPersistent() {
+        if (persistentDirectory == null) {
+            throw new IllegalStateException("persistentDirectory must be set");
+        }
+        return new MappedLogLowLevelKeyValueStoreService(
+                getTimer(),
+                getReactor(),
+                getPersistentDirectory(),
+                getPersistentSegmentSize(),
+                getFsyncPolicy(),
+                getFsyncInterval(),
+                getCompactionInterval(),
+                getCompactionThreshold(),
+                getStatsCollector());
+    }
+
     public LowLevelLocalKeyValueStoreService build() {
         return new LowLevelLocalKeyValueStoreService(
                 getTimer(),
@@ -137,11 +320,14 @@ public class LowLevelLocalKeyValueStoreServiceBuilder {
                 getStatsCollector(),
                 (flushCacheDuration == null) ? Optional.<Duration>empty() :
                         Optional.of(getFlushCacheDuration()),
-                isDebug());
+                isDebug(),
+                getCacheType(),
+                getExpirySweepInterval());
     }
 
     public ServiceQueue buildAsService() {
-        final LowLevelLocalKeyValueStoreService kvStoreInternal = build();
+        final LowLevelKeyValueStoreService kvStoreInternal = persistentDirectory != null ? buildPersistent()
+                : isOffHeap() ? buildOffHeap() : build();
         return getServiceBuilder().setServiceObject(kvStoreInternal).build();
     }
 
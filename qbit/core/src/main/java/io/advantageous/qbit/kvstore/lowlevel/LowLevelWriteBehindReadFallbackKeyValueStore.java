@@ -2,21 +2,34 @@ package io.advantageous.qbit.kvstore.lowlevel;
 
 import io.advantageous.qbit.annotation.QueueCallback;
 import io.advantageous.qbit.annotation.QueueCallbackType;
+import io.advantageous.qbit.kvstore.cache.ReadCollapser;
 import io.advantageous.qbit.kvstore.impl.StringDecoderEncoderKeyValueStore;
 import io.advantageous.qbit.reactive.Callback;
 import io.advantageous.qbit.reactive.CallbackBuilder;
 import io.advantageous.qbit.reactive.CallbackCoordinator;
 import io.advantageous.qbit.reactive.Reactor;
+import io.advantageous.qbit.service.stats.StatsCollector;
 import io.advantageous.qbit.time.Duration;
+import io.advantageous.qbit.util.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
 
 /**
  * Allows you to specify two kvstores that will be both written to and read from in order
+ * <p>
+ * Local misses are read from the remote store once per key, gets for a key that is already being read from the
+ * remote store wait for that read. With a negative cache TTL a remote read that finds nothing is remembered for
+ * that long.
  */
 public class LowLevelWriteBehindReadFallbackKeyValueStore implements LowLevelKeyValueStoreService {
 
@@ -43,12 +56,57 @@ public class LowLevelWriteBehindReadFallbackKeyValueStore implements LowLevelKey
      */
     private final Reactor reactor;
 
+    private final StatsCollector statsCollector;
+    private final String statKey;
+
+    /**
+     * Remote string reads in flight and string misses.
+     */
+    private final ReadCollapser<String> stringReads;
+
+    /**
+     * Remote bytes reads in flight and bytes misses.
+     */
+    private final ReadCollapser<byte[]> bytesReads;
+
     public LowLevelWriteBehindReadFallbackKeyValueStore(LowLevelKeyValueStoreService localKeyValueStore,
                                                         LowLevelKeyValueStoreService remoteKeyValueStore,
                                                         Reactor reactor) {
+        this(localKeyValueStore, remoteKeyValueStore, reactor, Timer.timer(), new StatsCollector() {
+            @Override
+            public void increment(String name) {
+            }
+
+            @Override
+            public void recordCount(String name, long count) {
+            }
+
+            @Override
+            public void recordLevel(String name, long level) {
+            }
+
+            @Override
+            public void recordTiming(String name, long duration) {
+            }
+        }, "qbit.kv.store.fallback.", Duration.NEVER, 0);
+    }
+
+    public LowLevelWriteBehindReadFallbackKeyValueStore(LowLevelKeyValueStoreService localKeyValueStore,
+                                                        LowLevelKeyValueStoreService remoteKeyValueStore,
+                                                        Reactor reactor,
+                                                        Timer timer,
+                                                        StatsCollector statsCollector,
+                                                        String statKey,
+                                                        Duration negativeCacheTTL,
+                                                        int negativeCacheSize) {
         this.localKeyValueStore = localKeyValueStore;
         this.remoteKeyValueStore = remoteKeyValueStore;
         this.reactor = reactor;
+        this.statsCollector = statsCollector;
+        this.statKey = statKey;
+        final long negativeTTL = negativeCacheTTL == Duration.NEVER ? 0 : negativeCacheTTL.toMillis();
+        this.stringReads = new ReadCollapser<>(timer, negativeTTL, negativeCacheSize);
+        this.bytesReads = new ReadCollapser<>(timer, negativeTTL, negativeCacheSize);
         this.reactor.addServiceToFlush(this.localKeyValueStore);
         this.reactor.addServiceToFlush(this.remoteKeyValueStore);
     }
@@ -114,12 +172,14 @@ public class LowLevelWriteBehindReadFallbackKeyValueStore implements LowLevelKey
     public void putStringWithConfirmationAndTimeout(Callback<Boolean> confirmation, String key, String value, Duration expiry) {
 
         final CallbackBuilder callbackBuilder = getCallbackBuilderForPut(confirmation, key);
+        invalidate(key);
         localKeyValueStore.putStringWithConfirmationAndTimeout(callbackBuilder.build(), key, value, expiry);
         remoteKeyValueStore.putStringWithConfirmationAndTimeout(callbackBuilder.build(), key, value, expiry);
     }
 
     @Override
     public void putStringWithTimeout(String key, String value, Duration expiry) {
+        invalidate(key);
         localKeyValueStore.putStringWithTimeout(key, value, expiry);
         remoteKeyValueStore.putStringWithTimeout(key, value, expiry);
     }
@@ -135,10 +195,7 @@ public class LowLevelWriteBehindReadFallbackKeyValueStore implements LowLevelKey
                 callback.resolve(optional);
             } else {
 
-                final CallbackBuilder callbackBuilderForRemote = reactor.callbackBuilder().delegateWithLogging(callback,
-                        logger, String.format("Get %s from remote", key));
-                callbackBuilderForRemote.withCallback(Optional.class, callback::resolve);
-                remoteKeyValueStore.getString(callbackBuilderForRemote.build(), key);
+                readRemote(stringReads, callback, key, remoteKeyValueStore::getString);
             }
         });
 
@@ -147,9 +204,143 @@ public class LowLevelWriteBehindReadFallbackKeyValueStore implements LowLevelKey
     }
 
 
+    /**
+     * Read the key from the remote store unless a read of it is already outstanding.
+     */
+    private <V> void readRemote(final ReadCollapser<V> reads,
+                                final Callback<Optional<V>> callback,
+                                final String key,
+                                final BiConsumer<Callback<Optional<V>>, String> remoteGet) {
+
+        switch (reads.join(key, callback)) {
+            case COLLAPSED:
+                statsCollector.increment(statKey + "readCollapsed");
+                return;
+            case NEGATIVE_HIT:
+                statsCollector.increment(statKey + "negativeHit");
+                return;
+        }
+
+        statsCollector.increment(statKey + "remoteRead");
+        final Callback<Optional<V>> readCallback = reads.completion(key);
+        final CallbackBuilder callbackBuilderForRemote = reactor.callbackBuilder().delegateWithLogging(readCallback,
+                logger, String.format("Get %s from remote", key));
+        callbackBuilderForRemote.withCallback(readCallback);
+        remoteGet.accept(callbackBuilderForRemote.build(), key);
+    }
+
+    /**
+     * Get the keys from the local store, then the keys it did not have from the remote store in one batch.
+     * Keys a get is already reading from the remote store wait for that read, and the keys of the batch are
+     * registered as reads so gets that come in meanwhile wait for the batch. Keys the batch does not find are
+     * remembered by the negative cache.
+     */
+    private <V> void getAllWithFallback(final ReadCollapser<V> reads,
+                                        final Callback<Map<String, V>> callback,
+                                        final Collection<String> keys,
+                                        final BiConsumer<Callback<Map<String, V>>, Collection<String>> localGetAll,
+                                        final BiConsumer<Callback<Map<String, V>>, Collection<String>> remoteGetAll) {
+
+        final CallbackBuilder callbackBuilderForLocal = reactor.callbackBuilder().delegateWithLogging(callback,
+                logger, String.format("Get all %d keys from local", keys.size()));
+
+        callbackBuilderForLocal.withCallback((Callback<Map<String, V>>) localValues -> {
+            final GetAllGather<V> gather = new GetAllGather<>(callback, new LinkedHashMap<>(localValues));
+            final List<String> missing = new ArrayList<>(keys.size() - localValues.size());
+            final List<Callback<Optional<V>>> completions = new ArrayList<>(keys.size() - localValues.size());
+            for (String key : keys) {
+                if (localValues.containsKey(key)) {
+                    continue;
+                }
+                if (reads.isMiss(key)) {
+                    statsCollector.increment(statKey + "negativeHit");
+                    continue;
+                }
+                gather.pending++;
+                if (reads.joinIfReading(key, gather.forKey(key))) {
+                    statsCollector.increment(statKey + "readCollapsed");
+                    continue;
+                }
+                reads.join(key, gather.forKey(key));
+                missing.add(key);
+                completions.add(reads.completion(key));
+            }
+
+            if (!missing.isEmpty()) {
+                statsCollector.increment(statKey + "remoteBatchRead");
+                statsCollector.recordCount(statKey + "remoteBatchKeys", missing.size());
+                final Callback<Map<String, V>> batchCallback = new Callback<Map<String, V>>() {
+                    @Override
+                    public void accept(final Map<String, V> remoteValues) {
+                        for (int index = 0; index < missing.size(); index++) {
+                            completions.get(index).resolve(Optional.ofNullable(remoteValues == null ? null
+                                    : remoteValues.get(missing.get(index))));
+                        }
+                    }
+
+                    @Override
+                    public void onError(final Throwable error) {
+                        completions.forEach(completion -> completion.onError(error));
+                    }
+
+                    @Override
+                    public void onTimeout() {
+                        completions.forEach(Callback::onTimeout);
+                    }
+                };
+                final CallbackBuilder callbackBuilderForRemote = reactor.callbackBuilder().delegateWithLogging(
+                        batchCallback, logger, String.format("Get all %d keys from remote", missing.size()));
+                callbackBuilderForRemote.withCallback(batchCallback);
+                remoteGetAll.accept(callbackBuilderForRemote.build(), missing);
+            }
+            gather.start();
+        });
+
+        localGetAll.accept(callbackBuilderForLocal.build(), keys);
+    }
+
+    @Override
+    public void getAllStrings(final Callback<Map<String, String>> callback, final Collection<String> keys) {
+        getAllWithFallback(stringReads, callback, keys, localKeyValueStore::getAllStrings,
+                remoteKeyValueStore::getAllStrings);
+    }
+
+    @Override
+    public void getAllBytes(final Callback<Map<String, byte[]>> callback, final Collection<String> keys) {
+        getAllWithFallback(bytesReads, callback, keys, localKeyValueStore::getAllBytes,
+                remoteKeyValueStore::getAllBytes);
+    }
+
+    @Override
+    public void putAllStrings(final Map<String, String> values) {
+        values.keySet().forEach(this::invalidate);
+        localKeyValueStore.putAllStrings(values);
+        remoteKeyValueStore.putAllStrings(values);
+    }
+
+    @Override
+    public void putAllBytes(final Map<String, byte[]> values) {
+        values.keySet().forEach(this::invalidate);
+        localKeyValueStore.putAllBytes(values);
+        remoteKeyValueStore.putAllBytes(values);
+    }
+
+    @Override
+    public void deleteAll(final Collection<String> keys) {
+        keys.forEach(this::invalidate);
+        localKeyValueStore.deleteAll(keys);
+        remoteKeyValueStore.deleteAll(keys);
+    }
+
+    private void invalidate(final String key) {
+        stringReads.invalidate(key);
+        bytesReads.invalidate(key);
+    }
+
     @Override
     public void putString(String key, String value) {
 
+        invalidate(key);
         localKeyValueStore.putString(key, value);
         remoteKeyValueStore.putString(key, value);
     }
@@ -157,6 +348,7 @@ public class LowLevelWriteBehindReadFallbackKeyValueStore implements LowLevelKey
     @Override
     public void putBytes(String key, byte[] value) {
 
+        invalidate(key);
         localKeyValueStore.putBytes(key, value);
         remoteKeyValueStore.putBytes(key, value);
 
@@ -169,6 +361,7 @@ public class LowLevelWriteBehindReadFallbackKeyValueStore implements LowLevelKey
                                           final String value) {
 
         final CallbackBuilder callbackBuilder = getCallbackBuilderForPut(confirmation, key);
+        invalidate(key);
         localKeyValueStore.putStringWithConfirmation(callbackBuilder.build(), key, value);
         remoteKeyValueStore.putStringWithConfirmation(callbackBuilder.build(), key, value);
 
@@ -177,6 +370,7 @@ public class LowLevelWriteBehindReadFallbackKeyValueStore implements LowLevelKey
     @Override
     public void putBytesWithConfirmation(Callback<Boolean> confirmation, String key, byte[] value) {
         final CallbackBuilder callbackBuilder = getCallbackBuilderForPut(confirmation, key);
+        invalidate(key);
         localKeyValueStore.putBytesWithConfirmation(callbackBuilder.build(), key, value);
         remoteKeyValueStore.putBytesWithConfirmation(callbackBuilder.build(), key, value);
 
@@ -185,6 +379,7 @@ public class LowLevelWriteBehindReadFallbackKeyValueStore implements LowLevelKey
     @Override
     public void putBytesWithConfirmationAndTimeout(Callback<Boolean> confirmation, String key, byte[] value, Duration expiry) {
         final CallbackBuilder callbackBuilder = getCallbackBuilderForPut(confirmation, key);
+        invalidate(key);
         localKeyValueStore.putBytesWithConfirmationAndTimeout(callbackBuilder.build(), key, value, expiry);
         remoteKeyValueStore.putBytesWithConfirmationAndTimeout(callbackBuilder.build(), key, value, expiry);
 
@@ -192,6 +387,7 @@ public class LowLevelWriteBehindReadFallbackKeyValueStore implements LowLevelKey
 
     @Override
     public void putBytesWithTimeout(String key, byte[] value, Duration expiry) {
+        invalidate(key);
         localKeyValueStore.putBytesWithTimeout(key, value, expiry);
         remoteKeyValueStore.putBytesWithTimeout(key, value, expiry);
 
@@ -208,10 +404,7 @@ public class LowLevelWriteBehindReadFallbackKeyValueStore implements LowLevelKey
                 callback.resolve(optional);
             } else {
 
-                final CallbackBuilder callbackBuilderForRemote = reactor.callbackBuilder().delegateWithLogging(callback,
-                        logger, String.format("Get %s from remote", key));
-                callbackBuilderForRemote.withCallback(Optional.class, callback::resolve);
-                remoteKeyValueStore.getBytes(callbackBuilderForRemote.build(), key);
+                readRemote(bytesReads, callback, key, remoteKeyValueStore::getBytes);
             }
         });
 
@@ -244,6 +437,7 @@ public class LowLevelWriteBehindReadFallbackKeyValueStore implements LowLevelKey
     @Override
     public void delete(final String key) {
 
+        invalidate(key);
         localKeyValueStore.delete(key);
         remoteKeyValueStore.delete(key);
     }
@@ -253,6 +447,7 @@ public class LowLevelWriteBehindReadFallbackKeyValueStore implements LowLevelKey
 
 
         final CallbackBuilder callbackBuilder = getCallbackBuilderForPut(confirmation, key);
+        invalidate(key);
         localKeyValueStore.deleteWithConfirmation(callbackBuilder.build(), key);
         remoteKeyValueStore.deleteWithConfirmation(callbackBuilder.build(), key);
 
@@ -265,4 +460,60 @@ public class LowLevelWriteBehindReadFallbackKeyValueStore implements LowLevelKey
         remoteKeyValueStore.process();
         localKeyValueStore.process();
     }
+
+    /**
+     * Gathers the values of a get all, the local values and then one value per key read from the remote store.
+     */
+    private static final class GetAllGather<V> {
+
+        private final Callback<Map<String, V>> callback;
+        private final Map<String, V> values;
+        private int pending;
+        private boolean started;
+        private boolean done;
+
+        private GetAllGather(final Callback<Map<String, V>> callback, final Map<String, V> values) {
+            this.callback = callback;
+            this.values = values;
+        }
+
+        private Callback<Optional<V>> forKey(final String key) {
+            return new Callback<Optional<V>>() {
+                @Override
+                public void accept(final Optional<V> value) {
+                    if (value != null && value.isPresent()) {
+                        values.put(key, value.get());
+                    }
+                    pending--;
+                    if (started) {
+                        start();
+                    }
+                }
+
+                @Override
+                public void onError(final Throwable error) {
+                    if (!done) {
+                        done = true;
+                        callback.onError(error);
+                    }
+                }
+
+                @Override
+                public void onTimeout() {
+                    if (!done) {
+                        done = true;
+                        callback.onTimeout();
+                    }
+                }
+            };
+        }
+
+        private void start() {
+            started = true;
+            if (pending == 0 && !done) {
+                done = true;
+                callback.resolve(values);
+            }
+        }
+    }
 }
@@ -0,0 +1,232 @@
+package io.advantageous.qbit.kvstore.lowlevel;
+
+import io.advantageous.qbit.annotation.QueueCallback;
+import io.advantageous.qbit.annotation.QueueCallbackType;
+import io.advantageous.qbit.reactive.Callback;
+import io.advantageous.qbit.reactive.Reactor;
+import io.advantageous.qbit.service.stats.StatsCollector;
+import io.advantageous.qbit.time.Duration;
+import io.advantageous.qbit.util.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static io.advantageous.qbit.time.Duration.FIVE_SECONDS;
+
+/**
+ * ***MappedLogLowLevelKeyValueStoreService*** (implements `LowLevelKeyValueStoreService`)
+ * is a persistent local store backed by an append only log of memory mapped files.
+ * <p>
+ * After a restart the index is rebuilt from the log so the node starts warm instead of sending every read to
+ * the remote store. Use it as the local store of {@link LowLevelWriteBehindReadFallbackKeyValueStore}.
+ * Writes are forced to disk according to the {@link FsyncPolicy} and segments that are mostly dead are
+ * compacted by a reactor task.
+ */
+public class MappedLogLowLevelKeyValueStoreService implements LowLevelKeyValueStoreService {
+
+    public final String BASE_STAT_KEY = "qbit.kv.store.log.";
+    public final String DISK = BASE_STAT_KEY + "disk";
+    public final String LIVE = BASE_STAT_KEY + "live";
+    public final String ENTRIES = BASE_STAT_KEY + "entries";
+    public final String SEGMENTS = BASE_STAT_KEY + "segments";
+    public final String COMPACTIONS = BASE_STAT_KEY + "compactions";
+    public final String LOAD_TIME = BASE_STAT_KEY + "loadTime";
+    public final String HIT = BASE_STAT_KEY + "hit";
+    public final String MISS = BASE_STAT_KEY + "miss";
+    public final String TOO_LARGE = BASE_STAT_KEY + "tooLarge";
+
+    private final Timer timer;
+    private final Reactor reactor;
+    private final StatsCollector statsCollector;
+    private final MappedLogStore store;
+    private final double compactionThreshold;
+    private final Logger logger = LoggerFactory.getLogger(MappedLogLowLevelKeyValueStoreService.class);
+    private long time;
+
+    public MappedLogLowLevelKeyValueStoreService(final Timer timer,
+                                                 final Reactor reactor,
+                                                 final File directory,
+                                                 final int segmentSize,
+                                                 final FsyncPolicy fsyncPolicy,
+                                                 final Duration fsyncInterval,
+                                                 final Duration compactionInterval,
+                                                 final double compactionThreshold,
+                                                 final StatsCollector statsCollector) {
+        this.timer = timer;
+        this.reactor = reactor;
+        this.statsCollector = statsCollector;
+        this.compactionThreshold = compactionThreshold;
+
+        time = timer.time();
+        final long start = System.nanoTime();
+        this.store = new MappedLogStore(directory, segmentSize, fsyncPolicy, time);
+        final long loadMillis = (System.nanoTime() - start) / 1_000_000;
+        logger.info("Loaded {} keys from {} segments in {} ms from {}", store.size(), store.segmentCount(),
+                loadMillis, directory);
+        statsCollector.recordTiming(LOAD_TIME, loadMillis);
+
+        reactor.addServiceToFlush(statsCollector);
+
+        if (fsyncPolicy == FsyncPolicy.INTERVAL) {
+            reactor.addRepeatingTask(fsyncInterval, store::force);
+        }
+
+        if (compactionInterval != Duration.NEVER) {
+            reactor.addRepeatingTask(compactionInterval, this::compact);
+        }
+
+        reactor.addRepeatingTask(FIVE_SECONDS, this::recordStats);
+    }
+
+    @QueueCallback({QueueCallbackType.EMPTY, QueueCallbackType.LIMIT})
+    public void process() {
+        reactor.process();
+        time = timer.time();
+    }
+
+    @QueueCallback(QueueCallbackType.SHUTDOWN)
+    public void close() {
+        store.close();
+    }
+
+    private void compact() {
+        if (store.compact(compactionThreshold, timer.time())) {
+            statsCollector.increment(COMPACTIONS);
+        }
+    }
+
+    private void recordStats() {
+        statsCollector.recordLevel(DISK, store.diskBytes());
+        statsCollector.recordLevel(LIVE, store.liveBytes());
+        statsCollector.recordLevel(ENTRIES, store.size());
+        statsCollector.recordLevel(SEGMENTS, store.segmentCount());
+    }
+
+    private long expireAt(final Duration expiry) {
+        final long millis = expiry.toMillis();
+        return millis >= MappedLogStore.NO_EXPIRY - time - 1 ? MappedLogStore.NO_EXPIRY : time + millis + 1;
+    }
+
+    private boolean put(final String key, final byte[] value, final long expireAt) {
+        if (store.put(key, value, expireAt)) {
+            return true;
+        }
+        statsCollector.increment(TOO_LARGE);
+        logger.warn("Value for key {} of {} bytes is larger than a segment, not stored", key, value.length);
+        return false;
+    }
+
+    private byte[] get(final String key) {
+        final byte[] value = store.get(key, time);
+        statsCollector.increment(value == null ? MISS : HIT);
+        return value;
+    }
+
+    @Override
+    public void putString(final String key, final String value) {
+        put(key, value.getBytes(StandardCharsets.UTF_8), MappedLogStore.NO_EXPIRY);
+    }
+
+    @Override
+    public void putStringWithConfirmation(final Callback<Boolean> confirmation,
+                                          final String key,
+                                          final String value) {
+        confirmation.resolve(put(key, value.getBytes(StandardCharsets.UTF_8), MappedLogStore.NO_EXPIRY));
+    }
+
+    @Override
+    public void putStringWithConfirmationAndTimeout(final Callback<Boolean> confirmation,
+                                                    final String key,
+                                                    final String value,
+                                                    final Duration expiry) {
+        confirmation.resolve(put(key, value.getBytes(StandardCharsets.UTF_8), expireAt(expiry)));
+    }
+
+    @Override
+    public void putStringWithTimeout(final String key,
+                                     final String value,
+                                     final Duration expiry) {
+        put(key, value.getBytes(StandardCharsets.UTF_8), expireAt(expiry));
+    }
+
+    @Override
+    public void getString(final Callback<Optional<String>> callback,
+                          final String key) {
+        final byte[] value = get(key);
+        callback.resolve(value == null ? Optional.<String>empty() :
+                Optional.of(new String(value, StandardCharsets.UTF_8)));
+    }
+
+    @Override
+    public void putBytes(final String key, final byte[] value) {
+        put(key, value, MappedLogStore.NO_EXPIRY);
+    }
+
+    @Override
+    public void putBytesWithConfirmation(final Callback<Boolean> confirmation,
+                                         final String key,
+                                         final byte[] value) {
+        confirmation.resolve(put(key, value, MappedLogStore.NO_EXPIRY));
+    }
+
+    @Override
+    public void putBytesWithConfirmationAndTimeout(final Callback<Boolean> confirmation,
+                                                   final String key,
+                                                   final byte[] value,
+                                                   final Duration expiry) {
+        confirmation.resolve(put(key, value, expireAt(expiry)));
+    }
+
+    @Override
+    public void putBytesWithTimeout(final String key,
+                                    final byte[] value,
+                                    final Duration expiry) {
+        put(key, value, expireAt(expiry));
+    }
+
+    @Override
+    public void getBytes(final Callback<Optional<byte[]>> callback,
+                         final String key) {
+        final byte[] value = get(key);
+        callback.resolve(value == null ? Optional.<byte[]>empty() : Optional.of(value));
+    }
+
+    @Override
+    public void getAllStrings(final Callback<Map<String, String>> callback,
+                              final Collection<String> keys) {
+        final Map<String, String> values = new LinkedHashMap<>(keys.size());
+        keys.forEach(key -> getString(value -> value.ifPresent(found -> values.put(key, found)), key));
+        callback.resolve(values);
+    }
+
+    @Override
+    public void getAllBytes(final Callback<Map<String, byte[]>> callback,
+                            final Collection<String> keys) {
+        final Map<String, byte[]> values = new LinkedHashMap<>(keys.size());
+        keys.forEach(key -> getBytes(value -> value.ifPresent(found -> values.put(key, found)), key));
+        callback.resolve(values);
+    }
+
+    @Override
+    public void hasKey(final Callback<Boolean> hasKeyCallback,
+                       final String key) {
+        hasKeyCallback.resolve(store.get(key, time) != null);
+    }
+
+    @Override
+    public void delete(final String key) {
+        store.remove(key);
+    }
+
+    @Override
+    public void deleteWithConfirmation(final Callback<Boolean> confirmation, final String key) {
+        store.remove(key);
+        confirmation.accept(true);
+    }
+}
@@ -0,0 +1,353 @@
+package io.advantageous.qbit.kvstore.lowlevel;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * Append only log of key value records in memory mapped segment files, with an in memory index of where the
+ * latest record for each key is.
+ * <p>
+ * Opening the store scans every record to rebuild the index. The checksum covers the value bytes so the scan
+ * reads them, but only the keys are decoded and no values are copied. The scan stops at the first zeroed or torn
+ * record of a segment.
+ * Deletes are written as tombstones so they survive a restart.
+ * <p>
+ * {@link #compact(double, long)} rewrites the live records of the segment with the least live data to the head of
+ * the log and deletes its file.
+ * <p>
+ * Record layout is key length (int), value length (int, -1 for a tombstone), expire time (long),
+ * CRC32 of the rest of the record (int), key bytes, value bytes.
+ * Not thread safe, it is owned by the service thread.
+ *
+ * @author rhightower
+ */
+final class MappedLogStore {
+
+    static final long NO_EXPIRY = Long.MAX_VALUE;
+
+    private static final int HEADER_SIZE = 20;
+    private static final int TOMBSTONE = -1;
+    private static final String SUFFIX = ".log";
+
+    private final Logger logger = LoggerFactory.getLogger(MappedLogStore.class);
+    private final File directory;
+    private final int segmentSize;
+    private final FsyncPolicy fsyncPolicy;
+    private final TreeMap<Integer, Segment> segments = new TreeMap<>();
+    private final HashMap<String, Long> index = new HashMap<>();
+    private final CRC32 crc = new CRC32();
+    private final ByteBuffer crcHeader = ByteBuffer.allocate(16);
+    private Segment head;
+    private boolean dirty;
+
+    MappedLogStore(final File directory, final int segmentSize, final FsyncPolicy fsyncPolicy, final long now) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.fsyncPolicy = fsyncPolicy;
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IllegalStateException("Unable to create directory " + directory);
+        }
+        load(now);
+    }
+
+    private void load(final long now) {
+        final File[] files = directory.listFiles((dir, name) -> name.endsWith(SUFFIX));
+        if (files != null) {
+            for (File file : files) {
+                final String name = file.getName();
+                segments.put(Integer.parseInt(name.substring(0, name.length() - SUFFIX.length())), null);
+            }
+        }
+        for (Integer id : new ArrayList<>(segments.keySet())) {
+            final Segment segment = openSegment(id);
+            segments.put(id, segment);
+            scan(segment, now);
+        }
+        if (segments.isEmpty()) {
+            head = newSegment(1);
+        } else {
+            head = segments.lastEntry().getValue();
+        }
+    }
+
+    private void scan(final Segment segment, final long now) {
+        final MappedByteBuffer buffer = segment.buffer;
+        int offset = 0;
+        while (offset + HEADER_SIZE <= segmentSize) {
+            final int keyLength = buffer.getInt(offset);
+            final int valueLength = buffer.getInt(offset + 4);
+            if (keyLength <= 0 || offset + HEADER_SIZE + keyLength + Math.max(valueLength, 0) > segmentSize
+                    || valueLength < TOMBSTONE || !checksumMatches(buffer, offset)) {
+                break;
+            }
+            final byte[] keyBytes = new byte[keyLength];
+            buffer.position(offset + HEADER_SIZE);
+            buffer.get(keyBytes);
+            final String key = new String(keyBytes, StandardCharsets.UTF_8);
+            final int length = HEADER_SIZE + keyLength + Math.max(valueLength, 0);
+
+            final Long old = index.remove(key);
+            if (old != null) {
+                segmentOf(old).liveBytes -= recordLength(old);
+            }
+            if (valueLength != TOMBSTONE && buffer.getLong(offset + 8) > now) {
+                index.put(key, address(segment.id, offset));
+                segment.liveBytes += length;
+            }
+            offset += length;
+        }
+        segment.position = offset;
+    }
+
+    boolean put(final String key, final byte[] value, final long expireAt) {
+        final byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        final int length = HEADER_SIZE + keyBytes.length + value.length;
+        if (length > segmentSize) {
+            /* The old value must not be read back after a failed put. */
+            remove(key);
+            return false;
+        }
+        final long address = append(keyBytes, value, value.length, expireAt, length);
+        final Long old = index.put(key, address);
+        if (old != null) {
+            segmentOf(old).liveBytes -= recordLength(old);
+        }
+        head.liveBytes += length;
+        written();
+        return true;
+    }
+
+    byte[] get(final String key, final long now) {
+        final Long address = index.get(key);
+        if (address == null) {
+            return null;
+        }
+        final Segment segment = segmentOf(address);
+        final int offset = (int) (long) address;
+        if (segment.buffer.getLong(offset + 8) <= now) {
+            index.remove(key);
+            segment.liveBytes -= recordLength(address);
+            return null;
+        }
+        final byte[] value = new byte[segment.buffer.getInt(offset + 4)];
+        segment.buffer.position(offset + HEADER_SIZE + segment.buffer.getInt(offset));
+        segment.buffer.get(value);
+        return value;
+    }
+
+    boolean remove(final String key) {
+        final Long old = index.remove(key);
+        if (old == null) {
+            return false;
+        }
+        segmentOf(old).liveBytes -= recordLength(old);
+        final byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        append(keyBytes, new byte[0], TOMBSTONE, NO_EXPIRY, HEADER_SIZE + keyBytes.length);
+        written();
+        return true;
+    }
+
+    /**
+     * Compacts the segment with the lowest share of live bytes if that share is below the threshold.
+     * The head segment is never compacted.
+     *
+     * @param liveRatioThreshold compact segments that are less live than this, 0.5 is half
+     * @return true if a segment was compacted
+     */
+    boolean compact(final double liveRatioThreshold, final long now) {
+        Segment candidate = null;
+        for (Segment segment : segments.values()) {
+            if (segment != head && (candidate == null || segment.liveBytes < candidate.liveBytes)) {
+                candidate = segment;
+            }
+        }
+        if (candidate == null || (double) candidate.liveBytes / segmentSize >= liveRatioThreshold) {
+            return false;
+        }
+
+        moveLiveRecords(candidate, now);
+        force();
+        segments.remove(candidate.id);
+
+        /* Drop the mapping before the file goes so it is not held on to. */
+        candidate.buffer = null;
+        if (!candidate.file.delete()) {
+            logger.warn("Unable to delete compacted segment {}", candidate.file);
+        }
+        return true;
+    }
+
+    private void moveLiveRecords(final Segment candidate, final long now) {
+        final boolean oldest = candidate.id == segments.firstKey();
+        final MappedByteBuffer buffer = candidate.buffer;
+        int offset = 0;
+        while (offset < candidate.position) {
+            final int keyLength = buffer.getInt(offset);
+            final int valueLength = buffer.getInt(offset + 4);
+            final int length = HEADER_SIZE + keyLength + Math.max(valueLength, 0);
+            final byte[] keyBytes = new byte[keyLength];
+            buffer.position(offset + HEADER_SIZE);
+            buffer.get(keyBytes);
+            final String key = new String(keyBytes, StandardCharsets.UTF_8);
+            final Long address = index.get(key);
+
+            if (valueLength == TOMBSTONE) {
+                /* An older segment may still hold a record for the key so the tombstone has to move forward. */
+                if (!oldest && address == null) {
+                    append(keyBytes, new byte[0], TOMBSTONE, NO_EXPIRY, length);
+                }
+            } else if (address != null && address == address(candidate.id, offset)) {
+                final long expireAt = buffer.getLong(offset + 8);
+                if (expireAt > now) {
+                    final byte[] value = new byte[valueLength];
+                    buffer.get(value);
+                    index.put(key, append(keyBytes, value, valueLength, expireAt, length));
+                    head.liveBytes += length;
+                } else {
+                    index.remove(key);
+                    if (!oldest) {
+                        append(keyBytes, new byte[0], TOMBSTONE, NO_EXPIRY, HEADER_SIZE + keyLength);
+                    }
+                }
+            }
+            offset += length;
+        }
+    }
+
+    void force() {
+        if (dirty) {
+            head.buffer.force();
+            dirty = false;
+        }
+    }
+
+    void close() {
+        force();
+    }
+
+    int size() {
+        return index.size();
+    }
+
+    int segmentCount() {
+        return segments.size();
+    }
+
+    long diskBytes() {
+        return (long) segments.size() * segmentSize;
+    }
+
+    long liveBytes() {
+        long live = 0;
+        for (Segment segment : segments.values()) {
+            live += segment.liveBytes;
+        }
+        return live;
+    }
+
+    private void written() {
+        dirty = true;
+        if (fsyncPolicy == FsyncPolicy.EVERY_WRITE) {
+            force();
+        }
+    }
+
+    private long append(final byte[] key, final byte[] value, final int valueLength, final long expireAt, final int length) {
+        if (head.position + length > segmentSize) {
+            force();
+            head = newSegment(head.id + 1);
+        }
+        final MappedByteBuffer buffer = head.buffer;
+        final int offset = head.position;
+        buffer.position(offset + 16);
+        buffer.putInt(0).put(key).put(value);
+        buffer.putInt(offset, key.length);
+        buffer.putInt(offset + 4, valueLength);
+        buffer.putLong(offset + 8, expireAt);
+        buffer.putInt(offset + 16, checksum(buffer, offset, key.length, Math.max(valueLength, 0), valueLength, expireAt));
+        head.position += length;
+        dirty = true;
+        return address(head.id, offset);
+    }
+
+    private boolean checksumMatches(final MappedByteBuffer buffer, final int offset) {
+        final int keyLength = buffer.getInt(offset);
+        final int valueLength = buffer.getInt(offset + 4);
+        return buffer.getInt(offset + 16) == checksum(buffer, offset, keyLength, Math.max(valueLength, 0),
+                valueLength, buffer.getLong(offset + 8));
+    }
+
+    private int checksum(final MappedByteBuffer buffer, final int offset, final int keyLength, final int dataLength,
+                         final int valueLength, final long expireAt) {
+        crc.reset();
+        crcHeader.clear();
+        crcHeader.putInt(keyLength).putInt(valueLength).putLong(expireAt).flip();
+        crc.update(crcHeader);
+        final ByteBuffer data = buffer.duplicate();
+        data.limit(offset + HEADER_SIZE + keyLength + dataLength).position(offset + HEADER_SIZE);
+        crc.update(data);
+        return (int) crc.getValue();
+    }
+
+    private int recordLength(final long address) {
+        final Segment segment = segmentOf(address);
+        final int offset = (int) address;
+        return HEADER_SIZE + segment.buffer.getInt(offset) + Math.max(segment.buffer.getInt(offset + 4), 0);
+    }
+
+    private Segment segmentOf(final long address) {
+        return segments.get((int) (address >>> 32));
+    }
+
+    private static long address(final int segmentId, final int offset) {
+        return ((long) segmentId << 32) | offset;
+    }
+
+    private Segment newSegment(final int id) {
+        final Segment segment = openSegment(id);
+        segments.put(id, segment);
+        return segment;
+    }
+
+    private Segment openSegment(final int id) {
+        final File file = new File(directory, String.format("%010d%s", id, SUFFIX));
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            if (randomAccessFile.length() == 0) {
+                randomAccessFile.setLength(segmentSize);
+            } else if (randomAccessFile.length() != segmentSize) {
+                throw new IllegalStateException(String.format("Segment %s is %d bytes, the segment size is %d",
+                        file, randomAccessFile.length(), segmentSize));
+            }
+            final MappedByteBuffer buffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            return new Segment(id, file, buffer);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to map segment " + file, e);
+        }
+    }
+
+    private static final class Segment {
+        final int id;
+        final File file;
+        MappedByteBuffer buffer;
+        int position;
+        long liveBytes;
+
+        Segment(final int id, final File file, final MappedByteBuffer buffer) {
+            this.id = id;
+            this.file = file;
+            this.buffer = buffer;
+        }
+    }
+}
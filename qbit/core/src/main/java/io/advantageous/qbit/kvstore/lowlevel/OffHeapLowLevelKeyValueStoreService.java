@@ -0,0 +1,222 @@
+package io.advantageous.qbit.kvstore.lowlevel;
+
+import io.advantageous.qbit.annotation.QueueCallback;
+import io.advantageous.qbit.annotation.QueueCallbackType;
+import io.advantageous.qbit.reactive.Callback;
+import io.advantageous.qbit.reactive.Reactor;
+import io.advantageous.qbit.service.stats.StatsCollector;
+import io.advantageous.qbit.time.Duration;
+import io.advantageous.qbit.util.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static io.advantageous.qbit.time.Duration.FIVE_SECONDS;
+
+/**
+ * ***OffHeapLowLevelKeyValueStoreService*** (implements `LowLevelKeyValueStoreService`)
+ * is a near cache for byte arrays and strings that keeps keys, values and its index in direct memory,
+ * so a large cache does not grow the old generation.
+ * <p>
+ * Memory is capped at the configured capacity, when it is full the oldest segment of records is evicted.
+ * Strings are stored as UTF-8 bytes. Entries with a timeout are removed on read and by an incremental sweep.
+ * It can be used as the local store of {@link LowLevelWriteBehindReadFallbackKeyValueStore}.
+ */
+public class OffHeapLowLevelKeyValueStoreService implements LowLevelKeyValueStoreService {
+
+    public final String BASE_STAT_KEY = "qbit.kv.store.offheap.";
+    public final String CAPACITY = BASE_STAT_KEY + "capacity";
+    public final String ALLOCATED = BASE_STAT_KEY + "allocated";
+    public final String LIVE = BASE_STAT_KEY + "live";
+    public final String INDEX = BASE_STAT_KEY + "index";
+    public final String ENTRIES = BASE_STAT_KEY + "entries";
+    public final String HIT = BASE_STAT_KEY + "hit";
+    public final String MISS = BASE_STAT_KEY + "miss";
+    public final String EVICT = BASE_STAT_KEY + "evict";
+    public final String EXPIRE = BASE_STAT_KEY + "expire";
+    public final String TOO_LARGE = BASE_STAT_KEY + "tooLarge";
+    private static final int EXPIRY_SWEEP_MAX = 1_000;
+
+    private final Timer timer;
+    private final Reactor reactor;
+    private final StatsCollector statsCollector;
+    private final OffHeapStore store;
+    private final Logger logger = LoggerFactory.getLogger(OffHeapLowLevelKeyValueStoreService.class);
+    private long time;
+    private long reportedEvictions;
+
+    public OffHeapLowLevelKeyValueStoreService(final Timer timer,
+                                               final Reactor reactor,
+                                               final long capacity,
+                                               final int segmentSize,
+                                               final StatsCollector statsCollector,
+                                               final Duration expirySweepInterval) {
+        this.timer = timer;
+        this.reactor = reactor;
+        this.statsCollector = statsCollector;
+        this.store = new OffHeapStore(capacity, segmentSize);
+
+        reactor.addServiceToFlush(statsCollector);
+
+        if (expirySweepInterval != Duration.NEVER) {
+            reactor.addRepeatingTask(expirySweepInterval, this::expireEntries);
+        }
+
+        reactor.addRepeatingTask(FIVE_SECONDS, this::recordMemoryStats);
+        time = timer.time();
+    }
+
+    @QueueCallback({QueueCallbackType.EMPTY, QueueCallbackType.LIMIT})
+    public void process() {
+        reactor.process();
+        time = timer.time();
+    }
+
+    private void expireEntries() {
+        final int expired = store.expire(timer.time(), EXPIRY_SWEEP_MAX);
+        if (expired > 0) {
+            statsCollector.recordCount(EXPIRE, expired);
+        }
+    }
+
+    private void recordMemoryStats() {
+        statsCollector.recordLevel(CAPACITY, store.capacity());
+        statsCollector.recordLevel(ALLOCATED, store.allocatedBytes());
+        statsCollector.recordLevel(LIVE, store.liveBytes());
+        statsCollector.recordLevel(INDEX, store.indexBytes());
+        statsCollector.recordLevel(ENTRIES, store.size());
+        final long evictions = store.evictions();
+        if (evictions != reportedEvictions) {
+            statsCollector.recordCount(EVICT, evictions - reportedEvictions);
+            reportedEvictions = evictions;
+        }
+    }
+
+    private long expireAt(final Duration expiry) {
+        final long millis = expiry.toMillis();
+        return millis >= OffHeapStore.NO_EXPIRY - time - 1 ? OffHeapStore.NO_EXPIRY : time + millis + 1;
+    }
+
+    private boolean put(final String key, final byte[] value, final long expireAt) {
+        if (store.put(key.getBytes(StandardCharsets.UTF_8), value, expireAt)) {
+            return true;
+        }
+        statsCollector.increment(TOO_LARGE);
+        logger.warn("Value for key {} of {} bytes is larger than a segment, not stored and old value removed",
+                key, value.length);
+        return false;
+    }
+
+    private byte[] get(final String key) {
+        final byte[] value = store.get(key.getBytes(StandardCharsets.UTF_8), time);
+        statsCollector.increment(value == null ? MISS : HIT);
+        return value;
+    }
+
+    @Override
+    public void putString(final String key, final String value) {
+        put(key, value.getBytes(StandardCharsets.UTF_8), OffHeapStore.NO_EXPIRY);
+    }
+
+    @Override
+    public void putStringWithConfirmation(final Callback<Boolean> confirmation,
+                                          final String key,
+                                          final String value) {
+        confirmation.resolve(put(key, value.getBytes(StandardCharsets.UTF_8), OffHeapStore.NO_EXPIRY));
+    }
+
+    @Override
+    public void putStringWithConfirmationAndTimeout(final Callback<Boolean> confirmation,
+                                                    final String key,
+                                                    final String value,
+                                                    final Duration expiry) {
+        confirmation.resolve(put(key, value.getBytes(StandardCharsets.UTF_8), expireAt(expiry)));
+    }
+
+    @Override
+    public void putStringWithTimeout(final String key,
+                                     final String value,
+                                     final Duration expiry) {
+        put(key, value.getBytes(StandardCharsets.UTF_8), expireAt(expiry));
+    }
+
+    @Override
+    public void getString(final Callback<Optional<String>> callback,
+                          final String key) {
+        final byte[] value = get(key);
+        callback.resolve(value == null ? Optional.<String>empty() :
+                Optional.of(new String(value, StandardCharsets.UTF_8)));
+    }
+
+    @Override
+    public void putBytes(final String key, final byte[] value) {
+        put(key, value, OffHeapStore.NO_EXPIRY);
+    }
+
+    @Override
+    public void putBytesWithConfirmation(final Callback<Boolean> confirmation,
+                                         final String key,
+                                         final byte[] value) {
+        confirmation.resolve(put(key, value, OffHeapStore.NO_EXPIRY));
+    }
+
+    @Override
+    public void putBytesWithConfirmationAndTimeout(final Callback<Boolean> confirmation,
+                                                   final String key,
+                                                   final byte[] value,
+                                                   final Duration expiry) {
+        confirmation.resolve(put(key, value, expireAt(expiry)));
+    }
+
+    @Override
+    public void putBytesWithTimeout(final String key,
+                                    final byte[] value,
+                                    final Duration expiry) {
+        put(key, value, expireAt(expiry));
+    }
+
+    @Override
+    public void getBytes(final Callback<Optional<byte[]>> callback,
+                         final String key) {
+        final byte[] value = get(key);
+        callback.resolve(value == null ? Optional.<byte[]>empty() : Optional.of(value));
+    }
+
+    @Override
+    public void getAllStrings(final Callback<Map<String, String>> callback,
+                              final Collection<String> keys) {
+        final Map<String, String> values = new LinkedHashMap<>(keys.size());
+        keys.forEach(key -> getString(value -> value.ifPresent(found -> values.put(key, found)), key));
+        callback.resolve(values);
+    }
+
+    @Override
+    public void getAllBytes(final Callback<Map<String, byte[]>> callback,
+                            final Collection<String> keys) {
+        final Map<String, byte[]> values = new LinkedHashMap<>(keys.size());
+        keys.forEach(key -> getBytes(value -> value.ifPresent(found -> values.put(key, found)), key));
+        callback.resolve(values);
+    }
+
+    @Override
+    public void hasKey(final Callback<Boolean> hasKeyCallback,
+                       final String key) {
+        hasKeyCallback.resolve(store.get(key.getBytes(StandardCharsets.UTF_8), time) != null);
+    }
+
+    @Override
+    public void delete(final String key) {
+        store.remove(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void deleteWithConfirmation(final Callback<Boolean> confirmation, final String key) {
+        store.remove(key.getBytes(StandardCharsets.UTF_8));
+        confirmation.accept(true);
+    }
+}
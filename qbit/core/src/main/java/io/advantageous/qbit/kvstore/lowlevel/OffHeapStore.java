@@ -0,0 +1,334 @@
+package io.advantageous.qbit.kvstore.lowlevel;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Byte array key value storage kept out of the Java heap.
+ * <p>
+ * Records are appended to fixed size direct memory segments. When the last segment is full the oldest
+ * segment is reused and the records still indexed in it are evicted, so the memory used never goes over
+ * the capacity. Overwritten and deleted records stay in their segment as dead bytes until it is reused.
+ * <p>
+ * The index is an open addressing table in a direct buffer. Each slot is 16 bytes, the record address and
+ * the key hash. Deletes use backward shift so there are no tombstones.
+ * <p>
+ * Record layout is key length (int), value length (int), expire time (long), key bytes, value bytes.
+ * Not thread safe, it is owned by the service thread.
+ *
+ * @author rhightower
+ */
+final class OffHeapStore {
+
+    static final long NO_EXPIRY = Long.MAX_VALUE;
+
+    private static final int HEADER_SIZE = 16;
+    private static final int SLOT_SIZE = 16;
+    private static final int MIN_SLOTS = 1 << 10;
+
+    private final int segmentSize;
+    private final ByteBuffer[] segments;
+    private final int[] segmentEnds;
+    private int head;
+    private int headPosition;
+
+    private ByteBuffer index;
+    private int slotMask;
+    private int size;
+    private int sweepCursor;
+
+    private long liveBytes;
+    private long evictions;
+
+    OffHeapStore(final long capacity, final int segmentSize) {
+        if (segmentSize <= HEADER_SIZE) {
+            throw new IllegalArgumentException("segment size too small " + segmentSize);
+        }
+        final long segmentCount = Math.max(2, capacity / segmentSize);
+        if (segmentCount > Integer.MAX_VALUE - 1) {
+            throw new IllegalArgumentException("too many segments, raise the segment size");
+        }
+        this.segmentSize = segmentSize;
+        this.segments = new ByteBuffer[(int) segmentCount];
+        this.segmentEnds = new int[(int) segmentCount];
+        this.segments[0] = ByteBuffer.allocateDirect(segmentSize);
+        this.index = ByteBuffer.allocateDirect(MIN_SLOTS * SLOT_SIZE);
+        this.slotMask = MIN_SLOTS - 1;
+    }
+
+    /**
+     * @return false if the record is larger than a segment, the old value of the key is removed so it is not
+     * read back in place of the value that was not stored
+     */
+    boolean put(final byte[] key, final byte[] value, final long expireAt) {
+        final int length = HEADER_SIZE + key.length + value.length;
+        if (length > segmentSize) {
+            remove(key);
+            return false;
+        }
+
+        final long address = append(key, value, expireAt, length);
+        final int hash = hash(key);
+
+        /* Look up after the append, it may have evicted a segment and moved slots. */
+        final int slot = find(key, hash);
+        if (slot >= 0) {
+            liveBytes -= recordLength(slotAddress(slot));
+            index.putLong(slot * SLOT_SIZE, address);
+        } else {
+            insert(hash, address);
+        }
+        liveBytes += length;
+        return true;
+    }
+
+    /**
+     * @return the value or null if it is missing or expired, expired records are removed.
+     */
+    byte[] get(final byte[] key, final long now) {
+        final int slot = find(key, hash(key));
+        if (slot < 0) {
+            return null;
+        }
+        final long address = slotAddress(slot);
+        final ByteBuffer segment = segment(address);
+        final int offset = offset(address);
+        if (segment.getLong(offset + 8) <= now) {
+            removeSlot(slot);
+            return null;
+        }
+        final int keyLength = segment.getInt(offset);
+        final byte[] value = new byte[segment.getInt(offset + 4)];
+        segment.position(offset + HEADER_SIZE + keyLength);
+        segment.get(value);
+        return value;
+    }
+
+    boolean remove(final byte[] key) {
+        final int slot = find(key, hash(key));
+        if (slot < 0) {
+            return false;
+        }
+        removeSlot(slot);
+        return true;
+    }
+
+    /**
+     * Checks up to maxCheck index slots from where the last sweep stopped and removes expired records.
+     *
+     * @return number removed
+     */
+    int expire(final long now, final int maxCheck) {
+        int removed = 0;
+        final int slots = slotMask + 1;
+        for (int checked = 0; checked < maxCheck && checked < slots && size > 0; checked++) {
+            final long address = slotAddress(sweepCursor);
+            if (address != 0 && segment(address).getLong(offset(address) + 8) <= now) {
+                /* Backward shift may move another entry into this slot so look at it again. */
+                removeSlot(sweepCursor);
+                removed++;
+                continue;
+            }
+            sweepCursor = (sweepCursor + 1) & slotMask;
+        }
+        return removed;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long liveBytes() {
+        return liveBytes;
+    }
+
+    long allocatedBytes() {
+        long allocated = 0;
+        for (ByteBuffer segment : segments) {
+            if (segment != null) {
+                allocated += segment.capacity();
+            }
+        }
+        return allocated;
+    }
+
+    long capacity() {
+        return (long) segments.length * segmentSize;
+    }
+
+    long indexBytes() {
+        return index.capacity();
+    }
+
+    long evictions() {
+        return evictions;
+    }
+
+    private long append(final byte[] key, final byte[] value, final long expireAt, final int length) {
+        if (headPosition + length > segmentSize) {
+            segmentEnds[head] = headPosition;
+            head = (head + 1) % segments.length;
+            headPosition = 0;
+            if (segments[head] == null) {
+                segments[head] = ByteBuffer.allocateDirect(segmentSize);
+            } else {
+                evictSegment(head);
+            }
+        }
+        final ByteBuffer segment = segments[head];
+        segment.position(headPosition);
+        segment.putInt(key.length).putInt(value.length).putLong(expireAt).put(key).put(value);
+        final long address = address(head, headPosition);
+        headPosition += length;
+        return address;
+    }
+
+    /* Drops every record in the segment that the index still points at. */
+    private void evictSegment(final int segmentIndex) {
+        final ByteBuffer segment = segments[segmentIndex];
+        final int end = segmentEnds[segmentIndex];
+        int offset = 0;
+        while (offset < end) {
+            final int keyLength = segment.getInt(offset);
+            final int length = HEADER_SIZE + keyLength + segment.getInt(offset + 4);
+            final long address = address(segmentIndex, offset);
+            int slot = hash(segment, offset + HEADER_SIZE, keyLength) & slotMask;
+            long slotAddress;
+            while ((slotAddress = slotAddress(slot)) != 0) {
+                if (slotAddress == address) {
+                    removeSlot(slot);
+                    evictions++;
+                    break;
+                }
+                slot = (slot + 1) & slotMask;
+            }
+            offset += length;
+        }
+        segmentEnds[segmentIndex] = 0;
+    }
+
+    private int find(final byte[] key, final int hash) {
+        int slot = hash & slotMask;
+        long address;
+        while ((address = slotAddress(slot)) != 0) {
+            if (index.getInt(slot * SLOT_SIZE + 8) == hash && keyEquals(address, key)) {
+                return slot;
+            }
+            slot = (slot + 1) & slotMask;
+        }
+        return -1;
+    }
+
+    private void insert(final int hash, final long address) {
+        if ((size + 1) * 2 > slotMask + 1) {
+            resize();
+        }
+        int slot = hash & slotMask;
+        while (slotAddress(slot) != 0) {
+            slot = (slot + 1) & slotMask;
+        }
+        index.putLong(slot * SLOT_SIZE, address);
+        index.putInt(slot * SLOT_SIZE + 8, hash);
+        size++;
+    }
+
+    private void resize() {
+        final ByteBuffer old = index;
+        final int oldSlots = slotMask + 1;
+        index = ByteBuffer.allocateDirect(oldSlots * 2 * SLOT_SIZE);
+        slotMask = oldSlots * 2 - 1;
+        sweepCursor = 0;
+        for (int oldSlot = 0; oldSlot < oldSlots; oldSlot++) {
+            final long address = old.getLong(oldSlot * SLOT_SIZE);
+            if (address != 0) {
+                final int hash = old.getInt(oldSlot * SLOT_SIZE + 8);
+                int slot = hash & slotMask;
+                while (slotAddress(slot) != 0) {
+                    slot = (slot + 1) & slotMask;
+                }
+                index.putLong(slot * SLOT_SIZE, address);
+                index.putInt(slot * SLOT_SIZE + 8, hash);
+            }
+        }
+    }
+
+    private void removeSlot(final int slot) {
+        liveBytes -= recordLength(slotAddress(slot));
+        size--;
+
+        int hole = slot;
+        int next = (hole + 1) & slotMask;
+        long address;
+        while ((address = slotAddress(next)) != 0) {
+            final int hash = index.getInt(next * SLOT_SIZE + 8);
+            final int home = hash & slotMask;
+            final boolean homeBetween = hole <= next ? (hole < home && home <= next) : (hole < home || home <= next);
+            if (!homeBetween) {
+                index.putLong(hole * SLOT_SIZE, address);
+                index.putInt(hole * SLOT_SIZE + 8, hash);
+                hole = next;
+            }
+            next = (next + 1) & slotMask;
+        }
+        index.putLong(hole * SLOT_SIZE, 0L);
+        index.putInt(hole * SLOT_SIZE + 8, 0);
+    }
+
+    private boolean keyEquals(final long address, final byte[] key) {
+        final ByteBuffer segment = segment(address);
+        final int offset = offset(address);
+        if (segment.getInt(offset) != key.length) {
+            return false;
+        }
+        final int keyStart = offset + HEADER_SIZE;
+        for (int position = 0; position < key.length; position++) {
+            if (segment.get(keyStart + position) != key[position]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int recordLength(final long address) {
+        final ByteBuffer segment = segment(address);
+        final int offset = offset(address);
+        return HEADER_SIZE + segment.getInt(offset) + segment.getInt(offset + 4);
+    }
+
+    private long slotAddress(final int slot) {
+        return index.getLong(slot * SLOT_SIZE);
+    }
+
+    private ByteBuffer segment(final long address) {
+        return segments[(int) (address >>> 32) - 1];
+    }
+
+    private static int offset(final long address) {
+        return (int) address;
+    }
+
+    /* Segment number is stored plus one so that no address is zero, zero marks an empty slot. */
+    private static long address(final int segment, final int offset) {
+        return ((long) (segment + 1) << 32) | offset;
+    }
+
+    private static int hash(final byte[] key) {
+        int hash = 1;
+        for (byte b : key) {
+            hash = 31 * hash + b;
+        }
+        return spread(hash);
+    }
+
+    private static int hash(final ByteBuffer buffer, final int start, final int length) {
+        int hash = 1;
+        for (int position = start; position < start + length; position++) {
+            hash = 31 * hash + buffer.get(position);
+        }
+        return spread(hash);
+    }
+
+    private static int spread(final int hash) {
+        final int spread = (hash ^ (hash >>> 16)) * 0x45d9f3b;
+        return spread ^ (spread >>> 16);
+    }
+}
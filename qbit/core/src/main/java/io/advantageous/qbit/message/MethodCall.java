@@ -39,6 +39,24 @@ public interface MethodCall<T> extends Request<T> {
 
     Callback<Object> callback();
 
+    /**
+     * Slot of the target service in the service bundle, resolved when a local proxy is built.
+     *
+     * @return slot or -1 if the call has to be routed by object name or address
+     */
+    default int serviceSlot() {
+        return -1;
+    }
+
+    /**
+     * Index of the method in the target service method handler, resolved when a local proxy is built.
+     *
+     * @return method id or -1 if the method has to be looked up by name
+     */
+    default int methodId() {
+        return -1;
+    }
+
     default Object[] args() {
         Object body = this.body();
 
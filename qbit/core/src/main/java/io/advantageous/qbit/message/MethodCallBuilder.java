@@ -47,6 +47,8 @@ public class MethodCallBuilder {
     private boolean local;
     private Object[] bodyArgs;
     private Callback<Object> callback;
+    private int serviceSlot = -1;
+    private int methodId = -1;
 
     public static MethodCallBuilder methodCallBuilder() {
         return new MethodCallBuilder();
@@ -208,10 +210,12 @@ public class MethodCallBuilder {
 
 
         if (isLocal()) {
-            return new MethodCallLocal(getName(), getReturnAddress(), getTimestamp(), getId(), getBodyArgs(), getCallback(), getOriginatingRequest());
+            return new MethodCallLocal(getName(), getReturnAddress(), getTimestamp(), getId(), getBodyArgs(), getCallback(),
+                    getOriginatingRequest(), getMethodId());
         } else {
             return new MethodCallImpl(getTimestamp(), getId(), getName(), getAddress(), getParams(), getHeaders(),
-                    getBody(), getObjectName(), getReturnAddress(), getOriginatingRequest(), callback);
+                    getBody(), getObjectName(), getReturnAddress(), getOriginatingRequest(), callback,
+                    getServiceSlot(), getMethodId());
         }
 
     }
@@ -242,6 +246,36 @@ public class MethodCallBuilder {
         return this;
     }
 
+    public int getServiceSlot() {
+        return serviceSlot;
+    }
+
+    /**
+     * Slot of the service in the bundle, see ServiceBundle.serviceSlot.
+     *
+     * @param serviceSlot slot or -1 to route by name
+     * @return this
+     */
+    public MethodCallBuilder setServiceSlot(int serviceSlot) {
+        this.serviceSlot = serviceSlot;
+        return this;
+    }
+
+    public int getMethodId() {
+        return methodId;
+    }
+
+    /**
+     * Index of the method in the service method handler, see ServiceMethodHandler.methodId.
+     *
+     * @param methodId method id or -1 to look the method up by name
+     * @return this
+     */
+    public MethodCallBuilder setMethodId(int methodId) {
+        this.methodId = methodId;
+        return this;
+    }
+
     public Callback<Object> getCallback() {
         return callback;
     }
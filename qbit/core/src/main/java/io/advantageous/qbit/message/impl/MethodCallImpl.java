@@ -41,11 +41,18 @@ public class MethodCallImpl implements MethodCall<Object> {
     private final String objectName;
     private final String returnAddress;
     private final Callback<Object> callback;
+    private final int serviceSlot;
+    private final int methodId;
     private Object transformedBody;
     private Request<Object> originatingRequest;
 
 
     public MethodCallImpl(long timestamp, long id, String name, String address, MultiMap<String, String> params, MultiMap<String, String> headers, Object body, String objectName, String returnAddress, Request<Object> originatingRequest, Callback<Object> callback) {
+        this(timestamp, id, name, address, params, headers, body, objectName, returnAddress, originatingRequest, callback, -1, -1);
+    }
+
+    public MethodCallImpl(long timestamp, long id, String name, String address, MultiMap<String, String> params, MultiMap<String, String> headers, Object body, String objectName, String returnAddress, Request<Object> originatingRequest, Callback<Object> callback,
+                          int serviceSlot, int methodId) {
         this.timestamp = timestamp;
         this.id = id;
         this.name = name;
@@ -57,6 +64,18 @@ public class MethodCallImpl implements MethodCall<Object> {
         this.returnAddress = returnAddress;
         this.originatingRequest = originatingRequest;
         this.callback = findCallback(callback);
+        this.serviceSlot = serviceSlot;
+        this.methodId = methodId;
+    }
+
+    @Override
+    public int serviceSlot() {
+        return serviceSlot;
+    }
+
+    @Override
+    public int methodId() {
+        return methodId;
     }
 
     @Override
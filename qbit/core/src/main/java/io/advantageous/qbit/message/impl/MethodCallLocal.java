@@ -18,6 +18,8 @@ public class MethodCallLocal implements MethodCall<Object> {
 
     private final Request<Object> originatingRequest;
 
+    private final int methodId;
+
 
     public MethodCallLocal(final String name,
                            final String uuid,
@@ -25,6 +27,16 @@ public class MethodCallLocal implements MethodCall<Object> {
                            final long messageId,
                            final Object[] args,
                            Callback<Object> callback, final Request<Object> originatingRequest) {
+        this(name, uuid, timestamp, messageId, args, callback, originatingRequest, -1);
+    }
+
+    public MethodCallLocal(final String name,
+                           final String uuid,
+                           final long timestamp,
+                           final long messageId,
+                           final Object[] args,
+                           Callback<Object> callback, final Request<Object> originatingRequest,
+                           final int methodId) {
         this.name = name;
         this.timestamp = timestamp;
         this.arguments = args;
@@ -32,6 +44,12 @@ public class MethodCallLocal implements MethodCall<Object> {
         this.messageId = messageId;
         this.callback = detectCallback(callback);
         this.originatingRequest = originatingRequest;
+        this.methodId = methodId;
+    }
+
+    @Override
+    public int methodId() {
+        return methodId;
     }
 
     @Override
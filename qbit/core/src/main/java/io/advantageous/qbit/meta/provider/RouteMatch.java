@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2015. Rick Hightower, Geoff Chandler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * QBit - The Microservice lib for Java : JSON, WebSocket, REST. Be The Web!
+ */
+
+package io.advantageous.qbit.meta.provider;
+
+import io.advantageous.qbit.meta.RequestMetaData;
+
+import java.util.Arrays;
+
+/**
+ * Result of routing a request path with a {@link RoutingTrie}.
+ * <p>
+ * Holds the request meta data that matched and where each segment of the path starts and ends, so path params
+ * can be read without splitting the path again. A match can be reused for the next path, only the segment
+ * arrays grow when a path is deeper than any before it.
+ */
+public class RouteMatch {
+
+    private RequestMetaData requestMetaData;
+    private String path;
+    private int segmentCount;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+
+    public RequestMetaData getRequestMetaData() {
+        return requestMetaData;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * @return number of non empty segments in the path
+     */
+    public int segmentCount() {
+        return segmentCount;
+    }
+
+    public int segmentStart(final int segment) {
+        return starts[segment];
+    }
+
+    public int segmentEnd(final int segment) {
+        return ends[segment];
+    }
+
+    /**
+     * @param segment zero based segment, the first segment after the leading slash is 0
+     * @return the segment text or null if the path has fewer segments
+     */
+    public String segment(final int segment) {
+        return segment < segmentCount ? path.substring(starts[segment], ends[segment]) : null;
+    }
+
+    void reset(final String path) {
+        this.path = path;
+        this.segmentCount = 0;
+        this.requestMetaData = null;
+    }
+
+    void segment(final int segment, final int start, final int end) {
+        if (segment == starts.length) {
+            starts = Arrays.copyOf(starts, segment * 2);
+            ends = Arrays.copyOf(ends, segment * 2);
+        }
+        starts[segment] = start;
+        ends[segment] = end;
+        segmentCount = segment + 1;
+    }
+
+    void matched(final RequestMetaData requestMetaData) {
+        this.requestMetaData = requestMetaData;
+    }
+}
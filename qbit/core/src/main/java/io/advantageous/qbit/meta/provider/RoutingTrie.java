@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2015. Rick Hightower, Geoff Chandler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * QBit - The Microservice lib for Java : JSON, WebSocket, REST. Be The Web!
+ */
+
+package io.advantageous.qbit.meta.provider;
+
+import io.advantageous.qbit.meta.RequestMetaData;
+
+import java.util.Arrays;
+
+/**
+ * Routes request paths to request meta data, one trie per request method.
+ * <p>
+ * A route is a path of segments. A segment is static text (matched ignoring case), a <code>{param}</code> capture
+ * that matches any one segment, <code>*</code> that matches any one segment, or <code>**</code> as the last segment
+ * that matches the rest of the path, including nothing. When more than one route fits, static text beats a
+ * capture, a capture beats <code>*</code> and <code>*</code> beats <code>**</code>, segment by segment from the left.
+ * <p>
+ * Matching splits the path into a {@link RouteMatch} in one pass and then walks the trie by the recorded
+ * segment offsets, so it does not allocate. Empty segments and anything after a <code>?</code> are ignored.
+ * Routes are added when the server starts, matching can happen from many threads once it has.
+ */
+public class RoutingTrie {
+
+    private static final String[] NO_KEYS = new String[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private final Node root = new Node();
+    private int size;
+
+    /**
+     * Add a route, a route that is already there is replaced.
+     *
+     * @param route           route such as <code>/services/orders/{id}/lines/*</code>
+     * @param requestMetaData what the route maps to
+     */
+    public void add(final String route, final RequestMetaData requestMetaData) {
+        Node node = root;
+        final String[] segments = route.split("/");
+        for (int index = 0; index < segments.length; index++) {
+            final String segment = segments[index];
+            if (segment.isEmpty()) {
+                continue;
+            }
+            if (segment.equals("**")) {
+                if (node.rest == null) {
+                    size++;
+                }
+                node.rest = requestMetaData;
+                return;
+            } else if (segment.equals("*")) {
+                if (node.one == null) {
+                    node.one = new Node();
+                }
+                node = node.one;
+            } else if (segment.indexOf('{') != -1) {
+                if (node.param == null) {
+                    node.param = new Node();
+                }
+                node = node.param;
+            } else {
+                node = node.child(segment.toLowerCase());
+            }
+        }
+        if (node.value == null) {
+            size++;
+        }
+        node.value = requestMetaData;
+    }
+
+    /**
+     * Route a path.
+     *
+     * @param path  request path
+     * @param match gets the segment offsets and the request meta data
+     * @return true if a route matched
+     */
+    public boolean match(final String path, final RouteMatch match) {
+        match.reset(path);
+        final int length = path.length();
+        int segment = 0;
+        int index = 0;
+        while (index < length) {
+            final char c = path.charAt(index);
+            if (c == '?') {
+                break;
+            }
+            if (c == '/') {
+                index++;
+                continue;
+            }
+            final int start = index;
+            while (index < length && path.charAt(index) != '/' && path.charAt(index) != '?') {
+                index++;
+            }
+            match.segment(segment++, start, index);
+        }
+        final RequestMetaData requestMetaData = find(root, 0, match);
+        match.matched(requestMetaData);
+        return requestMetaData != null;
+    }
+
+    /**
+     * @return number of routes
+     */
+    public int size() {
+        return size;
+    }
+
+    private static RequestMetaData find(final Node node, final int segment, final RouteMatch match) {
+        if (segment == match.segmentCount()) {
+            return node.value != null ? node.value : node.rest;
+        }
+        RequestMetaData found;
+        final Node child = node.find(match.getPath(), match.segmentStart(segment), match.segmentEnd(segment));
+        if (child != null && (found = find(child, segment + 1, match)) != null) {
+            return found;
+        }
+        if (node.param != null && (found = find(node.param, segment + 1, match)) != null) {
+            return found;
+        }
+        if (node.one != null && (found = find(node.one, segment + 1, match)) != null) {
+            return found;
+        }
+        return node.rest;
+    }
+
+    private static final class Node {
+
+        /* Static children sorted by key so a segment is found with a binary search over the path chars. */
+        String[] keys = NO_KEYS;
+        Node[] children = NO_CHILDREN;
+        Node param;
+        Node one;
+        RequestMetaData value;
+        RequestMetaData rest;
+
+        Node child(final String key) {
+            int low = 0;
+            int high = keys.length - 1;
+            while (low <= high) {
+                final int middle = (low + high) >>> 1;
+                final int compare = keys[middle].compareTo(key);
+                if (compare < 0) {
+                    low = middle + 1;
+                } else if (compare > 0) {
+                    high = middle - 1;
+                } else {
+                    return children[middle];
+                }
+            }
+            final Node node = new Node();
+            keys = insert(keys, low, key);
+            children = insert(children, low, node);
+            return node;
+        }
+
+        Node find(final String path, final int start, final int end) {
+            int low = 0;
+            int high = keys.length - 1;
+            while (low <= high) {
+                final int middle = (low + high) >>> 1;
+                final int compare = compare(keys[middle], path, start, end);
+                if (compare < 0) {
+                    low = middle + 1;
+                } else if (compare > 0) {
+                    high = middle - 1;
+                } else {
+                    return children[middle];
+                }
+            }
+            return null;
+        }
+
+        private static int compare(final String key, final String path, final int start, final int end) {
+            final int keyLength = key.length();
+            final int length = end - start;
+            final int common = Math.min(keyLength, length);
+            for (int index = 0; index < common; index++) {
+                final int difference = key.charAt(index) - Character.toLowerCase(path.charAt(start + index));
+                if (difference != 0) {
+                    return difference;
+                }
+            }
+            return keyLength - length;
+        }
+
+        private static <T> T[] insert(final T[] array, final int position, final T item) {
+            final T[] grown = Arrays.copyOf(array, array.length + 1);
+            System.arraycopy(array, position, grown, position + 1, array.length - position);
+            grown[position] = item;
+            return grown;
+        }
+    }
+}
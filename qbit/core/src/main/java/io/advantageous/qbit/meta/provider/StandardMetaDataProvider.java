@@ -19,7 +19,6 @@ package io.advantageous.qbit.meta.provider;
 
 
 import io.advantageous.boon.core.Str;
-import io.advantageous.boon.core.StringScanner;
 import io.advantageous.qbit.annotation.RequestMethod;
 import io.advantageous.qbit.meta.*;
 import org.slf4j.Logger;
@@ -30,22 +29,22 @@ import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Holds a bunch of meta data about a service bundle.
+ * Request paths are routed with a {@link RoutingTrie} built from the context for one request method.
  */
 public class StandardMetaDataProvider implements MetaDataProvider {
 
 
     private final Map<String, RequestMetaData> metaDataMap = new ConcurrentHashMap<>(100);
-    private final NavigableMap<String, NavigableMap<Integer, RequestMetaData>> treeMap = new TreeMap<>();
+    private final RoutingTrie routingTrie = new RoutingTrie();
+    private final ThreadLocal<RouteMatch> routeMatch = ThreadLocal.withInitial(RouteMatch::new);
     private final RequestMethod httpRequestMethod;
 
     private final Logger logger = LoggerFactory.getLogger(StandardMetaDataProvider.class);
     private final boolean debug = logger.isDebugEnabled();
-    private final String rootURI;
 
 
     public StandardMetaDataProvider(final ContextMeta context, final RequestMethod method) {
         this.httpRequestMethod = method;
-        this.rootURI = context.getRootURI();
         context.getServices().forEach(service -> addService(context, service));
     }
 
@@ -82,92 +81,29 @@ public class StandardMetaDataProvider implements MetaDataProvider {
             return;
         }
 
-        if (requestMeta.getCallType() == CallType.ADDRESS) {
-            final String requestPath = requestMeta.getRequestURI();
-
-
-            final String path = Str.join('/', context.getRootURI(), servicePath, requestPath).replaceAll("//*", "/");
-
-            addRequestEndPointUsingPath(context, service, method, requestMeta, path.toLowerCase(),
-                    requestMeta.getRequestURI(), servicePath);
-
-        } else if (requestMeta.getCallType() == CallType.ADDRESS_WITH_PATH_PARAMS) {
-
-            final String requestPath =
-                    StringScanner.substringBefore(requestMeta.getRequestURI(), "{");
-
-
-            final String path = Str.join('/', context.getRootURI(), servicePath, requestPath).replaceAll("//*", "/");
-
-            addRequestEndPointUsingPath(context, service, method, requestMeta, path.toLowerCase(), requestMeta.getRequestURI(),
-                    servicePath);
-
-        }
+        final String path = Str.join('/', context.getRootURI(), servicePath, requestMeta.getRequestURI())
+                .replaceAll("//*", "/").toLowerCase();
 
+        final RequestMetaData metaData = new RequestMetaData(path, context, requestMeta, method, service);
+        metaDataMap.put(path, metaData);
+        routingTrie.add(path, metaData);
     }
 
-    private void addRequestEndPointUsingPath(final ContextMeta context,
-                                             final ServiceMeta service,
-                                             final ServiceMethodMeta method,
-                                             final RequestMeta requestMeta,
-                                             final String path,
-                                             final String requestURI,
-                                             final String servicePath) {
-        RequestMetaData metaData = new RequestMetaData(path, context, requestMeta, method, service);
-
-        if (requestMeta.getCallType() == CallType.ADDRESS) {
-            metaDataMap.put(path, metaData);
-        } else {
-            NavigableMap<Integer, RequestMetaData> map = treeMap.get(path);
-
-            if (map == null) {
-                map = new TreeMap<>();
-                treeMap.put(path, map);
-            }
-
-
-            int count = Str.split(servicePath + requestURI, '/').length - 1;
-
-            map.put(count, metaData);
-
-        }
-    }
-
-
-    private RequestMetaData doGet(final String path) {
-
-        RequestMetaData requestMetaData = metaDataMap.get(path);
-
-        if (requestMetaData == null) {
-            Map.Entry<String, NavigableMap<Integer, RequestMetaData>> uriParamNumMapEntry = treeMap.lowerEntry(path);
-
-            if (uriParamNumMapEntry == null) {
-                return null;
-            }
-
-            final String requestURI = Str.isEmpty(rootURI) ? path : StringScanner.substringAfter(path, rootURI);
-
-            int count = Str.split(requestURI, '/').length - 1;
-            NavigableMap<Integer, RequestMetaData> uriParamMap = uriParamNumMapEntry.getValue();
-
-            requestMetaData = uriParamMap.get(count);
-
-            if (requestMetaData != null && path.startsWith(requestMetaData.getPath())) {
-                return requestMetaData;
-            } else {
-                return null;
-            }
-        } else {
-            return requestMetaData;
-        }
+    /**
+     * Route a path and keep the segment offsets.
+     *
+     * @param path  request path
+     * @param match gets the request meta data and segment offsets
+     * @return true if the path matched an endpoint
+     */
+    public boolean route(final String path, final RouteMatch match) {
+        return routingTrie.match(path, match);
     }
 
     @Override
     public RequestMetaData get(final String path) {
-        RequestMetaData requestMetaData = doGet(path);
-        if (requestMetaData == null) {
-            requestMetaData = doGet(path.toLowerCase());
-        }
+        final RouteMatch match = routeMatch.get();
+        final RequestMetaData requestMetaData = routingTrie.match(path, match) ? match.getRequestMetaData() : null;
 
         if (debug && requestMetaData == null) {
 
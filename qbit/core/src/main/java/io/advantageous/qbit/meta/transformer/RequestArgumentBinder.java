@@ -0,0 +1,377 @@
+/*
+ * Copyright (c) 2015. Rick Hightower, Geoff Chandler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * QBit - The Microservice lib for Java : JSON, WebSocket, REST. Be The Web!
+ */
+
+package io.advantageous.qbit.meta.transformer;
+
+import io.advantageous.boon.core.Conversions;
+import io.advantageous.boon.core.Str;
+import io.advantageous.boon.core.Value;
+import io.advantageous.boon.core.reflection.MapObjectConversion;
+import io.advantageous.boon.core.value.ValueContainer;
+import io.advantageous.qbit.http.request.HttpRequest;
+import io.advantageous.qbit.json.JsonMapper;
+import io.advantageous.qbit.meta.ParameterMeta;
+import io.advantageous.qbit.meta.RequestMetaData;
+import io.advantageous.qbit.meta.params.*;
+import io.advantageous.qbit.meta.provider.RouteMatch;
+import io.advantageous.qbit.reactive.Callback;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import static io.advantageous.boon.core.Str.sputs;
+
+/**
+ * Binds the arguments of one request endpoint from an HTTP request.
+ * <p>
+ * The parameter meta data is read once when the binder is built. Path params are cut out of the path with the
+ * segment offsets the router already found and are only URL decoded if they have an escape in them.
+ * The body is turned into text and parsed at most once per request however many arguments come from it.
+ * A single body argument is parsed straight into its type, several body arguments share one parse and are
+ * converted from it with the element, key and value classes of their parameter the same way.
+ */
+final class RequestArgumentBinder {
+
+    private final Argument[] arguments;
+    private final boolean sharedBody;
+
+    RequestArgumentBinder(final RequestMetaData metaData) {
+        final List<ParameterMeta> parameters = metaData.getRequest().getParameters();
+        final List<Argument> arguments = new ArrayList<>(parameters.size());
+        int bodyArguments = 0;
+        for (ParameterMeta parameterMeta : parameters) {
+            if (parameterMeta.getClassType() == Callback.class) {
+                continue;
+            }
+            final Argument argument = new Argument(parameterMeta);
+            if (argument.paramType == ParamType.BODY) {
+                bodyArguments++;
+            }
+            arguments.add(argument);
+        }
+        this.arguments = arguments.toArray(new Argument[arguments.size()]);
+        this.sharedBody = bodyArguments > 1;
+    }
+
+    /**
+     * @param request    request
+     * @param match      route of the request path
+     * @param byPosition the body is a JSON list with one item per argument
+     * @param jsonMapper parses the body
+     * @param errorsList gets the errors, binding stops at the first missing required argument
+     * @param parseError gets body parse errors
+     * @return arguments bound before any error
+     */
+    List<Object> bind(final HttpRequest request,
+                      final RouteMatch match,
+                      final boolean byPosition,
+                      final JsonMapper jsonMapper,
+                      final List<String> errorsList,
+                      final Consumer<Exception> parseError) {
+
+        final List<Object> args = new ArrayList<>(arguments.length);
+        final Body body = new Body(request, jsonMapper);
+        final int firstSegmentIndex = request.address().startsWith("/") ? 1 : 0;
+
+        for (int index = 0; index < arguments.length; index++) {
+            final Argument argument = arguments[index];
+            final ParameterMeta parameterMeta = argument.parameterMeta;
+            Object value;
+
+            switch (argument.paramType) {
+                case REQUEST:
+                    value = request.getParam(argument.name);
+                    if (argument.required && Str.isEmpty(value)) {
+                        errorsList.add(sputs("Unable to find required request param", argument.name));
+                        return args;
+                    }
+                    if (Str.isEmpty(value)) {
+                        value = argument.defaultValue;
+                    }
+                    value = value != null ? decodeURLEncoding(value.toString()) : value;
+                    break;
+                case HEADER:
+                    value = request.headers().get(argument.name);
+                    if (argument.required && Str.isEmpty(value)) {
+                        errorsList.add(sputs("Unable to find required header param", argument.name));
+                        return args;
+                    }
+                    if (Str.isEmpty(value)) {
+                        value = argument.defaultValue;
+                    }
+                    value = value != null ? decodeURLEncoding(value.toString()) : value;
+                    break;
+                case DATA:
+                    value = request.data().get(argument.name);
+                    if (argument.required && Str.isEmpty(value)) {
+                        errorsList.add(sputs("Unable to find required data param", argument.name));
+                        return args;
+                    }
+                    if (value == null) {
+                        value = argument.defaultValue;
+                    }
+                    break;
+                case PATH_BY_NAME:
+                case PATH_BY_POSITION:
+                    value = match.segment(argument.indexIntoURI - firstSegmentIndex);
+                    if (argument.required && Str.isEmpty(value)) {
+                        errorsList.add(sputs("Unable to find required path param",
+                                argument.paramType == ParamType.PATH_BY_NAME ? argument.name : argument.indexIntoURI));
+                        return args;
+                    }
+                    if (Str.isEmpty(value)) {
+                        value = argument.defaultValue;
+                    }
+                    value = value != null ? decodeURLEncoding(value.toString()) : value;
+                    break;
+                case BODY:
+                    value = request.body();
+                    if (isJsonContent(request.getContentType())) {
+                        if (argument.required && body.isEmpty()) {
+                            errorsList.add("Unable to find body");
+                            return args;
+                        }
+                        if (body.isEmpty()) {
+                            value = argument.defaultValue;
+                            break;
+                        }
+                        try {
+                            if (byPosition) {
+                                value = body.tree();
+                                if (value instanceof List) {
+                                    value = ValueContainer.toObject(((List) value).get(index));
+                                }
+                                value = convert(parameterMeta, value);
+                            } else if (sharedBody) {
+                                value = convert(parameterMeta, body.tree());
+                            } else {
+                                value = body.parse(parameterMeta);
+                            }
+                        } catch (Exception exception) {
+                            parseError.accept(exception);
+                        }
+                    } else if (parameterMeta.isString()) {
+                        value = body.text();
+                    } else if (parameterMeta.getClassType() == HttpRequest.class) {
+                        value = request;
+                    }
+                    break;
+                case BODY_BY_POSITION:
+                    if (argument.required && body.isEmpty()) {
+                        errorsList.add("Unable to find body");
+                        return args;
+                    }
+                    if (body.isEmpty()) {
+                        value = argument.defaultValue;
+                    } else {
+                        value = body.tree();
+                    }
+                    if (value instanceof List) {
+                        final Object item = ((List) value).get(argument.bodyPosition);
+                        if (item instanceof Map) {
+                            value = MapObjectConversion.fromMap(jsonObject(item), parameterMeta.getClassType());
+                        }
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException();
+            }
+
+            args.add(value);
+        }
+        return args;
+    }
+
+    private static Object convert(final ParameterMeta parameterMeta, final Object value) {
+        if (parameterMeta.isArray() || parameterMeta.isCollection()) {
+            return value instanceof List ? listOf(parameterMeta.getComponentClass(), (List<?>) value) : value;
+        } else if (parameterMeta.isMap()) {
+            return value instanceof Map ? mapOf(parameterMeta.getComponentClassKey(),
+                    parameterMeta.getComponentClassValue(), (Map<?, ?>) value) : value;
+        } else {
+            return component(parameterMeta.getClassType(), value);
+        }
+    }
+
+    private static List<Object> listOf(final Class<?> componentClass, final List<?> items) {
+        final List<Object> results = new ArrayList<>(items.size());
+        for (Object item : items) {
+            results.add(component(componentClass, item));
+        }
+        return results;
+    }
+
+    /**
+     * Converts each entry with the key and value class of the map param, the same as JsonMapper.fromJsonMap.
+     */
+    private static Map<Object, Object> mapOf(final Class<?> keyClass, final Class<?> valueClass, final Map<?, ?> map) {
+        final Map<Object, Object> results = new TreeMap<>();
+        map.forEach((key, value) -> results.put(component(keyClass, key), component(valueClass, value)));
+        return results;
+    }
+
+    private static Object component(final Class<?> componentClass, final Object value) {
+        final Object item = value instanceof Value ? ((Value) value).toValue() : value;
+        if (componentClass == null || componentClass == Object.class) {
+            return plain(item);
+        } else if (item instanceof Map) {
+            return MapObjectConversion.fromMap(jsonObject(item), componentClass);
+        } else {
+            return Conversions.coerce(componentClass, item);
+        }
+    }
+
+    /**
+     * Untyped JSON is handed over as plain maps, lists and Java values instead of the parser's lazy values.
+     */
+    private static Object plain(final Object value) {
+        final Object item = value instanceof Value ? ((Value) value).toValue() : value;
+        if (item instanceof Map) {
+            final Map<Object, Object> map = new LinkedHashMap<>();
+            ((Map<?, ?>) item).forEach((key, entry) -> map.put(plain(key), plain(entry)));
+            return map;
+        } else if (item instanceof List) {
+            final List<Object> list = new ArrayList<>(((List<?>) item).size());
+            ((List<?>) item).forEach(entry -> list.add(plain(entry)));
+            return list;
+        }
+        return item;
+    }
+
+    /**
+     * JSON objects are parsed into maps keyed by the field name.
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> jsonObject(final Object value) {
+        return (Map<String, Object>) value;
+    }
+
+    private static String decodeURLEncoding(final String value) {
+        if (value.indexOf('%') == -1 && value.indexOf('+') == -1) {
+            return value;
+        }
+        try {
+            return URLDecoder.decode(value, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            return value;
+        }
+    }
+
+    static boolean isJsonContent(final String contentType) {
+        return Str.isEmpty(contentType) ||
+                contentType.equals("application/json") ||
+                contentType.equals("application/json;charset=utf-8") ||
+                contentType.startsWith("application/json");
+    }
+
+    /**
+     * What the binder needs to know about one argument, read from the parameter meta data once.
+     */
+    private static final class Argument {
+        final ParameterMeta parameterMeta;
+        final ParamType paramType;
+        final boolean required;
+        final Object defaultValue;
+        final String name;
+        final int indexIntoURI;
+        final int bodyPosition;
+
+        Argument(final ParameterMeta parameterMeta) {
+            final Param param = parameterMeta.getParam();
+            this.parameterMeta = parameterMeta;
+            this.paramType = param.getParamType() == null ? ParamType.BODY : param.getParamType();
+            this.required = param.isRequired();
+            this.defaultValue = param.getDefaultValue();
+            this.name = param instanceof NamedParam ? ((NamedParam) param).getName() : null;
+            this.indexIntoURI = param instanceof URINamedParam ? ((URINamedParam) param).getIndexIntoURI()
+                    : param instanceof URIPositionalParam ? ((URIPositionalParam) param).getIndexIntoURI() : -1;
+            this.bodyPosition = param instanceof PositionalParam ? ((PositionalParam) param).getPosition() : -1;
+        }
+    }
+
+    /**
+     * The request body, turned into text and parsed only when an argument asks for it.
+     * Byte bodies are parsed straight from their UTF-8 bytes so a large upload is not copied to a String first.
+     */
+    private static final class Body {
+        private final HttpRequest request;
+        private final JsonMapper jsonMapper;
+        private Object text;
+        private Object tree;
+        private boolean parsed;
+
+        Body(final HttpRequest request, final JsonMapper jsonMapper) {
+            this.request = request;
+            this.jsonMapper = jsonMapper;
+        }
+
+        Object text() {
+            if (text == null) {
+                final Object body = request.body();
+                text = body instanceof byte[] ? new String((byte[]) body, StandardCharsets.UTF_8) : body;
+            }
+            return text;
+        }
+
+        boolean isEmpty() {
+            final Object body = request.body();
+            return body instanceof byte[] ? ((byte[]) body).length == 0 : Str.isEmpty(body);
+        }
+
+        Object tree() {
+            if (!parsed) {
+                final Object body = request.body();
+                tree = ValueContainer.toObject(body instanceof byte[] ? jsonMapper.fromJson((byte[]) body)
+                        : jsonMapper.fromJson(text().toString()));
+                parsed = true;
+            }
+            return tree;
+        }
+
+        Object parse(final ParameterMeta parameterMeta) {
+            final Object body = request.body();
+            if (body instanceof byte[]) {
+                final byte[] bytes = (byte[]) body;
+                if (parameterMeta.isArray() || parameterMeta.isCollection()) {
+                    return jsonMapper.fromJsonArray(bytes, parameterMeta.getComponentClass());
+                } else if (parameterMeta.isMap()) {
+                    return jsonMapper.fromJsonMap(bytes, parameterMeta.getComponentClassKey(),
+                            parameterMeta.getComponentClassValue());
+                } else {
+                    return jsonMapper.fromJson(bytes, parameterMeta.getClassType());
+                }
+            }
+            final String json = text().toString();
+            if (parameterMeta.isArray() || parameterMeta.isCollection()) {
+                return jsonMapper.fromJsonArray(json, parameterMeta.getComponentClass());
+            } else if (parameterMeta.isMap()) {
+                return jsonMapper.fromJsonMap(json, parameterMeta.getComponentClassKey(),
+                        parameterMeta.getComponentClassValue());
+            } else {
+                return jsonMapper.fromJson(json, parameterMeta.getClassType());
+            }
+        }
+    }
+}
@@ -18,10 +18,6 @@
 package io.advantageous.qbit.meta.transformer;
 
 
-import io.advantageous.boon.core.Conversions;
-import io.advantageous.boon.core.Str;
-import io.advantageous.boon.core.reflection.MapObjectConversion;
-import io.advantageous.boon.core.value.ValueContainer;
 import io.advantageous.qbit.Factory;
 import io.advantageous.qbit.QBit;
 import io.advantageous.qbit.annotation.RequestMethod;
@@ -30,30 +26,24 @@ import io.advantageous.qbit.http.request.HttpRequestBuilder;
 import io.advantageous.qbit.json.JsonMapper;
 import io.advantageous.qbit.message.MethodCall;
 import io.advantageous.qbit.message.MethodCallBuilder;
-import io.advantageous.qbit.meta.ParameterMeta;
 import io.advantageous.qbit.meta.RequestMetaData;
-import io.advantageous.qbit.meta.params.*;
+import io.advantageous.qbit.meta.provider.RouteMatch;
 import io.advantageous.qbit.meta.provider.StandardMetaDataProvider;
-import io.advantageous.qbit.reactive.Callback;
 import io.advantageous.qbit.service.CaptureRequestInterceptor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.UnsupportedEncodingException;
-import java.net.URLDecoder;
-import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 
-import static io.advantageous.boon.core.Str.sputs;
-
 /**
  * The only implementation of RequestTransformer which takes a map
  * of StandardMetaDataProvider mapped to request methods (GET, POST), and uses it to
  * decide which method to invoke on an object.
+ * The arguments are bound by a {@link RequestArgumentBinder} compiled once per endpoint.
  */
 public class StandardRequestTransformer implements RequestTransformer {
 
@@ -72,6 +62,9 @@ public class StandardRequestTransformer implements RequestTransformer {
         }
     };
     private final Optional<Consumer<Throwable>> errorHandler;
+    private final ThreadLocal<RouteMatch> routeMatch = ThreadLocal.withInitial(RouteMatch::new);
+    /* Binders are compiled the first time an endpoint is called. */
+    private final Map<RequestMetaData, RequestArgumentBinder> binders = new ConcurrentHashMap<>();
 
 
     public StandardRequestTransformer(final Map<RequestMethod, StandardMetaDataProvider> metaDataProviderMap,
@@ -80,15 +73,6 @@ public class StandardRequestTransformer implements RequestTransformer {
         this.errorHandler = errorHandler;
     }
 
-    private final String decodeURLEncoding(String value) {
-        try {
-            return URLDecoder.decode(value, "UTF-8");
-        } catch (UnsupportedEncodingException e) {
-            return value;
-        }
-    }
-
-
     @Override
     public MethodCall<Object> transform(final HttpRequest request,
                                         final List<String> errorsList) {
@@ -104,7 +88,9 @@ public class StandardRequestTransformer implements RequestTransformer {
 
         final StandardMetaDataProvider standardMetaDataProvider = metaDataProviderMap
                 .get(RequestMethod.valueOf(request.getMethod()));
-        final RequestMetaData metaData = standardMetaDataProvider.get(request.address());
+        final RouteMatch match = routeMatch.get();
+        final RequestMetaData metaData = standardMetaDataProvider.route(request.address(), match)
+                ? match.getRequestMetaData() : null;
 
 
         final MethodCallBuilder methodCallBuilder = new MethodCallBuilder();
@@ -122,206 +108,10 @@ public class StandardRequestTransformer implements RequestTransformer {
         methodCallBuilder.setName(metaData.getMethod().getName());
         methodCallBuilder.setObjectName(metaData.getService().getName());
 
+        final RequestArgumentBinder binder = binders.computeIfAbsent(metaData, RequestArgumentBinder::new);
 
-        final List<ParameterMeta> parameters = metaData.getRequest().getParameters();
-
-        final List<Object> args = new ArrayList<>(parameters.size());
-
-        int index = 0;
-        loop:
-        for (ParameterMeta parameterMeta : parameters) {
-
-            ParamType paramType = parameterMeta.getParam().getParamType();
-
-            paramType = paramType == null ? ParamType.BODY : paramType;
-
-            Object value;
-            NamedParam namedParam;
-
-            if (parameterMeta.getClassType() == Callback.class) {
-                continue;
-            }
-
-            switch (paramType) {
-                case REQUEST:
-                    namedParam = ((NamedParam) parameterMeta.getParam());
-                    value = request.getParam(namedParam.getName());
-                    if (namedParam.isRequired() && Str.isEmpty(value)) {
-                        errorsList.add(sputs("Unable to find required request param", namedParam.getName()));
-                        break loop;
-
-                    }
-                    if (Str.isEmpty(value)) {
-                        value = namedParam.getDefaultValue();
-                    }
-                    value = value != null ? decodeURLEncoding(value.toString()) : value;
-                    break;
-                case HEADER:
-                    namedParam = ((NamedParam) parameterMeta.getParam());
-                    value = request.headers().get(namedParam.getName());
-                    if (namedParam.isRequired() && Str.isEmpty(value)) {
-                        errorsList.add(sputs("Unable to find required header param", namedParam.getName()));
-                        break loop;
-                    }
-                    if (Str.isEmpty(value)) {
-                        value = namedParam.getDefaultValue();
-                    }
-                    value = value != null ? decodeURLEncoding(value.toString()) : value;
-                    break;
-                case DATA:
-                    namedParam = ((NamedParam) parameterMeta.getParam());
-                    value = request.data().get(namedParam.getName());
-                    if (namedParam.isRequired() && Str.isEmpty(value)) {
-                        errorsList.add(sputs("Unable to find required data param", namedParam.getName()));
-                        break loop;
-                    }
-                    if (value == null) {
-                        value = namedParam.getDefaultValue();
-                    }
-                    break;
-                case PATH_BY_NAME:
-                    URINamedParam uriNamedParam = ((URINamedParam) parameterMeta.getParam());
-                    final String[] split = Str.split(request.address(), '/');
-                    if (uriNamedParam.getIndexIntoURI() >= split.length) {
-                        if (uriNamedParam.isRequired()) {
-                            errorsList.add(sputs("Unable to find required path param", uriNamedParam.getName()));
-                            break loop;
-                        }
-                    }
-                    value = split[uriNamedParam.getIndexIntoURI()];
-                    if (uriNamedParam.isRequired() && Str.isEmpty(value)) {
-                        errorsList.add(sputs("Unable to find required path param", uriNamedParam.getName()));
-                        break loop;
-                    }
-                    if (Str.isEmpty(value)) {
-                        value = uriNamedParam.getDefaultValue();
-                    }
-                    value = value != null ? decodeURLEncoding(value.toString()) : value;
-                    break;
-                case PATH_BY_POSITION:
-                    URIPositionalParam positionalParam = ((URIPositionalParam) parameterMeta.getParam());
-                    final String[] pathSplit = Str.split(request.address(), '/');
-                    value = null;
-                    if (positionalParam.getIndexIntoURI() >= pathSplit.length) {
-                        if (positionalParam.isRequired()) {
-                            errorsList.add(sputs("Unable to find required path param",
-                                    positionalParam.getIndexIntoURI()));
-                            break loop;
-                        }
-                    } else {
-                        value = pathSplit[positionalParam.getIndexIntoURI()];
-                        if (positionalParam.isRequired() && Str.isEmpty(value)) {
-                            errorsList.add(sputs("Unable to find required path param",
-                                    positionalParam.getIndexIntoURI()));
-                            break loop;
-                        }
-                    }
-                    if (Str.isEmpty(value)) {
-                        value = positionalParam.getDefaultValue();
-                    }
-                    value = value != null ? decodeURLEncoding(value.toString()) : value;
-                    break;
-
-                case BODY:
-                    final BodyParam bodyParam = (BodyParam) parameterMeta.getParam();
-                    value = request.body();
-                    final String contentType = request.getContentType();
-                    if (isJsonContent(contentType)) {
-                        if (value instanceof byte[]) {
-                            final byte[] bytes = (byte[]) value;
-                            value = new String(bytes, StandardCharsets.UTF_8);
-                        }
-                        if (bodyParam.isRequired() && Str.isEmpty(value)) {
-                            errorsList.add("Unable to find body");
-                            break loop;
-                        }
-                        if (Str.isEmpty(value)) {
-                            value = bodyParam.getDefaultValue();
-                        }
-                        if (byPosition) {
-                            value = jsonMapper.get().fromJson(value.toString());
-                            value = ValueContainer.toObject(value);
-                            if (value instanceof List) {
-                                value = ((List) value).get(index);
-                                value = ValueContainer.toObject(value);
-                            }
-                            try {
-                                if (parameterMeta.isArray() || parameterMeta.isCollection()) {
-                                    value = MapObjectConversion.convertListOfMapsToObjects(parameterMeta.getComponentClass(), (List<Map>) value);
-                                } else {
-                                    if (value instanceof Map) {
-                                        value = MapObjectConversion.fromMap((Map) value, parameterMeta.getClassType());
-                                    } else {
-                                        value = Conversions.coerce(parameterMeta.getClassType(), value);
-                                    }
-                                }
-                            } catch (Exception exception) {
-                                handleMehtodTransformError(errorsList, methodCallBuilder, exception);
-                            }
-                        } else {
-                            try {
-                                if (parameterMeta.isArray() || parameterMeta.isCollection()) {
-                                    value = jsonMapper.get().fromJsonArray(value.toString(), parameterMeta.getComponentClass());
-                                } else if (parameterMeta.isMap()) {
-
-                                    value = jsonMapper.get().fromJsonMap(value.toString(), parameterMeta.getComponentClassKey(),
-                                            parameterMeta.getComponentClassValue());
-                                } else {
-                                    value = jsonMapper.get().fromJson(value.toString(), parameterMeta.getClassType());
-                                }
-                            } catch (Exception exception) {
-                                handleMehtodTransformError(errorsList, methodCallBuilder, exception);
-                            }
-                        }
-                    } else if (parameterMeta.isString()) {
-                        if (value instanceof byte[]) {
-                            final byte[] bytes = (byte[]) value;
-                            value = new String(bytes, StandardCharsets.UTF_8);
-                        }
-                    } else if (parameterMeta.getClassType() == HttpRequest.class) {
-                        value = request;
-                    }
-                    break;
-                case BODY_BY_POSITION:
-                    BodyArrayParam bodyArrayParam = (BodyArrayParam) parameterMeta.getParam();
-                    value = request.body();
-                    if (value instanceof byte[]) {
-                        final byte[] bytes = (byte[]) value;
-                        value = new String(bytes, StandardCharsets.UTF_8);
-                    }
-
-                    if (bodyArrayParam.isRequired() && Str.isEmpty(value)) {
-
-                        errorsList.add("Unable to find body");
-                        break loop;
-
-                    }
-
-                    if (Str.isEmpty(value)) {
-                        value = bodyArrayParam.getDefaultValue();
-                    }
-
-                    value = jsonMapper.get().fromJson(value.toString());
-
-                    if (value instanceof List) {
-                        final List list = (List) value;
-                        final Object o = list.get(bodyArrayParam.getPosition());
-                        if (o instanceof Map) {
-                            //noinspection unchecked
-                            value = MapObjectConversion.fromMap(((Map) o), parameterMeta.getClassType());
-                        }
-                    }
-                    break;
-
-                default:
-                    throw new IllegalArgumentException();
-            }
-
-            args.add(value);
-
-
-            index++;
-        }
+        final List<Object> args = binder.bind(request, match, byPosition, jsonMapper.get(), errorsList,
+                exception -> handleMehtodTransformError(errorsList, methodCallBuilder, exception));
 
         methodCallBuilder.setBody(args);
 
@@ -351,11 +141,4 @@ public class StandardRequestTransformer implements RequestTransformer {
             logger.warn("Unable to parse object", exception);
         }
     }
-
-    private boolean isJsonContent(final String contentType) {
-        return Str.isEmpty(contentType) ||
-                contentType.equals("application/json") ||
-                contentType.equals("application/json;charset=utf-8") ||
-                contentType.startsWith("application/json");
-    }
 }
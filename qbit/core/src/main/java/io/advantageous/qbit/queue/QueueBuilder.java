@@ -21,7 +21,10 @@ package io.advantageous.qbit.queue;
 import io.advantageous.qbit.config.PropertyResolver;
 import io.advantageous.qbit.queue.impl.AddTimeoutUnableToEnqueueHandler;
 import io.advantageous.qbit.queue.impl.BasicQueue;
+import io.advantageous.qbit.queue.impl.BatchArrayPool;
 import io.advantageous.qbit.queue.impl.DefaultUnableToEnqueueHandler;
+import io.advantageous.qbit.queue.impl.EventLoopGroup;
+import io.advantageous.qbit.queue.impl.RingBufferQueue;
 
 import java.util.Properties;
 import java.util.concurrent.*;
@@ -48,6 +51,12 @@ public class QueueBuilder implements Cloneable {
     private TimeUnit pollTimeUnit = TimeUnit.MILLISECONDS;
     private TimeUnit enqueueTimeoutTimeUnit = null;
     private int enqueueTimeout;
+    private int ringBufferCapacity = -1;
+    private WaitStrategy waitStrategy;
+    private boolean pooledBatches;
+    private int batchPoolSize;
+    private boolean useEventLoop;
+    private EventLoopGroup eventLoopGroup;
 
     private UnableToEnqueueHandler unableToEnqueueHandler;
 
@@ -66,6 +75,12 @@ public class QueueBuilder implements Cloneable {
                 .getBooleanProperty("checkIfBusy", false);
         this.tryTransfer = propertyResolver
                 .getBooleanProperty("tryTransfer", false);
+        this.pooledBatches = propertyResolver
+                .getBooleanProperty("pooledBatches", false);
+        this.batchPoolSize = propertyResolver
+                .getIntegerProperty("batchPoolSize", 1024);
+        this.useEventLoop = propertyResolver
+                .getBooleanProperty("useEventLoop", false);
 
         this.queueClass = propertyResolver
                 .getGenericPropertyWithDefault("queueClass", ArrayBlockingQueue.class);
@@ -202,6 +217,101 @@ public class QueueBuilder implements Cloneable {
     }
 
 
+    /**
+     * Use a preallocated ring buffer instead of a BlockingQueue.
+     *
+     * @param capacity     slots in the ring, rounded up to a power of two
+     * @param waitStrategy how the consumer waits for items
+     * @return this
+     */
+    public QueueBuilder setRingBufferQueue(final int capacity, final WaitStrategy waitStrategy) {
+        this.ringBufferCapacity = capacity;
+        this.waitStrategy = waitStrategy;
+        return this;
+    }
+
+    public QueueBuilder setRingBufferQueue(final int capacity) {
+        return setRingBufferQueue(capacity, WaitStrategy.parking());
+    }
+
+    public boolean isRingBufferQueue() {
+        return ringBufferCapacity > 0;
+    }
+
+    public int getRingBufferCapacity() {
+        return ringBufferCapacity;
+    }
+
+    public QueueBuilder setRingBufferCapacity(int ringBufferCapacity) {
+        this.ringBufferCapacity = ringBufferCapacity;
+        return this;
+    }
+
+    public WaitStrategy getWaitStrategy() {
+        if (waitStrategy == null) {
+            waitStrategy = WaitStrategy.parking();
+        }
+        return waitStrategy;
+    }
+
+    public QueueBuilder setWaitStrategy(WaitStrategy waitStrategy) {
+        this.waitStrategy = waitStrategy;
+        return this;
+    }
+
+    public boolean isPooledBatches() {
+        return pooledBatches;
+    }
+
+    /**
+     * Senders take batch arrays from a bounded pool instead of copying the local buffer on every flush.
+     * The receive queue gives the arrays back once they are drained.
+     *
+     * @param pooledBatches true to pool batch arrays
+     * @return this
+     */
+    public QueueBuilder setPooledBatches(boolean pooledBatches) {
+        this.pooledBatches = pooledBatches;
+        return this;
+    }
+
+    public int getBatchPoolSize() {
+        return batchPoolSize;
+    }
+
+    public QueueBuilder setBatchPoolSize(int batchPoolSize) {
+        this.batchPoolSize = batchPoolSize;
+        return this;
+    }
+
+    public boolean isUseEventLoop() {
+        return useEventLoop || eventLoopGroup != null;
+    }
+
+    /**
+     * Run the queue listener on the shared default EventLoopGroup instead of a thread per queue.
+     * Set qbit.queue.builder.useEventLoop=true to turn this on for every queue.
+     *
+     * @param useEventLoop true to use the default event loop group
+     * @return this
+     */
+    public QueueBuilder setUseEventLoop(boolean useEventLoop) {
+        this.useEventLoop = useEventLoop;
+        return this;
+    }
+
+    public EventLoopGroup getEventLoopGroup() {
+        if (eventLoopGroup == null && useEventLoop) {
+            eventLoopGroup = EventLoopGroup.defaultEventLoopGroup();
+        }
+        return eventLoopGroup;
+    }
+
+    public QueueBuilder setEventLoopGroup(EventLoopGroup eventLoopGroup) {
+        this.eventLoopGroup = eventLoopGroup;
+        return this;
+    }
+
     public int getSize() {
         return size;
     }
@@ -256,6 +366,17 @@ public class QueueBuilder implements Cloneable {
 
 
     public <T> Queue<T> build() {
+        if (isRingBufferQueue()) {
+            return new RingBufferQueue<>(this.getName(),
+                    this.getPollWait(),
+                    this.getPollTimeUnit(),
+                    this.getBatchSize(),
+                    this.getRingBufferCapacity(),
+                    this.getWaitStrategy(),
+                    this.getUnableToEnqueueHandler(),
+                    this.getLimit(),
+                    this.getEventLoopGroup());
+        }
         return new BasicQueue<>(this.getName(),
                 this.getPollWait(),
                 this.getPollTimeUnit(),
@@ -266,7 +387,10 @@ public class QueueBuilder implements Cloneable {
                 this.getCheckEvery(),
                 this.isTryTransfer(),
                 this.getUnableToEnqueueHandler(),
-                this.getLimit());
+                this.getLimit(),
+                this.isPooledBatches() && this.getBatchSize() > 1 ?
+                        new BatchArrayPool(this.getBatchSize(), this.getBatchPoolSize()) : null,
+                this.getEventLoopGroup());
     }
 
 }
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2015. Rick Hightower, Geoff Chandler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * QBit - The Microservice lib for Java : JSON, WebSocket, REST. Be The Web!
+ */
+
+package io.advantageous.qbit.queue;
+
+import io.advantageous.qbit.queue.impl.BlockingWaitStrategy;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Decides how a ring buffer consumer waits for items to be published.
+ * <p>
+ * Busy spin has the lowest latency but burns a core per queue.
+ * Yield and park trade a little latency for CPU.
+ * Blocking uses a lock and condition and is the friendliest to shared boxes.
+ *
+ * @author rhightower
+ */
+public interface WaitStrategy {
+
+    /**
+     * Waits until the condition is true or the timeout has elapsed.
+     *
+     * @param available condition that signals that there is something to read
+     * @param timeout   max time to wait
+     * @param timeUnit  time unit of the timeout
+     * @return true if the condition became true before the timeout
+     */
+    boolean waitFor(BooleanSupplier available, long timeout, TimeUnit timeUnit);
+
+    /**
+     * Called by producers after they publish. Only strategies that block need to do anything.
+     */
+    default void signalAll() {
+    }
+
+
+    static WaitStrategy busySpin() {
+        return (available, timeout, timeUnit) -> {
+            final long deadline = System.nanoTime() + timeUnit.toNanos(timeout);
+            while (!available.getAsBoolean()) {
+                if (System.nanoTime() - deadline > 0) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    static WaitStrategy yielding() {
+        return (available, timeout, timeUnit) -> {
+            final long deadline = System.nanoTime() + timeUnit.toNanos(timeout);
+            int spins = 100;
+            while (!available.getAsBoolean()) {
+                if (System.nanoTime() - deadline > 0) {
+                    return false;
+                }
+                if (spins > 0) {
+                    spins--;
+                } else {
+                    Thread.yield();
+                }
+            }
+            return true;
+        };
+    }
+
+    static WaitStrategy parking() {
+        return parking(TimeUnit.MICROSECONDS.toNanos(50));
+    }
+
+    static WaitStrategy parking(final long parkNanos) {
+        return (available, timeout, timeUnit) -> {
+            final long deadline = System.nanoTime() + timeUnit.toNanos(timeout);
+            int spins = 100;
+            while (!available.getAsBoolean()) {
+                if (System.nanoTime() - deadline > 0) {
+                    return false;
+                }
+                if (spins > 0) {
+                    spins--;
+                } else if (spins > -100) {
+                    spins--;
+                    Thread.yield();
+                } else {
+                    LockSupport.parkNanos(parkNanos);
+                }
+            }
+            return true;
+        };
+    }
+
+    static WaitStrategy blocking() {
+        return new BlockingWaitStrategy();
+    }
+}
@@ -55,7 +55,8 @@ public class BasicQueue<T> implements Queue<T> {
     private final TimeUnit pollTimeTimeUnit;
     private final AtomicBoolean stop = new AtomicBoolean(true);
     private final Supplier<SendQueue<T>> sendQueueSupplier;
-    private ReceiveQueueManager<T> receiveQueueManager;
+    private final EventLoopGroup eventLoopGroup;
+    private volatile ReceiveQueueManager<T> receiveQueueManager;
 
 
     public BasicQueue(final String name,
@@ -69,6 +70,24 @@ public class BasicQueue<T> implements Queue<T> {
                       final boolean tryTransfer,
                       final UnableToEnqueueHandler unableToEnqueueHandler,
                       final int limit) {
+        this(name, waitTime, timeUnit, batchSize, queueClass, checkIfBusy, size, checkEvery, tryTransfer,
+                unableToEnqueueHandler, limit, null, null);
+    }
+
+    @SuppressWarnings("rawtypes")
+    public BasicQueue(final String name,
+                      final int waitTime,
+                      @SuppressWarnings("SameParameterValue") final TimeUnit timeUnit,
+                      final int batchSize,
+                      final Class<? extends BlockingQueue> queueClass,
+                      final boolean checkIfBusy,
+                      final int size,
+                      final int checkEvery,
+                      final boolean tryTransfer,
+                      final UnableToEnqueueHandler unableToEnqueueHandler,
+                      final int limit,
+                      final BatchArrayPool batchArrayPool,
+                      final EventLoopGroup eventLoopGroup) {
 
         logger.debug("Queue created {} {} limit {} size {} checkEvery {} tryTransfer {} waitTime {} limit {}",
                 name, queueClass, batchSize, size, checkEvery, tryTransfer, waitTime, limit);
@@ -79,6 +98,7 @@ public class BasicQueue<T> implements Queue<T> {
         this.pollTimeTimeUnit = timeUnit;
         this.batchSize = batchSize;
         this.limit = limit;
+        this.eventLoopGroup = eventLoopGroup;
 
         if (size == -1) {
 
@@ -108,21 +128,21 @@ public class BasicQueue<T> implements Queue<T> {
 
             if (tryTransfer) {
                 sendQueueSupplier = () -> new BasicSendQueueWithTryTransfer<>(name, batchSize, (TransferQueue<Object>) queue,
-                        checkEvery, BasicQueue.this);
+                        checkEvery, BasicQueue.this, batchArrayPool);
             } else {
                 sendQueueSupplier = () -> new BasicSendQueueWithTransferQueue<>(name, batchSize, ((TransferQueue<Object>) queue),
-                        checkEvery, BasicQueue.this);
+                        checkEvery, BasicQueue.this, batchArrayPool);
             }
         } else {
             sendQueueSupplier = () -> new BasicBlockingQueueSender<>(name, batchSize, queue,
-                    checkIfBusy, unableToEnqueueHandler, BasicQueue.this);
+                    checkIfBusy, unableToEnqueueHandler, BasicQueue.this, batchArrayPool);
         }
 
 
         logger.info("Queue done creating {} limit {} checkEvery {} tryTransfer {}" +
-                        "pollTimeWait/polltime {}",
+                        "pollTimeWait/polltime {} pooledBatches {}",
                 this.name, this.batchSize, checkEvery, tryTransfer,
-                this.pollTimeWait);
+                this.pollTimeWait, batchArrayPool != null);
 
 
     }
@@ -149,13 +169,22 @@ public class BasicQueue<T> implements Queue<T> {
     @Override
     public SendQueue<T> sendQueue() {
         if (debug) logger.debug("SendQueue requested for {}", name);
-        return sendQueueSupplier.get();
+        final SendQueue<T> sendQueue = sendQueueSupplier.get();
+        return eventLoopGroup == null ? sendQueue : new EventLoopSendQueue<>(sendQueue, this::wakeUpListener);
+    }
+
+    private void wakeUpListener() {
+        final ReceiveQueueManager<T> manager = receiveQueueManager;
+        if (manager instanceof EventLoopReceiveQueueManager) {
+            ((EventLoopReceiveQueueManager<T>) manager).wakeUp();
+        }
     }
 
 
     @Override
     public void startListener(final ReceiveQueueListener<T> listener) {
-        this.receiveQueueManager = new BasicReceiveQueueManager<>(name);
+        this.receiveQueueManager = eventLoopGroup == null ? new BasicReceiveQueueManager<>(name) :
+                new EventLoopReceiveQueueManager<>(eventLoopGroup, pollTimeWait, pollTimeTimeUnit);
         stop.set(false);
         logger.info("Starting queue listener for  {} {}", name, listener);
         this.receiveQueueManager.addQueueToManage(name, this.receiveQueue(), listener, limit);
@@ -41,6 +41,8 @@ class BasicReceiveQueue<T> implements ReceiveQueue<T> {
     private final BlockingQueue<Object> queue;
     private Object[] lastQueue = null;
     private int lastQueueIndex;
+    private int lastQueueLength;
+    private PooledBatch lastBatch;
 
     public BasicReceiveQueue(BlockingQueue<Object> queue, long waitTime, TimeUnit timeUnit, int batchSize) {
         this.queue = queue;
@@ -67,9 +69,14 @@ class BasicReceiveQueue<T> implements ReceiveQueue<T> {
     private T getItemFromLocalQueue() {
         @SuppressWarnings("unchecked") T item = (T) lastQueue[lastQueueIndex];
         lastQueueIndex++;
-        if (lastQueueIndex == lastQueue.length) {
+        if (lastQueueIndex == lastQueueLength) {
             lastQueueIndex = 0;
             lastQueue = null;
+            if (lastBatch != null) {
+                /* Everything has been read so the batch can go back to the pool. */
+                lastBatch.release();
+                lastBatch = null;
+            }
         }
         return item;
 
@@ -106,6 +113,12 @@ class BasicReceiveQueue<T> implements ReceiveQueue<T> {
     private T extractItem(Object o) {
         if (o instanceof Object[]) {
             lastQueue = (Object[]) o;
+            lastQueueLength = lastQueue.length;
+            return getItemFromLocalQueue();
+        } else if (o instanceof PooledBatch) {
+            lastBatch = (PooledBatch) o;
+            lastQueue = lastBatch.items();
+            lastQueueLength = lastBatch.size();
             return getItemFromLocalQueue();
         } else {
             //noinspection unchecked
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2015. Rick Hightower, Geoff Chandler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * QBit - The Microservice lib for Java : JSON, WebSocket, REST. Be The Web!
+ */
+
+package io.advantageous.qbit.queue.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded pool of batches shared by the send queues and the receive queue of one queue.
+ * <p>
+ * Producers acquire a batch on flush and the receiver releases it once drained.
+ * The pool starts empty and a new batch is created right away until the pool has handed out as many
+ * batches as it can hold, so a cold start does not wait on the receiver.
+ * After that an empty pool means every batch is in flight, and the sender yields for a little while
+ * to let the receiver catch up, which bounds the number of batches in flight. If the pool is still empty a new batch is created
+ * so a stalled receiver can never deadlock a sender, and if the pool is full a released batch is dropped.
+ * The pool itself is an array based MPMC queue so acquire and release do not allocate.
+ *
+ * @author rhightower
+ */
+public class BatchArrayPool {
+
+    private static final int MAX_YIELDS = 100;
+
+    private final int batchSize;
+    private final int mask;
+    private final PooledBatch[] batches;
+    private final AtomicLongArray sequences;
+    private final AtomicLong acquirePosition = new AtomicLong();
+    private final AtomicLong releasePosition = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+
+    public BatchArrayPool(final int batchSize, final int poolSize) {
+        if (batchSize < 1 || poolSize < 1) {
+            throw new IllegalArgumentException("batchSize and poolSize must be at least 1");
+        }
+        final int capacity = Integer.highestOneBit(poolSize) == poolSize ? poolSize :
+                Integer.highestOneBit(poolSize) << 1;
+        this.batchSize = batchSize;
+        this.mask = capacity - 1;
+        this.batches = new PooledBatch[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        for (int index = 0; index < capacity; index++) {
+            sequences.set(index, index);
+        }
+    }
+
+    /**
+     * Takes a batch out of the pool or creates one if the pool is empty.
+     *
+     * @return batch
+     */
+    public PooledBatch acquire() {
+        PooledBatch batch = poll();
+        if (batch != null) {
+            return batch;
+        }
+        if (created.get() >= batches.length) {
+            for (int attempt = 0; attempt < MAX_YIELDS && batch == null; attempt++) {
+                Thread.yield();
+                batch = poll();
+            }
+            if (batch != null) {
+                return batch;
+            }
+        }
+        created.incrementAndGet();
+        misses.incrementAndGet();
+        return new PooledBatch(this, batchSize);
+    }
+
+    private PooledBatch poll() {
+        long position = acquirePosition.get();
+        while (true) {
+            final int slot = (int) position & mask;
+            final long difference = sequences.get(slot) - (position + 1);
+            if (difference == 0) {
+                if (acquirePosition.compareAndSet(position, position + 1)) {
+                    final PooledBatch batch = batches[slot];
+                    batches[slot] = null;
+                    sequences.lazySet(slot, position + mask + 1);
+                    return batch;
+                }
+            } else if (difference < 0) {
+                return null;
+            }
+            position = acquirePosition.get();
+        }
+    }
+
+    void release(final PooledBatch batch) {
+        long position = releasePosition.get();
+        while (true) {
+            final int slot = (int) position & mask;
+            final long difference = sequences.get(slot) - position;
+            if (difference == 0) {
+                if (releasePosition.compareAndSet(position, position + 1)) {
+                    batches[slot] = batch;
+                    sequences.lazySet(slot, position + 1);
+                    return;
+                }
+            } else if (difference < 0) {
+                return;
+            }
+            position = releasePosition.get();
+        }
+    }
+
+    public int batchSize() {
+        return batchSize;
+    }
+
+    /**
+     * @return number of times a batch had to be created because the pool was empty
+     */
+    public long misses() {
+        return misses.get();
+    }
+}
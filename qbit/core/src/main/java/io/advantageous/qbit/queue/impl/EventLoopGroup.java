@@ -0,0 +1,332 @@
+/*
+ * Copyright (c) 2015. Rick Hightower, Geoff Chandler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * QBit - The Microservice lib for Java : JSON, WebSocket, REST. Be The Web!
+ */
+
+package io.advantageous.qbit.queue.impl;
+
+import io.advantageous.boon.core.Sys;
+import io.advantageous.qbit.queue.ReceiveQueue;
+import io.advantageous.qbit.queue.ReceiveQueueListener;
+import io.advantageous.qbit.service.Stoppable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A fixed set of event loop threads that many queues share.
+ * <p>
+ * Each queue is pinned to one loop when it is registered so its listener is always called from the same thread,
+ * which keeps services single threaded. A loop walks its queues, drains up to the limit from each one and calls
+ * the usual ReceiveQueueListener callbacks. When none of its queues has work the loop backs off, spinning, then yielding,
+ * then parking for up to maxParkNanos. Senders unpark a parked loop when they hand it items, see EventLoopSendQueue,
+ * so maxParkNanos only bounds how often an idle loop wakes up to call idle.
+ * <p>
+ * The default group has one loop per core. Set qbit.eventloop.threads to change it.
+ *
+ * @author rhightower
+ */
+public class EventLoopGroup implements Stoppable {
+
+    private static final Object DEFAULT_LOCK = new Object();
+    private static volatile EventLoopGroup defaultEventLoopGroup;
+
+    private final Logger logger = LoggerFactory.getLogger(EventLoopGroup.class);
+    private final String name;
+    private final EventLoop[] loops;
+
+    public EventLoopGroup(final String name, final int threadCount, final long maxParkNanos) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("Event loop group needs at least one thread " + threadCount);
+        }
+        this.name = name;
+        this.loops = new EventLoop[threadCount];
+        for (int index = 0; index < threadCount; index++) {
+            loops[index] = new EventLoop("EventLoop|" + name + "|" + index, maxParkNanos);
+        }
+        logger.info("Event loop group {} created with {} threads", name, threadCount);
+    }
+
+    public EventLoopGroup(final String name, final int threadCount) {
+        this(name, threadCount, TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    /**
+     * Lazily creates the shared group used when a queue builder is told to use event loops
+     * but is not given a group of its own.
+     *
+     * @return default group
+     */
+    public static EventLoopGroup defaultEventLoopGroup() {
+        EventLoopGroup group = defaultEventLoopGroup;
+        if (group == null) {
+            synchronized (DEFAULT_LOCK) {
+                group = defaultEventLoopGroup;
+                if (group == null) {
+                    group = new EventLoopGroup("default",
+                            Sys.sysProp("qbit.eventloop.threads", Runtime.getRuntime().availableProcessors()),
+                            TimeUnit.MICROSECONDS.toNanos(Sys.sysProp("qbit.eventloop.maxParkMicros", 1000)));
+                    defaultEventLoopGroup = group;
+                }
+            }
+        }
+        return group;
+    }
+
+    /**
+     * Pins a queue to the loop with the fewest queues.
+     */
+    <T> ManagedQueue<T> register(final String queueName,
+                                 final ReceiveQueue<T> receiveQueue,
+                                 final ReceiveQueueListener<T> listener,
+                                 final int limit,
+                                 final long idleNanos) {
+
+        EventLoop leastLoaded = loops[0];
+        for (EventLoop loop : loops) {
+            if (loop.queueCount() < leastLoaded.queueCount()) {
+                leastLoaded = loop;
+            }
+        }
+        final ManagedQueue<T> managedQueue = new ManagedQueue<>(queueName, receiveQueue, listener, limit, idleNanos,
+                leastLoaded);
+        leastLoaded.add(managedQueue);
+        logger.info("Queue {} pinned to {}", queueName, leastLoaded.threadName);
+        return managedQueue;
+    }
+
+    public int threadCount() {
+        return loops.length;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public void stop() {
+        for (EventLoop loop : loops) {
+            loop.stop();
+        }
+    }
+
+
+    /**
+     * One queue and its listener as seen by the loop thread.
+     */
+    static final class ManagedQueue<T> {
+        private final String name;
+        private final ReceiveQueue<T> receiveQueue;
+        private final ReceiveQueueListener<T> listener;
+        private final int limit;
+        private final long idleNanos;
+        private final EventLoopGroup.EventLoop loop;
+        private volatile boolean stop;
+        private boolean initialized;
+        private long nextIdle;
+
+        private ManagedQueue(final String name, final ReceiveQueue<T> receiveQueue,
+                             final ReceiveQueueListener<T> listener, final int limit, final long idleNanos,
+                             final EventLoopGroup.EventLoop loop) {
+            this.name = name;
+            this.receiveQueue = receiveQueue;
+            this.listener = listener;
+            this.limit = limit;
+            this.idleNanos = idleNanos;
+            this.loop = loop;
+        }
+
+        void stop() {
+            stop = true;
+        }
+
+        /**
+         * Called by senders after they hand items to the queue.
+         */
+        void wakeUp() {
+            loop.wakeUp();
+        }
+
+        /**
+         * Drains up to limit items.
+         *
+         * @param now current nano time
+         * @return true if there were items
+         */
+        private boolean process(final long now) {
+
+            if (!initialized) {
+                initialized = true;
+                nextIdle = now + idleNanos;
+                listener.init();
+            }
+
+            T item = receiveQueue.poll();
+
+            if (item == null) {
+                /* Same as BasicReceiveQueueManager, idle once per poll wait while there is nothing to do. */
+                if (now - nextIdle >= 0) {
+                    nextIdle = now + idleNanos;
+                    listener.idle();
+                }
+                return false;
+            }
+
+            listener.startBatch();
+            int count = 0;
+            while (item != null) {
+                listener.receive(item);
+                count++;
+                if (count >= limit) {
+                    /* Let the other queues on this loop have a turn, we will be back. */
+                    listener.limit();
+                    nextIdle = now + idleNanos;
+                    return true;
+                }
+                item = receiveQueue.poll();
+            }
+            listener.empty();
+            nextIdle = now + idleNanos;
+            return true;
+        }
+    }
+
+
+    private final class EventLoop implements Runnable {
+
+        private final String threadName;
+        private final long maxParkNanos;
+        private final Thread thread;
+        private volatile ManagedQueue<?>[] queues = new ManagedQueue<?>[0];
+        private volatile boolean stop;
+        private volatile boolean parked;
+
+        private EventLoop(final String threadName, final long maxParkNanos) {
+            this.threadName = threadName;
+            this.maxParkNanos = maxParkNanos;
+            this.thread = new Thread(this, threadName);
+            this.thread.setDaemon(true);
+            this.thread.start();
+        }
+
+        private int queueCount() {
+            return queues.length;
+        }
+
+        private synchronized void add(final ManagedQueue<?> managedQueue) {
+            final ManagedQueue<?>[] newQueues = Arrays.copyOf(queues, queues.length + 1);
+            newQueues[queues.length] = managedQueue;
+            queues = newQueues;
+            LockSupport.unpark(thread);
+        }
+
+        private synchronized void remove(final ManagedQueue<?> managedQueue) {
+            final ManagedQueue<?>[] current = queues;
+            final ManagedQueue<?>[] newQueues = new ManagedQueue<?>[current.length - 1];
+            int newIndex = 0;
+            for (ManagedQueue<?> queue : current) {
+                if (queue != managedQueue) {
+                    newQueues[newIndex++] = queue;
+                }
+            }
+            queues = newQueues;
+        }
+
+        private void stop() {
+            stop = true;
+            LockSupport.unpark(thread);
+        }
+
+        private void wakeUp() {
+            if (parked) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        @Override
+        public void run() {
+
+            int idleTurns = 0;
+            long parkNanos = TimeUnit.MICROSECONDS.toNanos(10);
+
+            while (!stop) {
+
+                boolean didWork = processQueues();
+
+                if (!didWork && idleTurns >= 200) {
+                    /* Publish that we are parking, then look once more. A sender either sees the flag
+                    and unparks us or handed over its items before this last look. */
+                    parked = true;
+                    didWork = processQueues();
+                    if (!didWork) {
+                        LockSupport.parkNanos(parkNanos);
+                        parkNanos = Math.min(parkNanos * 2, maxParkNanos);
+                    }
+                    parked = false;
+                }
+
+                if (didWork) {
+                    idleTurns = 0;
+                    parkNanos = TimeUnit.MICROSECONDS.toNanos(10);
+                } else if (idleTurns < 100) {
+                    idleTurns++;
+                } else if (idleTurns < 200) {
+                    idleTurns++;
+                    Thread.yield();
+                }
+            }
+
+            for (ManagedQueue<?> managedQueue : queues) {
+                shutdown(managedQueue);
+            }
+        }
+
+        private boolean processQueues() {
+            final ManagedQueue<?>[] current = queues;
+            final long now = System.nanoTime();
+            boolean didWork = false;
+
+            for (ManagedQueue<?> managedQueue : current) {
+                if (managedQueue.stop) {
+                    shutdown(managedQueue);
+                    continue;
+                }
+                try {
+                    if (managedQueue.process(now)) {
+                        didWork = true;
+                    }
+                } catch (Exception ex) {
+                    logger.error("Event loop " + threadName + " queue " + managedQueue.name +
+                            " listener threw an exception", ex);
+                }
+            }
+            return didWork;
+        }
+
+        private void shutdown(final ManagedQueue<?> managedQueue) {
+            remove(managedQueue);
+            try {
+                managedQueue.listener.shutdown();
+            } catch (Exception ex) {
+                logger.error("Event loop " + threadName + " queue " + managedQueue.name +
+                        " shutdown threw an exception", ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2015. Rick Hightower, Geoff Chandler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * QBit - The Microservice lib for Java : JSON, WebSocket, REST. Be The Web!
+ */
+
+package io.advantageous.qbit.queue.impl;
+
+import io.advantageous.qbit.queue.ReceiveQueue;
+import io.advantageous.qbit.queue.ReceiveQueueListener;
+import io.advantageous.qbit.queue.ReceiveQueueManager;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Receive queue manager that runs the queue on a shared EventLoopGroup instead of a thread of its own.
+ * The listener gets the same startBatch, receive, limit, empty, idle and shutdown callbacks as
+ * with BasicReceiveQueueManager, always from the one loop thread the queue is pinned to.
+ *
+ * @author rhightower
+ */
+public class EventLoopReceiveQueueManager<T> implements ReceiveQueueManager<T> {
+
+    private final EventLoopGroup eventLoopGroup;
+    private final long idleNanos;
+    private String name;
+    private ReceiveQueue<T> inputQueue;
+    private ReceiveQueueListener<T> listener;
+    private int limit;
+    private volatile EventLoopGroup.ManagedQueue<T> managedQueue;
+
+    /**
+     * @param eventLoopGroup group to run on
+     * @param pollWait       how long the queue has to be empty before the listener is told it is idle
+     * @param timeUnit       time unit of poll wait
+     */
+    public EventLoopReceiveQueueManager(final EventLoopGroup eventLoopGroup,
+                                        final long pollWait,
+                                        final TimeUnit timeUnit) {
+        this.eventLoopGroup = eventLoopGroup;
+        this.idleNanos = timeUnit.toNanos(pollWait);
+    }
+
+    @Override
+    public void start() {
+        if (inputQueue == null) {
+            return;
+        }
+        managedQueue = eventLoopGroup.register(name, inputQueue, listener, limit, idleNanos);
+    }
+
+    @Override
+    public void stop() {
+        if (managedQueue != null) {
+            managedQueue.stop();
+        }
+    }
+
+    /**
+     * Unparks the loop thread if it is waiting for work, senders call this after handing over items.
+     */
+    public void wakeUp() {
+        final EventLoopGroup.ManagedQueue<T> queue = managedQueue;
+        if (queue != null) {
+            queue.wakeUp();
+        }
+    }
+
+    @Override
+    public void addQueueToManage(final String name,
+                                 final ReceiveQueue<T> inputQueue,
+                                 final ReceiveQueueListener<T> listener,
+                                 final int batchSize) {
+        this.name = name;
+        this.inputQueue = inputQueue;
+        this.listener = listener;
+        this.limit = batchSize;
+    }
+}
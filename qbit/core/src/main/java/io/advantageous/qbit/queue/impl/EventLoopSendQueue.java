@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2015. Rick Hightower, Geoff Chandler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * QBit - The Microservice lib for Java : JSON, WebSocket, REST. Be The Web!
+ */
+package io.advantageous.qbit.queue.impl;
+
+import io.advantageous.qbit.queue.SendQueue;
+
+import java.util.Collection;
+
+/**
+ * Wraps the send queue of a queue that runs on an EventLoopGroup so the loop is woken up
+ * as soon as items are handed to the queue instead of when its park times out.
+ * <p>
+ * The loop is woken on every flush and on every send when the sender does not batch.
+ * A batched send that fills the local batch is picked up on the next flush or the next loop turn.
+ *
+ * @author rhightower
+ */
+final class EventLoopSendQueue<T> implements SendQueue<T> {
+
+    private final SendQueue<T> sendQueue;
+    private final Runnable wakeUp;
+    private final boolean batching;
+
+    EventLoopSendQueue(final SendQueue<T> sendQueue, final Runnable wakeUp) {
+        this.sendQueue = sendQueue;
+        this.wakeUp = wakeUp;
+        this.batching = sendQueue.shouldBatch();
+    }
+
+    @Override
+    public boolean send(T item) {
+        final boolean ableToSend = sendQueue.send(item);
+        if (!batching) {
+            wakeUp.run();
+        }
+        return ableToSend;
+    }
+
+    @Override
+    public void sendAndFlush(T item) {
+        sendQueue.sendAndFlush(item);
+        wakeUp.run();
+    }
+
+    @SafeVarargs
+    @Override
+    @SuppressWarnings("varargs")
+    public final void sendMany(T... items) {
+        sendQueue.sendMany(items);
+        wakeUp.run();
+    }
+
+    @Override
+    public void sendBatch(Collection<T> items) {
+        sendQueue.sendBatch(items);
+        wakeUp.run();
+    }
+
+    @Override
+    public void sendBatch(Iterable<T> items) {
+        sendQueue.sendBatch(items);
+        wakeUp.run();
+    }
+
+    @Override
+    public boolean shouldBatch() {
+        return batching;
+    }
+
+    @Override
+    public void flushSends() {
+        sendQueue.flushSends();
+        wakeUp.run();
+    }
+
+    @Override
+    public int size() {
+        return sendQueue.size();
+    }
+
+    @Override
+    public String name() {
+        return sendQueue.name();
+    }
+
+    @Override
+    public void start() {
+        sendQueue.start();
+    }
+
+    @Override
+    public void stop() {
+        sendQueue.stop();
+    }
+
+    @Override
+    public int hashCode() {
+        return sendQueue.hashCode();
+    }
+}
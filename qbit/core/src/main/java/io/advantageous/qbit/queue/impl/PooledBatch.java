@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2015. Rick Hightower, Geoff Chandler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * QBit - The Microservice lib for Java : JSON, WebSocket, REST. Be The Web!
+ */
+
+package io.advantageous.qbit.queue.impl;
+
+import java.util.Arrays;
+
+/**
+ * A batch of items sent through a queue in one hand-off.
+ * The receive queue gives it back to the pool once every item has been read
+ * so the same arrays get used over and over.
+ *
+ * @author rhightower
+ */
+public final class PooledBatch {
+
+    private final BatchArrayPool pool;
+    private final Object[] items;
+    private int size;
+
+    PooledBatch(final BatchArrayPool pool, final int batchSize) {
+        this.pool = pool;
+        this.items = new Object[batchSize];
+    }
+
+    /**
+     * Copies the items into this batch.
+     *
+     * @param source items
+     * @param length number of items
+     */
+    public void fill(final Object[] source, final int length) {
+        System.arraycopy(source, 0, items, 0, length);
+        size = length;
+    }
+
+    Object[] items() {
+        return items;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Called by the receiver once it has read every item.
+     */
+    void release() {
+        Arrays.fill(items, 0, size, null);
+        size = 0;
+        pool.release(this);
+    }
+}
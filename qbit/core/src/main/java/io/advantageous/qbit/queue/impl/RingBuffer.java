@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2015. Rick Hightower, Geoff Chandler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * QBit - The Microservice lib for Java : JSON, WebSocket, REST. Be The Web!
+ */
+
+package io.advantageous.qbit.queue.impl;
+
+import io.advantageous.qbit.queue.WaitStrategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Preallocated multi producer ring buffer, read by one receive queue.
+ * <p>
+ * Producers claim a run of slots with one CAS, copy their batch into the slots and publish each slot.
+ * A reader takes the next slot with one CAS on its published sequence, nulls it out so nothing is retained and
+ * then moves the consumer cursor. The receive queue is the normal reader, but another thread, for example an
+ * UnableToEnqueueHandler that clears the queue, can poll at the same time. While one reader holds the next slot
+ * the others see the ring as empty.
+ * Nothing is allocated on the send or receive path.
+ * The producer and consumer cursors are padded so they do not share a cache line.
+ *
+ * @author rhightower
+ */
+public class RingBuffer {
+
+    /**
+     * Published sequence of a slot a reader has taken but not cleared yet.
+     */
+    private static final long TAKEN = -2L;
+
+    private final Object[] slots;
+    private final AtomicLongArray published;
+    private final int mask;
+    private final int capacity;
+    private final Sequence producerCursor = new Sequence(0);
+    private final Sequence consumerCursor = new Sequence(0);
+    private final WaitStrategy waitStrategy;
+
+    public RingBuffer(final int requestedCapacity, final WaitStrategy waitStrategy) {
+        if (requestedCapacity < 1) {
+            throw new IllegalArgumentException("Ring buffer capacity must be at least 1 " + requestedCapacity);
+        }
+        this.capacity = powerOfTwo(requestedCapacity);
+        this.mask = capacity - 1;
+        this.slots = new Object[capacity];
+        this.published = new AtomicLongArray(capacity);
+        for (int index = 0; index < capacity; index++) {
+            published.set(index, -1L);
+        }
+        this.waitStrategy = waitStrategy;
+    }
+
+    private static int powerOfTwo(final int value) {
+        final int highest = Integer.highestOneBit(value);
+        if (highest == value) {
+            return value;
+        }
+        if (highest == 1 << 30) {
+            throw new IllegalArgumentException("Ring buffer capacity is too large " + value);
+        }
+        return highest << 1;
+    }
+
+    /**
+     * Copies items into the ring. Either all of the items are published or none of them are.
+     *
+     * @param items  items
+     * @param offset first item to send
+     * @param length number of items to send, no more than the capacity
+     * @return false if the ring did not have room for the items
+     */
+    public boolean offer(final Object[] items, final int offset, final int length) {
+        if (length > capacity) {
+            throw new IllegalArgumentException("Batch of " + length + " is bigger than ring buffer " + capacity);
+        }
+        final long start = claim(length);
+        if (start == -1L) {
+            return false;
+        }
+        for (int index = 0; index < length; index++) {
+            final long sequence = start + index;
+            final int slot = (int) sequence & mask;
+            slots[slot] = items[offset + index];
+            published.lazySet(slot, sequence);
+        }
+        waitStrategy.signalAll();
+        return true;
+    }
+
+    private long claim(final int count) {
+        long current;
+        do {
+            current = producerCursor.get();
+            if (current + count - capacity > consumerCursor.get()) {
+                return -1L;
+            }
+        } while (!producerCursor.compareAndSet(current, current + count));
+        return current;
+    }
+
+    /**
+     * @return next item or null if nothing has been published
+     */
+    public Object poll() {
+        final long sequence = consumerCursor.get();
+        final int slot = (int) sequence & mask;
+        if (!published.compareAndSet(slot, sequence, TAKEN)) {
+            return null;
+        }
+        final Object item = slots[slot];
+        slots[slot] = null;
+        /* Only the reader that took the slot moves the cursor, producers reuse the slot after this. */
+        consumerCursor.set(sequence + 1);
+        return item;
+    }
+
+    /**
+     * @return next item without taking it, or null if nothing has been published
+     */
+    public Object peek() {
+        while (true) {
+            final long sequence = consumerCursor.get();
+            final int slot = (int) sequence & mask;
+            if (published.get(slot) != sequence) {
+                return null;
+            }
+            final Object item = slots[slot];
+            if (published.get(slot) == sequence) {
+                return item;
+            }
+        }
+    }
+
+    /**
+     * Items published and not read yet, in order. Weakly consistent, the readers may move on while it is taken.
+     *
+     * @return copy of the items
+     */
+    public List<Object> snapshot() {
+        final long end = producerCursor.get();
+        final List<Object> items = new ArrayList<>();
+        for (long sequence = consumerCursor.get(); sequence < end; sequence++) {
+            final int slot = (int) sequence & mask;
+            if (published.get(slot) != sequence) {
+                break;
+            }
+            final Object item = slots[slot];
+            if (published.get(slot) != sequence) {
+                break;
+            }
+            items.add(item);
+        }
+        return items;
+    }
+
+    /**
+     * @return true if the next slot has been published
+     */
+    public boolean available() {
+        final long sequence = consumerCursor.get();
+        return published.get((int) sequence & mask) == sequence;
+    }
+
+    public int size() {
+        return (int) (producerCursor.get() - consumerCursor.get());
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public WaitStrategy waitStrategy() {
+        return waitStrategy;
+    }
+
+    /**
+     * Cursor padded to sit on its own cache line.
+     */
+    @SuppressWarnings("unused")
+    static final class Sequence extends AtomicLong {
+        private static final long serialVersionUID = 1L;
+        volatile long p1, p2, p3, p4, p5, p6 = 7L;
+
+        Sequence(final long initialValue) {
+            super(initialValue);
+        }
+
+        long sumPaddingToPreventOptimisation() {
+            return p1 + p2 + p3 + p4 + p5 + p6;
+        }
+    }
+}
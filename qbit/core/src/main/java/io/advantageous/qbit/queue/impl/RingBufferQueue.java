@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2015. Rick Hightower, Geoff Chandler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * QBit - The Microservice lib for Java : JSON, WebSocket, REST. Be The Web!
+ */
+
+package io.advantageous.qbit.queue.impl;
+
+import io.advantageous.qbit.queue.*;
+import io.advantageous.qbit.queue.impl.sender.RingBufferSendQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Queue backed by a preallocated ring buffer instead of a BlockingQueue.
+ * Sends are copied into the ring so batching does not allocate,
+ * and the consumer waits using the configured WaitStrategy.
+ * <p>
+ * The ring has a single consumer. Use startListener or one receiveQueue, not both.
+ *
+ * @param <T> type
+ * @author rhightower
+ */
+public class RingBufferQueue<T> implements Queue<T> {
+
+    private final Logger logger = LoggerFactory.getLogger(RingBufferQueue.class);
+    private final RingBuffer ringBuffer;
+    private final String name;
+    private final int pollTimeWait;
+    private final TimeUnit pollTimeTimeUnit;
+    private final int batchSize;
+    private final int limit;
+    private final UnableToEnqueueHandler unableToEnqueueHandler;
+    private final AtomicBoolean stop = new AtomicBoolean(true);
+    private final EventLoopGroup eventLoopGroup;
+    private ReceiveQueue<T> receiveQueue;
+    private volatile ReceiveQueueManager<T> receiveQueueManager;
+
+    public RingBufferQueue(final String name,
+                           final int waitTime,
+                           final TimeUnit timeUnit,
+                           final int batchSize,
+                           final int capacity,
+                           final WaitStrategy waitStrategy,
+                           final UnableToEnqueueHandler unableToEnqueueHandler,
+                           final int limit,
+                           final EventLoopGroup eventLoopGroup) {
+        this.name = name;
+        this.pollTimeWait = waitTime;
+        this.pollTimeTimeUnit = timeUnit;
+        this.batchSize = batchSize;
+        this.limit = limit;
+        this.unableToEnqueueHandler = unableToEnqueueHandler;
+        this.eventLoopGroup = eventLoopGroup;
+        this.ringBuffer = new RingBuffer(capacity, waitStrategy);
+
+        logger.info("Ring buffer queue created {} batchSize {} capacity {} waitStrategy {} pollTimeWait {}",
+                name, batchSize, ringBuffer.capacity(), waitStrategy, waitTime);
+    }
+
+    /**
+     * The ring buffer only supports one consumer so this always returns the same receive queue.
+     *
+     * @return received queue
+     */
+    @Override
+    public synchronized ReceiveQueue<T> receiveQueue() {
+        if (receiveQueue == null) {
+            receiveQueue = new RingBufferReceiveQueue<>(ringBuffer, pollTimeWait, pollTimeTimeUnit, limit);
+        }
+        return receiveQueue;
+    }
+
+    /**
+     * This returns a new instance of SendQueue every time you call it
+     * so call it only once per thread.
+     *
+     * @return sendQueue.
+     */
+    @Override
+    public SendQueue<T> sendQueue() {
+        final SendQueue<T> sendQueue = new RingBufferSendQueue<>(name, batchSize, ringBuffer, unableToEnqueueHandler, this);
+        return eventLoopGroup == null ? sendQueue : new EventLoopSendQueue<>(sendQueue, this::wakeUpListener);
+    }
+
+    private void wakeUpListener() {
+        final ReceiveQueueManager<T> manager = receiveQueueManager;
+        if (manager instanceof EventLoopReceiveQueueManager) {
+            ((EventLoopReceiveQueueManager<T>) manager).wakeUp();
+        }
+    }
+
+    @Override
+    public void startListener(final ReceiveQueueListener<T> listener) {
+        this.receiveQueueManager = eventLoopGroup == null ? new BasicReceiveQueueManager<>(name) :
+                new EventLoopReceiveQueueManager<>(eventLoopGroup, pollTimeWait, pollTimeTimeUnit);
+        stop.set(false);
+        logger.info("Starting queue listener for  {} {}", name, listener);
+        this.receiveQueueManager.addQueueToManage(name, this.receiveQueue(), listener, limit);
+        this.receiveQueueManager.start();
+    }
+
+    @Override
+    public void stop() {
+        logger.info("Stopping queue  {}", name);
+        stop.set(true);
+        if (receiveQueueManager != null) {
+            receiveQueueManager.stop();
+        }
+    }
+
+    @Override
+    public int size() {
+        return ringBuffer.size();
+    }
+
+    @Override
+    public boolean started() {
+        return !stop.get();
+    }
+
+    @Override
+    public String toString() {
+        return "RingBufferQueue{" +
+                "name='" + name + '\'' +
+                ", capacity=" + ringBuffer.capacity() +
+                '}';
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+}
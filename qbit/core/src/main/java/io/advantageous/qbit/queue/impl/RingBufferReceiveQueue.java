@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2015. Rick Hightower, Geoff Chandler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * QBit - The Microservice lib for Java : JSON, WebSocket, REST. Be The Web!
+ */
+
+package io.advantageous.qbit.queue.impl;
+
+import io.advantageous.qbit.queue.ReceiveQueue;
+import io.advantageous.qbit.queue.WaitStrategy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * This is not thread safe.
+ * The ring buffer has a single consumer so there should only be one of these per queue.
+ *
+ * @author rhightower
+ */
+class RingBufferReceiveQueue<T> implements ReceiveQueue<T> {
+
+    private final RingBuffer ringBuffer;
+    private final WaitStrategy waitStrategy;
+    private final BooleanSupplier available;
+    private final long waitTime;
+    private final TimeUnit timeUnit;
+    private final int batchSize;
+
+    /**
+     * Reused by every readBatch call, there is only one consumer.
+     */
+    private final ArrayList<T> batch = new ArrayList<>();
+
+    RingBufferReceiveQueue(final RingBuffer ringBuffer, final long waitTime,
+                           final TimeUnit timeUnit, final int batchSize) {
+        this.ringBuffer = ringBuffer;
+        this.waitStrategy = ringBuffer.waitStrategy();
+        this.available = ringBuffer::available;
+        this.waitTime = waitTime;
+        this.timeUnit = timeUnit;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public T pollWait() {
+        final T item = poll();
+        if (item != null) {
+            return item;
+        }
+        if (waitStrategy.waitFor(available, waitTime, timeUnit)) {
+            return poll();
+        }
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T poll() {
+        return (T) ringBuffer.poll();
+    }
+
+    @Override
+    public T take() {
+        T item = poll();
+        while (item == null) {
+            waitStrategy.waitFor(available, waitTime, timeUnit);
+            if (Thread.currentThread().isInterrupted()) {
+                return null;
+            }
+            item = poll();
+        }
+        return item;
+    }
+
+    /**
+     * The returned batch is reused, it is only valid until the next call to readBatch.
+     *
+     * @param max max number of items
+     * @return items
+     */
+    @Override
+    public Iterable<T> readBatch(int max) {
+
+        T item = this.poll();
+        if (item == null) {
+            return Collections.emptyList();
+        } else {
+            batch.clear();
+            batch.add(item);
+            while (batch.size() < max && (item = this.poll()) != null) {
+                batch.add(item);
+            }
+            return batch;
+        }
+    }
+
+    @Override
+    public Iterable<T> readBatch() {
+        return readBatch(batchSize);
+    }
+
+    @Override
+    public int hashCode() {
+        return ringBuffer.hashCode();
+    }
+}
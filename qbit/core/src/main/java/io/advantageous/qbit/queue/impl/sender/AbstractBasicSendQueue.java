@@ -3,6 +3,8 @@ package io.advantageous.qbit.queue.impl.sender;
 import io.advantageous.boon.core.Sys;
 import io.advantageous.qbit.queue.Queue;
 import io.advantageous.qbit.queue.SendQueue;
+import io.advantageous.qbit.queue.impl.BatchArrayPool;
+import io.advantageous.qbit.queue.impl.PooledBatch;
 import org.slf4j.Logger;
 
 import java.util.Arrays;
@@ -22,6 +24,7 @@ public abstract class AbstractBasicSendQueue<T> implements SendQueue<T> {
     private final int checkStartWarnEvery = Sys.sysProp("QBIT_CHECK_START_WARN_EVERY", 100);
     private final boolean checkQueueSize = Sys.sysProp("QBIT_CHECK_QUEUE_SIZE", false);
     private final int checkQueueSizeWarnIfOver = Sys.sysProp("QBIT_CHECK_QUEUE_SIZE_WARN_IF_OVER", 10);
+    private final BatchArrayPool batchArrayPool;
     protected int checkEveryStarted = 0;
     protected int index;
     protected Object[] queueLocal;
@@ -30,18 +33,33 @@ public abstract class AbstractBasicSendQueue<T> implements SendQueue<T> {
                                   final int batchSize,
                                   final String name,
                                   final Logger logger) {
+        this(queue, owner, batchSize, name, logger, null);
+    }
+
+    public AbstractBasicSendQueue(final BlockingQueue<Object> queue, Queue<T> owner,
+                                  final int batchSize,
+                                  final String name,
+                                  final Logger logger,
+                                  final BatchArrayPool batchArrayPool) {
         this.queue = queue;
         this.owner = owner;
         this.batchSize = batchSize;
         this.name = name;
         this.queueLocal = new Object[batchSize];
         this.logger = logger;
+        this.batchArrayPool = batchArrayPool;
 
     }
 
     protected abstract boolean flushIfOverBatch();
 
-    protected abstract boolean sendArray(Object[] items);
+    /**
+     * Hands a batch to the queue.
+     *
+     * @param batch either an Object[] or a PooledBatch
+     * @return true if the batch was enqueued
+     */
+    protected abstract boolean enqueue(Object batch);
 
     public boolean shouldBatch() {
         return true;
@@ -92,7 +110,7 @@ public abstract class AbstractBasicSendQueue<T> implements SendQueue<T> {
     public final void sendMany(T... items) {
         checkStarted();
         flushSends();
-        sendArray(items);
+        enqueue(items);
     }
 
 
@@ -101,7 +119,7 @@ public abstract class AbstractBasicSendQueue<T> implements SendQueue<T> {
         checkStarted();
         flushSends();
         final Object[] array = objectArrayFromIterable(items);
-        sendArray(array);
+        enqueue(array);
     }
 
     @Override
@@ -109,7 +127,7 @@ public abstract class AbstractBasicSendQueue<T> implements SendQueue<T> {
         checkStarted();
         flushSends();
         final Object[] array = objectArrayFromCollection(items);
-        sendArray(array);
+        enqueue(array);
 
     }
 
@@ -140,9 +158,17 @@ public abstract class AbstractBasicSendQueue<T> implements SendQueue<T> {
         if (index > 0) {
             boolean ableToSend;
 
-            final Object[] copy = fastObjectArraySlice(queueLocal, 0, index);
-            ableToSend = sendArray(copy);
-            Arrays.fill(queueLocal, null);
+            if (batchArrayPool != null) {
+                /* Copy into a batch from the pool, the receiver gives it back once drained. */
+                final PooledBatch batch = batchArrayPool.acquire();
+                batch.fill(queueLocal, index);
+                ableToSend = enqueue(batch);
+                Arrays.fill(queueLocal, 0, index, null);
+            } else {
+                final Object[] copy = fastObjectArraySlice(queueLocal, 0, index);
+                ableToSend = enqueue(copy);
+                Arrays.fill(queueLocal, null);
+            }
             index = 0;
             return ableToSend;
         } else {
@@ -2,6 +2,7 @@ package io.advantageous.qbit.queue.impl.sender;
 
 import io.advantageous.qbit.queue.Queue;
 import io.advantageous.qbit.queue.UnableToEnqueueHandler;
+import io.advantageous.qbit.queue.impl.BatchArrayPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -21,8 +22,20 @@ public class BasicBlockingQueueSender<T> extends AbstractBasicSendQueue<T> {
             final boolean checkBusy,
             final UnableToEnqueueHandler unableToEnqueueHandler,
             final Queue<T> owner) {
+        this(name, batchSize, queue, checkBusy, unableToEnqueueHandler, owner, null);
+    }
+
+    public BasicBlockingQueueSender(
+            final String name,
+            final int batchSize,
+            final BlockingQueue<Object> queue,
+            final boolean checkBusy,
+            final UnableToEnqueueHandler unableToEnqueueHandler,
+            final Queue<T> owner,
+            final BatchArrayPool batchArrayPool) {
 
-        super(queue, owner, batchSize, name + "| BQ SEND QUEUE", LoggerFactory.getLogger(BasicBlockingQueueSender.class));
+        super(queue, owner, batchSize, name + "| BQ SEND QUEUE", LoggerFactory.getLogger(BasicBlockingQueueSender.class),
+                batchArrayPool);
 
 
         this.unableToEnqueueHandler = unableToEnqueueHandler;
@@ -37,16 +50,16 @@ public class BasicBlockingQueueSender<T> extends AbstractBasicSendQueue<T> {
     }
 
 
-    protected final boolean sendArray(final Object[] array) {
+    protected final boolean enqueue(final Object batch) {
 
-        if (array.length == 0) {
+        if (batch instanceof Object[] && ((Object[]) batch).length == 0) {
             throw new IllegalStateException("Array length is 0");
         }
-        if (!queue.offer(array)) {
+        if (!queue.offer(batch)) {
             logger.error("Unable to send to queue {} " +
                             " Size of queue {} ",
                     name, queue.size());
-            return unableToEnqueueHandler.unableToEnqueue(queue, name, array);
+            return unableToEnqueueHandler.unableToEnqueue(queue, name, batch);
         } else {
             return true;
         }
@@ -18,6 +18,7 @@
 package io.advantageous.qbit.queue.impl.sender;
 
 import io.advantageous.qbit.queue.Queue;
+import io.advantageous.qbit.queue.impl.BatchArrayPool;
 import org.slf4j.LoggerFactory;
 
 import java.util.concurrent.TransferQueue;
@@ -44,8 +45,19 @@ public class BasicSendQueueWithTransferQueue<T> extends AbstractBasicSendQueue<T
             final TransferQueue<Object> queue,
             final int checkBusyEvery,
             final Queue<T> owner) {
+        this(name, batchSize, queue, checkBusyEvery, owner, null);
+    }
+
+    public BasicSendQueueWithTransferQueue(
+            final String name,
+            final int batchSize,
+            final TransferQueue<Object> queue,
+            final int checkBusyEvery,
+            final Queue<T> owner,
+            final BatchArrayPool batchArrayPool) {
 
-        super(queue, owner, batchSize, name + "| TQ SEND QUEUE", LoggerFactory.getLogger(BasicSendQueueWithTransferQueue.class));
+        super(queue, owner, batchSize, name + "| TQ SEND QUEUE", LoggerFactory.getLogger(BasicSendQueueWithTransferQueue.class),
+                batchArrayPool);
 
 
         this.queue = queue;
@@ -72,8 +84,8 @@ public class BasicSendQueueWithTransferQueue<T> extends AbstractBasicSendQueue<T
         return true;
     }
 
-    protected final boolean sendArray(final Object[] array) {
-        return queue.offer(array);
+    protected final boolean enqueue(final Object batch) {
+        return queue.offer(batch);
     }
 
 }
@@ -19,6 +19,7 @@
 package io.advantageous.qbit.queue.impl.sender;
 
 import io.advantageous.qbit.queue.Queue;
+import io.advantageous.qbit.queue.impl.BatchArrayPool;
 import org.slf4j.LoggerFactory;
 
 import java.util.concurrent.TransferQueue;
@@ -45,8 +46,19 @@ public class BasicSendQueueWithTryTransfer<T> extends AbstractBasicSendQueue<T>
             final TransferQueue<Object> queue,
             final int checkBusyEvery,
             final Queue<T> owner) {
+        this(name, batchSize, queue, checkBusyEvery, owner, null);
+    }
+
+    public BasicSendQueueWithTryTransfer(
+            final String name,
+            final int batchSize,
+            final TransferQueue<Object> queue,
+            final int checkBusyEvery,
+            final Queue<T> owner,
+            final BatchArrayPool batchArrayPool) {
 
-        super(queue, owner, batchSize, name + "| TQT SEND QUEUE", LoggerFactory.getLogger(BasicSendQueueWithTryTransfer.class));
+        super(queue, owner, batchSize, name + "| TQT SEND QUEUE", LoggerFactory.getLogger(BasicSendQueueWithTryTransfer.class),
+                batchArrayPool);
 
 
         this.queue = queue;
@@ -74,9 +86,9 @@ public class BasicSendQueueWithTryTransfer<T> extends AbstractBasicSendQueue<T>
         return true;
     }
 
-    protected final boolean sendArray(final Object[] array) {
+    protected final boolean enqueue(final Object batch) {
 
-        return queue.tryTransfer(array) || queue.offer(array);
+        return queue.tryTransfer(batch) || queue.offer(batch);
     }
 
 }
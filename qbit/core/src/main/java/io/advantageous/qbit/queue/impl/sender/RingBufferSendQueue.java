@@ -0,0 +1,303 @@
+/*
+ * Copyright (c) 2015. Rick Hightower, Geoff Chandler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * QBit - The Microservice lib for Java : JSON, WebSocket, REST. Be The Web!
+ */
+
+package io.advantageous.qbit.queue.impl.sender;
+
+import io.advantageous.qbit.queue.Queue;
+import io.advantageous.qbit.queue.SendQueue;
+import io.advantageous.qbit.queue.UnableToEnqueueHandler;
+import io.advantageous.qbit.queue.impl.RingBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.AbstractQueue;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This is not thread safe.
+ * Create a new for every thread by calling RingBufferQueue.sendQueue().
+ * <p>
+ * Items are batched into a local array that is reused.
+ * On flush the items are copied straight into the ring so no array is handed off per batch.
+ * When the ring is full the batch goes to the UnableToEnqueueHandler like the other send queues.
+ *
+ * @author rhightower
+ */
+public class RingBufferSendQueue<T> implements SendQueue<T> {
+
+    private final Logger logger = LoggerFactory.getLogger(RingBufferSendQueue.class);
+    private final RingBuffer ringBuffer;
+    private final Queue<T> owner;
+    private final String name;
+    private final int batchSize;
+    private final UnableToEnqueueHandler unableToEnqueueHandler;
+    private final Object[] queueLocal;
+    private int index;
+    private BlockingQueue<Object> ringBufferView;
+
+    public RingBufferSendQueue(final String name,
+                               final int batchSize,
+                               final RingBuffer ringBuffer,
+                               final UnableToEnqueueHandler unableToEnqueueHandler,
+                               final Queue<T> owner) {
+        this.name = name + "| RB SEND QUEUE";
+        this.batchSize = batchSize;
+        this.ringBuffer = ringBuffer;
+        this.owner = owner;
+        this.unableToEnqueueHandler = unableToEnqueueHandler;
+        this.queueLocal = new Object[batchSize];
+    }
+
+    @Override
+    public boolean shouldBatch() {
+        return batchSize > 1;
+    }
+
+    @Override
+    public boolean send(T item) {
+        queueLocal[index] = item;
+        index++;
+        return index < batchSize || sendLocalQueue();
+    }
+
+    @Override
+    public void sendAndFlush(T item) {
+        send(item);
+        flushSends();
+    }
+
+    @SafeVarargs
+    @Override
+    public final void sendMany(T... items) {
+        flushSends();
+        for (T item : items) {
+            send(item);
+        }
+        flushSends();
+    }
+
+    @Override
+    public void sendBatch(Collection<T> items) {
+        for (T item : items) {
+            send(item);
+        }
+        flushSends();
+    }
+
+    @Override
+    public void sendBatch(Iterable<T> items) {
+        for (T item : items) {
+            send(item);
+        }
+        flushSends();
+    }
+
+    @Override
+    public void flushSends() {
+        sendLocalQueue();
+    }
+
+    private boolean sendLocalQueue() {
+        if (index > 0) {
+            final boolean ableToSend = sendArray(queueLocal, index);
+            Arrays.fill(queueLocal, 0, index, null);
+            index = 0;
+            return ableToSend;
+        } else {
+            return true;
+        }
+    }
+
+    private boolean sendArray(final Object[] array, final int length) {
+        final int capacity = ringBuffer.capacity();
+        boolean ableToSend = true;
+        for (int offset = 0; offset < length; offset += capacity) {
+            final int count = Math.min(capacity, length - offset);
+            if (!ringBuffer.offer(array, offset, count)) {
+                ableToSend &= unableToEnqueue(Arrays.copyOfRange(array, offset, offset + count));
+            }
+        }
+        return ableToSend;
+    }
+
+    private boolean unableToEnqueue(final Object[] batch) {
+        logger.error("Unable to send to queue {} Size of queue {} started {}", name, ringBuffer.size(), owner.started());
+        if (ringBufferView == null) {
+            ringBufferView = new RingBufferView(ringBuffer);
+        }
+        return unableToEnqueueHandler.unableToEnqueue(ringBufferView, name, batch);
+    }
+
+    @Override
+    public int hashCode() {
+        return ringBuffer.hashCode();
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public int size() {
+        return ringBuffer.size();
+    }
+
+    /**
+     * Lets an UnableToEnqueueHandler retry a batch into the ring, or poll, drain or clear it.
+     * Reads from here race with the receive queue for the next item, see {@link RingBuffer}.
+     */
+    private static final class RingBufferView extends AbstractQueue<Object> implements BlockingQueue<Object> {
+
+        private final RingBuffer ringBuffer;
+
+        private RingBufferView(final RingBuffer ringBuffer) {
+            this.ringBuffer = ringBuffer;
+        }
+
+        @Override
+        public boolean offer(final Object item) {
+            final Object[] items = item instanceof Object[] ? (Object[]) item : new Object[]{item};
+            return ringBuffer.offer(items, 0, items.length);
+        }
+
+        /**
+         * Backs off until the consumer catches up or the timeout expires.
+         */
+        @Override
+        public boolean offer(final Object item, final long timeout, final TimeUnit unit) throws InterruptedException {
+            final long deadline = System.nanoTime() + unit.toNanos(timeout);
+            int spins = 0;
+            while (!offer(item)) {
+                if (System.nanoTime() - deadline >= 0) {
+                    return false;
+                }
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                if (spins < 100) {
+                    spins++;
+                    Thread.yield();
+                } else {
+                    LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public void put(final Object item) throws InterruptedException {
+            while (!offer(item, 1, TimeUnit.SECONDS)) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+        }
+
+        @Override
+        public int remainingCapacity() {
+            return ringBuffer.capacity() - ringBuffer.size();
+        }
+
+        @Override
+        public int size() {
+            return ringBuffer.size();
+        }
+
+        @Override
+        public Object poll() {
+            return ringBuffer.poll();
+        }
+
+        @Override
+        public Object peek() {
+            return ringBuffer.peek();
+        }
+
+        @Override
+        public Object take() throws InterruptedException {
+            Object item;
+            while ((item = poll(1, TimeUnit.SECONDS)) == null) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+            return item;
+        }
+
+        /**
+         * Backs off until an item is published or the timeout expires.
+         */
+        @Override
+        public Object poll(final long timeout, final TimeUnit unit) throws InterruptedException {
+            final long deadline = System.nanoTime() + unit.toNanos(timeout);
+            int spins = 0;
+            Object item;
+            while ((item = poll()) == null) {
+                if (System.nanoTime() - deadline >= 0) {
+                    return null;
+                }
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                if (spins < 100) {
+                    spins++;
+                    Thread.yield();
+                } else {
+                    LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+                }
+            }
+            return item;
+        }
+
+        @Override
+        public int drainTo(final Collection<? super Object> collection) {
+            return drainTo(collection, Integer.MAX_VALUE);
+        }
+
+        @Override
+        public int drainTo(final Collection<? super Object> collection, final int maxElements) {
+            int count = 0;
+            Object item;
+            while (count < maxElements && (item = poll()) != null) {
+                collection.add(item);
+                count++;
+            }
+            return count;
+        }
+
+        /**
+         * Iterates over a copy of the items waiting in the ring, remove is not supported.
+         */
+        @Override
+        public Iterator<Object> iterator() {
+            return Collections.unmodifiableList(ringBuffer.snapshot()).iterator();
+        }
+
+        @Override
+        public String toString() {
+            return "RingBufferView{size=" + ringBuffer.size() + ", capacity=" + ringBuffer.capacity() + '}';
+        }
+    }
+}
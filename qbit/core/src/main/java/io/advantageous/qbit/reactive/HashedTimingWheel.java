@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2015. Rick Hightower, Geoff Chandler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * QBit - The Microservice lib for Java : JSON, WebSocket, REST. Be The Web!
+ */
+
+package io.advantageous.qbit.reactive;
+
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel used by the reactor to track timeouts.
+ * <p>
+ * Scheduling and cancelling are O(1). Each call to {@code advance} only visits the buckets for the
+ * ticks that elapsed since the last call (at most one full turn of the wheel), so the cost of
+ * timeout tracking no longer grows with the number of outstanding callbacks.
+ * <p>
+ * Not thread safe, the reactor only touches it from the thread that calls {@code process}.
+ *
+ * @param <E> item type
+ * @author rhightower
+ */
+final class HashedTimingWheel<E> {
+
+    private final Timeout<E>[] buckets;
+    private final int mask;
+    private final long tickMillis;
+    private long lastTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    HashedTimingWheel(final int wheelSize, final long tickMillis, final long now) {
+        if (wheelSize < 1) {
+            throw new IllegalArgumentException("wheelSize must be at least 1, was " + wheelSize);
+        }
+        if (tickMillis < 1) {
+            throw new IllegalArgumentException("tickMillis must be at least 1, was " + tickMillis);
+        }
+        final int length = Integer.highestOneBit(wheelSize) == wheelSize ? wheelSize : Integer.highestOneBit(wheelSize) << 1;
+        this.buckets = (Timeout<E>[]) new Timeout<?>[length];
+        this.mask = length - 1;
+        this.tickMillis = tickMillis;
+        this.lastTick = now / tickMillis;
+    }
+
+    /**
+     * Schedule (or reschedule) a timeout.
+     *
+     * @param timeout  timeout
+     * @param deadline time in milliseconds at which the timeout expires
+     */
+    void schedule(final Timeout<E> timeout, final long deadline) {
+        if (timeout.bucket != -1) {
+            unlink(timeout);
+        }
+        timeout.deadline = deadline;
+
+        long tick = (deadline + tickMillis - 1) / tickMillis;
+        if (tick <= lastTick) {
+            tick = lastTick + 1;
+        }
+
+        final int index = (int) (tick & mask);
+        final Timeout<E> head = buckets[index];
+        timeout.next = head;
+        timeout.prev = null;
+        if (head != null) {
+            head.prev = timeout;
+        }
+        buckets[index] = timeout;
+        timeout.bucket = index;
+        size++;
+    }
+
+    /**
+     * Cancel a timeout.
+     *
+     * @param timeout timeout
+     * @return true if it was scheduled.
+     */
+    boolean cancel(final Timeout<E> timeout) {
+        if (timeout.bucket == -1) {
+            return false;
+        }
+        unlink(timeout);
+        return true;
+    }
+
+    /**
+     * Move the wheel forward to {@code now} and hand every expired timeout to {@code expired}.
+     * Expired timeouts are unscheduled before the handler sees them, so the handler may reschedule.
+     *
+     * @param now     current time in milliseconds
+     * @param expired expired handler
+     */
+    void advance(final long now, final Consumer<Timeout<E>> expired) {
+
+        final long currentTick = now / tickMillis;
+        if (currentTick <= lastTick) {
+            return;
+        }
+
+        final long startTick = lastTick + 1;
+        final long ticks = Math.min(currentTick - lastTick, buckets.length);
+        lastTick = currentTick;
+
+        if (size == 0) {
+            return;
+        }
+
+        for (long tick = startTick; tick < startTick + ticks; tick++) {
+            Timeout<E> timeout = buckets[(int) (tick & mask)];
+            while (timeout != null) {
+                final Timeout<E> next = timeout.next;
+                if (timeout.deadline <= now) {
+                    unlink(timeout);
+                    expired.accept(timeout);
+                }
+                timeout = next;
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void unlink(final Timeout<E> timeout) {
+        if (timeout.prev == null) {
+            buckets[timeout.bucket] = timeout.next;
+        } else {
+            timeout.prev.next = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.prev = timeout.prev;
+        }
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.bucket = -1;
+        size--;
+    }
+
+    /**
+     * Entry in the wheel. Holds the tracked item and the links for its bucket.
+     *
+     * @param <E> item type
+     */
+    static final class Timeout<E> {
+
+        private final E item;
+        private long deadline;
+        private int bucket = -1;
+        private Timeout<E> prev;
+        private Timeout<E> next;
+
+        /* Owned by the reactor, used to track the life cycle of the item. */
+        int state;
+        boolean polled;
+
+        Timeout(final E item) {
+            this.item = item;
+        }
+
+        E item() {
+            return item;
+        }
+
+        long deadline() {
+            return deadline;
+        }
+
+        boolean isScheduled() {
+            return bucket != -1;
+        }
+    }
+}
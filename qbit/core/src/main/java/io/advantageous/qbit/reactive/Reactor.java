@@ -1,5 +1,6 @@
 package io.advantageous.qbit.reactive;
 
+import io.advantageous.qbit.reactive.HashedTimingWheel.Timeout;
 import io.advantageous.qbit.reactive.async.AsyncFutureBlockOnGetCallbackImpl;
 import io.advantageous.qbit.reactive.async.AsyncFutureCallbackImpl;
 import io.advantageous.qbit.service.ServiceProxyUtils;
@@ -8,9 +9,10 @@ import io.advantageous.qbit.util.Timer;
 import org.slf4j.Logger;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedTransferQueue;
 import java.util.concurrent.TimeUnit;
@@ -32,12 +34,20 @@ public class Reactor {
 
     /* The queues could benefit from being QBit queues. */
 
+    /* Life cycle of a tracked callback or coordinator. */
+    private static final int PENDING = 0;
+    private static final int ACTIVE = 1;
+    private static final int DONE = 2;
+
     /* Future can come back on another thread so it has to be handled by thread safe queue. */
-    private final BlockingQueue<AsyncFutureCallback<?>> futureQueue = new LinkedTransferQueue<>();
+    private final BlockingQueue<Timeout<AsyncFutureCallback<?>>> futureQueue = new LinkedTransferQueue<>();
 
     /* Future can come back on another thread so it has to be handled by thread safe queue. */
     private final BlockingQueue<AsyncFutureCallback<?>> removeFutureQueue = new LinkedTransferQueue<>();
 
+    /* Callbacks created by this reactor report here as soon as they complete, so we never have to scan for them. */
+    private final BlockingQueue<Timeout<AsyncFutureCallback<?>>> completedFutureQueue = new LinkedTransferQueue<>();
+
 
     /* Coordinator can come back on another thread so it has to be handled by thread safe queue. */
     private final BlockingQueue<CallbackCoordinator> coordinatorQueue = new LinkedTransferQueue<>();
@@ -48,15 +58,29 @@ public class Reactor {
 
 
     /**
-     * List of futures that we are managing.
+     * Futures that we are managing.
      */
-    private final Set<AsyncFutureCallback<?>> futureList = new HashSet<>();
+    private final Map<AsyncFutureCallback<?>, Timeout<AsyncFutureCallback<?>>> futures = new HashMap<>();
 
+    /**
+     * Futures that were not created by this reactor, they can't tell us when they are done so we poll them.
+     */
+    private final List<Timeout<AsyncFutureCallback<?>>> polledFutures = new ArrayList<>();
 
     /**
-     * List of coordinators that we are managing.
+     * Coordinators that we are managing.
      */
-    private final Set<CallbackCoordinator> coordinatorList = new HashSet<>();
+    private final Map<CallbackCoordinator, Timeout<CallbackCoordinator>> coordinators = new HashMap<>();
+
+    /**
+     * Timeouts for futures.
+     */
+    private final HashedTimingWheel<AsyncFutureCallback<?>> futureTimeouts;
+
+    /**
+     * Timeouts for coordinators.
+     */
+    private final HashedTimingWheel<CallbackCoordinator> coordinatorTimeouts;
 
 
     /**
@@ -96,9 +120,26 @@ public class Reactor {
      * @param timeUnit       time unit for default time out
      */
     public Reactor(final Timer timer, long defaultTimeOut, TimeUnit timeUnit) {
+        this(timer, defaultTimeOut, timeUnit, ReactorBuilder.DEFAULT_TIMEOUT_WHEEL_SIZE,
+                ReactorBuilder.DEFAULT_TIMEOUT_TICK_MILLIS);
+    }
+
+    /**
+     * Reactor
+     *
+     * @param timer              timer
+     * @param defaultTimeOut     defaultTimeOut
+     * @param timeUnit           time unit for default time out
+     * @param timeoutWheelSize   number of buckets in the timeout wheel
+     * @param timeoutTickMillis  resolution of timeouts in milliseconds
+     */
+    public Reactor(final Timer timer, long defaultTimeOut, TimeUnit timeUnit,
+                   final int timeoutWheelSize, final long timeoutTickMillis) {
         this.timer = timer;
         currentTime = timer.now();
         this.defaultTimeOut = timeUnit.toMillis(defaultTimeOut);
+        this.futureTimeouts = new HashedTimingWheel<>(timeoutWheelSize, timeoutTickMillis, currentTime);
+        this.coordinatorTimeouts = new HashedTimingWheel<>(timeoutWheelSize, timeoutTickMillis, currentTime);
     }
 
 
@@ -168,11 +209,14 @@ public class Reactor {
 
         currentTime = timer.now();
 
-        /* Check to see if callbacks completed or timed out. */
+        /* Run callbacks that completed, then the ones that timed out. */
+        processCompletedCallBacks();
         monitorCallBacks();
+        futureTimeouts.advance(currentTime, this::futureTimedOut);
 
         /* Check to see if coordinators completed or timed out. */
         monitorCallbackCoordinators();
+        coordinatorTimeouts.advance(currentTime, this::coordinatorTimedOut);
 
         /* flush services. */
         collaboratingServices.forEach(ServiceProxyUtils::flushServiceProxy);
@@ -211,32 +255,73 @@ public class Reactor {
 
         CallbackCoordinator callable = coordinatorQueue.poll();
         while (callable != null) {
-            coordinatorList.add(callable);
+            addCoordinator(callable);
             callable = coordinatorQueue.poll();
         }
 
         callable = removeCoordinatorQueue.poll();
         while (callable != null) {
-            coordinatorList.remove(callable);
-            callable = coordinatorQueue.poll();
+            final Timeout<CallbackCoordinator> timeout = coordinators.remove(callable);
+            if (timeout != null) {
+                coordinatorTimeouts.cancel(timeout);
+            }
+            callable = removeCoordinatorQueue.poll();
         }
 
-        AsyncFutureCallback<?> futureCallback = futureQueue.poll();
-        while (futureCallback != null) {
-            futureList.add(futureCallback);
-            futureCallback = futureQueue.poll();
+        Timeout<AsyncFutureCallback<?>> timeout = futureQueue.poll();
+        while (timeout != null) {
+            trackFuture(timeout);
+            timeout = futureQueue.poll();
         }
 
-        futureCallback = removeFutureQueue.poll();
+        AsyncFutureCallback<?> futureCallback = removeFutureQueue.poll();
         while (futureCallback != null) {
-            futureList.remove(futureCallback);
-            futureCallback = futureQueue.poll();
+            final Timeout<AsyncFutureCallback<?>> removed = futures.remove(futureCallback);
+            if (removed != null) {
+                untrackFuture(removed);
+            }
+            futureCallback = removeFutureQueue.poll();
         }
 
 
         return false;
     }
 
+    private void trackFuture(final Timeout<AsyncFutureCallback<?>> timeout) {
+
+        /* Already completed before we got to it. */
+        if (timeout.state == DONE) {
+            return;
+        }
+
+        timeout.state = ACTIVE;
+        final AsyncFutureCallback<?> callback = timeout.item();
+        futures.put(callback, timeout);
+        if (timeout.polled) {
+            polledFutures.add(timeout);
+        }
+
+        if (callback.startTime() != -1 && callback.timeOutDuration() != -1) {
+            futureTimeouts.schedule(timeout, callback.startTime() + callback.timeOutDuration() + 1);
+        }
+    }
+
+    private void untrackFuture(final Timeout<AsyncFutureCallback<?>> timeout) {
+        timeout.state = DONE;
+        futureTimeouts.cancel(timeout);
+    }
+
+    private void addCoordinator(final CallbackCoordinator coordinator) {
+        if (coordinators.containsKey(coordinator)) {
+            return;
+        }
+        final Timeout<CallbackCoordinator> timeout = new Timeout<>(coordinator);
+        coordinators.put(coordinator, timeout);
+        if (coordinator.startTime() != -1 && coordinator.timeOutDuration() != -1) {
+            coordinatorTimeouts.schedule(timeout, coordinator.startTime() + coordinator.timeOutDuration() + 1);
+        }
+    }
+
     public CallbackBuilder callbackBuilder() {
         return CallbackBuilder.newCallbackBuilderWithReactor(this);
     }
@@ -314,17 +399,15 @@ public class Reactor {
             final Runnable onTimeout,
             final Consumer<Throwable> onError) {
 
-        final AtomicReference<AsyncFutureCallback<T>> ref = new AtomicReference<>();
+        final AtomicReference<Timeout<AsyncFutureCallback<?>>> ref = new AtomicReference<>();
 
         final AsyncFutureCallbackImpl<T> asyncFutureCallback =
                 AsyncFutureCallbackImpl.callback(callback, currentTime,
                         timeUnit.toMillis(timeoutDuration),
                         createOnFinished(ref)
-                        , onTimeout, onError);
+                        , onTimeout, onError, createOnDone(ref));
 
-        ref.set(asyncFutureCallback);
-        addCallback(asyncFutureCallback);
-        return asyncFutureCallback;
+        return addCallback(asyncFutureCallback, ref);
 
     }
 
@@ -346,17 +429,15 @@ public class Reactor {
             final Runnable onTimeout,
             final Consumer<Throwable> onError) {
 
-        final AtomicReference<AsyncFutureCallback<T>> ref = new AtomicReference<>();
+        final AtomicReference<Timeout<AsyncFutureCallback<?>>> ref = new AtomicReference<>();
 
         final AsyncFutureBlockOnGetCallbackImpl<T> asyncFutureCallback =
                 AsyncFutureBlockOnGetCallbackImpl.callback(callback, currentTime,
                         timeUnit.toMillis(timeoutDuration),
                         createOnFinished(ref)
-                        , onTimeout, onError);
+                        , onTimeout, onError, createOnDone(ref));
 
-        ref.set(asyncFutureCallback);
-        addCallback(asyncFutureCallback);
-        return asyncFutureCallback;
+        return addCallback(asyncFutureCallback, ref);
 
     }
 
@@ -367,11 +448,25 @@ public class Reactor {
      * @param <T>                 T
      */
     public <T> void addCallback(final AsyncFutureCallback<T> asyncFutureCallback) {
-        futureQueue.add(asyncFutureCallback);
+        final Timeout<AsyncFutureCallback<?>> timeout = new Timeout<>(asyncFutureCallback);
+        timeout.polled = true;
+        futureQueue.add(timeout);
+    }
+
+    private <T> AsyncFutureCallback<T> addCallback(final AsyncFutureCallback<T> asyncFutureCallback,
+                                                   final AtomicReference<Timeout<AsyncFutureCallback<?>>> ref) {
+        final Timeout<AsyncFutureCallback<?>> timeout = new Timeout<>(asyncFutureCallback);
+        ref.set(timeout);
+        futureQueue.add(timeout);
+        return asyncFutureCallback;
+    }
+
+    private Runnable createOnFinished(final AtomicReference<Timeout<AsyncFutureCallback<?>>> ref) {
+        return () -> Reactor.this.removeFuture(ref.get().item());
     }
 
-    private <T> Runnable createOnFinished(final AtomicReference<AsyncFutureCallback<T>> ref) {
-        return () -> Reactor.this.removeFuture(ref.get());
+    private Runnable createOnDone(final AtomicReference<Timeout<AsyncFutureCallback<?>>> ref) {
+        return () -> completedFutureQueue.add(ref.get());
     }
 
     /**
@@ -543,51 +638,106 @@ public class Reactor {
     }
 
     /**
-     * Monitors timeouts. If the callback timed-out trigger it, and then remove callback from the list.
+     * Runs the callbacks that reported that they are done since the last time we processed.
      */
-    private void monitorCallBacks() {
+    private void processCompletedCallBacks() {
+
+        Timeout<AsyncFutureCallback<?>> timeout = completedFutureQueue.poll();
+        while (timeout != null) {
+            /* PENDING means it completed before we drained it from the future queue. */
+            if (timeout.state != DONE) {
+                if (timeout.state == ACTIVE) {
+                    futures.remove(timeout.item());
+                }
+                untrackFuture(timeout);
+                timeout.item().run();
+            }
+            timeout = completedFutureQueue.poll();
+        }
+    }
 
-        if (futureList.size() > 0) {
+    /**
+     * Polls callbacks that were not created by this reactor since they can't tell us when they are done.
+     */
+    private void monitorCallBacks() {
 
-            final List<AsyncFutureCallback<?>> removeList = new ArrayList<>(futureList.size());
-            long now = currentTime;
-            for (AsyncFutureCallback<?> callback : futureList) {
-                if (callback.isDone()) {
-                    callback.run();
-                    removeList.add(callback);
-                } else {
-                    if (callback.checkTimeOut(now)) {
-                        removeList.add(callback);
-                    }
-                }
+        for (int index = polledFutures.size() - 1; index >= 0; index--) {
+            final Timeout<AsyncFutureCallback<?>> timeout = polledFutures.get(index);
+            if (timeout.state == DONE) {
+                removePolled(index);
+            } else if (timeout.item().isDone()) {
+                futures.remove(timeout.item());
+                untrackFuture(timeout);
+                removePolled(index);
+                timeout.item().run();
             }
-            futureList.removeAll(removeList);
+        }
+    }
+
+    private void removePolled(final int index) {
+        final int last = polledFutures.size() - 1;
+        polledFutures.set(index, polledFutures.get(last));
+        polledFutures.remove(last);
+    }
+
+    /**
+     * Called by the timing wheel. If the callback timed-out trigger it, and then stop tracking it.
+     */
+    private void futureTimedOut(final Timeout<AsyncFutureCallback<?>> timeout) {
+
+        final AsyncFutureCallback<?> callback = timeout.item();
+        if (callback.isDone()) {
+            futures.remove(callback);
+            untrackFuture(timeout);
+            callback.run();
+        } else if (callback.checkTimeOut(currentTime)) {
+            futures.remove(callback);
+            untrackFuture(timeout);
+        } else {
+            futureTimeouts.schedule(timeout, callback.startTime() + callback.timeOutDuration() + 1);
         }
     }
 
     /**
      * Monitors Callback Coordinators.
-     * Trigger timeouts if needed and remove coordinators from list that timed out.
+     * Coordinators decide for themselves when they are complete so they are still checked on each pass,
+     * timeouts are handled by the timing wheel.
      */
     private void monitorCallbackCoordinators() {
 
+        if (coordinators.size() > 0) {
+            final Iterator<Map.Entry<CallbackCoordinator, Timeout<CallbackCoordinator>>> iterator =
+                    coordinators.entrySet().iterator();
 
-        if (coordinatorList.size() > 0) {
-            final List<CallbackCoordinator> removeList = new ArrayList<>(coordinatorList.size());
-
-            for (CallbackCoordinator callable : coordinatorList) {
+            while (iterator.hasNext()) {
+                final Map.Entry<CallbackCoordinator, Timeout<CallbackCoordinator>> entry = iterator.next();
+                final CallbackCoordinator callable = entry.getKey();
                 if (callable.checkComplete()) {
+                    iterator.remove();
+                    coordinatorTimeouts.cancel(entry.getValue());
                     callable.finished();
-                    removeList.add(callable);
-                } else if (callable.timedOut(currentTime)) {
-                    removeList.add(callable);
                 }
             }
-            coordinatorList.removeAll(removeList);
         }
 
     }
 
+    /**
+     * Called by the timing wheel. Trigger coordinator timeouts and stop tracking coordinators that timed out.
+     */
+    private void coordinatorTimedOut(final Timeout<CallbackCoordinator> timeout) {
+
+        final CallbackCoordinator callable = timeout.item();
+        if (callable.checkComplete()) {
+            coordinators.remove(callable);
+            callable.finished();
+        } else if (callable.timedOut(currentTime)) {
+            coordinators.remove(callable);
+        } else {
+            coordinatorTimeouts.schedule(timeout, callable.startTime() + callable.timeOutDuration() + 1);
+        }
+    }
+
     /**
      * Used for quickly delegating one callback to another.
      * <p>
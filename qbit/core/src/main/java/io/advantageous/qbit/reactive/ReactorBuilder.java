@@ -9,13 +9,19 @@ import java.util.concurrent.TimeUnit;
 public class ReactorBuilder {
 
     public static final String CONTEXT = "qbit.reactor.";
+    public static final int DEFAULT_TIMEOUT_WHEEL_SIZE = 512;
+    public static final long DEFAULT_TIMEOUT_TICK_MILLIS = 10;
     private Timer timer = Timer.timer();
     private long defaultTimeOut = 60_000;
     private TimeUnit timeUnit = TimeUnit.MILLISECONDS;
+    private int timeoutWheelSize = DEFAULT_TIMEOUT_WHEEL_SIZE;
+    private long timeoutTickMillis = DEFAULT_TIMEOUT_TICK_MILLIS;
 
     public ReactorBuilder(final PropertyResolver propertyResolver) {
 
         defaultTimeOut = propertyResolver.getLongProperty("defaultTimeOut", defaultTimeOut);
+        timeoutWheelSize = propertyResolver.getIntegerProperty("timeoutWheelSize", timeoutWheelSize);
+        timeoutTickMillis = propertyResolver.getLongProperty("timeoutTickMillis", timeoutTickMillis);
 
     }
 
@@ -35,7 +41,8 @@ public class ReactorBuilder {
     }
 
     public Reactor build() {
-        return new Reactor(getTimer(), getDefaultTimeOut(), getTimeUnit());
+        return new Reactor(getTimer(), getDefaultTimeOut(), getTimeUnit(), getTimeoutWheelSize(),
+                getTimeoutTickMillis());
     }
 
     public Timer getTimer() {
@@ -64,4 +71,35 @@ public class ReactorBuilder {
         this.timeUnit = timeUnit;
         return this;
     }
+
+    public int getTimeoutWheelSize() {
+        return timeoutWheelSize;
+    }
+
+    /**
+     * Number of buckets in the wheel used to track callback and coordinator timeouts.
+     * Rounded up to a power of two.
+     *
+     * @param timeoutWheelSize wheel size
+     * @return this
+     */
+    public ReactorBuilder setTimeoutWheelSize(int timeoutWheelSize) {
+        this.timeoutWheelSize = timeoutWheelSize;
+        return this;
+    }
+
+    public long getTimeoutTickMillis() {
+        return timeoutTickMillis;
+    }
+
+    /**
+     * Resolution of callback and coordinator timeouts, a timeout can fire up to one tick late.
+     *
+     * @param timeoutTickMillis tick in milliseconds
+     * @return this
+     */
+    public ReactorBuilder setTimeoutTickMillis(long timeoutTickMillis) {
+        this.timeoutTickMillis = timeoutTickMillis;
+        return this;
+    }
 }
@@ -21,6 +21,7 @@ public class AsyncFutureBlockOnGetCallbackImpl<T> implements AsyncFutureCallback
     private final long maxExecutionTime;
     private final Runnable onFinished;
     private final Consumer<Throwable> onError;
+    private final Runnable onDone;
     private final AtomicReference<T> value = new AtomicReference<>();
     private final AtomicReference<Throwable> error = new AtomicReference<>();
     private final AtomicBoolean cancelled = new AtomicBoolean();
@@ -34,6 +35,29 @@ public class AsyncFutureBlockOnGetCallbackImpl<T> implements AsyncFutureCallback
                                              final Runnable onFinished,
                                              final Runnable onTimeout,
                                              final Consumer<Throwable> onError) {
+        this(callback, startTime, maxExecutionDuration, onFinished, onTimeout, onError, null);
+    }
+
+    /**
+     * Creates a callback that notifies {@code onDone} the first time it is completed, errored or cancelled.
+     * The notification runs on the thread that completed the callback.
+     *
+     * @param callback             callback
+     * @param startTime            start time
+     * @param maxExecutionDuration timeout in milliseconds
+     * @param onFinished           on finished
+     * @param onTimeout            on timeout
+     * @param onError              on error
+     * @param onDone               on done, may be null
+     */
+    public AsyncFutureBlockOnGetCallbackImpl(final Callback<T> callback,
+                                             final long startTime,
+                                             final long maxExecutionDuration,
+                                             final Runnable onFinished,
+                                             final Runnable onTimeout,
+                                             final Consumer<Throwable> onError,
+                                             final Runnable onDone) {
+        this.onDone = onDone;
         this.callback = callback;
         this.startTime = startTime;
         this.maxExecutionTime = maxExecutionDuration;
@@ -54,6 +78,16 @@ public class AsyncFutureBlockOnGetCallbackImpl<T> implements AsyncFutureCallback
         return new AsyncFutureBlockOnGetCallbackImpl<>(callback, startTime, maxExecutionTime, onFinished, onTimeout, onError);
     }
 
+    public static <T> AsyncFutureBlockOnGetCallbackImpl<T> callback(final Callback<T> callback,
+                                                                    final long startTime,
+                                                                    final long maxExecutionTime,
+                                                                    final Runnable onFinished,
+                                                                    final Runnable onTimeout,
+                                                                    final Consumer<Throwable> onError,
+                                                                    final Runnable onDone) {
+        return new AsyncFutureBlockOnGetCallbackImpl<>(callback, startTime, maxExecutionTime, onFinished, onTimeout, onError, onDone);
+    }
+
     @Override
     public void finished() {
         onFinished.run();
@@ -90,7 +124,7 @@ public class AsyncFutureBlockOnGetCallbackImpl<T> implements AsyncFutureCallback
     @Override
     public void accept(final T t) {
         value.set(t);
-        done.set(true);
+        markDone();
         latch.countDown();
     }
 
@@ -98,7 +132,7 @@ public class AsyncFutureBlockOnGetCallbackImpl<T> implements AsyncFutureCallback
     public void onError(final Throwable error) {
 
         this.error.set(error);
-        done.set(true);
+        markDone();
         latch.countDown();
 
     }
@@ -116,6 +150,12 @@ public class AsyncFutureBlockOnGetCallbackImpl<T> implements AsyncFutureCallback
         latch.countDown();
     }
 
+    private void markDone() {
+        if (!done.getAndSet(true) && onDone != null) {
+            onDone.run();
+        }
+    }
+
     @SuppressWarnings("ThrowableResultOfMethodCallIgnored")
     @Override
     public void run() {
@@ -137,7 +177,7 @@ public class AsyncFutureBlockOnGetCallbackImpl<T> implements AsyncFutureCallback
     @Override
     public boolean cancel(boolean mayInterruptIfRunning) {
         cancelled.set(true);
-        done.set(true);
+        markDone();
         latch.countDown();
         return true;
     }
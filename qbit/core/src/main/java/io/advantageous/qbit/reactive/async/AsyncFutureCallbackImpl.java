@@ -24,6 +24,7 @@ public class AsyncFutureCallbackImpl<T> implements AsyncFutureCallback<T> {
     private final long maxExecutionTime;
     private final Runnable onFinished;
     private final Consumer<Throwable> onError;
+    private final Runnable onDone;
     private final AtomicReference<T> value = new AtomicReference<>();
     private final AtomicReference<Throwable> error = new AtomicReference<>();
     private final AtomicBoolean cancelled = new AtomicBoolean();
@@ -36,6 +37,29 @@ public class AsyncFutureCallbackImpl<T> implements AsyncFutureCallback<T> {
                                    final Runnable onFinished,
                                    final Runnable onTimeout,
                                    final Consumer<Throwable> onError) {
+        this(callback, startTime, maxExecutionDuration, onFinished, onTimeout, onError, null);
+    }
+
+    /**
+     * Creates a callback that notifies {@code onDone} the first time it is completed, errored or cancelled.
+     * The notification runs on the thread that completed the callback.
+     *
+     * @param callback             callback
+     * @param startTime            start time
+     * @param maxExecutionDuration timeout in milliseconds
+     * @param onFinished           on finished
+     * @param onTimeout            on timeout
+     * @param onError              on error
+     * @param onDone               on done, may be null
+     */
+    public AsyncFutureCallbackImpl(final Callback<T> callback,
+                                   final long startTime,
+                                   final long maxExecutionDuration,
+                                   final Runnable onFinished,
+                                   final Runnable onTimeout,
+                                   final Consumer<Throwable> onError,
+                                   final Runnable onDone) {
+        this.onDone = onDone;
         this.callback = callback;
         this.startTime = startTime;
         this.maxExecutionTime = maxExecutionDuration;
@@ -56,6 +80,16 @@ public class AsyncFutureCallbackImpl<T> implements AsyncFutureCallback<T> {
         return new AsyncFutureCallbackImpl<>(callback, startTime, maxExecutionTime, onFinished, onTimeout, onError);
     }
 
+    public static <T> AsyncFutureCallbackImpl<T> callback(final Callback<T> callback,
+                                                          final long startTime,
+                                                          final long maxExecutionTime,
+                                                          final Runnable onFinished,
+                                                          final Runnable onTimeout,
+                                                          final Consumer<Throwable> onError,
+                                                          final Runnable onDone) {
+        return new AsyncFutureCallbackImpl<>(callback, startTime, maxExecutionTime, onFinished, onTimeout, onError, onDone);
+    }
+
     @Override
     public void finished() {
         onFinished.run();
@@ -92,14 +126,14 @@ public class AsyncFutureCallbackImpl<T> implements AsyncFutureCallback<T> {
     @Override
     public void accept(final T t) {
         value.set(t);
-        done.set(true);
+        markDone();
     }
 
     @Override
     public void onError(final Throwable error) {
 
         this.error.set(error);
-        done.set(true);
+        markDone();
 
     }
 
@@ -115,6 +149,12 @@ public class AsyncFutureCallbackImpl<T> implements AsyncFutureCallback<T> {
         }
     }
 
+    private void markDone() {
+        if (!done.getAndSet(true) && onDone != null) {
+            onDone.run();
+        }
+    }
+
     @SuppressWarnings("ThrowableResultOfMethodCallIgnored")
     @Override
     public void run() {
@@ -136,7 +176,7 @@ public class AsyncFutureCallbackImpl<T> implements AsyncFutureCallback<T> {
     @Override
     public boolean cancel(boolean mayInterruptIfRunning) {
         cancelled.set(true);
-        done.set(true);
+        markDone();
         return true;
     }
 
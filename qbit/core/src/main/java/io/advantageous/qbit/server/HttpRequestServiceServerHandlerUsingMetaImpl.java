@@ -25,6 +25,7 @@ import io.advantageous.qbit.util.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
@@ -224,10 +225,10 @@ public class HttpRequestServiceServerHandlerUsingMetaImpl implements HttpRequest
                     headers.putAllCopyLists(requestMetaData.getRequest().getResponseHeaders());
                 }
 
-                writeResponse(originatingRequest.getReceiver(),
+                writeJsonResponse(originatingRequest.getReceiver(),
                         responseCode == -1 ? HttpStatus.OK : responseCode,
                         serviceMethodMeta.getContentType(),
-                        jsonMapper.toJson(response.body()),
+                        response.body(),
                         headers);
 
             }
@@ -410,6 +411,21 @@ public class HttpRequestServiceServerHandlerUsingMetaImpl implements HttpRequest
         }
     }
 
+    private void writeJsonResponse(HttpResponseReceiver<Object> response, int code, String mimeType, Object body,
+                                   MultiMap<String, String> headers) {
+
+        if (response.isByteBuffer()) {
+            response.response(code, mimeType, jsonMapper.toJsonBuffer(body), headers);
+        } else if (response.isText()) {
+            response.response(code, mimeType, jsonMapper.toJson(body), headers);
+        } else {
+            final ByteBuffer json = jsonMapper.toJsonBuffer(body);
+            final byte[] bytes = new byte[json.remaining()];
+            json.get(bytes);
+            response.response(code, mimeType, bytes, headers);
+        }
+    }
+
     /**
      * Add a request to the timeout queue. Server checks for timeouts when it is idle or when
      * the max outstanding outstandingRequests is met.
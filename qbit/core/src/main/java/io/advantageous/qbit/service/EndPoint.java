@@ -42,4 +42,25 @@ public interface EndPoint extends ServiceFlushable, Stoppable {
 
     void flush();
 
+    /**
+     * Resolves a service name to a slot once so local proxies can route calls without a map lookup.
+     *
+     * @param serviceName service name or address
+     * @return slot or -1 if calls have to be routed by name
+     */
+    default int serviceSlot(String serviceName) {
+        return -1;
+    }
+
+    /**
+     * Method id of a method of the service in a slot.
+     *
+     * @param serviceSlot slot from {@link #serviceSlot(String)}
+     * @param methodName  method name
+     * @return method id or -1
+     */
+    default int methodId(int serviceSlot, String methodName) {
+        return -1;
+    }
+
 }
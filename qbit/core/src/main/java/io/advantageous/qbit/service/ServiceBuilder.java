@@ -18,6 +18,8 @@
 
 package io.advantageous.qbit.service;
 
+import io.advantageous.boon.core.Sys;
+import io.advantageous.boon.core.reflection.BeanUtils;
 import io.advantageous.boon.core.reflection.ClassMeta;
 import io.advantageous.boon.core.reflection.MethodAccess;
 import io.advantageous.qbit.QBit;
@@ -30,6 +32,7 @@ import io.advantageous.qbit.queue.Queue;
 import io.advantageous.qbit.queue.QueueBuilder;
 import io.advantageous.qbit.queue.QueueCallBackHandler;
 import io.advantageous.qbit.queue.ReceiveQueueListener;
+import io.advantageous.qbit.queue.impl.EventLoopGroup;
 import io.advantageous.qbit.queue.impl.QueueCallBackHandlerHub;
 import io.advantageous.qbit.service.health.HealthServiceAsync;
 import io.advantageous.qbit.service.health.ServiceHealthListener;
@@ -73,6 +76,7 @@ public class ServiceBuilder {
     private QueueBuilder responseQueueBuilder;
     private boolean asyncResponse = true;
     private boolean invokeDynamic = true;
+    private boolean generatedInvokers = Sys.sysProp("qbit.service.generatedInvokers", false);
     private String rootAddress;
     private String serviceAddress;
     private Object serviceObject;
@@ -88,6 +92,8 @@ public class ServiceBuilder {
     private EventManager eventManager;
     private BeforeMethodSent beforeMethodSent;
     private boolean joinEventManager = true;
+    private boolean useEventLoop;
+    private EventLoopGroup eventLoopGroup;
 
 
     public static ServiceBuilder serviceBuilder() {
@@ -272,7 +278,7 @@ public class ServiceBuilder {
 
         if (serviceMethodHandler == null) {
             serviceMethodHandler =
-                    QBit.factory().createServiceMethodHandler(this.isInvokeDynamic());
+                    QBit.factory().createServiceMethodHandler(this.isInvokeDynamic(), this.isGeneratedInvokers());
         }
         return serviceMethodHandler;
     }
@@ -392,6 +398,23 @@ public class ServiceBuilder {
         return this;
     }
 
+    public boolean isGeneratedInvokers() {
+        return generatedInvokers;
+    }
+
+    /**
+     * Call service methods through a generated invoker instead of Boon reflection.
+     * This is an opt in performance setting. Defaults to the qbit.service.generatedInvokers system property,
+     * which defaults to false.
+     *
+     * @param generatedInvokers true to use generated invokers, false for the Boon reflection path
+     * @return this
+     */
+    public ServiceBuilder setGeneratedInvokers(boolean generatedInvokers) {
+        this.generatedInvokers = generatedInvokers;
+        return this;
+    }
+
     public boolean isHandleCallbacks() {
         return handleCallbacks;
     }
@@ -477,8 +500,8 @@ public class ServiceBuilder {
         ServiceQueue serviceQueue = new ServiceQueueImpl(this.getRootAddress(),
                 this.getServiceAddress(),
                 this.getServiceObject(),
-                this.getRequestQueueBuilder(),
-                this.getResponseQueueBuilder(),
+                queueBuilderWithEventLoop(this.getRequestQueueBuilder()),
+                queueBuilderWithEventLoop(this.getResponseQueueBuilder()),
                 this.getServiceMethodHandler(),
                 this.getResponseQueue(),
                 this.isAsyncResponse(),
@@ -507,6 +530,19 @@ public class ServiceBuilder {
         return serviceQueue;
     }
 
+    /**
+     * Queue builders are often shared between services, so the event loop settings go on a copy.
+     */
+    private QueueBuilder queueBuilderWithEventLoop(final QueueBuilder queueBuilder) {
+        if (eventLoopGroup == null && !useEventLoop) {
+            return queueBuilder;
+        }
+        final QueueBuilder copy = BeanUtils.copy(queueBuilder);
+        copy.setUseEventLoop(useEventLoop);
+        copy.setEventLoopGroup(eventLoopGroup);
+        return copy;
+    }
+
     /**
      * Builds and starts the service queue.
      *
@@ -547,15 +583,48 @@ public class ServiceBuilder {
         serviceBuilder.setAfterMethodCall(this.getAfterMethodCall());
         serviceBuilder.setBeforeMethodCall(this.getBeforeMethodCall());
         serviceBuilder.setAsyncResponse(this.isAsyncResponse());
+        serviceBuilder.setGeneratedInvokers(this.isGeneratedInvokers());
         serviceBuilder.setEventManager(this.getEventManager());
         serviceBuilder.setHandleCallbacks(this.handleCallbacks);
         serviceBuilder.setSystemManager(this.getSystemManager());
         serviceBuilder.setBeforeMethodCallAfterTransform(this.getBeforeMethodCallAfterTransform());
         serviceBuilder.setResponseQueueBuilder(this.getResponseQueueBuilder());
         serviceBuilder.setRequestQueueBuilder(this.getRequestQueueBuilder());
+        serviceBuilder.setUseEventLoop(this.isUseEventLoop());
+        serviceBuilder.setEventLoopGroup(this.getEventLoopGroup());
         return serviceBuilder;
     }
 
+    public boolean isUseEventLoop() {
+        return useEventLoop;
+    }
+
+    /**
+     * Run this service's queues on the shared default EventLoopGroup instead of a thread per queue.
+     *
+     * @param useEventLoop true to use the default event loop group
+     * @return this
+     */
+    public ServiceBuilder setUseEventLoop(boolean useEventLoop) {
+        this.useEventLoop = useEventLoop;
+        return this;
+    }
+
+    public EventLoopGroup getEventLoopGroup() {
+        return eventLoopGroup;
+    }
+
+    /**
+     * Run this service's queues on the given EventLoopGroup.
+     *
+     * @param eventLoopGroup event loop group shared with other services
+     * @return this
+     */
+    public ServiceBuilder setEventLoopGroup(EventLoopGroup eventLoopGroup) {
+        this.eventLoopGroup = eventLoopGroup;
+        return this;
+    }
+
     public boolean isJoinEventManager() {
         return joinEventManager;
     }
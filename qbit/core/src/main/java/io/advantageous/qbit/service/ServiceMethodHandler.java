@@ -67,6 +67,16 @@ public interface ServiceMethodHandler extends ReceiveQueueListener<MethodCall<Ob
     }
 
 
+    /**
+     * Resolves a method name to an id once so local proxies can send the id instead of the name.
+     *
+     * @param name method name
+     * @return method id or -1 if the method can only be called by name
+     */
+    default int methodId(final String name) {
+        return -1;
+    }
+
     default boolean couldHaveCallback(final String name) {
         return false;
     }
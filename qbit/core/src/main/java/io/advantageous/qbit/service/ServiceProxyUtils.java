@@ -20,6 +20,8 @@ package io.advantageous.qbit.service;
 
 import io.advantageous.qbit.client.ClientProxy;
 
+import java.lang.reflect.Proxy;
+
 /**
  * Used to flush proxy interfaces w/o implementing ClientProxy direct.
  * created by rhightower on 2/4/15.
@@ -35,4 +37,16 @@ public class ServiceProxyUtils {
         }
 
     }
+
+    /**
+     * Calls on a service proxy are sent to a service queue or a remote service by method name.
+     * Only call methods on it that every version of the target declares, default interface methods added later
+     * are not found on an older target.
+     *
+     * @param object object
+     * @return true if the object is a service proxy
+     */
+    public static boolean isServiceProxy(Object object) {
+        return object != null && Proxy.isProxyClass(object.getClass());
+    }
 }
@@ -125,6 +125,16 @@ public interface ServiceQueue extends Stoppable, ServiceFlushable, Startable {
 
     <T> T createProxy(Class<T> serviceInterface);
 
+    /**
+     * Method id of a service method, used by local proxies to skip the method lookup by name.
+     *
+     * @param methodName method name
+     * @return method id or -1
+     */
+    default int methodId(String methodName) {
+        return -1;
+    }
+
 
     <T> T createProxyWithAutoFlush(Class<T> serviceInterface, int interval, TimeUnit timeUnit);
 
@@ -690,6 +690,11 @@ public class BaseServiceQueueImpl implements ServiceQueue {
         return proxy(serviceInterface, methodCallSendQueue);
     }
 
+    @Override
+    public int methodId(final String methodName) {
+        return serviceMethodHandler.methodId(methodName);
+    }
+
     private <T> void validateInterface(Class<T> serviceInterface) {
         if (!serviceInterface.isInterface()) {
             throw new IllegalStateException("Service Interface must be an interface " + serviceInterface.getName());
@@ -715,7 +720,7 @@ public class BaseServiceQueueImpl implements ServiceQueue {
             logger.debug("ServiceQueue::create(...), A proxy is being asked for a service that is not started ", name());
         }
         final InvocationHandler invocationHandler = new BoonInvocationHandlerForSendQueue(methodCallSendQueue,
-                serviceInterface, serviceInterface.getSimpleName(), beforeMethodSent);
+                serviceInterface, serviceInterface.getSimpleName(), beforeMethodSent, this);
         final Object o = Proxy.newProxyInstance(serviceInterface.getClassLoader(),
                 new Class[]{serviceInterface, ClientProxy.class}, invocationHandler
         );
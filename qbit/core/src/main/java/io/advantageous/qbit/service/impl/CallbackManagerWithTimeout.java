@@ -22,15 +22,11 @@ import io.advantageous.qbit.message.MethodCall;
 import io.advantageous.qbit.message.Response;
 import io.advantageous.qbit.queue.Queue;
 import io.advantageous.qbit.reactive.Callback;
+import io.advantageous.qbit.util.CallbackRegistry;
 import io.advantageous.qbit.util.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
-import java.util.Date;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-
 /**
  * Maps incoming call returns to client callback objects.
  */
@@ -46,7 +42,7 @@ public class CallbackManagerWithTimeout implements CallbackManager {
     /**
      * Maps incoming calls with outgoing handlers (returns, async returns really).
      */
-    private final Map<HandlerKey, Callback<Object>> handlers = new ConcurrentHashMap<>();
+    private final CallbackRegistry<Callback<Object>> handlers = new CallbackRegistry<>();
     private long lastCheckTime;
     private long now;
 
@@ -73,17 +69,15 @@ public class CallbackManagerWithTimeout implements CallbackManager {
     private void registerHandlerCallbackForClient(final MethodCall<Object> methodCall,
                                                   final Callback<Object> handler) {
 
-        final HandlerKey handlerKey = new HandlerKey(methodCall.returnAddress(), methodCall.address(),
-                methodCall.id(), methodCall.timestamp());
+        final Callback<Object> old = handlers.put(methodCall.id(), methodCall.returnAddress(),
+                methodCall.timestamp(), handler);
 
         if (debug) {
-            if (handlers.containsKey(handlerKey)) {
-                logger.debug("DUPLICATE HANDLERS {}", handlerKey);
+            if (old != null) {
+                logger.debug("DUPLICATE HANDLERS {} {}", methodCall.returnAddress(), methodCall.id());
             }
         }
 
-        handlers.put(handlerKey, handler);
-
     }
 
 
@@ -108,24 +102,18 @@ public class CallbackManagerWithTimeout implements CallbackManager {
     @Override
     public void handleResponse(final Response<Object> response) {
 
-        final HandlerKey handlerKey = new HandlerKey(
-                response.returnAddress(),
-                response.address(),
-                response.id(),
-                response.timestamp());
-
-
-        final Callback<Object> handler = handlers.remove(handlerKey);
+        final Callback<Object> handler = handlers.remove(response.id(), response.returnAddress());
 
         if (handler == null) {
             if (response.request().hasCallback()) {
-                logger.error("Could not find handler for key {}", handlerKey);
+                logger.error("Could not find handler for return address {} message id {} address {}",
+                        response.returnAddress(), response.id(), response.address());
             }
             return;
         } else {
 
             if (debug)
-                logger.info("FOUND HANDLER {}", handlerKey);
+                logger.info("FOUND HANDLER {} {}", response.returnAddress(), response.id());
         }
 
         if (response.wasErrors()) {
@@ -192,23 +180,10 @@ public class CallbackManagerWithTimeout implements CallbackManager {
             logger.debug("checking for timeouts");
         }
 
-        final ArrayList<Map.Entry<HandlerKey, Callback<Object>>> entries = new ArrayList<>(handlers.entrySet());
-
+        final int count = handlers.expireOlderThan(now - timeOutMS, Callback::onTimeout);
 
-        for (Map.Entry<HandlerKey, Callback<Object>> entry : entries) {
-            long duration = now - entry.getKey().timestamp;
-            if (duration > timeOutMS) {
-
-
-                if (debug) logger.debug("{} Call has timed out duration {} {} {}", name,
-                        now - entry.getKey().timestamp,
-                        entry.getKey().returnAddress,
-                        entry.getKey().messageId,
-                        new Date(entry.getKey().timestamp));
-
-                handlers.remove(entry.getKey());
-                entry.getValue().onTimeout();
-            }
+        if (debug && count > 0) {
+            logger.debug("{} {} calls have timed out, timeout {}", name, count, timeOutMS);
         }
 
     }
@@ -46,6 +46,7 @@ import org.slf4j.LoggerFactory;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
@@ -74,6 +75,16 @@ public class ServiceBundleImpl implements ServiceBundle {
      * Keep track of servicesToStop to forwardEvent queue mappings.
      *///SendQueue<MethodCall<Object>>
     private final Map<String, Consumer<MethodCall<Object>>> serviceMapping = new ConcurrentHashMap<>();
+    /**
+     * Services by slot. Local proxies resolve the slot once and send it with the call.
+     * A slot is emptied when its service is replaced at every address and is never reused,
+     * so a proxy holding an old slot falls back to the address lookup instead of reaching another service.
+     */
+    private final List<Consumer<MethodCall<Object>>> serviceSlots = new CopyOnWriteArrayList<>();
+    /**
+     * Slot of each service in serviceSlots.
+     */
+    private final Map<Consumer<MethodCall<Object>>, Integer> slotsByService = new ConcurrentHashMap<>();
     /**
      * Keep a list of current servicesToStop that we are routing to.
      */
@@ -373,6 +384,7 @@ public class ServiceBundleImpl implements ServiceBundle {
         if (address != null && !address.isEmpty()) {
             serviceMapping.put(address, methodCallConsumer);
             serviceMapping.put(address.toLowerCase(), methodCallConsumer);
+            addServiceSlot(methodCallConsumer);
 
             if (methodCallConsumer instanceof ServiceFlushable) {
                 this.servicesToFlush.add((ServiceFlushable) methodCallConsumer);
@@ -434,6 +446,33 @@ public class ServiceBundleImpl implements ServiceBundle {
         for (String addr : addresses) {
             serviceMapping.put(addr, dispatch);
         }
+
+        addServiceSlot(dispatch);
+    }
+
+    /**
+     * Gives a service a slot and empties the slots of services that are no longer mapped to any address.
+     *
+     * @param methodCallConsumer service
+     */
+    private synchronized void addServiceSlot(final Consumer<MethodCall<Object>> methodCallConsumer) {
+        if (!slotsByService.containsKey(methodCallConsumer)) {
+            serviceSlots.add(methodCallConsumer);
+            slotsByService.put(methodCallConsumer, serviceSlots.size() - 1);
+        }
+
+        if (slotsByService.size() > 1) {
+            final Set<Consumer<MethodCall<Object>>> mapped = Collections.newSetFromMap(new IdentityHashMap<>());
+            mapped.addAll(serviceMapping.values());
+            final Iterator<Map.Entry<Consumer<MethodCall<Object>>, Integer>> iterator = slotsByService.entrySet().iterator();
+            while (iterator.hasNext()) {
+                final Map.Entry<Consumer<MethodCall<Object>>, Integer> entry = iterator.next();
+                if (!mapped.contains(entry.getKey())) {
+                    serviceSlots.set(entry.getValue(), null);
+                    iterator.remove();
+                }
+            }
+        }
     }
 
     /**
@@ -522,7 +561,33 @@ public class ServiceBundleImpl implements ServiceBundle {
         return methodCall;
     }
 
+    @Override
+    public int serviceSlot(final String serviceName) {
+        final Consumer<MethodCall<Object>> methodCallConsumer = serviceMapping.get(serviceName);
+        final Integer serviceSlot = methodCallConsumer == null ? null : slotsByService.get(methodCallConsumer);
+        return serviceSlot == null ? -1 : serviceSlot;
+    }
+
+    @Override
+    public int methodId(final int serviceSlot, final String methodName) {
+        if (serviceSlot < 0 || serviceSlot >= serviceSlots.size()) {
+            return -1;
+        }
+        final Consumer<MethodCall<Object>> methodCallConsumer = serviceSlots.get(serviceSlot);
+        return methodCallConsumer instanceof QueueDispatch ?
+                ((QueueDispatch) methodCallConsumer).serviceQueue.methodId(methodName) : -1;
+    }
+
     private Consumer<MethodCall<Object>> getMethodDispatcher(MethodCall<Object> methodCall) {
+
+        final int serviceSlot = methodCall.serviceSlot();
+        if (serviceSlot >= 0 && serviceSlot < serviceSlots.size()) {
+            final Consumer<MethodCall<Object>> slotConsumer = serviceSlots.get(serviceSlot);
+            if (slotConsumer != null) {
+                return slotConsumer;
+            }
+        }
+
         Consumer<MethodCall<Object>> methodCallConsumer = null;
 
         boolean hasAddress = !Str.isEmpty(methodCall.address());
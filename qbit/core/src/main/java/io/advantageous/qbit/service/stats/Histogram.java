@@ -0,0 +1,236 @@
+/*
+ * Copyright (c) 2015. Rick Hightower, Geoff Chandler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * QBit - The Microservice lib for Java : JSON, WebSocket, REST. Be The Web!
+ */
+
+package io.advantageous.qbit.service.stats;
+
+import java.util.Arrays;
+
+/**
+ * Fixed memory, log bucketed histogram for timings.
+ * <p>
+ * Values below {@code 2^precision} get their own bucket. Above that each power of two is split into
+ * {@code 2^precision} buckets, so any recorded value is reported within {@code 1/2^precision} of its real value
+ * (about 6% with the default precision of 4). The bucket array is allocated once, so the memory used per
+ * metric does not depend on how many values are recorded.
+ * <p>
+ * Not thread safe. Histograms are meant to be owned by a single service or collector thread,
+ * use {@link #snapshot()} to hand the data to another thread or to another process.
+ *
+ * @author rhightower
+ */
+public class Histogram {
+
+    public static final int DEFAULT_PRECISION = 4;
+
+    private final int precision;
+    private final long[] counts;
+    private long count;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    public Histogram() {
+        this(DEFAULT_PRECISION);
+    }
+
+    /**
+     * @param precision number of bits used to split each power of two, 1 to 10.
+     */
+    public Histogram(final int precision) {
+        if (precision < 1 || precision > 10) {
+            throw new IllegalArgumentException("precision must be between 1 and 10, was " + precision);
+        }
+        this.precision = precision;
+        this.counts = new long[bucketCount(precision)];
+    }
+
+    static int bucketCount(final int precision) {
+        return (64 - precision) << precision;
+    }
+
+    static int bucketIndex(final long value, final int precision) {
+        final long subBucketCount = 1L << precision;
+        if (value < subBucketCount) {
+            return (int) value;
+        }
+        final int shift = 63 - Long.numberOfLeadingZeros(value) - precision;
+        return (shift << precision) + (int) (value >>> shift);
+    }
+
+    /**
+     * Largest value that lands in the bucket.
+     */
+    static long highestEquivalentValue(final int index, final int precision) {
+        final int subBucketCount = 1 << precision;
+        if (index < subBucketCount << 1) {
+            return index;
+        }
+        final int shift = (index >>> precision) - 1;
+        final long subBucket = index - ((long) shift << precision);
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    public void record(final long value) {
+        record(value, 1);
+    }
+
+    /**
+     * Record a value more than once.
+     *
+     * @param value value, negative values are recorded as zero
+     * @param times number of times to record it
+     */
+    public void record(final long value, final long times) {
+        if (times <= 0) {
+            return;
+        }
+        final long v = value < 0 ? 0 : value;
+        counts[bucketIndex(v, precision)] += times;
+        count += times;
+        sum += v * times;
+        if (v < min) {
+            min = v;
+        }
+        if (v > max) {
+            max = v;
+        }
+    }
+
+    /**
+     * Merge a snapshot into this histogram.
+     * Snapshots taken with a different precision are re-bucketed, which loses some accuracy.
+     *
+     * @param snapshot snapshot
+     */
+    public void add(final HistogramSnapshot snapshot) {
+        if (snapshot == null || snapshot.getCount() == 0) {
+            return;
+        }
+
+        final int[] buckets = snapshot.buckets();
+        final long[] bucketCounts = snapshot.counts();
+
+        if (snapshot.getPrecision() == precision) {
+            for (int index = 0; index < buckets.length; index++) {
+                counts[buckets[index]] += bucketCounts[index];
+            }
+        } else {
+            for (int index = 0; index < buckets.length; index++) {
+                final long value = highestEquivalentValue(buckets[index], snapshot.getPrecision());
+                counts[bucketIndex(Math.min(Math.max(value, snapshot.getMin()), snapshot.getMax()), precision)]
+                        += bucketCounts[index];
+            }
+        }
+
+        count += snapshot.getCount();
+        sum += snapshot.getSum();
+        min = Math.min(min, snapshot.getMin());
+        max = Math.max(max, snapshot.getMax());
+    }
+
+    /**
+     * Value at or below which the given percentage of the recorded values fall.
+     *
+     * @param percentile percentile, 0 to 100
+     * @return value, 0 if nothing was recorded
+     */
+    public long valueAtPercentile(final double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        final long target = target(percentile, count);
+        long seen = 0;
+        for (int index = 0; index < counts.length; index++) {
+            seen += counts[index];
+            if (seen >= target) {
+                return clamp(highestEquivalentValue(index, precision), min, max);
+            }
+        }
+        return max;
+    }
+
+    static long target(final double percentile, final long count) {
+        final double p = Math.min(Math.max(percentile, 0.0), 100.0);
+        return Math.max(1, (long) Math.ceil(p / 100.0 * count));
+    }
+
+    static long clamp(final long value, final long min, final long max) {
+        return value < min ? min : value > max ? max : value;
+    }
+
+    /**
+     * Copy of the recorded data. Only the buckets that have values are copied.
+     *
+     * @return snapshot
+     */
+    public HistogramSnapshot snapshot() {
+        int used = 0;
+        for (long bucketCount : counts) {
+            if (bucketCount != 0) {
+                used++;
+            }
+        }
+        final int[] buckets = new int[used];
+        final long[] bucketCounts = new long[used];
+        int position = 0;
+        for (int index = 0; index < counts.length; index++) {
+            if (counts[index] != 0) {
+                buckets[position] = index;
+                bucketCounts[position] = counts[index];
+                position++;
+            }
+        }
+        return new HistogramSnapshot(precision, buckets, bucketCounts, count, sum, getMin(), max);
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        sum = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public long getMin() {
+        return count == 0 ? 0 : min;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2015. Rick Hightower, Geoff Chandler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * QBit - The Microservice lib for Java : JSON, WebSocket, REST. Be The Web!
+ */
+
+package io.advantageous.qbit.service.stats;
+
+/**
+ * Immutable copy of a {@link Histogram}. This is what gets shipped between services and replicas.
+ * Only the buckets that have values are kept.
+ * <p>
+ * Snapshots can be merged, which is how stats from several collectors or several flushes are combined.
+ *
+ * @author rhightower
+ */
+public class HistogramSnapshot {
+
+    private final int precision;
+    private final int[] buckets;
+    private final long[] counts;
+    private final long count;
+    private final long sum;
+    private final long min;
+    private final long max;
+
+    public HistogramSnapshot(final int precision,
+                             final int[] buckets,
+                             final long[] counts,
+                             final long count,
+                             final long sum,
+                             final long min,
+                             final long max) {
+        this.precision = precision;
+        this.buckets = buckets;
+        this.counts = counts;
+        this.count = count;
+        this.sum = sum;
+        this.min = min;
+        this.max = max;
+    }
+
+    public static HistogramSnapshot empty() {
+        return new HistogramSnapshot(Histogram.DEFAULT_PRECISION, new int[0], new long[0], 0, 0, 0, 0);
+    }
+
+    /**
+     * Combine two snapshots.
+     *
+     * @param other other snapshot
+     * @return new snapshot with the values of both
+     */
+    public HistogramSnapshot merge(final HistogramSnapshot other) {
+        final Histogram histogram = new Histogram(precision);
+        histogram.add(this);
+        histogram.add(other);
+        return histogram.snapshot();
+    }
+
+    /**
+     * Value at or below which the given percentage of the recorded values fall.
+     *
+     * @param percentile percentile, 0 to 100
+     * @return value, 0 if the snapshot is empty
+     */
+    public long valueAtPercentile(final double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        final long target = Histogram.target(percentile, count);
+        long seen = 0;
+        for (int index = 0; index < buckets.length; index++) {
+            seen += counts[index];
+            if (seen >= target) {
+                return Histogram.clamp(Histogram.highestEquivalentValue(buckets[index], precision), min, max);
+            }
+        }
+        return max;
+    }
+
+    int[] buckets() {
+        return buckets;
+    }
+
+    long[] counts() {
+        return counts;
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public long getMin() {
+        return min;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    @Override
+    public String toString() {
+        return "HistogramSnapshot{" +
+                "count=" + count +
+                ", min=" + min +
+                ", p50=" + valueAtPercentile(50) +
+                ", p99=" + valueAtPercentile(99) +
+                ", p999=" + valueAtPercentile(99.9) +
+                ", max=" + max +
+                '}';
+    }
+}
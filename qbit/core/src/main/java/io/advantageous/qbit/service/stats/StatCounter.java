@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2015. Rick Hightower, Geoff Chandler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * QBit - The Microservice lib for Java : JSON, WebSocket, REST. Be The Web!
+ */
+
+package io.advantageous.qbit.service.stats;
+
+/**
+ * Handle to a count metric. Look it up once with {@link StatsCollector#counter(String)}
+ * and keep it, so recording a count does not need a name lookup.
+ *
+ * @author rhightower
+ */
+@FunctionalInterface
+public interface StatCounter {
+
+    /**
+     * Add to the count.
+     *
+     * @param count amount to add
+     */
+    void add(long count);
+
+    /**
+     * Add one to the count.
+     */
+    default void increment() {
+        add(1L);
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2015. Rick Hightower, Geoff Chandler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * QBit - The Microservice lib for Java : JSON, WebSocket, REST. Be The Web!
+ */
+
+package io.advantageous.qbit.service.stats;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters that any thread can update directly, without going through the stats service queue.
+ * <p>
+ * Each counter is a striped {@link LongAdder}, so many threads can increment the same counter without
+ * contending on one memory location. Counters are registered once by name. The stats service
+ * calls {@link #drain(CountConsumer)} on its own thread to fold what was counted since the last drain into
+ * its per minute stats.
+ *
+ * @author rhightower
+ */
+public class StatCounterRegistry {
+
+    private final ConcurrentHashMap<String, Counter> counterMap = new ConcurrentHashMap<>();
+    private final List<Counter> counters = new CopyOnWriteArrayList<>();
+
+    /**
+     * Get the counter for a name, registering it the first time.
+     *
+     * @param name name of the metric
+     * @return counter, safe to use from any thread
+     */
+    public StatCounter counter(final String name) {
+        Counter counter = counterMap.get(name);
+        if (counter == null) {
+            final Counter newCounter = new Counter(name);
+            counter = counterMap.putIfAbsent(name, newCounter);
+            if (counter == null) {
+                counter = newCounter;
+                counters.add(newCounter);
+            }
+        }
+        return counter;
+    }
+
+    /**
+     * Hand the counts recorded since the last drain to the consumer. Counters with nothing new are skipped.
+     * Only one thread should drain a registry.
+     *
+     * @param consumer gets the name and the count
+     */
+    public void drain(final CountConsumer consumer) {
+        for (Counter counter : counters) {
+            /* Never reset the adder, a reset could lose an increment that races with it. */
+            final long total = counter.adder.sum();
+            final long count = total - counter.drained;
+            if (count != 0) {
+                counter.drained = total;
+                consumer.accept(counter.name, count);
+            }
+        }
+    }
+
+    public int size() {
+        return counters.size();
+    }
+
+    /**
+     * Receives drained counts.
+     */
+    @FunctionalInterface
+    public interface CountConsumer {
+        void accept(String name, long count);
+    }
+
+    private static final class Counter implements StatCounter {
+        private final String name;
+        private final LongAdder adder = new LongAdder();
+
+        /* Only touched by the draining thread. */
+        private long drained;
+
+        private Counter(final String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void add(final long count) {
+            adder.add(count);
+        }
+
+        @Override
+        public void increment() {
+            adder.increment();
+        }
+
+        @Override
+        public String toString() {
+            return "StatCounter{name='" + name + "', count=" + adder.sum() + '}';
+        }
+    }
+}
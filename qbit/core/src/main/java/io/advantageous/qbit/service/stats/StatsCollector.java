@@ -37,4 +37,28 @@ import io.advantageous.qbit.client.ClientProxy;
 public interface StatsCollector extends MetricsCollector, ClientProxy {
 
 
+    /**
+     * Record a batch of timings for a metric as a histogram.
+     * Collectors that do not keep histograms get the max timing of the batch.
+     *
+     * @param name     name of the metric
+     * @param snapshot timings
+     */
+    default void recordTimingHistogram(final String name, final HistogramSnapshot snapshot) {
+        recordTiming(name, snapshot.getMax());
+    }
+
+    /**
+     * Get a handle to a count metric.
+     * The default handle just calls {@link #recordCount(String, long)}, so it has the same threading rules as
+     * this collector. Collectors backed by a {@link StatCounterRegistry} hand out counters that any thread
+     * can use and that skip the stats service queue.
+     * Do not call this on a service proxy, get the counter from a {@link StatsCollectorBuffer}.
+     *
+     * @param name name of the metric
+     * @return counter
+     */
+    default StatCounter counter(final String name) {
+        return count -> recordCount(name, count);
+    }
 }
@@ -35,6 +35,10 @@ import java.util.Map;
 /**
  * This is a drop in replacement for a StatsCollector proxy,
  * but it provides buffering of stats.
+ * <p>
+ * Timings are kept in a histogram. On flush a collector that is called directly gets the histogram
+ * through recordTimingHistogram. A service proxy gets the max timing through recordTiming like it always has,
+ * unless the buffer is told the service behind the proxy declares recordTimingHistogram.
  */
 public class StatsCollectorBuffer implements StatsCollector {
 
@@ -42,9 +46,41 @@ public class StatsCollectorBuffer implements StatsCollector {
     private final Map<String, RecordLevel> levels = new HashMap<>();
     private final Map<String, RecordTiming> timings = new HashMap<>();
     private final StatsCollector statsCollector;
+    private final StatCounterRegistry counterRegistry;
+    private final boolean sendHistograms;
 
     public StatsCollectorBuffer(StatsCollector statsCollector) {
+        this(statsCollector, null);
+    }
+
+    /**
+     * @param statsCollector  stats collector, usually a proxy to the stats service
+     * @param counterRegistry registry the stats service drains, counters come from here if it is not null
+     */
+    public StatsCollectorBuffer(StatsCollector statsCollector, StatCounterRegistry counterRegistry) {
+        this(statsCollector, counterRegistry, !ServiceProxyUtils.isServiceProxy(statsCollector));
+    }
+
+    /**
+     * @param statsCollector  stats collector, usually a proxy to the stats service
+     * @param counterRegistry registry the stats service drains, counters come from here if it is not null
+     * @param sendHistograms  true if the stats collector declares recordTimingHistogram,
+     *                        false to send the max timing of each flush with recordTiming
+     */
+    public StatsCollectorBuffer(StatsCollector statsCollector, StatCounterRegistry counterRegistry,
+                                boolean sendHistograms) {
         this.statsCollector = statsCollector;
+        this.counterRegistry = counterRegistry;
+        this.sendHistograms = sendHistograms;
+    }
+
+    @Override
+    public StatCounter counter(final String name) {
+        if (counterRegistry != null) {
+            return counterRegistry.counter(name);
+        }
+        final RecordCount recordCount = recordCount(name);
+        return recordCount::set;
     }
 
     @Override
@@ -54,12 +90,16 @@ public class StatsCollectorBuffer implements StatsCollector {
 
     @Override
     public void recordCount(final String name, final long count) {
+        recordCount(name).set(count);
+    }
+
+    private RecordCount recordCount(final String name) {
         RecordCount recordCount = counts.get(name);
         if (recordCount == null) {
             recordCount = new RecordCount(name);
             counts.put(name, recordCount);
         }
-        recordCount.set(count);
+        return recordCount;
     }
 
     @Override
@@ -98,14 +138,18 @@ public class StatsCollectorBuffer implements StatsCollector {
         });
 
         timings.values().forEach(recordTiming -> {
-            if (recordTiming.list.size() == 0) {
+            if (recordTiming.histogram.isEmpty()) {
                 return;
             }
-            final long max = recordTiming.list.max();
+            final long max = recordTiming.histogram.getMax();
             if (max > 0) {
-                statsCollector.recordTiming(recordTiming.name, max);
+                if (sendHistograms) {
+                    statsCollector.recordTimingHistogram(recordTiming.name, recordTiming.histogram.snapshot());
+                } else {
+                    statsCollector.recordTiming(recordTiming.name, max);
+                }
             }
-            recordTiming.list.clear();
+            recordTiming.histogram.reset();
         });
 
         ServiceProxyUtils.flushServiceProxy(statsCollector);
@@ -118,7 +162,7 @@ public class StatsCollectorBuffer implements StatsCollector {
     }
 
     static class RecordTiming {
-        final StatList list = new StatList();
+        final Histogram histogram = new Histogram();
         final String name;
 
         RecordTiming(String name) {
@@ -126,7 +170,7 @@ public class StatsCollectorBuffer implements StatsCollector {
         }
 
         void set(long timing) {
-            list.addLong(timing);
+            histogram.record(timing);
         }
     }
 
@@ -25,6 +25,7 @@ import java.util.List;
 
 /**
  * Transforms a JSON request body to an argument list.
+ * UTF-8 byte bodies are parsed from the bytes without building a String.
  * <p>
  * created by Richard on 8/11/14.
  *
@@ -40,11 +41,14 @@ public class JsonRequestBodyToArgListTransformer implements Transformer<Request,
 
     @Override
     public Object transform(final Request request) {
-        if (request.body() instanceof List) {
-            final List list = (List) request.body();
-            return mapper.fromJson(((String) list.get(0)));
-        } else if (request.body() instanceof String) {
-            return mapper.fromJson(((String) request.body()));
+        final Object body = request.body();
+        if (body instanceof List) {
+            final Object first = ((List) body).get(0);
+            return first instanceof byte[] ? mapper.fromJson((byte[]) first) : mapper.fromJson(((String) first));
+        } else if (body instanceof String) {
+            return mapper.fromJson(((String) body));
+        } else if (body instanceof byte[]) {
+            return mapper.fromJson((byte[]) body);
         } else {
             throw new IllegalArgumentException("Unable to handle request");
         }
@@ -0,0 +1,313 @@
+/*
+ * Copyright (c) 2015. Rick Hightower, Geoff Chandler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * QBit - The Microservice lib for Java : JSON, WebSocket, REST. Be The Web!
+ */
+
+package io.advantageous.qbit.util;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Holds outstanding callbacks keyed by message id.
+ * <p>
+ * Message ids are only unique per return address (each client proxy numbers its own calls),
+ * so the key is the id plus the return address. The id is a primitive long and the return
+ * address is the string the message already carries, so registering and removing a callback
+ * does not allocate a key. The table uses open addressing with linear probing.
+ * <p>
+ * Registrations are also kept in arrival order which, since callbacks share the same timeout,
+ * is deadline order. Sweeping for timeouts only looks at the callbacks that are old enough to have
+ * expired (plus the ones that already came back and were left behind in the order list).
+ * <p>
+ * Methods are synchronized. The callback thread and the response thread both use the registry,
+ * but they rarely contend.
+ *
+ * @param <V> callback type
+ * @author rhightower
+ */
+public class CallbackRegistry<V> {
+
+    private static final int MIN_CAPACITY = 16;
+
+    /* Hash table. An empty slot has a null value. */
+    private long[] ids;
+    private Object[] scopes;
+    private Object[] values;
+    private long[] timestamps;
+    private int mask;
+    private int size;
+
+    /* Registrations in arrival order, a ring buffer. */
+    private long[] orderIds;
+    private Object[] orderScopes;
+    private long[] orderTimestamps;
+    private int orderHead;
+    private int orderCount;
+
+    public CallbackRegistry() {
+        this(MIN_CAPACITY);
+    }
+
+    public CallbackRegistry(final int expectedSize) {
+        final int capacity = tableSizeFor(Math.max(expectedSize * 2, MIN_CAPACITY));
+        allocateTable(capacity);
+        orderIds = new long[capacity];
+        orderScopes = new Object[capacity];
+        orderTimestamps = new long[capacity];
+    }
+
+    private static int tableSizeFor(final int size) {
+        final int highestOneBit = Integer.highestOneBit(size);
+        return highestOneBit == size ? size : highestOneBit << 1;
+    }
+
+    /**
+     * Register a callback.
+     *
+     * @param id        message id
+     * @param scope     return address of the message, may be null
+     * @param timestamp timestamp of the message, used for timeouts
+     * @param value     callback
+     * @return callback that was previously registered under the same key, or null
+     */
+    public synchronized V put(final long id, final Object scope, final long timestamp, final V value) {
+        Objects.requireNonNull(value, "value");
+
+        if ((size + 1) * 2 > values.length) {
+            resize(values.length * 2);
+        }
+
+        int index = slot(id, scope);
+        while (values[index] != null) {
+            if (ids[index] == id && Objects.equals(scopes[index], scope)) {
+                @SuppressWarnings("unchecked") final V old = (V) values[index];
+                values[index] = value;
+                timestamps[index] = timestamp;
+                addToOrder(id, scope, timestamp);
+                return old;
+            }
+            index = (index + 1) & mask;
+        }
+
+        ids[index] = id;
+        scopes[index] = scope;
+        values[index] = value;
+        timestamps[index] = timestamp;
+        size++;
+        addToOrder(id, scope, timestamp);
+        return null;
+    }
+
+    /**
+     * Look up a callback.
+     *
+     * @param id    message id
+     * @param scope return address
+     * @return callback or null
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized V get(final long id, final Object scope) {
+        final int index = indexOf(id, scope);
+        return index == -1 ? null : (V) values[index];
+    }
+
+    /**
+     * Remove a callback.
+     *
+     * @param id    message id
+     * @param scope return address
+     * @return callback that was removed or null
+     */
+    public synchronized V remove(final long id, final Object scope) {
+        final int index = indexOf(id, scope);
+        return index == -1 ? null : removeAt(index);
+    }
+
+    /**
+     * Remove every callback whose timestamp is older than {@code cutoff} and hand it to {@code expired}.
+     *
+     * @param cutoff  callbacks registered before this time are expired
+     * @param expired handler for expired callbacks
+     * @return number of callbacks that expired
+     */
+    public synchronized int expireOlderThan(final long cutoff, final Consumer<V> expired) {
+        int count = 0;
+
+        while (orderCount > 0) {
+            final long timestamp = orderTimestamps[orderHead];
+            if (timestamp >= cutoff) {
+                break;
+            }
+            final long id = orderIds[orderHead];
+            final Object scope = orderScopes[orderHead];
+            orderScopes[orderHead] = null;
+            orderHead = (orderHead + 1) & (orderIds.length - 1);
+            orderCount--;
+
+            final int index = indexOf(id, scope);
+            if (index != -1 && timestamps[index] == timestamp) {
+                expired.accept(removeAt(index));
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(values, null);
+        Arrays.fill(scopes, null);
+        Arrays.fill(orderScopes, null);
+        size = 0;
+        orderHead = 0;
+        orderCount = 0;
+    }
+
+    private int slot(final long id, final Object scope) {
+        long hash = id * 0x9E3779B97F4A7C15L + (scope == null ? 0 : scope.hashCode());
+        hash ^= hash >>> 32;
+        hash ^= hash >>> 16;
+        return (int) hash & mask;
+    }
+
+    private int indexOf(final long id, final Object scope) {
+        int index = slot(id, scope);
+        while (values[index] != null) {
+            if (ids[index] == id && Objects.equals(scopes[index], scope)) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V removeAt(int index) {
+        final V value = (V) values[index];
+        values[index] = null;
+        scopes[index] = null;
+        size--;
+
+        /* Shift back the entries that follow so lookups never need tombstones. */
+        int next = (index + 1) & mask;
+        while (values[next] != null) {
+            final int home = slot(ids[next], scopes[next]);
+            final boolean stays = index <= next ? index < home && home <= next : index < home || home <= next;
+            if (!stays) {
+                ids[index] = ids[next];
+                scopes[index] = scopes[next];
+                values[index] = values[next];
+                timestamps[index] = timestamps[next];
+                values[next] = null;
+                scopes[next] = null;
+                index = next;
+            }
+            next = (next + 1) & mask;
+        }
+        return value;
+    }
+
+    private void allocateTable(final int capacity) {
+        ids = new long[capacity];
+        scopes = new Object[capacity];
+        values = new Object[capacity];
+        timestamps = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    private void resize(final int capacity) {
+        final long[] oldIds = ids;
+        final Object[] oldScopes = scopes;
+        final Object[] oldValues = values;
+        final long[] oldTimestamps = timestamps;
+
+        allocateTable(capacity);
+
+        for (int old = 0; old < oldValues.length; old++) {
+            if (oldValues[old] != null) {
+                int index = slot(oldIds[old], oldScopes[old]);
+                while (values[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                ids[index] = oldIds[old];
+                scopes[index] = oldScopes[old];
+                values[index] = oldValues[old];
+                timestamps[index] = oldTimestamps[old];
+            }
+        }
+    }
+
+    private void addToOrder(final long id, final Object scope, final long timestamp) {
+        if (orderCount == orderIds.length) {
+            compactOrder();
+        }
+        final int tail = (orderHead + orderCount) & (orderIds.length - 1);
+        orderIds[tail] = id;
+        orderScopes[tail] = scope;
+        orderTimestamps[tail] = timestamp;
+        orderCount++;
+    }
+
+    /**
+     * Drop registrations that already came back. Grows the ring if most of it is still live.
+     */
+    private void compactOrder() {
+        final int orderMask = orderIds.length - 1;
+        int count = 0;
+
+        for (int position = 0; position < orderCount; position++) {
+            final int at = (orderHead + position) & orderMask;
+            final int index = indexOf(orderIds[at], orderScopes[at]);
+            if (index != -1 && timestamps[index] == orderTimestamps[at]) {
+                final int to = (orderHead + count) & orderMask;
+                orderIds[to] = orderIds[at];
+                orderScopes[to] = orderScopes[at];
+                orderTimestamps[to] = orderTimestamps[at];
+                count++;
+            }
+        }
+        for (int position = count; position < orderCount; position++) {
+            orderScopes[(orderHead + position) & orderMask] = null;
+        }
+        orderCount = count;
+
+        if (count * 2 > orderIds.length) {
+            final int length = orderIds.length;
+            final long[] newIds = new long[length * 2];
+            final Object[] newScopes = new Object[length * 2];
+            final long[] newTimestamps = new long[length * 2];
+            for (int position = 0; position < count; position++) {
+                final int at = (orderHead + position) & orderMask;
+                newIds[position] = orderIds[at];
+                newScopes[position] = orderScopes[at];
+                newTimestamps[position] = orderTimestamps[at];
+            }
+            orderIds = newIds;
+            orderScopes = newScopes;
+            orderTimestamps = newTimestamps;
+            orderHead = 0;
+        }
+    }
+}
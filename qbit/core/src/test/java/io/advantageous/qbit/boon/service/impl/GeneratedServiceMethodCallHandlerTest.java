@@ -0,0 +1,202 @@
+package io.advantageous.qbit.boon.service.impl;
+
+import io.advantageous.qbit.QBit;
+import io.advantageous.qbit.message.MethodCall;
+import io.advantageous.qbit.message.MethodCallBuilder;
+import io.advantageous.qbit.message.Response;
+import io.advantageous.qbit.queue.SendQueue;
+import io.advantageous.qbit.reactive.Callback;
+import io.advantageous.qbit.service.ServiceBuilder;
+import io.advantageous.qbit.service.impl.ServiceConstants;
+import io.advantageous.reakt.promise.Promise;
+import io.advantageous.reakt.promise.Promises;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class GeneratedServiceMethodCallHandlerTest {
+
+    private GeneratedServiceMethodCallHandler handler;
+    private MyService myService;
+    private List<Response<Object>> responses;
+
+    @Before
+    public void setup() {
+        myService = new MyService();
+        responses = new ArrayList<>();
+        handler = new GeneratedServiceMethodCallHandler(true);
+        handler.init(myService, "", "", new SendQueue<Response<Object>>() {
+            @Override
+            public boolean send(Response<Object> item) {
+                responses.add(item);
+                return true;
+            }
+        });
+    }
+
+    private Response<Object> call(final String name, final Object... args) {
+        final MethodCall<Object> methodCall = MethodCallBuilder.methodCallBuilder().setName(name)
+                .setBody(args).build();
+        return handler.receiveMethodCall(methodCall);
+    }
+
+    @Test
+    public void testOptIn() {
+        assertFalse(ServiceBuilder.serviceBuilder().isGeneratedInvokers());
+        assertFalse(QBit.factory().createServiceMethodHandler(true, false) instanceof GeneratedServiceMethodCallHandler);
+        assertTrue(QBit.factory().createServiceMethodHandler(true, true) instanceof GeneratedServiceMethodCallHandler);
+    }
+
+    @Test
+    public void testPrimitives() {
+        assertTrue(handler.isGenerated("add"));
+        call("add", "a", 1);
+        call("add", "b", 2);
+        assertEquals(3, myService.sum);
+
+        final Response<Object> response = call("addLong", 5L, 1.5d);
+        assertFalse(response.wasErrors());
+        assertEquals(6L, response.body());
+
+        assertEquals(3, call("sum").body());
+        assertEquals("a,b", call("names").body());
+    }
+
+    @Test
+    public void testMethodId() {
+        final int methodId = handler.methodId("add");
+        assertTrue(methodId >= 0);
+        assertEquals(-1, handler.methodId("nope"));
+
+        handler.receiveMethodCall(MethodCallBuilder.methodCallBuilder().setName("add")
+                .setMethodId(methodId).setBody(new Object[]{"a", 2}).build());
+        assertEquals(2, myService.sum);
+
+        /* A stale id is ignored, the name wins. */
+        final Response<Object> response = handler.receiveMethodCall(MethodCallBuilder.methodCallBuilder()
+                .setName("sum").setMethodId(methodId).setBody(new Object[0]).build());
+        assertEquals(2, response.body());
+    }
+
+    @Test
+    public void testArraysAndLists() {
+        assertEquals(3, call("count", new Object[]{new String[]{"a", "b", "c"}}).body());
+        final MethodCall<Object> methodCall = MethodCallBuilder.methodCallBuilder().setName("size")
+                .setBody(Arrays.asList(1, 2)).build();
+        assertEquals(2, handler.receiveMethodCall(methodCall).body());
+    }
+
+    @Test
+    public void testCallback() {
+        call("sumAsync", (Callback<Integer>) value -> {
+        });
+        call("sumAsyncNoCallbackInBody");
+        assertEquals(2, responses.size());
+        assertEquals(0, responses.get(0).body());
+
+        call("addAsync", 7, null);
+        assertEquals(7, responses.get(2).body());
+    }
+
+    @Test
+    public void testPromise() {
+        call("add", "a", 4);
+        assertEquals(ServiceConstants.VOID, call("sumPromise"));
+        assertEquals(1, responses.size());
+        assertEquals(4, responses.get(0).body());
+    }
+
+    @Test
+    public void testCoercionFallsBackToBoon() {
+        call("add", "a", "10");
+        assertEquals(10, myService.sum);
+        call("addLong", 1, 2);
+        assertEquals(3L, call("addLong", 1, 2).body());
+    }
+
+    @Test
+    public void testException() {
+        final Response<Object> response = call("fail");
+        assertTrue(response.wasErrors());
+        assertTrue(response.body() instanceof IllegalStateException);
+    }
+
+    @Test
+    public void testUnknownMethod() {
+        final Response<Object> response = call("nope");
+        assertTrue(response.wasErrors());
+    }
+
+    @Test
+    public void testNonPublicServiceUsesBoon() {
+        class LocalService {
+            int count;
+
+            public void hit() {
+                count++;
+            }
+        }
+        final LocalService localService = new LocalService();
+        final GeneratedServiceMethodCallHandler localHandler = new GeneratedServiceMethodCallHandler(true);
+        localHandler.init(localService, "", "", new SendQueue<Response<Object>>() {
+        });
+        assertFalse(localHandler.isGenerated("hit"));
+        localHandler.receiveMethodCall(MethodCallBuilder.methodCallBuilder().setName("hit").build());
+        assertEquals(1, localService.count);
+    }
+
+    public static class MyService {
+        int sum;
+        final List<String> names = new ArrayList<>();
+
+        public void add(String name, int value) {
+            names.add(name);
+            sum += value;
+        }
+
+        public long addLong(long a, double b) {
+            return a + (long) b;
+        }
+
+        public int sum() {
+            return sum;
+        }
+
+        public String names() {
+            return String.join(",", names);
+        }
+
+        public int count(String[] values) {
+            return values.length;
+        }
+
+        public int size(Integer a, Integer b) {
+            return 2;
+        }
+
+        public void sumAsync(Callback<Integer> callback) {
+            callback.accept(sum);
+        }
+
+        public void sumAsyncNoCallbackInBody(Callback<Integer> callback) {
+            callback.accept(sum);
+        }
+
+        public void addAsync(int value, Callback<Integer> callback) {
+            callback.accept(sum + value);
+        }
+
+        public Promise<Integer> sumPromise() {
+            return Promises.invokablePromise(promise -> promise.resolve(sum));
+        }
+
+        public void fail() {
+            throw new IllegalStateException("fail");
+        }
+    }
+}
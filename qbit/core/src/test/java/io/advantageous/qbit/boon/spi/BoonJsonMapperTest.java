@@ -6,9 +6,13 @@ import io.advantageous.boon.json.JsonFactory;
 import io.advantageous.qbit.QBit;
 import org.junit.Test;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.Map;
 
 import static io.advantageous.boon.core.IO.puts;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
@@ -42,6 +46,60 @@ public class BoonJsonMapperTest {
 
     }
 
+    @Test
+    public void testFromJsonBytes() throws Exception {
+        Todo todo = new Todo();
+        todo.name = "caf\u00e9 \"todo\" \uD83D\uDE00\n";
+        Category category = new Category();
+        category.name = "\u7c7b\u522b";
+        todo.category = category;
+
+        BoonJsonMapper boonJsonMapper = new BoonJsonMapper();
+
+        final byte[] json = boonJsonMapper.toJson(todo).getBytes(StandardCharsets.UTF_8);
+
+        final Todo parsed = boonJsonMapper.fromJson(json, Todo.class);
+        assertEquals(todo.name, parsed.name);
+        assertEquals(category.name, parsed.category.name);
+
+        Map<String, Object> jsonMap = boonJsonMapper.fromJsonMap(json, String.class, Object.class);
+        assertEquals(category.name, BeanUtils.idxStr(jsonMap, "category.name"));
+
+        /* Raw UTF-8, the serializer above escapes non ASCII characters. */
+        final Todo raw = boonJsonMapper.fromJson("{\"name\":\"caf\u00e9 \uD83D\uDE00 \u7c7b\"}".getBytes(StandardCharsets.UTF_8), Todo.class);
+        assertEquals("caf\u00e9 \uD83D\uDE00 \u7c7b", raw.name);
+
+        final List<Integer> list = boonJsonMapper.fromJsonArray("[1, 2, 3]".getBytes(StandardCharsets.UTF_8), Integer.class);
+        assertEquals(Lists.list(1, 2, 3), list);
+
+        assertEquals(boonJsonMapper.fromJson(new String(json, StandardCharsets.UTF_8), Todo.class).name,
+                ((Map) boonJsonMapper.fromJson(json)).get("name").toString());
+    }
+
+    @Test
+    public void testToJsonBuffer() throws Exception {
+        BoonJsonMapper boonJsonMapper = new BoonJsonMapper();
+
+        for (String name : new String[]{"todo", "caf\u00e9 \u7c7b \uD83D\uDE00", "bad \uD83D surrogate"}) {
+            Todo todo = new Todo();
+            todo.name = name;
+
+            final ByteBuffer buffer = boonJsonMapper.toJsonBuffer(todo);
+            final byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            assertArrayEquals(boonJsonMapper.toJson(todo).getBytes(StandardCharsets.UTF_8), bytes);
+        }
+
+        /* Bigger than the starting buffer, with non ASCII text all the way to the end. */
+        final StringBuilder builder = new StringBuilder();
+        for (int index = 0; index < 5_000; index++) {
+            builder.append("\u738b\uD83D\uDE00");
+        }
+        final List<String> list = Lists.list("a", builder.toString());
+        final ByteBuffer buffer = boonJsonMapper.toJsonBuffer(list);
+        assertEquals(boonJsonMapper.toJson(list), StandardCharsets.UTF_8.decode(buffer).toString());
+    }
+
     @Test
     public void badSerializer() throws Exception {
 
@@ -0,0 +1,69 @@
+package io.advantageous.qbit.boon.spi;
+
+import io.advantageous.qbit.json.JsonMapper;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses a large JSON request body through the String path and the UTF-8 byte path and reports
+ * the time and the bytes allocated per parse.
+ * Run by hand, it is not a unit test.
+ */
+public class JsonBodyPerfMain {
+
+    public static void main(final String... args) {
+        final JsonMapper jsonMapper = new BoonJsonMapper();
+
+        final List<Order> orders = new ArrayList<>();
+        for (int index = 0; index < 12_000; index++) {
+            final Order order = new Order();
+            order.id = "order-" + index;
+            order.customer = "Customer Renee " + index;
+            order.amount = index * 1.25;
+            order.quantity = index % 17;
+            order.notes = "deliver to the loading dock, ring twice, \"fragile\" " + index;
+            orders.add(order);
+        }
+        final String json = jsonMapper.toJson(orders);
+
+        /* Clients send non ASCII text as raw UTF-8, the serializer here would escape it. */
+        final byte[] ascii = json.getBytes(StandardCharsets.UTF_8);
+        final byte[] utf8 = json.replace("Renee", "Ren\u00e9e \u738b").getBytes(StandardCharsets.UTF_8);
+
+        for (int round = 0; round < 5; round++) {
+            for (byte[] body : new byte[][]{ascii, utf8}) {
+                final String name = (body == ascii ? "ascii " : "utf-8 ") + body.length / 1024 + "K";
+                run(name + " string", 50, () -> jsonMapper.fromJsonArray(new String(body, StandardCharsets.UTF_8), Order.class));
+                run(name + " bytes ", 50, () -> jsonMapper.fromJsonArray(body, Order.class));
+            }
+        }
+    }
+
+    private static void run(final String name, final int iterations, final Runnable parse) {
+        final com.sun.management.ThreadMXBean threadMXBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long threadId = Thread.currentThread().getId();
+
+        final long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        final long start = System.nanoTime();
+        for (int index = 0; index < iterations; index++) {
+            parse.run();
+        }
+        final long duration = System.nanoTime() - start;
+        final long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        System.out.printf("%s: %.2f ms per parse, %,d bytes allocated per parse%n", name,
+                duration / 1_000_000.0 / iterations, allocated / iterations);
+    }
+
+    public static class Order {
+        String id;
+        String customer;
+        double amount;
+        int quantity;
+        String notes;
+    }
+}
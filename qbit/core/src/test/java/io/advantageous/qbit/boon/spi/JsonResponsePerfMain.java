@@ -0,0 +1,59 @@
+package io.advantageous.qbit.boon.spi;
+
+import io.advantageous.qbit.json.JsonMapper;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serializes a large list response to a String and then to bytes, the way HTTP responses used to be written,
+ * and to the pooled UTF-8 buffer, and reports the time and the bytes allocated per response.
+ * Run by hand, it is not a unit test.
+ */
+public class JsonResponsePerfMain {
+
+    public static void main(final String... args) {
+        final JsonMapper jsonMapper = new BoonJsonMapper();
+
+        final List<JsonBodyPerfMain.Order> orders = new ArrayList<>();
+        for (int index = 0; index < 12_000; index++) {
+            final JsonBodyPerfMain.Order order = new JsonBodyPerfMain.Order();
+            order.id = "order-" + index;
+            order.customer = "Customer " + index;
+            order.amount = index * 1.25;
+            order.quantity = index % 17;
+            order.notes = "deliver to the loading dock, ring twice, \"fragile\" " + index;
+            orders.add(order);
+        }
+        System.out.printf("response %,d bytes%n", jsonMapper.toJsonBuffer(orders).remaining());
+
+        final int[] sink = new int[1];
+        for (int round = 0; round < 5; round++) {
+            run("string", 50, () -> sink[0] += jsonMapper.toJson(orders).getBytes(StandardCharsets.UTF_8).length);
+            run("buffer", 50, () -> {
+                final ByteBuffer buffer = jsonMapper.toJsonBuffer(orders);
+                sink[0] += buffer.remaining();
+            });
+        }
+    }
+
+    private static void run(final String name, final int iterations, final Runnable serialize) {
+        final com.sun.management.ThreadMXBean threadMXBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long threadId = Thread.currentThread().getId();
+
+        final long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        final long start = System.nanoTime();
+        for (int index = 0; index < iterations; index++) {
+            serialize.run();
+        }
+        final long duration = System.nanoTime() - start;
+        final long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        System.out.printf("%s: %.2f ms per response, %,d bytes allocated per response%n", name,
+                duration / 1_000_000.0 / iterations, allocated / iterations);
+    }
+}
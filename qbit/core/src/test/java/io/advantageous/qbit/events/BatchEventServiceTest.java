@@ -0,0 +1,101 @@
+package io.advantageous.qbit.events;
+
+import io.advantageous.boon.core.Sys;
+import io.advantageous.qbit.annotation.Listen;
+import io.advantageous.qbit.service.ServiceBuilder;
+import io.advantageous.qbit.service.ServiceProxyUtils;
+import io.advantageous.qbit.service.ServiceQueue;
+import io.advantageous.qbit.system.QBitSystemManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BatchEventServiceTest {
+
+    private QBitSystemManager systemManager;
+    private ServiceQueue eventServiceQueue;
+    private TradeService tradeService;
+    private AuditService auditService;
+
+    @Before
+    public void setup() {
+        systemManager = new QBitSystemManager();
+
+        final EventManager eventManager = EventManagerBuilder.eventManagerBuilder().setName("batches").build();
+
+        eventServiceQueue = ServiceBuilder.serviceBuilder().setSystemManager(systemManager)
+                .setServiceObject(eventManager).build().startServiceQueue();
+
+        tradeService = new TradeService();
+        ServiceBuilder.serviceBuilder().setSystemManager(systemManager).setEventManager(eventManager)
+                .setServiceObject(tradeService).buildAndStartAll();
+
+        auditService = new AuditService();
+        ServiceBuilder.serviceBuilder().setSystemManager(systemManager).setEventManager(eventManager)
+                .setServiceObject(auditService).buildAndStartAll();
+    }
+
+    @After
+    public void cleanup() {
+        systemManager.shutDown();
+    }
+
+    @Test
+    public void testBatchListenerGetsListsAndSingleListenerGetsEveryEvent() {
+        final EventManager eventManager = eventServiceQueue.createProxy(EventManager.class);
+
+        for (int index = 0; index < 50; index++) {
+            eventManager.send("trades", "trade" + index);
+        }
+        ServiceProxyUtils.flushServiceProxy(eventManager);
+
+        for (int index = 0; index < 40 && (auditService.trades.size() < 50 || count(tradeService.batches) < 50); index++) {
+            Sys.sleep(50);
+        }
+
+        assertEquals(50, auditService.trades.size());
+        assertEquals(50, count(tradeService.batches));
+        assertTrue(tradeService.batches.size() < 50);
+
+        final List<String> inOrder = new ArrayList<>();
+        tradeService.batches.forEach(inOrder::addAll);
+        assertEquals("trade0", inOrder.get(0));
+        assertEquals("trade49", inOrder.get(49));
+        assertEquals(new ArrayList<>(auditService.trades), inOrder);
+    }
+
+    private static int count(final List<List<String>> batches) {
+        int count = 0;
+        for (List<String> batch : batches) {
+            count += batch.size();
+        }
+        return count;
+    }
+
+    public static class TradeService {
+
+        private final List<List<String>> batches = new CopyOnWriteArrayList<>();
+
+        @Listen(value = "trades", batch = true)
+        void tradeBatch(final List<String> trades) {
+            batches.add(new ArrayList<>(trades));
+        }
+    }
+
+    public static class AuditService {
+
+        private final List<String> trades = new CopyOnWriteArrayList<>();
+
+        @Listen("trades")
+        void trade(final String trade) {
+            trades.add(trade);
+        }
+    }
+}
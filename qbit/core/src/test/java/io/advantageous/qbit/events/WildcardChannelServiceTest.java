@@ -0,0 +1,79 @@
+package io.advantageous.qbit.events;
+
+import io.advantageous.boon.core.Sys;
+import io.advantageous.qbit.annotation.Listen;
+import io.advantageous.qbit.service.ServiceBuilder;
+import io.advantageous.qbit.service.ServiceProxyUtils;
+import io.advantageous.qbit.service.ServiceQueue;
+import io.advantageous.qbit.system.QBitSystemManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+
+import static org.junit.Assert.assertEquals;
+
+public class WildcardChannelServiceTest {
+
+    private QBitSystemManager systemManager;
+    private ServiceQueue eventServiceQueue;
+    private OrderService orderService;
+
+    @Before
+    public void setup() {
+        systemManager = new QBitSystemManager();
+
+        final EventManager eventManager = EventManagerBuilder.eventManagerBuilder().setName("wildcards").build();
+
+        eventServiceQueue = ServiceBuilder.serviceBuilder().setSystemManager(systemManager)
+                .setServiceObject(eventManager).build().startServiceQueue();
+
+        orderService = new OrderService();
+        ServiceBuilder.serviceBuilder().setSystemManager(systemManager).setEventManager(eventManager)
+                .setServiceObject(orderService).buildAndStartAll();
+    }
+
+    @After
+    public void cleanup() {
+        systemManager.shutDown();
+    }
+
+    @Test
+    public void testServiceListensOnWildcards() {
+        final EventManager eventManager = eventServiceQueue.createProxy(EventManager.class);
+
+        eventManager.send("orders.created", "order1");
+        eventManager.send("orders.eu.shipped", "order2");
+        eventManager.send("users.created", "user1");
+        ServiceProxyUtils.flushServiceProxy(eventManager);
+
+        for (int index = 0; index < 20 && orderService.events.size() < 4; index++) {
+            Sys.sleep(50);
+        }
+        Sys.sleep(100);
+
+        final List<String> events = new ArrayList<>(orderService.events);
+        Collections.sort(events);
+        assertEquals(Arrays.asList("any:order1", "any:order2", "any:user1", "one:order1"), events);
+    }
+
+    public static class OrderService {
+
+        private final ArrayBlockingQueue<String> events = new ArrayBlockingQueue<>(10);
+
+        @Listen("orders.*")
+        void orderEvent(final String body) {
+            events.add("one:" + body);
+        }
+
+        @Listen("#")
+        void anyEvent(final String body) {
+            events.add("any:" + body);
+        }
+    }
+}
@@ -26,6 +26,11 @@ import io.advantageous.qbit.message.Event;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 import static io.advantageous.boon.core.Exceptions.die;
 import static io.advantageous.boon.core.IO.puts;
 import static io.advantageous.qbit.events.EventUtils.callbackEventListener;
@@ -103,4 +108,61 @@ public class EventBusImplTest {
 
     }
 
-}
\ No newline at end of file
+
+    @Test
+    public void testSendBatch() {
+
+        final List<Integer> batchSizes = new ArrayList<>();
+
+        eventBus.register("rick", new EventSubscriber<Object>() {
+            @Override
+            public void listen(Event<Object> event) {
+                subscriberMessageCount++;
+            }
+
+            @Override
+            public void listenBatch(List<Event<Object>> events) {
+                batchSizes.add(events.size());
+            }
+        });
+
+        eventBus.register("rick", new EventSubscriber<Object>() {
+            @Override
+            public void listen(Event<Object> event) {
+                subscriberMessageCount++;
+            }
+        });
+
+        eventBus.register("rick", new EventConsumer<Object>() {
+            @Override
+            public void listen(Event<Object> event) {
+                consumerCount++;
+            }
+        });
+
+        eventBus.sendBatch("rick", Arrays.asList("a", "b", "c"));
+
+        ok = batchSizes.equals(Collections.singletonList(3)) || die(batchSizes);
+        ok = subscriberMessageCount == 3 || die(subscriberMessageCount);
+        ok = consumerCount == 3 || die(consumerCount);
+    }
+
+    @Test
+    public void testPatternMatchCacheIsBounded() {
+
+        eventBus.register("orders.*", new EventConsumer<Object>() {
+            @Override
+            public void listen(Event<Object> event) {
+                consumerCount++;
+            }
+        });
+
+        final int sends = EventBusImpl.MAX_PATTERN_MATCHES + 10;
+        for (int index = 0; index < sends; index++) {
+            eventBus.send("orders." + index, "order");
+        }
+
+        ok = consumerCount == sends || die(consumerCount);
+        ok = eventBusImpl.patternMatches.size() <= EventBusImpl.MAX_PATTERN_MATCHES || die(eventBusImpl.patternMatches.size());
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2015. Rick Hightower, Geoff Chandler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * QBit - The Microservice lib for Java : JSON, WebSocket, REST. Be The Web!
+ */
+
+package io.advantageous.qbit.events.impl;
+
+import io.advantageous.qbit.events.EventManagerBuilder;
+import io.advantageous.qbit.events.EventSubscriber;
+import io.advantageous.qbit.message.Event;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TopicTrieTest {
+
+    @Test
+    public void testIsPattern() {
+        assertTrue(TopicTrie.isPattern("orders.*"));
+        assertTrue(TopicTrie.isPattern("#"));
+        assertTrue(TopicTrie.isPattern("orders.#.created"));
+        assertFalse(TopicTrie.isPattern("orders.created"));
+        assertFalse(TopicTrie.isPattern("orders.*created"));
+        assertFalse(TopicTrie.isPattern("c#"));
+    }
+
+    @Test
+    public void testMatch() {
+        final TopicTrie<String> trie = new TopicTrie<>();
+        trie.put("orders.*", "one");
+        trie.put("orders.#", "any");
+        trie.put("orders.*.created", "created");
+        trie.put("#.created", "allCreated");
+        trie.put("#", "everything");
+
+        assertEquals(Arrays.asList("any", "everything", "one"), sorted(trie.match("orders.eu")));
+        assertEquals(Arrays.asList("allCreated", "any", "created", "everything"),
+                sorted(trie.match("orders.eu.created")));
+        assertEquals(Arrays.asList("any", "everything"), sorted(trie.match("orders")));
+        assertEquals(Arrays.asList("allCreated", "everything"), sorted(trie.match("created")));
+        assertEquals(Collections.singletonList("everything"), trie.match("users.eu"));
+
+        assertEquals("one", trie.remove("orders.*"));
+        assertEquals("any", trie.remove("orders.#"));
+        assertNull(trie.remove("orders.#"));
+        assertEquals(3, trie.size());
+        assertEquals(Collections.singletonList("everything"), trie.match("orders.eu"));
+        assertEquals("created", trie.get("orders.*.created"));
+    }
+
+    @Test
+    public void testEventBusDeliversToWildcards() {
+        final EventBusImpl eventBus = new EventBusImpl("wildcards",
+                EventManagerBuilder.DEFAULT_NO_EVENT_CONNECTOR,
+                EventManagerBuilder.DEFAULT_NO_STATS_COLLECTOR);
+
+        final List<String> received = new ArrayList<>();
+        final EventSubscriber<Object> wildcard = new EventSubscriber<Object>() {
+            @Override
+            public void listen(Event<Object> event) {
+                received.add("wildcard:" + event.channel());
+            }
+        };
+        eventBus.register("orders.*", wildcard);
+        eventBus.register("orders.created", new EventSubscriber<Object>() {
+            @Override
+            public void listen(Event<Object> event) {
+                received.add("exact:" + event.channel());
+            }
+        });
+
+        eventBus.send("orders.created", "a");
+        eventBus.send("orders.created", "b");
+        eventBus.send("orders.eu.created", "c");
+        eventBus.send("users.created", "d");
+        assertEquals(Arrays.asList("exact:orders.created", "wildcard:orders.created",
+                "exact:orders.created", "wildcard:orders.created"), received);
+
+        /* A new wildcard channel is seen by channels that were already resolved. */
+        eventBus.register("#.created", new EventSubscriber<Object>() {
+            @Override
+            public void listen(Event<Object> event) {
+                received.add("all:" + event.channel());
+            }
+        });
+        received.clear();
+        eventBus.send("orders.created", "e");
+        assertEquals(Arrays.asList("all:orders.created", "exact:orders.created", "wildcard:orders.created"),
+                sorted(received));
+
+        eventBus.unregister("orders.*", wildcard);
+        received.clear();
+        eventBus.send("orders.created", "f");
+        assertEquals(Arrays.asList("exact:orders.created", "all:orders.created"), received);
+    }
+
+    private static List<String> sorted(final List<String> values) {
+        final List<String> copy = new ArrayList<>(values);
+        Collections.sort(copy);
+        return copy;
+    }
+}
@@ -0,0 +1,162 @@
+package io.advantageous.qbit.events.journal;
+
+import io.advantageous.boon.core.Sys;
+import io.advantageous.qbit.events.EventListener;
+import io.advantageous.qbit.events.EventManager;
+import io.advantageous.qbit.events.EventManagerBuilder;
+import io.advantageous.qbit.events.impl.EventConnectorHub;
+import io.advantageous.qbit.events.spi.EventTransferObject;
+import io.advantageous.qbit.message.Event;
+import io.advantageous.qbit.service.ServiceBuilder;
+import io.advantageous.qbit.service.ServiceProxyUtils;
+import io.advantageous.qbit.service.ServiceQueue;
+import io.advantageous.qbit.system.QBitSystemManager;
+import io.advantageous.qbit.util.TestTimer;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class EventJournalConnectorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private EventJournalConnector connector;
+    private List<Integer> batchSizes;
+    private List<Event<Object>> received;
+
+    @Before
+    public void setup() throws Exception {
+        connector = EventJournalBuilder.eventJournalBuilder().setDirectory(folder.newFolder("journal"))
+                .setSegmentSize(1024).setBatchSize(10).setTimer(new TestTimer()).addChannel("orders").build();
+        batchSizes = new ArrayList<>();
+        received = new ArrayList<>();
+    }
+
+    private EventListener<Object> listener() {
+        return new EventListener<Object>() {
+            @Override
+            public void listen(Event<Object> event) {
+                batchSizes.add(1);
+                received.add(event);
+            }
+
+            @Override
+            public void listenBatch(List<Event<Object>> events) {
+                batchSizes.add(events.size());
+                received.addAll(events);
+            }
+        };
+    }
+
+    private void send(final String channel, final Object body) {
+        connector.forwardEvent(new EventTransferObject<>(body, 0, channel));
+    }
+
+    @Test
+    public void testCatchUpInBatchesThenLive() {
+        for (int index = 0; index < 25; index++) {
+            send("orders", "order" + index);
+        }
+        send("users", "user1");
+
+        final JournalSubscription subscription = connector.subscribe("orders", JournalSubscription.EARLIEST, listener());
+
+        connector.flush();
+        connector.flush();
+        assertFalse(subscription.live());
+        connector.flush();
+        assertTrue(subscription.live());
+        assertEquals(25, subscription.offset());
+
+        final Object liveBody = "order25";
+        send("orders", liveBody);
+        send("orders", "order26");
+        connector.flush();
+        connector.flush();
+
+        assertEquals(4, batchSizes.size());
+        assertEquals(Integer.valueOf(10), batchSizes.get(0));
+        assertEquals(Integer.valueOf(5), batchSizes.get(2));
+        assertEquals(Integer.valueOf(2), batchSizes.get(3));
+        assertEquals(27, received.size());
+        for (int index = 0; index < received.size(); index++) {
+            assertEquals(index, received.get(index).id());
+            assertEquals("order" + index, received.get(index).body().toString());
+        }
+        assertSame(liveBody, received.get(25).body());
+    }
+
+    @Test
+    public void testLatestAndOffsetAndCancel() {
+        for (int index = 0; index < 5; index++) {
+            send("orders", "order" + index);
+        }
+        final List<Event<Object>> fromThree = new ArrayList<>();
+        connector.subscribe("orders", 3, fromThree::add);
+        final JournalSubscription latest = connector.subscribe("orders", JournalSubscription.LATEST, listener());
+        connector.flush();
+
+        send("orders", "order5");
+        connector.flush();
+
+        assertEquals(3, fromThree.size());
+        assertEquals(3, fromThree.get(0).id());
+        assertEquals(1, received.size());
+        assertEquals(5, received.get(0).id());
+
+        latest.cancel();
+        send("orders", "order6");
+        connector.flush();
+        assertEquals(1, received.size());
+        assertEquals(4, fromThree.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSubscribeToChannelThatIsNotJournaled() {
+        connector.subscribe("users", JournalSubscription.EARLIEST, listener());
+    }
+
+    @Test
+    public void testReplayEventsSentThroughEventManager() {
+        final QBitSystemManager systemManager = new QBitSystemManager();
+        try {
+            final EventConnectorHub hub = new EventConnectorHub();
+            hub.add(connector);
+            final EventManager eventManager = EventManagerBuilder.eventManagerBuilder().setName("journaled")
+                    .setEventConnector(hub).build();
+            final ServiceQueue serviceQueue = ServiceBuilder.serviceBuilder().setSystemManager(systemManager)
+                    .setServiceObject(eventManager).buildAndStartAll();
+            final EventManager proxy = serviceQueue.createProxy(EventManager.class);
+
+            for (int index = 0; index < 30; index++) {
+                proxy.send("orders", "order" + index);
+            }
+            ServiceProxyUtils.flushServiceProxy(proxy);
+
+            Sys.sleep(250);
+
+            final List<Event<Object>> replayed = new CopyOnWriteArrayList<>();
+            connector.subscribe("orders", JournalSubscription.EARLIEST, replayed::add);
+            for (int index = 0; index < 40 && replayed.size() < 30; index++) {
+                Sys.sleep(50);
+            }
+
+            assertEquals(30, replayed.size());
+            assertEquals("order0", replayed.get(0).body().toString());
+            assertEquals("order29", replayed.get(29).body().toString());
+        } finally {
+            systemManager.shutDown();
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package io.advantageous.qbit.events.journal;
+
+import io.advantageous.qbit.message.Event;
+import io.advantageous.qbit.time.Duration;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class EventJournalTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private EventJournal open(final File directory, final long retentionBytes, final Duration retentionTime) {
+        return EventJournalBuilder.eventJournalBuilder().setDirectory(directory).setSegmentSize(1024)
+                .setRetentionBytes(retentionBytes).setRetentionTime(retentionTime)
+                .addChannel("orders").buildJournal();
+    }
+
+    @Test
+    public void testReadBackAfterRestart() throws Exception {
+        final File directory = folder.newFolder("journal");
+        EventJournal journal = open(directory, Long.MAX_VALUE, Duration.NEVER);
+
+        for (int index = 0; index < 100; index++) {
+            assertEquals(index, journal.append("orders", "order" + index, 0));
+        }
+        assertEquals(-1, journal.append("users", "user1", 0));
+        assertFalse(journal.journaled("users"));
+        assertTrue(journal.segmentCount("orders") > 1);
+        journal.close();
+
+        journal = open(directory, Long.MAX_VALUE, Duration.NEVER);
+        assertEquals(0, journal.earliestOffset("orders"));
+        assertEquals(100, journal.nextOffset("orders"));
+
+        final List<Event<Object>> events = journal.read("orders", 40, 30);
+        assertEquals(30, events.size());
+        for (int index = 0; index < events.size(); index++) {
+            assertEquals(40 + index, events.get(index).id());
+            assertEquals("order" + (40 + index), events.get(index).body().toString());
+            assertEquals("orders", events.get(index).channel());
+        }
+
+        assertEquals(100, journal.append("orders", "order100", 0));
+        assertEquals("order100", journal.read("orders", 100, 10).get(0).body().toString());
+    }
+
+    @Test
+    public void testBodiesComeBackAsJson() throws Exception {
+        final EventJournal journal = open(folder.newFolder("journal"), Long.MAX_VALUE, Duration.NEVER);
+
+        journal.append("orders", new Order("order1", 3), 0);
+
+        final Object body = journal.read("orders", 0, 1).get(0).body();
+        assertTrue(body instanceof Map);
+        assertEquals("order1", ((Map) body).get("id").toString());
+        assertEquals(3, ((Number) ((Map) body).get("quantity")).intValue());
+    }
+
+    @Test
+    public void testRetentionBySize() throws Exception {
+        final EventJournal journal = open(folder.newFolder("journal"), 2048, Duration.NEVER);
+
+        for (int index = 0; index < 500; index++) {
+            journal.append("orders", "order" + index, 0);
+        }
+        assertTrue(journal.segmentCount("orders") > 2);
+
+        assertTrue(journal.retain(0) > 0);
+        assertEquals(2, journal.segmentCount("orders"));
+
+        final long earliest = journal.earliestOffset("orders");
+        assertTrue(earliest > 0);
+        final List<Event<Object>> events = journal.read("orders", 0, 1);
+        assertEquals(earliest, events.get(0).id());
+        assertEquals("order" + earliest, events.get(0).body().toString());
+    }
+
+    @Test
+    public void testRetentionByTime() throws Exception {
+        final EventJournal journal = open(folder.newFolder("journal"), Long.MAX_VALUE, Duration.seconds(10));
+
+        for (int index = 0; index < 200; index++) {
+            journal.append("orders", "order" + index, index < 100 ? 1_000 : 20_000);
+        }
+        final int segments = journal.segmentCount("orders");
+
+        assertEquals(0, journal.retain(5_000));
+        assertEquals(segments, journal.segmentCount("orders"));
+
+        assertTrue(journal.retain(15_000) > 0);
+        assertTrue(journal.earliestOffset("orders") > 0);
+        assertTrue(journal.earliestOffset("orders") <= 100);
+    }
+
+    @Test
+    public void testTornRecordInMiddleSegment() throws Exception {
+        final File directory = folder.newFolder("journal");
+        EventJournal journal = open(directory, Long.MAX_VALUE, Duration.NEVER);
+        for (int index = 0; index < 100; index++) {
+            journal.append("orders", "order" + index, 0);
+        }
+        assertTrue(journal.segmentCount("orders") > 2);
+        journal.close();
+
+        /* Flip a body byte of the third record of the second segment. */
+        final File[] segmentFiles = directory.listFiles()[0].listFiles();
+        Arrays.sort(segmentFiles);
+        final long tornOffset;
+        try (RandomAccessFile file = new RandomAccessFile(segmentFiles[1], "rw")) {
+            long position = 0;
+            for (int record = 0; record < 2; record++) {
+                file.seek(position);
+                position += 16 + file.readInt();
+            }
+            file.seek(position + 16);
+            final int body = file.read();
+            file.seek(position + 16);
+            file.write(body ^ 0xFF);
+            tornOffset = Long.parseLong(segmentFiles[1].getName().replace(".log", "")) + 2;
+        }
+        final long nextSegmentOffset = Long.parseLong(segmentFiles[2].getName().replace(".log", ""));
+
+        journal = open(directory, Long.MAX_VALUE, Duration.NEVER);
+        assertEquals(100, journal.nextOffset("orders"));
+
+        final List<Event<Object>> events = journal.read("orders", 0, 200);
+        assertEquals(100 - (nextSegmentOffset - tornOffset), events.size());
+        long expected = 0;
+        for (Event<Object> event : events) {
+            if (expected == tornOffset) {
+                expected = nextSegmentOffset;
+            }
+            assertEquals(expected, event.id());
+            assertEquals("order" + expected, event.body().toString());
+            expected++;
+        }
+
+        /* A read starting in the lost offsets goes on with the next segment. */
+        assertEquals(nextSegmentOffset, journal.read("orders", tornOffset, 1).get(0).id());
+    }
+
+    public static class Order {
+        final String id;
+        final int quantity;
+
+        Order(final String id, final int quantity) {
+            this.id = id;
+            this.quantity = quantity;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package io.advantageous.qbit.http.server;
+
+import io.advantageous.qbit.http.request.HttpBinaryResponse;
+import io.advantageous.qbit.http.request.HttpResponse;
+import io.advantageous.qbit.http.request.decorator.HttpResponseDecorator;
+import io.advantageous.qbit.http.request.decorator.HttpTextResponseHolder;
+import io.advantageous.qbit.http.request.impl.HttpResponseCreatorDefault;
+import io.advantageous.qbit.service.stats.StatsCollector;
+import io.advantageous.qbit.util.GzipUtils;
+import io.advantageous.qbit.util.MultiMap;
+import io.advantageous.qbit.util.MultiMapImpl;
+import io.advantageous.qbit.util.TestTimer;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.Inflater;
+
+import static org.junit.Assert.*;
+
+public class CompressionResponseDecoratorTest {
+
+    private final HttpResponseCreatorDefault creator = new HttpResponseCreatorDefault();
+    private final Map<String, Long> stats = new ConcurrentHashMap<>();
+    private final TestTimer timer = new TestTimer();
+    private CopyOnWriteArrayList<HttpResponseDecorator> decorators;
+    private String json;
+
+    @Before
+    public void setup() {
+        timer.setTime();
+        decorators = new CopyOnWriteArrayList<>();
+        decorators.add(CompressionSupportBuilder.compressionSupportBuilder().setCacheSize(10).setTimer(timer)
+                .setStatsCollector(new StatsCollector() {
+                    @Override
+                    public void increment(final String name) {
+                        recordCount(name, 1);
+                    }
+
+                    @Override
+                    public void recordCount(final String name, final long count) {
+                        stats.merge(name, count, Long::sum);
+                    }
+
+                    @Override
+                    public void recordLevel(final String name, final long level) {
+                        stats.put(name, level);
+                    }
+
+                    @Override
+                    public void recordTiming(final String name, final long duration) {
+                        stats.put(name, duration);
+                    }
+                }).buildResponseDecorator());
+
+        final StringBuilder builder = new StringBuilder("[");
+        for (int index = 0; index < 500; index++) {
+            builder.append(index == 0 ? "" : ",").append("{\"id\":").append(index).append(",\"name\":\"employee ")
+                    .append(index).append("\",\"dept\":\"engineering\"}");
+        }
+        json = builder.append(']').toString();
+    }
+
+    private HttpResponse<?> respond(final String acceptEncoding, final String contentType, final String body,
+                                    final MultiMap<String, String> responseHeaders) {
+        return respond("/services/employees", acceptEncoding, contentType, body, responseHeaders);
+    }
+
+    private HttpResponse<?> respond(final String path, final String acceptEncoding, final String contentType,
+                                    final String body, final MultiMap<String, String> responseHeaders) {
+        final MultiMap<String, String> requestHeaders = new MultiMapImpl<>();
+        if (acceptEncoding != null) {
+            requestHeaders.put("Accept-Encoding", acceptEncoding);
+        }
+        return creator.createResponse(decorators, path, "GET", 200, contentType, body,
+                responseHeaders, requestHeaders, MultiMap.empty());
+    }
+
+    @Test
+    public void testNegotiate() {
+        assertEquals("gzip", CompressionResponseDecorator.negotiate("gzip, deflate, br"));
+        assertEquals("deflate", CompressionResponseDecorator.negotiate("deflate"));
+        assertEquals("deflate", CompressionResponseDecorator.negotiate("gzip;q=0.5, deflate;q=0.8"));
+        assertEquals("gzip", CompressionResponseDecorator.negotiate("*"));
+        assertEquals("deflate", CompressionResponseDecorator.negotiate("gzip;q=0, *"));
+        assertNull(CompressionResponseDecorator.negotiate("identity"));
+        assertNull(CompressionResponseDecorator.negotiate("gzip;q=0"));
+        assertNull(CompressionResponseDecorator.negotiate(null));
+    }
+
+    @Test
+    public void testGzip() throws Exception {
+        final HttpBinaryResponse response = (HttpBinaryResponse) respond("gzip, deflate", "application/json", json, MultiMap.empty());
+
+        assertEquals("gzip", response.headers().getFirst("Content-Encoding"));
+        assertEquals("Accept-Encoding", response.headers().getFirst("Vary"));
+        assertEquals("application/json", response.contentType());
+        assertTrue(response.body().length < json.length() / 4);
+        assertEquals(json, GzipUtils.decode(response.body()));
+    }
+
+    @Test
+    public void testDeflate() throws Exception {
+        final HttpBinaryResponse response = (HttpBinaryResponse) respond("deflate", "application/json", json, MultiMap.empty());
+        assertEquals("deflate", response.headers().getFirst("Content-Encoding"));
+
+        final Inflater inflater = new Inflater();
+        inflater.setInput(response.body());
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[4096];
+        while (!inflater.finished()) {
+            out.write(buffer, 0, inflater.inflate(buffer));
+        }
+        assertEquals(json, new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testNotCompressed() {
+        assertNull(respond(null, "application/json", json, MultiMap.empty()));
+        assertNull(respond("gzip", "application/json", "\"small\"", MultiMap.empty()));
+        assertNull(respond("gzip", "image/png", json, MultiMap.empty()));
+
+        final MultiMap<String, String> encoded = new MultiMapImpl<>();
+        encoded.put("Content-Encoding", "br");
+        assertNull(respond("gzip", "application/json", json, encoded));
+    }
+
+    @Test
+    public void testHeaderDecoratorBeforeKeepsChainGoing() throws Exception {
+        decorators.add(0, headerDecorator(false));
+
+        final HttpBinaryResponse response = (HttpBinaryResponse) respond("gzip", "application/json", json, new MultiMapImpl<>());
+        assertEquals("*", response.headers().getFirst("Access-Control-Allow-Origin"));
+        assertEquals(json, GzipUtils.decode(response.body()));
+    }
+
+    @Test
+    public void testDecoratorReturningTrueEndsChain() throws Exception {
+        decorators.add(0, headerDecorator(true));
+
+        assertNull(respond("gzip", "application/json", json, new MultiMapImpl<>()));
+        assertNull(stats.get("http.compression.responses"));
+    }
+
+    private static HttpResponseDecorator headerDecorator(final boolean endChain) {
+        return new HttpResponseDecorator() {
+            @Override
+            public boolean decorateTextResponse(HttpTextResponseHolder responseHolder, String requestPath,
+                                                String requestMethod, int code, String contentType, String payload,
+                                                MultiMap<String, String> responseHeaders,
+                                                MultiMap<String, String> requestHeaders,
+                                                MultiMap<String, String> requestParams) {
+                responseHeaders.put("Access-Control-Allow-Origin", "*");
+                return endChain;
+            }
+        };
+    }
+
+    @Test
+    public void testCacheByETagAndStats() throws Exception {
+        final MultiMap<String, String> headers = new MultiMapImpl<>();
+        headers.put("ETag", "\"v1\"");
+
+        final HttpBinaryResponse first = (HttpBinaryResponse) respond("gzip", "application/json", json, headers);
+        final HttpBinaryResponse second = (HttpBinaryResponse) respond("gzip", "application/json", json, headers);
+        assertSame(first.body(), second.body());
+
+        /* Each encoding has its own entry. */
+        final HttpBinaryResponse deflated = (HttpBinaryResponse) respond("deflate", "application/json", json, headers);
+        assertNotSame(first.body(), deflated.body());
+
+        timer.seconds(2);
+        respond("gzip", "application/json", json, headers);
+
+        assertEquals(4L, (long) stats.get("http.compression.responses"));
+        assertEquals(2L, (long) stats.get("http.compression.cache.hits"));
+        assertEquals(json.length() * 4L, (long) stats.get("http.compression.bytes.in"));
+        assertTrue(stats.get("http.compression.ratio") < 25);
+        assertNotNull(stats.get("http.compression.cpu.micros"));
+        assertEquals(json, GzipUtils.decode(second.body()));
+    }
+
+    @Test
+    public void testCacheKeyIncludesPath() throws Exception {
+        final MultiMap<String, String> headers = new MultiMapImpl<>();
+        headers.put("ETag", "\"v1\"");
+
+        /* Same ETag and same length, different resources. */
+        final String other = json.replace("engineering", "accounting!");
+        assertEquals(json.length(), other.length());
+
+        final HttpBinaryResponse employees = (HttpBinaryResponse) respond("/services/employees", "gzip",
+                "application/json", json, headers);
+        final HttpBinaryResponse departments = (HttpBinaryResponse) respond("/services/departments", "gzip",
+                "application/json", other, headers);
+
+        assertEquals(json, GzipUtils.decode(employees.body()));
+        assertEquals(other, GzipUtils.decode(departments.body()));
+
+        /* Each path has its own entry, only the repeat of one is a hit. */
+        timer.seconds(2);
+        final HttpBinaryResponse again = (HttpBinaryResponse) respond("/services/departments", "gzip",
+                "application/json", other, headers);
+        assertSame(departments.body(), again.body());
+        assertEquals(1L, (long) stats.get("http.compression.cache.hits"));
+    }
+}
@@ -0,0 +1,98 @@
+package io.advantageous.qbit.kvstore;
+
+import io.advantageous.qbit.reactive.Callback;
+import io.advantageous.qbit.util.TestTimer;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.Assert.*;
+
+public class LocalKeyValueStoreServiceBulkTest {
+
+    private TestTimer timer;
+    private List<Collection<String>> batchReads;
+    private List<Collection<String>> batchDeletes;
+    private LocalKeyValueStoreService<String> service;
+
+    @Before
+    public void setup() {
+        timer = new TestTimer();
+        timer.setTime();
+        batchReads = new ArrayList<>();
+        batchDeletes = new ArrayList<>();
+
+        //noinspection unchecked
+        service = LocalKeyValueStoreServiceBuilder
+                .localKeyValueStoreServiceBuilder(String.class)
+                .setTimer(timer)
+                .setFallbackReader(new FallbackReader<String>() {
+                    @Override
+                    public void get(Callback<Optional<String>> callback, String key) {
+                        fail("reads must be batched");
+                    }
+
+                    @Override
+                    public void getAll(Callback<Map<String, String>> callback, Collection<String> keys) {
+                        batchReads.add(keys);
+                        final Map<String, String> found = new LinkedHashMap<>();
+                        keys.stream().filter(key -> key.startsWith("remote")).forEach(key -> found.put(key, "fromRemote"));
+                        callback.resolve(found);
+                    }
+                })
+                .setWriteBehindWriter(new WriteBehindWriter<String>() {
+                    @Override
+                    public void deleteBatch(Collection<String> keys) {
+                        batchDeletes.add(keys);
+                    }
+                })
+                .build();
+        service.process();
+    }
+
+    @Test
+    public void testGetAllReadsMissesInOneBatch() {
+        final Map<String, String> values = new LinkedHashMap<>();
+        final Map<String, String> puts = new LinkedHashMap<>();
+        puts.put("local1", "one");
+        puts.put("local2", "two");
+        service.putAll(puts);
+
+        service.getAll(values::putAll, Arrays.asList("local1", "remote1", "local2", "remote2", "missing"));
+        service.process();
+
+        assertEquals(1, batchReads.size());
+        assertEquals(Arrays.asList("remote1", "remote2", "missing"), batchReads.get(0));
+        assertEquals(4, values.size());
+        assertEquals("one", values.get("local1"));
+        assertEquals("fromRemote", values.get("remote2"));
+
+        /* All local, no read. */
+        values.clear();
+        service.getAll(values::putAll, Arrays.asList("local1", "local2"));
+        assertEquals(1, batchReads.size());
+        assertEquals(2, values.size());
+    }
+
+    @Test
+    public void testDeleteAll() {
+        final Map<String, String> values = new LinkedHashMap<>();
+        service.put("local1", "one");
+        service.put("local2", "two");
+
+        service.deleteAll(Arrays.asList("local1", "local2"));
+        assertEquals(1, batchDeletes.size());
+
+        service.getAll(values::putAll, Arrays.asList("local1", "local2"));
+        service.process();
+        assertTrue(values.isEmpty());
+        assertEquals(Arrays.asList("local1", "local2"), batchReads.get(0));
+    }
+}
@@ -0,0 +1,191 @@
+package io.advantageous.qbit.kvstore;
+
+import io.advantageous.boon.core.Sys;
+import io.advantageous.qbit.events.EventManager;
+import io.advantageous.qbit.events.EventManagerBuilder;
+import io.advantageous.qbit.events.spi.EventTransferObject;
+import io.advantageous.qbit.reactive.Callback;
+import io.advantageous.qbit.reactive.ReactorBuilder;
+import io.advantageous.qbit.service.ServiceBuilder;
+import io.advantageous.qbit.service.ServiceQueue;
+import io.advantageous.qbit.service.stats.StatsCollector;
+import io.advantageous.qbit.time.Duration;
+import io.advantageous.qbit.util.TestTimer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class LocalKeyValueStoreServiceInvalidationTest {
+
+    private ServiceQueue eventServiceQueue;
+    private TestTimer timer;
+    private AtomicInteger backendReads;
+    private LocalKeyValueStoreService<String> nodeA;
+    private LocalKeyValueStoreService<String> nodeB;
+    private AtomicInteger receivedA;
+    private AtomicInteger receivedB;
+
+    @Before
+    public void setup() {
+        eventServiceQueue = ServiceBuilder.serviceBuilder()
+                .setServiceObject(EventManagerBuilder.eventManagerBuilder().setName("invalidation").build())
+                .buildAndStartAll();
+        timer = new TestTimer();
+        timer.setTime();
+        backendReads = new AtomicInteger();
+        receivedA = new AtomicInteger();
+        receivedB = new AtomicInteger();
+        nodeA = build(receivedA);
+        nodeB = build(receivedB);
+    }
+
+    @After
+    public void tearDown() {
+        eventServiceQueue.stop();
+    }
+
+    private LocalKeyValueStoreService<String> build(final AtomicInteger received) {
+        //noinspection unchecked
+        final LocalKeyValueStoreService<String> service = LocalKeyValueStoreServiceBuilder
+                .localKeyValueStoreServiceBuilder(String.class)
+                .setTimer(timer)
+                .setReactor(ReactorBuilder.reactorBuilder().setTimer(timer).build())
+                .setWriteBehindBatchSize(1)
+                .setFallbackReader(new FallbackReader<String>() {
+                    @Override
+                    public void get(Callback<Optional<String>> callback, String key) {
+                        backendReads.incrementAndGet();
+                        callback.resolve(Optional.of("fromBackend"));
+                    }
+                })
+                .setInvalidationEventManager(eventServiceQueue.createProxy(EventManager.class))
+                .setInvalidationChannel("test.kv.invalidate")
+                .setInvalidationBatchInterval(Duration.HUNDRED_MILLIS)
+                .setStatsCollector(new StatsCollector() {
+                    @Override
+                    public void increment(String name) {
+                    }
+
+                    @Override
+                    public void recordCount(String name, long count) {
+                        if (name.endsWith("invalidationsReceived")) {
+                            received.addAndGet((int) count);
+                        }
+                    }
+
+                    @Override
+                    public void recordLevel(String name, long level) {
+                    }
+
+                    @Override
+                    public void recordTiming(String name, long duration) {
+                    }
+                })
+                .build();
+        service.process();
+        return service;
+    }
+
+    private void waitForInvalidations(final LocalKeyValueStoreService<String> service,
+                                      final AtomicInteger received,
+                                      final int count) {
+        for (int index = 0; index < 100 && received.get() < count; index++) {
+            Sys.sleep(20);
+            service.process();
+        }
+        assertEquals(count, received.get());
+    }
+
+    private String get(final LocalKeyValueStoreService<String> service, final String key) {
+        final List<String> values = new ArrayList<>();
+        service.get(value -> values.add(value.orElse(null)), key);
+        service.process();
+        assertEquals(1, values.size());
+        return values.get(0);
+    }
+
+    @Test
+    public void testPeerCacheIsInvalidated() {
+        nodeA.put("key", "one");
+        nodeB.put("key", "one");
+        nodeB.put("other", "kept");
+
+        /* Each store gets the other store's first batch. */
+        timer.ms(200);
+        nodeA.process();
+        nodeB.process();
+        waitForInvalidations(nodeA, receivedA, 2);
+        waitForInvalidations(nodeB, receivedB, 1);
+
+        nodeA.put("key", "two");
+        nodeB.put("key", "one");
+        assertEquals("one", get(nodeB, "key"));
+
+        /* Only publish from A. */
+        timer.ms(200);
+        nodeA.process();
+        waitForInvalidations(nodeB, receivedB, 2);
+
+        assertEquals("fromBackend", get(nodeB, "key"));
+        assertEquals(1, backendReads.get());
+        assertEquals("kept", get(nodeB, "other"));
+
+        /* A store ignores its own events. */
+        assertEquals("two", get(nodeA, "key"));
+    }
+
+    @Test
+    public void testTooManyReceivedKeysDropsWholeCache() {
+        final KeyInvalidationChannel channel = new KeyInvalidationChannel(eventServiceQueue.createProxy(EventManager.class),
+                "test.kv.overflow", Duration.HUNDRED_MILLIS, 2, 3);
+        final List<String> dropped = new ArrayList<>();
+        final AtomicInteger droppedAll = new AtomicInteger();
+
+        channel.listen(new EventTransferObject<>(new KeyInvalidationEvent("other", Arrays.asList("a", "b")), 1, "test"));
+        channel.listen(new EventTransferObject<>(new KeyInvalidationEvent("other", Arrays.asList("c", "d")), 2, "test"));
+        channel.listen(new EventTransferObject<>(new KeyInvalidationEvent("other", Arrays.asList("e")), 3, "test"));
+
+        assertEquals(4, channel.drain(dropped::add, droppedAll::incrementAndGet));
+        assertTrue(dropped.isEmpty());
+        assertEquals(1, droppedAll.get());
+
+        /* Queued again once drained. */
+        channel.listen(new EventTransferObject<>(new KeyInvalidationEvent("other", Arrays.asList("f")), 4, "test"));
+        assertEquals(1, channel.drain(dropped::add, droppedAll::incrementAndGet));
+        assertEquals(Arrays.asList("f"), dropped);
+        assertEquals(1, droppedAll.get());
+
+        channel.unregister();
+    }
+
+    @Test
+    public void testUnregisteredChannelReceivesNothing() {
+        final EventManager eventManager = eventServiceQueue.createProxy(EventManager.class);
+        final KeyInvalidationChannel sender = new KeyInvalidationChannel(eventManager,
+                "test.kv.unregister", Duration.HUNDRED_MILLIS, 10);
+        final KeyInvalidationChannel removed = new KeyInvalidationChannel(eventManager,
+                "test.kv.unregister", Duration.HUNDRED_MILLIS, 10);
+        final KeyInvalidationChannel kept = new KeyInvalidationChannel(eventManager,
+                "test.kv.unregister", Duration.HUNDRED_MILLIS, 10);
+
+        removed.unregister();
+        sender.keyChanged("key");
+        sender.publish();
+
+        final List<String> keys = new ArrayList<>();
+        for (int index = 0; index < 100 && keys.isEmpty(); index++) {
+            Sys.sleep(20);
+            kept.drain(keys::add, () -> fail("not overflowed"));
+        }
+        assertEquals(Arrays.asList("key"), keys);
+        assertEquals(0, removed.drain(key -> fail("unregistered"), () -> fail("unregistered")));
+    }
+}
@@ -0,0 +1,158 @@
+package io.advantageous.qbit.kvstore;
+
+import io.advantageous.qbit.reactive.Callback;
+import io.advantageous.qbit.time.Duration;
+import io.advantageous.qbit.util.TestTimer;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.Assert.*;
+
+public class LocalKeyValueStoreServiceReadCollapseTest {
+
+    private TestTimer timer;
+    private RecordingReader reader;
+
+    @Before
+    public void setup() {
+        timer = new TestTimer();
+        timer.setTime();
+        reader = new RecordingReader();
+    }
+
+    private LocalKeyValueStoreService<String> build(final Duration negativeCacheTTL) {
+        //noinspection unchecked
+        final LocalKeyValueStoreService<String> service = LocalKeyValueStoreServiceBuilder
+                .localKeyValueStoreServiceBuilder(String.class)
+                .setTimer(timer)
+                .setFallbackReader(reader)
+                .setWriteBehindBatchSize(1)
+                .setNegativeCacheTTL(negativeCacheTTL)
+                .build();
+        service.process();
+        return service;
+    }
+
+    @Test
+    public void testConcurrentMissesShareOneRead() {
+        final LocalKeyValueStoreService<String> service = build(Duration.NEVER);
+        final List<Optional<String>> results = new ArrayList<>();
+
+        for (int index = 0; index < 100; index++) {
+            service.get(results::add, "hot");
+        }
+        service.get(results::add, "cold");
+
+        assertEquals(2, reader.reads.size());
+        reader.resolve("hot", "value");
+        reader.resolve("cold", null);
+        service.process();
+
+        assertEquals(101, results.size());
+        assertEquals(100, results.stream().filter(Optional::isPresent).count());
+
+        /* No negative caching, the miss reads again. */
+        service.get(results::add, "cold");
+        assertEquals(1, reader.reads.size());
+    }
+
+    @Test
+    public void testNegativeCache() {
+        final LocalKeyValueStoreService<String> service = build(Duration.SECOND);
+        final List<Optional<String>> results = new ArrayList<>();
+        final List<Boolean> hasKey = new ArrayList<>();
+
+        service.get(results::add, "missing");
+        reader.resolve("missing", null);
+        service.process();
+
+        service.get(results::add, "missing");
+        service.hasKey(hasKey::add, "missing");
+        assertTrue(reader.reads.isEmpty());
+        assertEquals(2, results.size());
+        assertEquals(false, hasKey.get(0));
+
+        /* A put forgets the miss. */
+        service.put("missing", "found");
+        service.get(results::add, "missing");
+        assertEquals("found", results.get(2).get());
+        service.delete("missing");
+
+        timer.seconds(2);
+        service.process();
+        service.get(results::add, "missing");
+        assertEquals(1, reader.reads.size());
+    }
+
+    @Test
+    public void testGetAllJoinsOutstandingReads() {
+        final LocalKeyValueStoreService<String> service = build(Duration.NEVER);
+        final List<Optional<String>> results = new ArrayList<>();
+        final List<Map<String, String>> all = new ArrayList<>();
+
+        service.get(results::add, "hot");
+        service.getAll(all::add, Arrays.asList("hot", "other"));
+
+        assertEquals(1, reader.reads.size());
+        assertEquals(1, reader.batchReads.size());
+        assertEquals(Arrays.asList("other"), reader.batchReads.get(0).keys);
+
+        /* The batch is back but the joined read of hot is not. */
+        reader.resolveBatch("other", "otherValue");
+        service.process();
+        assertTrue(all.isEmpty());
+
+        reader.resolve("hot", "value");
+        service.process();
+
+        assertEquals("value", results.get(0).get());
+        assertEquals(1, all.size());
+        assertEquals("value", all.get(0).get("hot"));
+        assertEquals("otherValue", all.get(0).get("other"));
+    }
+
+    private static class RecordingReader implements FallbackReader<String> {
+
+        private final Map<String, Callback<Optional<String>>> reads = new LinkedHashMap<>();
+        private final List<BatchRead> batchReads = new ArrayList<>();
+
+        @Override
+        public void get(final Callback<Optional<String>> callback, final String key) {
+            assertNull("one read per key", reads.put(key, callback));
+        }
+
+        private void resolve(final String key, final String value) {
+            reads.remove(key).resolve(Optional.ofNullable(value));
+        }
+
+        @Override
+        public void getAll(final Callback<Map<String, String>> callback, final Collection<String> keys) {
+            batchReads.add(new BatchRead(new ArrayList<>(keys), callback));
+        }
+
+        private void resolveBatch(final String key, final String value) {
+            final Map<String, String> found = new LinkedHashMap<>();
+            found.put(key, value);
+            batchReads.remove(0).callback.resolve(found);
+        }
+    }
+
+    private static class BatchRead {
+
+        private final List<String> keys;
+        private final Callback<Map<String, String>> callback;
+
+        private BatchRead(final List<String> keys, final Callback<Map<String, String>> callback) {
+            this.keys = keys;
+            this.callback = callback;
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package io.advantageous.qbit.kvstore;
+
+import io.advantageous.qbit.reactive.Callback;
+import io.advantageous.qbit.time.Duration;
+import io.advantageous.qbit.util.TestTimer;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class LocalKeyValueStoreServiceWriteBehindTest {
+
+    private TestTimer timer;
+    private RecordingWriter writer;
+
+    @Before
+    public void setup() {
+        timer = new TestTimer();
+        timer.setTime();
+        writer = new RecordingWriter();
+    }
+
+    private LocalKeyValueStoreService<String> build(final int batchSize, final int maxDirty) {
+        //noinspection unchecked
+        final LocalKeyValueStoreService<String> service = LocalKeyValueStoreServiceBuilder
+                .localKeyValueStoreServiceBuilder(String.class)
+                .setTimer(timer)
+                .setWriteBehindWriter(writer)
+                .setWriteBehindBatchSize(batchSize)
+                .setWriteBehindMaxAge(Duration.HUNDRED_MILLIS)
+                .setWriteBehindMaxDirty(maxDirty)
+                .setWriteBehindMaxBatchesInFlight(1)
+                .build();
+        service.process();
+        return service;
+    }
+
+    @Test
+    public void testHotKeyIsCoalesced() {
+        final LocalKeyValueStoreService<String> service = build(100, 1000);
+
+        for (int index = 0; index < 1000; index++) {
+            service.put("hot", "value" + index);
+        }
+        service.put("cold", "coldValue");
+
+        service.process();
+        assertEquals(0, writer.batches.size());
+        assertEquals(0, writer.writes);
+
+        timer.ms(200);
+        service.process();
+
+        assertEquals(1, writer.batches.size());
+        final Map<String, String> batch = writer.batches.get(0);
+        assertEquals(2, batch.size());
+        assertEquals("value999", batch.get("hot"));
+        assertEquals("coldValue", batch.get("cold"));
+    }
+
+    @Test
+    public void testBatchSizeFlushes() {
+        final LocalKeyValueStoreService<String> service = build(10, 1000);
+        writer.autoConfirm = true;
+
+        for (int index = 0; index < 25; index++) {
+            service.put("key" + index, "value" + index);
+            service.process();
+        }
+
+        assertEquals(2, writer.batches.size());
+        assertEquals(10, writer.batches.get(0).size());
+        assertEquals(10, writer.batches.get(1).size());
+    }
+
+    @Test
+    public void testConfirmationWaitsForBatch() {
+        final LocalKeyValueStoreService<String> service = build(100, 1000);
+        final AtomicReference<Boolean> confirmed = new AtomicReference<>();
+
+        service.putWithConfirmation(confirmed::set, "key", "value");
+        timer.ms(200);
+        service.process();
+
+        assertEquals(1, writer.batches.size());
+        assertNull(confirmed.get());
+
+        writer.confirmations.get(0).resolve(true);
+        service.process();
+        assertTrue(confirmed.get());
+    }
+
+    @Test
+    public void testBackPressure() {
+        final LocalKeyValueStoreService<String> service = build(2, 2);
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+
+        /* First batch is in flight and never confirmed so the next two keys stay dirty. */
+        service.put("a", "1");
+        service.put("b", "2");
+        service.put("c", "3");
+        service.put("d", "4");
+        assertEquals(1, writer.batches.size());
+
+        service.put("c", "33");
+        service.putWithConfirmation(new Callback<Boolean>() {
+            @Override
+            public void accept(Boolean success) {
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                error.set(throwable);
+            }
+        }, "e", "5");
+        assertNotNull(error.get());
+
+        service.put("f", "6");
+        assertEquals(1, writer.writes);
+
+        writer.confirmations.get(0).resolve(true);
+        service.process();
+
+        assertEquals(2, writer.batches.size());
+        assertEquals("33", writer.batches.get(1).get("c"));
+        assertEquals("4", writer.batches.get(1).get("d"));
+    }
+
+    @Test
+    public void testDeleteDropsDirtyKey() {
+        final LocalKeyValueStoreService<String> service = build(100, 1000);
+
+        service.put("key", "value");
+        service.delete("key");
+        service.put("other", "value");
+
+        final AtomicReference<Optional<String>> reference = new AtomicReference<>();
+        service.get(reference::set, "other");
+        assertEquals("value", reference.get().get());
+
+        timer.ms(200);
+        service.process();
+
+        assertEquals(1, writer.batches.size());
+        assertFalse(writer.batches.get(0).containsKey("key"));
+        assertEquals(1, writer.deletes);
+    }
+
+    @Test
+    public void testConfirmedPutThenDeleteBeforeFlush() {
+        final LocalKeyValueStoreService<String> service = build(100, 1000);
+        final AtomicReference<Boolean> confirmed = new AtomicReference<>();
+        final AtomicReference<Boolean> replaced = new AtomicReference<>();
+
+        service.putWithConfirmation(confirmed::set, "key", "value");
+        service.delete("key");
+        assertTrue(confirmed.get());
+
+        service.putWithConfirmation(replaced::set, "other", "value");
+        service.putWithTimeout("other", "value2", Duration.SECOND);
+        assertTrue(replaced.get());
+
+        timer.ms(200);
+        service.process();
+        service.shutdown();
+
+        assertEquals(0, writer.batches.size());
+        assertEquals(1, writer.deletes);
+    }
+
+    @Test
+    public void testDefaultBatchWaitsForEachKey() {
+        final List<Callback<Boolean>> keyConfirmations = new ArrayList<>();
+        final WriteBehindWriter<String> keyWriter = new WriteBehindWriter<String>() {
+            @Override
+            public void writeWithConfirmation(Callback<Boolean> confirmation, String key, String value) {
+                keyConfirmations.add(confirmation);
+            }
+        };
+        final Map<String, String> batch = new LinkedHashMap<>();
+        batch.put("a", "1");
+        batch.put("b", "2");
+        final AtomicReference<Boolean> result = new AtomicReference<>();
+
+        keyWriter.writeBatchWithConfirmation(result::set, batch);
+        assertEquals(2, keyConfirmations.size());
+        keyConfirmations.get(0).resolve(true);
+        assertNull(result.get());
+        keyConfirmations.get(1).resolve(true);
+        assertTrue(result.get());
+
+        result.set(null);
+        keyConfirmations.clear();
+        keyWriter.writeBatchWithConfirmation(result::set, batch);
+        keyConfirmations.get(0).onError(new IllegalStateException("down"));
+        keyConfirmations.get(1).resolve(true);
+        assertNull(result.get());
+    }
+
+    @Test
+    public void testBatchSizeOneWritesThrough() {
+        final LocalKeyValueStoreService<String> service = build(1, 1000);
+
+        service.put("key", "value");
+        service.put("key", "value2");
+
+        assertEquals(2, writer.writes);
+        assertEquals(0, writer.batches.size());
+    }
+
+    @Test
+    public void testWriteBehindIsOptIn() {
+        final LocalKeyValueStoreService<String> service = LocalKeyValueStoreServiceBuilder
+                .localKeyValueStoreServiceBuilder(String.class)
+                .setTimer(timer)
+                .setWriteBehindWriter(writer)
+                .build();
+
+        service.put("key", "value");
+
+        assertEquals(1, writer.writes);
+        assertEquals(0, writer.batches.size());
+    }
+
+    @Test
+    public void testShutdownFlushesDirtyKeys() {
+        final LocalKeyValueStoreService<String> service = build(2, 1000);
+
+        /* The first batch is in flight and never confirmed, the limit is one batch in flight. */
+        service.put("a", "1");
+        service.put("b", "2");
+        service.put("c", "3");
+        assertEquals(1, writer.batches.size());
+
+        service.shutdown();
+
+        assertEquals(2, writer.batches.size());
+        assertEquals("3", writer.batches.get(1).get("c"));
+    }
+
+    @Test
+    public void testReadsInFlightBatchUntilConfirmed() {
+        final LocalKeyValueStoreService<String> service = build(100, 1000);
+        final AtomicReference<Optional<String>> reference = new AtomicReference<>();
+        final AtomicReference<Boolean> hasKey = new AtomicReference<>();
+
+        service.put("key", "value");
+        service.put("deleted", "value");
+        timer.ms(200);
+        service.process();
+        assertEquals(1, writer.batches.size());
+
+        /* Evicted from the cache while the batch is being written. */
+        service.wipeCache();
+        service.delete("deleted");
+
+        service.get(reference::set, "key");
+        assertEquals("value", reference.get().get());
+        service.hasKey(hasKey::set, "key");
+        assertTrue(hasKey.get());
+        /* Misses go to the fallback reader, its answer comes back on the next process. */
+        reference.set(null);
+        service.get(reference::set, "deleted");
+        service.process();
+        assertFalse(reference.get().isPresent());
+
+        writer.confirmations.get(0).resolve(true);
+        service.process();
+        service.wipeCache();
+
+        reference.set(null);
+        service.get(reference::set, "key");
+        service.process();
+        assertFalse(reference.get().isPresent());
+    }
+
+    @Test
+    public void testBatchNotWrittenGoesToEachCaller() {
+        final LocalKeyValueStoreService<String> service = build(100, 1000);
+        final AtomicReference<Boolean> first = new AtomicReference<>();
+        final AtomicReference<Boolean> second = new AtomicReference<>();
+
+        service.putWithConfirmation(first::set, "a", "1");
+        service.putWithConfirmation(second::set, "b", "2");
+        timer.ms(200);
+        service.process();
+
+        writer.confirmations.get(0).resolve(false);
+        service.process();
+
+        assertFalse(first.get());
+        assertFalse(second.get());
+    }
+
+    @Test
+    public void testKeyValueStoreWriterReportsKeyNotWritten() throws Exception {
+        final WriteBehindWriter<String> storeWriter = LocalKeyValueStoreServiceBuilder
+                .localKeyValueStoreServiceBuilder(String.class)
+                .setWriteBehind(new RefusingStore<>())
+                .getWriteBehindWriter();
+
+        final Map<String, String> batch = new LinkedHashMap<>();
+        batch.put("good", "1");
+        batch.put("bad", "2");
+        batch.put("good2", "3");
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicReference<Boolean> result = new AtomicReference<>();
+        storeWriter.writeBatchWithConfirmation(success -> {
+            result.set(success);
+            latch.countDown();
+        }, batch);
+        storeWriter.flushRequests();
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertFalse(result.get());
+    }
+
+    /* Generic so there is no bridge method, service queues do not take overloads. */
+    public static class RefusingStore<T> implements KeyValueStoreService<T> {
+
+        @Override
+        public void putWithConfirmation(Callback<Boolean> confirmation, String key, T value) {
+            confirmation.resolve(!"bad".equals(key));
+        }
+    }
+
+    private static class RecordingWriter implements WriteBehindWriter<String> {
+
+        final List<Map<String, String>> batches = new ArrayList<>();
+        final List<Callback<Boolean>> confirmations = new ArrayList<>();
+        boolean autoConfirm;
+        int writes;
+        int deletes;
+
+        @Override
+        public void write(String key, String value) {
+            writes++;
+        }
+
+        @Override
+        public void delete(String key) {
+            deletes++;
+        }
+
+        @Override
+        public void writeBatchWithConfirmation(Callback<Boolean> confirmation, Map<String, String> batch) {
+            batches.add(new LinkedHashMap<>(batch));
+            confirmations.add(confirmation);
+            if (autoConfirm) {
+                confirmation.resolve(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package io.advantageous.qbit.kvstore.cache;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class LocalCacheTest {
+
+    @Test
+    public void testLruEvictsLeastRecentlyUsed() {
+        final List<String> evicted = new ArrayList<>();
+        final LocalCache<String> cache = LocalCache.localCache(CacheType.LRU, 3, evicted::add);
+
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.put("c", "3");
+        assertEquals("1", cache.get("a"));
+        cache.put("d", "4");
+
+        assertEquals(3, cache.size());
+        assertNull(cache.getSilent("b"));
+        assertEquals("1", cache.getSilent("a"));
+        assertEquals(1, evicted.size());
+        assertEquals("b", evicted.get(0));
+    }
+
+    @Test
+    public void testTinyLfuStaysBounded() {
+        final List<String> evicted = new ArrayList<>();
+        final LocalCache<Integer> cache = LocalCache.localCache(CacheType.TINY_LFU, 100, evicted::add);
+
+        for (int index = 0; index < 10_000; index++) {
+            cache.put("key" + index, index);
+            assertTrue(cache.size() <= 100);
+        }
+        assertEquals(100, cache.size());
+        assertEquals(10_000 - 100, evicted.size());
+    }
+
+    @Test
+    public void testTinyLfuIsScanResistant() {
+        final LocalCache<Integer> lfu = LocalCache.localCache(CacheType.TINY_LFU, 1_000, null);
+        final LocalCache<Integer> lru = LocalCache.localCache(CacheType.LRU, 1_000, null);
+
+        /* Hot set of 500 keys read a few times each. */
+        for (int round = 0; round < 5; round++) {
+            for (int index = 0; index < 500; index++) {
+                final String key = "hot" + index;
+                if (lfu.get(key) == null) {
+                    lfu.put(key, index);
+                }
+                if (lru.get(key) == null) {
+                    lru.put(key, index);
+                }
+            }
+        }
+
+        /* One pass over 20,000 cold keys. */
+        for (int index = 0; index < 20_000; index++) {
+            lfu.put("cold" + index, index);
+            lru.put("cold" + index, index);
+        }
+
+        int lfuHits = 0;
+        int lruHits = 0;
+        for (int index = 0; index < 500; index++) {
+            if (lfu.getSilent("hot" + index) != null) {
+                lfuHits++;
+            }
+            if (lru.getSilent("hot" + index) != null) {
+                lruHits++;
+            }
+        }
+
+        assertEquals(0, lruHits);
+        assertTrue("lfu hits " + lfuHits, lfuHits > 450);
+    }
+
+    @Test
+    public void testTinyLfuUpdateAndRemove() {
+        final LocalCache<String> cache = LocalCache.localCache(CacheType.TINY_LFU, 10, null);
+        for (int index = 0; index < 10; index++) {
+            cache.put("key" + index, "value" + index);
+            cache.get("key" + index);
+        }
+        cache.put("key3", "changed");
+        assertEquals("changed", cache.get("key3"));
+        assertEquals("changed", cache.remove("key3"));
+        assertNull(cache.get("key3"));
+        assertEquals(9, cache.size());
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testExpirySweep() {
+        for (CacheType cacheType : CacheType.values()) {
+            final LocalCache<String> cache = LocalCache.localCache(cacheType, 1_000, null);
+
+            for (int index = 0; index < 100; index++) {
+                cache.put("timed" + index, "value", 1_000 + index);
+            }
+            cache.put("forever", "value");
+            /* Extending the expiry leaves a stale record in the queue that the sweep skips. */
+            cache.put("timed0", "value", 5_000);
+
+            assertEquals(0, cache.expire(999, 1_000));
+            assertEquals(10, cache.expire(2_000, 11));
+            assertEquals(89, cache.expire(2_000, 1_000));
+            assertEquals(2, cache.size());
+            assertNotNull(cache.getSilent("timed0"));
+
+            assertEquals(1, cache.expire(5_000, 1_000));
+            assertEquals(1, cache.size());
+            assertNotNull(cache.getSilent("forever"));
+        }
+    }
+
+    @Test
+    public void testFrequencySketch() {
+        final FrequencySketch sketch = new FrequencySketch(512);
+        for (int index = 0; index < 10; index++) {
+            sketch.increment("hot");
+        }
+        sketch.increment("warm");
+
+        assertEquals(10, sketch.frequency("hot"));
+        assertEquals(1, sketch.frequency("warm"));
+        assertEquals(0, sketch.frequency("cold"));
+
+        /* Counters top out at 15 and halve once enough increments have been seen. */
+        for (int index = 0; index < 10 * 512; index++) {
+            sketch.increment("other" + index);
+        }
+        assertTrue(sketch.frequency("hot") <= 5);
+    }
+}
@@ -0,0 +1,130 @@
+package io.advantageous.qbit.kvstore.cache;
+
+import io.advantageous.qbit.reactive.Callback;
+import io.advantageous.qbit.util.TestTimer;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.Assert.*;
+
+public class ReadCollapserTest {
+
+    private TestTimer timer;
+
+    @Before
+    public void setup() {
+        timer = new TestTimer();
+        timer.setTime();
+    }
+
+    @Test
+    public void testWaitersShareOneRead() {
+        final ReadCollapser<String> reads = new ReadCollapser<>(timer, 0, 0);
+        final List<Optional<String>> results = new ArrayList<>();
+
+        assertEquals(ReadCollapser.Join.READ, reads.join("key", results::add));
+        for (int index = 0; index < 9; index++) {
+            assertEquals(ReadCollapser.Join.COLLAPSED, reads.join("key", results::add));
+        }
+        assertEquals(ReadCollapser.Join.READ, reads.join("other", results::add));
+        assertEquals(2, reads.outstanding());
+
+        reads.completion("key").resolve(Optional.of("value"));
+        assertEquals(10, results.size());
+        results.forEach(result -> assertEquals("value", result.get()));
+        assertEquals(1, reads.outstanding());
+
+        /* Negative caching is off, the next miss reads again. */
+        reads.completion("other").resolve(Optional.empty());
+        assertEquals(ReadCollapser.Join.READ, reads.join("other", results::add));
+    }
+
+    @Test
+    public void testErrorsAndTimeoutsReachEveryWaiter() {
+        final ReadCollapser<String> reads = new ReadCollapser<>(timer, 1_000, 10);
+        final int[] errors = new int[1];
+        final int[] timeouts = new int[1];
+        final Callback<Optional<String>> callback = new Callback<Optional<String>>() {
+            @Override
+            public void accept(Optional<String> value) {
+                fail();
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                errors[0]++;
+            }
+
+            @Override
+            public void onTimeout() {
+                timeouts[0]++;
+            }
+        };
+
+        reads.join("key", callback);
+        reads.join("key", callback);
+        reads.completion("key").onError(new IllegalStateException("down"));
+        assertEquals(2, errors[0]);
+
+        reads.join("key", callback);
+        reads.join("key", callback);
+        reads.completion("key").onTimeout();
+        assertEquals(2, timeouts[0]);
+        assertFalse(reads.isMiss("key"));
+    }
+
+    @Test
+    public void testNegativeCache() {
+        final ReadCollapser<String> reads = new ReadCollapser<>(timer, 1_000, 2);
+        final List<Optional<String>> results = new ArrayList<>();
+
+        reads.join("missing", results::add);
+        reads.completion("missing").resolve(Optional.empty());
+        assertTrue(reads.isMiss("missing"));
+        assertEquals(ReadCollapser.Join.NEGATIVE_HIT, reads.join("missing", results::add));
+        assertEquals(2, results.size());
+        assertFalse(results.get(1).isPresent());
+
+        timer.seconds(2);
+        assertFalse(reads.isMiss("missing"));
+        assertEquals(ReadCollapser.Join.READ, reads.join("missing", results::add));
+        reads.completion("missing").resolve(Optional.empty());
+
+        /* Bounded, the oldest miss is dropped. */
+        for (String key : new String[]{"a", "b"}) {
+            reads.join(key, results::add);
+            reads.completion(key).resolve(Optional.empty());
+        }
+        assertFalse(reads.isMiss("missing"));
+        assertTrue(reads.isMiss("a"));
+        assertTrue(reads.isMiss("b"));
+    }
+
+    @Test
+    public void testInvalidateDetachesRead() {
+        final ReadCollapser<String> reads = new ReadCollapser<>(timer, 1_000, 10);
+        final List<Optional<String>> results = new ArrayList<>();
+
+        reads.join("key", results::add);
+        final Callback<Optional<String>> staleRead = reads.completion("key");
+
+        /* A write while the read is outstanding, the next miss starts its own read. */
+        reads.invalidate("key");
+        assertEquals(ReadCollapser.Join.READ, reads.join("key", results::add));
+        final Callback<Optional<String>> freshRead = reads.completion("key");
+
+        staleRead.resolve(Optional.empty());
+        assertEquals(1, results.size());
+        assertFalse(reads.isMiss("key"));
+        assertEquals(1, reads.outstanding());
+
+        freshRead.resolve(Optional.of("value"));
+        assertEquals(2, results.size());
+        assertEquals("value", results.get(1).get());
+        assertEquals(0, reads.outstanding());
+    }
+}
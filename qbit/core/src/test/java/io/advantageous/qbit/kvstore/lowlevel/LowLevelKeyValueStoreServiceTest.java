@@ -1,10 +1,18 @@
 package io.advantageous.qbit.kvstore.lowlevel;
 
+import io.advantageous.qbit.kvstore.cache.CacheType;
+import io.advantageous.qbit.reactive.Reactor;
 import io.advantageous.qbit.reactive.ReactorBuilder;
+import io.advantageous.qbit.service.stats.StatsCollector;
+import io.advantageous.qbit.time.Duration;
 import io.advantageous.qbit.util.TestTimer;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.advantageous.qbit.time.Duration.ONE_SECOND;
 import static io.advantageous.qbit.time.Duration.TEN_SECONDS;
 import static org.junit.Assert.*;
 
@@ -296,4 +304,81 @@ public class LowLevelKeyValueStoreServiceTest {
 
         assertNotNull(localKeyValueStoreServiceBuilder.getTimer());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testExpirySweepWithTinyLfu() {
+        final AtomicLong expired = new AtomicLong();
+        final AtomicLong misses = new AtomicLong();
+        final LowLevelLocalKeyValueStoreService service = LowLevelLocalKeyValueStoreServiceBuilder
+                .localKeyValueStoreBuilder()
+                .setTimer(testTimer)
+                .setReactor(ReactorBuilder.reactorBuilder().setTimer(testTimer).build())
+                .setCacheType(CacheType.TINY_LFU)
+                .setExpirySweepInterval(ONE_SECOND)
+                .setStatsCollector(new StatsCollector() {
+                    @Override
+                    public void recordCount(String name, long count) {
+                        if (name.endsWith("cache.expire")) {
+                            expired.addAndGet(count);
+                        }
+                    }
+
+                    @Override
+                    public void increment(String name) {
+                        if (name.endsWith("cache.miss")) {
+                            misses.incrementAndGet();
+                        }
+                    }
+                })
+                .build();
+        service.process();
+
+        for (int index = 0; index < 50; index++) {
+            service.putStringWithTimeout("key" + index, "value", TEN_SECONDS);
+        }
+        service.putString("forever", "value");
+
+        testTimer.seconds(11);
+        service.process();
+        testTimer.seconds(2);
+        service.process();
+
+        assertEquals(50, expired.get());
+
+        final String[] valueHolder = new String[1];
+        service.getString(value -> valueHolder[0] = value.orElse(null), "key1");
+        assertNull(valueHolder[0]);
+        assertEquals(1, misses.get());
+        service.getString(value -> valueHolder[0] = value.orElse(null), "forever");
+        assertEquals("value", valueHolder[0]);
+    }
+
+    @Test
+    public void testExpirySweepOnlyScheduledWithTimeouts() {
+        final AtomicLong sweeps = new AtomicLong();
+        final Reactor reactor = new Reactor(testTimer, 30, TimeUnit.SECONDS) {
+            @Override
+            public void addRepeatingTask(final Duration repeatEvery, final Runnable task) {
+                if (repeatEvery == ONE_SECOND) {
+                    sweeps.incrementAndGet();
+                }
+                super.addRepeatingTask(repeatEvery, task);
+            }
+        };
+        final LowLevelLocalKeyValueStoreService service = LowLevelLocalKeyValueStoreServiceBuilder
+                .localKeyValueStoreBuilder()
+                .setTimer(testTimer)
+                .setReactor(reactor)
+                .setExpirySweepInterval(ONE_SECOND)
+                .build();
+        service.process();
+
+        service.putString("forever", "value");
+        service.process();
+        assertEquals(0, sweeps.get());
+
+        service.putStringWithTimeout("key1", "value", TEN_SECONDS);
+        service.putStringWithTimeout("key2", "value", TEN_SECONDS);
+        assertEquals(1, sweeps.get());
+    }
+}
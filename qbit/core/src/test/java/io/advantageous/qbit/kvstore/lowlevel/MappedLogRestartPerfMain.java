@@ -0,0 +1,45 @@
+package io.advantageous.qbit.kvstore.lowlevel;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import static io.advantageous.boon.core.IO.puts;
+
+/**
+ * Time to write and then reopen a mapped log of one million 200 byte values.
+ */
+public class MappedLogRestartPerfMain {
+
+    private static final int KEYS = 1_000_000;
+    private static final int RUNS = 3;
+
+    public static void main(String... args) throws Exception {
+
+        final File directory = Files.createTempDirectory("qbit-log").toFile();
+        final byte[] value = new byte[200];
+
+        long start = System.nanoTime();
+        MappedLogStore store = new MappedLogStore(directory, 64 * 1024 * 1024, FsyncPolicy.NEVER, 0);
+        for (int index = 0; index < KEYS; index++) {
+            store.put("session." + index, value, MappedLogStore.NO_EXPIRY);
+        }
+        store.close();
+        puts("write ms", (System.nanoTime() - start) / 1_000_000, "segments", store.segmentCount());
+
+        for (int run = 0; run < RUNS; run++) {
+            start = System.nanoTime();
+            store = new MappedLogStore(directory, 64 * 1024 * 1024, FsyncPolicy.NEVER, 0);
+            puts("restart ms", (System.nanoTime() - start) / 1_000_000, "keys", store.size());
+        }
+
+        final File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                //noinspection ResultOfMethodCallIgnored
+                file.delete();
+            }
+        }
+        //noinspection ResultOfMethodCallIgnored
+        directory.delete();
+    }
+}
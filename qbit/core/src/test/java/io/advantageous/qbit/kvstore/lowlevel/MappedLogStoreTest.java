@@ -0,0 +1,161 @@
+package io.advantageous.qbit.kvstore.lowlevel;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class MappedLogStoreTest {
+
+    private static final int SEGMENT_SIZE = 4 * 1024;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static byte[] bytes(final String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(final byte[] value) {
+        return value == null ? null : new String(value, StandardCharsets.UTF_8);
+    }
+
+    private MappedLogStore open(final File directory) {
+        return new MappedLogStore(directory, SEGMENT_SIZE, FsyncPolicy.NEVER, 0);
+    }
+
+    @Test
+    public void testReloadAfterRestart() throws Exception {
+        final File directory = folder.newFolder("log");
+        MappedLogStore store = open(directory);
+
+        for (int index = 0; index < 500; index++) {
+            assertTrue(store.put("key" + index, bytes("value" + index), MappedLogStore.NO_EXPIRY));
+        }
+        store.put("key1", bytes("changed"), MappedLogStore.NO_EXPIRY);
+        store.remove("key2");
+        store.put("timed", bytes("value"), 1_000);
+        assertTrue(store.segmentCount() > 1);
+        store.close();
+
+        store = open(directory);
+        assertEquals(500, store.size());
+        assertEquals("changed", string(store.get("key1", 0)));
+        assertNull(store.get("key2", 0));
+        assertEquals("value499", string(store.get("key499", 0)));
+        assertEquals("value", string(store.get("timed", 999)));
+        store.close();
+
+        /* Expired records are not loaded. */
+        store = new MappedLogStore(directory, SEGMENT_SIZE, FsyncPolicy.NEVER, 1_000);
+        assertEquals(499, store.size());
+        assertNull(store.get("timed", 1_000));
+    }
+
+    @Test
+    public void testTornTailIsIgnored() throws Exception {
+        final File directory = folder.newFolder("log");
+        MappedLogStore store = open(directory);
+        store.put("a", bytes("1"), MappedLogStore.NO_EXPIRY);
+        store.put("b", bytes("2"), MappedLogStore.NO_EXPIRY);
+        store.close();
+
+        /* Flip the last value byte of b, the record no longer matches its checksum. */
+        final File segment = directory.listFiles()[0];
+        try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+            final int offsetOfB = 20 + 1 + 1;
+            file.seek(offsetOfB + 20 + 1);
+            file.write('X');
+        }
+
+        store = open(directory);
+        assertEquals(1, store.size());
+        assertEquals("1", string(store.get("a", 0)));
+        assertNull(store.get("b", 0));
+
+        /* New writes go where the torn record was. */
+        store.put("c", bytes("3"), MappedLogStore.NO_EXPIRY);
+        store.close();
+        store = open(directory);
+        assertEquals("3", string(store.get("c", 0)));
+    }
+
+    @Test
+    public void testOversizedPutRemovesOldValue() throws Exception {
+        final File directory = folder.newFolder("log");
+        MappedLogStore store = open(directory);
+        store.put("key", bytes("old"), MappedLogStore.NO_EXPIRY);
+
+        assertFalse(store.put("key", new byte[SEGMENT_SIZE], MappedLogStore.NO_EXPIRY));
+        assertNull(store.get("key", 0));
+        assertEquals(0, store.size());
+        store.close();
+
+        /* The tombstone keeps the old value from coming back on restart. */
+        store = open(directory);
+        assertNull(store.get("key", 0));
+    }
+
+    @Test
+    public void testCompaction() throws Exception {
+        final File directory = folder.newFolder("log");
+        MappedLogStore store = open(directory);
+
+        store.put("keep", bytes("kept"), MappedLogStore.NO_EXPIRY);
+        store.put("gone", bytes("value"), MappedLogStore.NO_EXPIRY);
+        store.put("short", bytes("value"), 500);
+        for (int index = 0; index < 300; index++) {
+            store.put("hot", bytes("value" + index), MappedLogStore.NO_EXPIRY);
+        }
+        final int segments = store.segmentCount();
+        assertTrue(segments > 2);
+
+        /* Deleted after its segment is full, the tombstone is in a later segment. */
+        store.remove("gone");
+
+        int compactions = 0;
+        while (store.compact(0.5, 1_000)) {
+            compactions++;
+        }
+        assertTrue(compactions >= segments - 1);
+        assertTrue(store.segmentCount() < segments);
+        store.close();
+
+        store = open(directory);
+        assertEquals("kept", string(store.get("keep", 0)));
+        assertEquals("value299", string(store.get("hot", 0)));
+        assertNull(store.get("gone", 0));
+        assertNull(store.get("short", 0));
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    public void testServiceRestart() throws Exception {
+        final File directory = folder.newFolder("log");
+        final LowLevelLocalKeyValueStoreServiceBuilder builder = LowLevelLocalKeyValueStoreServiceBuilder
+                .localKeyValueStoreBuilder()
+                .setPersistentDirectory(directory)
+                .setPersistentSegmentSize(SEGMENT_SIZE)
+                .setFsyncPolicy(FsyncPolicy.EVERY_WRITE);
+
+        MappedLogLowLevelKeyValueStoreService service = builder.buildPersistent();
+        service.process();
+        service.putString("key", "value");
+        service.putBytes("bytes", new byte[]{1, 2});
+        service.close();
+
+        service = builder.setReactor(null).buildPersistent();
+        service.process();
+        final String[] stringHolder = new String[1];
+        final byte[][] bytesHolder = new byte[1][];
+        service.getString(value -> stringHolder[0] = value.orElse(null), "key");
+        service.getBytes(value -> bytesHolder[0] = value.orElse(null), "bytes");
+        assertEquals("value", stringHolder[0]);
+        assertArrayEquals(new byte[]{1, 2}, bytesHolder[0]);
+    }
+}
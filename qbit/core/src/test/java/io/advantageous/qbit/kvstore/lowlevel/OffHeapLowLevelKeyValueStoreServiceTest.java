@@ -0,0 +1,103 @@
+package io.advantageous.qbit.kvstore.lowlevel;
+
+import io.advantageous.qbit.kvstore.JsonKeyValueStoreServiceBuilder;
+import io.advantageous.qbit.kvstore.KeyValueStoreService;
+import io.advantageous.qbit.reactive.ReactorBuilder;
+import io.advantageous.qbit.util.TestTimer;
+import org.junit.Before;
+import org.junit.Test;
+
+import static io.advantageous.qbit.time.Duration.TEN_SECONDS;
+import static org.junit.Assert.*;
+
+public class OffHeapLowLevelKeyValueStoreServiceTest {
+
+    private OffHeapLowLevelKeyValueStoreService offHeapService;
+    private TestTimer testTimer;
+
+    @Before
+    public void before() {
+        testTimer = new TestTimer();
+        testTimer.setTime();
+
+        offHeapService = LowLevelLocalKeyValueStoreServiceBuilder.localKeyValueStoreBuilder()
+                .setTimer(testTimer)
+                .setReactor(ReactorBuilder.reactorBuilder().setTimer(testTimer).build())
+                .setOffHeapCapacity(1024 * 1024)
+                .setOffHeapSegmentSize(64 * 1024)
+                .buildOffHeap();
+        offHeapService.process();
+    }
+
+    @Test
+    public void testStringAndBytes() {
+        final boolean[] hasKeyRef = new boolean[1];
+        final String[] stringHolder = new String[1];
+        final byte[][] bytesHolder = new byte[1][];
+        final boolean[] confirmed = new boolean[1];
+
+        offHeapService.hasKey(hasKey -> hasKeyRef[0] = hasKey, "key");
+        assertFalse(hasKeyRef[0]);
+
+        offHeapService.putStringWithConfirmation(success -> confirmed[0] = success, "key", "välue");
+        assertTrue(confirmed[0]);
+        offHeapService.hasKey(hasKey -> hasKeyRef[0] = hasKey, "key");
+        assertTrue(hasKeyRef[0]);
+        offHeapService.getString(value -> stringHolder[0] = value.orElse(null), "key");
+        assertEquals("välue", stringHolder[0]);
+
+        offHeapService.putBytes("bytes", new byte[]{1, 2, 3});
+        offHeapService.getBytes(value -> bytesHolder[0] = value.orElse(null), "bytes");
+        assertArrayEquals(new byte[]{1, 2, 3}, bytesHolder[0]);
+
+        offHeapService.deleteWithConfirmation(success -> confirmed[0] = success, "key");
+        offHeapService.getString(value -> stringHolder[0] = value.orElse(null), "key");
+        assertNull(stringHolder[0]);
+
+        offHeapService.putBytesWithConfirmation(success -> confirmed[0] = success, "big", new byte[64 * 1024]);
+        assertFalse(confirmed[0]);
+
+        /* A value that does not fit does not leave the old value behind. */
+        offHeapService.putBytes("bytes", new byte[64 * 1024]);
+        offHeapService.getBytes(value -> bytesHolder[0] = value.orElse(null), "bytes");
+        assertNull(bytesHolder[0]);
+    }
+
+    @Test
+    public void testTimeout() {
+        final String[] stringHolder = new String[1];
+
+        offHeapService.putStringWithTimeout("key", "value", TEN_SECONDS);
+        offHeapService.getString(value -> stringHolder[0] = value.orElse(null), "key");
+        assertEquals("value", stringHolder[0]);
+
+        testTimer.seconds(11);
+        offHeapService.process();
+
+        offHeapService.getString(value -> stringHolder[0] = value.orElse(null), "key");
+        assertNull(stringHolder[0]);
+    }
+
+    @Test
+    public void testAsLocalTierOfWriteBehind() {
+        final LowLevelLocalKeyValueStoreService remote = LowLevelLocalKeyValueStoreServiceBuilder
+                .localKeyValueStoreBuilder().setTimer(testTimer).build();
+
+        final LowLevelWriteBehindReadFallbackKeyValueStore writeBehind = new LowLevelWriteBehindReadFallbackKeyValueStore(
+                offHeapService, remote, ReactorBuilder.reactorBuilder().build());
+
+        final KeyValueStoreService<String> keyValueStoreService = JsonKeyValueStoreServiceBuilder
+                .jsonKeyValueStoreServiceBuilder()
+                .setLowLevelKeyValueStoreService(writeBehind)
+                .buildKeyValueStore(String.class);
+
+        final String[] holder = new String[1];
+        keyValueStoreService.put("key", "value");
+        offHeapService.delete("key");
+
+        keyValueStoreService.get(value -> holder[0] = value.orElse(null), "key");
+        keyValueStoreService.process();
+        keyValueStoreService.process();
+        assertEquals("value", holder[0]);
+    }
+}
@@ -0,0 +1,129 @@
+package io.advantageous.qbit.kvstore.lowlevel;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class OffHeapStoreTest {
+
+    private static byte[] bytes(final String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testPutGetRemove() {
+        final OffHeapStore store = new OffHeapStore(1024 * 1024, 64 * 1024);
+
+        assertTrue(store.put(bytes("key"), bytes("value"), OffHeapStore.NO_EXPIRY));
+        assertArrayEquals(bytes("value"), store.get(bytes("key"), 0));
+        assertNull(store.get(bytes("other"), 0));
+
+        assertTrue(store.put(bytes("key"), bytes("value2"), OffHeapStore.NO_EXPIRY));
+        assertArrayEquals(bytes("value2"), store.get(bytes("key"), 0));
+        assertEquals(1, store.size());
+        assertEquals(16 + 3 + 6, store.liveBytes());
+
+        assertTrue(store.remove(bytes("key")));
+        assertFalse(store.remove(bytes("key")));
+        assertNull(store.get(bytes("key"), 0));
+        assertEquals(0, store.size());
+        assertEquals(0, store.liveBytes());
+
+        assertTrue(store.put(bytes("empty"), new byte[0], OffHeapStore.NO_EXPIRY));
+        assertEquals(0, store.get(bytes("empty"), 0).length);
+    }
+
+    @Test
+    public void testTooLarge() {
+        final OffHeapStore store = new OffHeapStore(1024, 256);
+        assertFalse(store.put(bytes("key"), new byte[256], OffHeapStore.NO_EXPIRY));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    public void testTooLargeRemovesOldValue() {
+        final OffHeapStore store = new OffHeapStore(1024, 256);
+        assertTrue(store.put(bytes("key"), bytes("small"), OffHeapStore.NO_EXPIRY));
+        assertFalse(store.put(bytes("key"), new byte[256], OffHeapStore.NO_EXPIRY));
+
+        assertNull(store.get(bytes("key"), 0));
+        assertEquals(0, store.size());
+        assertEquals(0, store.liveBytes());
+    }
+
+    @Test
+    public void testEvictsOldestSegment() {
+        final OffHeapStore store = new OffHeapStore(4 * 1024, 1024);
+        final byte[] value = new byte[100];
+
+        for (int index = 0; index < 1_000; index++) {
+            assertTrue(store.put(bytes("key" + index), value, OffHeapStore.NO_EXPIRY));
+            assertTrue(store.allocatedBytes() <= store.capacity());
+        }
+
+        assertEquals(4 * 1024, store.allocatedBytes());
+        assertTrue(store.evictions() > 900);
+        assertEquals(1_000 - store.evictions(), store.size());
+        assertNotNull(store.get(bytes("key999"), 0));
+        assertNull(store.get(bytes("key0"), 0));
+    }
+
+    @Test
+    public void testExpire() {
+        final OffHeapStore store = new OffHeapStore(1024 * 1024, 64 * 1024);
+        for (int index = 0; index < 5_000; index++) {
+            store.put(bytes("timed" + index), bytes("value"), 1_000);
+        }
+        store.put(bytes("forever"), bytes("value"), OffHeapStore.NO_EXPIRY);
+
+        assertNotNull(store.get(bytes("timed1"), 999));
+        assertNull(store.get(bytes("timed1"), 1_000));
+
+        int removed = 0;
+        for (int pass = 0; pass < 100 && store.size() > 1; pass++) {
+            removed += store.expire(1_000, 500);
+        }
+        assertEquals(4_999, removed);
+        assertEquals(1, store.size());
+        assertNotNull(store.get(bytes("forever"), 1_000));
+    }
+
+    @Test
+    public void testMatchesHashMap() {
+        final OffHeapStore store = new OffHeapStore(64 * 1024 * 1024, 1024 * 1024);
+        final Map<String, byte[]> model = new HashMap<>();
+        final Random random = new Random(42);
+
+        for (int op = 0; op < 200_000; op++) {
+            final String key = "key" + random.nextInt(20_000);
+            switch (random.nextInt(4)) {
+                case 0:
+                    assertEquals(model.remove(key) != null, store.remove(bytes(key)));
+                    break;
+                case 1:
+                    final byte[] stored = store.get(bytes(key), 0);
+                    final byte[] expected = model.get(key);
+                    if (expected == null) {
+                        assertNull(stored);
+                    } else {
+                        assertArrayEquals(expected, stored);
+                    }
+                    break;
+                default:
+                    final byte[] value = new byte[random.nextInt(64)];
+                    random.nextBytes(value);
+                    store.put(bytes(key), value, OffHeapStore.NO_EXPIRY);
+                    model.put(key, value);
+            }
+        }
+
+        assertEquals(0, store.evictions());
+        assertEquals(model.size(), store.size());
+        model.forEach((key, value) -> assertArrayEquals(value, store.get(bytes(key), 0)));
+    }
+}
@@ -3,10 +3,17 @@ package io.advantageous.qbit.kvstore.lowlevel;
 import io.advantageous.qbit.kvstore.JsonKeyValueStoreServiceBuilder;
 import io.advantageous.qbit.kvstore.KeyValueStoreService;
 import io.advantageous.qbit.reactive.ReactorBuilder;
+import io.advantageous.qbit.service.stats.StatsCollector;
+import io.advantageous.qbit.time.Duration;
 import io.advantageous.qbit.util.TestTimer;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import static io.advantageous.qbit.time.Duration.TEN_SECONDS;
 import static org.junit.Assert.*;
 
@@ -78,6 +85,100 @@ public class WriteBehindReadFallbackKeyValueStoreTest {
 
     }
 
+    @Test
+    public void testGetAll() {
+        final Map<String, Todo> values = new LinkedHashMap<>();
+
+        final Map<String, Todo> todos = new LinkedHashMap<>();
+        todos.put("a", new Todo("valueA"));
+        todos.put("b", new Todo("valueB"));
+        todos.put("c", new Todo("valueC"));
+        keyValueStoreService.putAll(todos);
+        keyValueStoreService.process();
+
+        /* Only the remote store has a and b now. */
+        localKeyValueStoreService.deleteAll(Arrays.asList("a", "b"));
+
+        keyValueStoreService.getAll(values::putAll, Arrays.asList("a", "b", "c", "missing"));
+        keyValueStoreService.process();
+        keyValueStoreService.process();
+
+        assertEquals(3, values.size());
+        assertEquals("valueA", values.get("a").name);
+        assertEquals("valueB", values.get("b").name);
+        assertEquals("valueC", values.get("c").name);
+
+        keyValueStoreService.deleteAll(Arrays.asList("a", "c"));
+        values.clear();
+        keyValueStoreService.getAll(values::putAll, Arrays.asList("a", "b", "c"));
+        keyValueStoreService.process();
+        keyValueStoreService.process();
+        assertEquals(Collections.singleton("b"), values.keySet());
+    }
+
+    @Test
+    public void testGetAllJoinsReadsAndRemembersMisses() {
+        final Map<String, Integer> counts = new LinkedHashMap<>();
+        final LowLevelWriteBehindReadFallbackKeyValueStore store = new LowLevelWriteBehindReadFallbackKeyValueStore(
+                localKeyValueStoreService, remoteKeyValueStoreService, ReactorBuilder.reactorBuilder().build(),
+                testTimer, new StatsCollector() {
+            @Override
+            public void increment(String name) {
+                counts.merge(name, 1, Integer::sum);
+            }
+
+            @Override
+            public void recordCount(String name, long count) {
+                counts.merge(name, (int) count, Integer::sum);
+            }
+
+            @Override
+            public void recordLevel(String name, long level) {
+            }
+
+            @Override
+            public void recordTiming(String name, long duration) {
+            }
+        }, "kv.", Duration.TEN_SECONDS, 100);
+
+        remoteKeyValueStoreService.putString("remote", "value");
+        remoteKeyValueStoreService.process();
+
+        final String[] single = new String[1];
+        final Map<String, String> values = new LinkedHashMap<>();
+        store.getString(value -> single[0] = value.orElse(null), "remote");
+        store.getAllStrings(values::putAll, Arrays.asList("remote", "missing"));
+        for (int index = 0; index < 5; index++) {
+            store.process();
+        }
+
+        /* The get all waited for the get of remote and only read missing itself. */
+        assertEquals("value", single[0]);
+        assertEquals(Collections.singletonMap("remote", "value"), values);
+        assertEquals(1, (int) counts.get("kv.remoteRead"));
+        assertEquals(1, (int) counts.get("kv.readCollapsed"));
+        assertEquals(1, (int) counts.get("kv.remoteBatchKeys"));
+
+        /* The batch miss is remembered. */
+        values.clear();
+        store.getAllStrings(values::putAll, Collections.singletonList("missing"));
+        for (int index = 0; index < 5; index++) {
+            store.process();
+        }
+        assertTrue(values.isEmpty());
+        assertEquals(1, (int) counts.get("kv.remoteBatchRead"));
+        assertEquals(1, (int) counts.get("kv.negativeHit"));
+
+        final boolean[] present = new boolean[]{true};
+        store.getString(value -> present[0] = value.isPresent(), "missing");
+        for (int index = 0; index < 5; index++) {
+            store.process();
+        }
+        assertFalse(present[0]);
+        assertEquals(1, (int) counts.get("kv.remoteRead"));
+        assertEquals(2, (int) counts.get("kv.negativeHit"));
+    }
+
     @Test
     public void testReadPrimary() {
         final String[] valueHolder = new String[1];
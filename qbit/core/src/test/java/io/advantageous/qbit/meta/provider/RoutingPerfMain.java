@@ -0,0 +1,54 @@
+package io.advantageous.qbit.meta.provider;
+
+import io.advantageous.qbit.meta.RequestMetaData;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Routes paths against a trie of 600 REST endpoints and reports the cost per route.
+ * Run by hand, it is not a unit test.
+ */
+public class RoutingPerfMain {
+
+    private static final int SERVICES = 50;
+
+    public static void main(final String... args) {
+        final RoutingTrie trie = new RoutingTrie();
+        final List<String> paths = new ArrayList<>();
+
+        for (int service = 0; service < SERVICES; service++) {
+            final String base = "/services/api/v1/service" + service;
+            for (String route : new String[]{"", "/list", "/search", "/count", "/{id}", "/{id}/detail",
+                    "/{id}/lines", "/{id}/lines/{line}", "/{id}/lines/{line}/notes", "/admin/stats", "/files/**",
+                    "/{id}/tags/*"}) {
+                trie.add(base + route, new RequestMetaData(base + route, null, null, null, null));
+            }
+            paths.add(base);
+            paths.add(base + "/search");
+            paths.add(base + "/1234");
+            paths.add(base + "/1234/lines/7");
+            paths.add(base + "/1234/lines/7/notes");
+            paths.add(base + "/files/2015/report.json");
+            paths.add(base + "/1234/tags/red");
+            paths.add(base + "/nothere/at/all");
+        }
+
+        System.out.printf("%d endpoints, %d paths%n", trie.size(), paths.size());
+
+        final RouteMatch match = new RouteMatch();
+        final String[] pathArray = paths.toArray(new String[paths.size()]);
+        for (int round = 0; round < 5; round++) {
+            final int iterations = 2_000_000;
+            int found = 0;
+            final long start = System.nanoTime();
+            for (int index = 0; index < iterations; index++) {
+                if (trie.match(pathArray[index % pathArray.length], match)) {
+                    found++;
+                }
+            }
+            final long duration = System.nanoTime() - start;
+            System.out.printf("round %d: %.1f ns per route, %d matched%n", round, (double) duration / iterations, found);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package io.advantageous.qbit.meta.provider;
+
+import io.advantageous.qbit.meta.RequestMetaData;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class RoutingTrieTest {
+
+    private RoutingTrie trie;
+    private RouteMatch match;
+
+    private RequestMetaData add(final String route) {
+        final RequestMetaData metaData = new RequestMetaData(route, null, null, null, null);
+        trie.add(route, metaData);
+        return metaData;
+    }
+
+    private RequestMetaData route(final String path) {
+        return trie.match(path, match) ? match.getRequestMetaData() : null;
+    }
+
+    @Before
+    public void setup() {
+        trie = new RoutingTrie();
+        match = new RouteMatch();
+    }
+
+    @Test
+    public void testStaticBeatsCaptureBeatsWildcards() {
+        final RequestMetaData list = add("/services/orders");
+        final RequestMetaData mine = add("/services/orders/mine");
+        final RequestMetaData byId = add("/services/orders/{id}");
+        final RequestMetaData lines = add("/services/orders/{id}/lines/*");
+        final RequestMetaData files = add("/services/files/**");
+
+        assertSame(list, route("/services/orders"));
+        assertSame(list, route("/Services/Orders/"));
+        assertSame(mine, route("/services/orders/MINE"));
+        assertSame(byId, route("/services/orders/123"));
+        assertSame(lines, route("/services/orders/123/lines/7"));
+        assertSame(files, route("/services/files"));
+        assertSame(files, route("/services/files/a/b/c.txt"));
+        assertSame(list, route("/services/orders?page=2"));
+
+        assertNull(route("/services/orders/123/lines"));
+        assertNull(route("/services/orders/123/lines/7/8"));
+        assertNull(route("/services/users"));
+        assertNull(route("/"));
+        assertEquals(5, trie.size());
+    }
+
+    @Test
+    public void testBacktracksWhenStaticBranchDeadEnds() {
+        final RequestMetaData mineDetail = add("/orders/mine/detail");
+        final RequestMetaData byIdSummary = add("/orders/{id}/summary");
+
+        assertSame(mineDetail, route("/orders/mine/detail"));
+        assertSame(byIdSummary, route("/orders/mine/summary"));
+    }
+
+    @Test
+    public void testSegmentOffsets() {
+        add("/services/orders/{id}/lines/{line}");
+
+        assertTrue(trie.match("//services/orders/Ab%20c/lines/9", match));
+        assertEquals(5, match.segmentCount());
+        assertEquals("services", match.segment(0));
+        assertEquals("Ab%20c", match.segment(2));
+        assertEquals("9", match.segment(4));
+        assertNull(match.segment(5));
+        assertEquals(18, match.segmentStart(2));
+        assertEquals(24, match.segmentEnd(2));
+
+        assertFalse(trie.match("/services/orders", match));
+        assertNull(match.getRequestMetaData());
+    }
+
+    @Test
+    public void testDeepPathGrowsMatch() {
+        final RequestMetaData any = add("/a/**");
+        final StringBuilder path = new StringBuilder("/a");
+        for (int index = 0; index < 40; index++) {
+            path.append("/s").append(index);
+        }
+
+        assertSame(any, route(path.toString()));
+        assertEquals(41, match.segmentCount());
+        assertEquals("s39", match.segment(40));
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2015. Rick Hightower, Geoff Chandler
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * QBit - The Microservice lib for Java : JSON, WebSocket, REST. Be The Web!
+ */
+
+package io.advantageous.qbit.perf;
+
+import io.advantageous.qbit.boon.service.impl.BoonServiceMethodCallHandler;
+import io.advantageous.qbit.boon.service.impl.GeneratedServiceMethodCallHandler;
+import io.advantageous.qbit.message.MethodCall;
+import io.advantageous.qbit.message.MethodCallBuilder;
+import io.advantageous.qbit.message.Response;
+import io.advantageous.qbit.queue.SendQueue;
+import io.advantageous.qbit.service.ServiceMethodHandler;
+
+import static io.advantageous.boon.core.IO.puts;
+
+/**
+ * Per call cost of the Boon reflection handler vs the generated invoker handler on the AdderService.
+ * This calls the handlers directly so queues and proxies are not part of the number.
+ */
+public class InvokerPerfMain {
+
+    private static final int CALLS = 20_000_000;
+    private static final int RUNS = 5;
+
+    public static void main(String... args) {
+
+        final MethodCall<Object> add = MethodCallBuilder.methodCallBuilder().setName("add")
+                .setBody(new Object[]{"name", 1}).build();
+        final MethodCall<Object> sum = MethodCallBuilder.methodCallBuilder().setName("sum")
+                .setBody(new Object[0]).build();
+
+        for (int run = 0; run < RUNS; run++) {
+            run("boon dynamic", new BoonServiceMethodCallHandler(true), add, sum);
+            run("boon", new BoonServiceMethodCallHandler(false), add, sum);
+            run("generated", new GeneratedServiceMethodCallHandler(true), add, sum);
+        }
+    }
+
+    private static void run(final String name, final ServiceMethodHandler handler,
+                            final MethodCall<Object> add, final MethodCall<Object> sum) {
+
+        final AdderService adderService = new AdderService();
+        handler.init(adderService, "", "", new SendQueue<Response<Object>>() {
+        });
+
+        final long start = System.nanoTime();
+        for (int index = 0; index < CALLS; index++) {
+            handler.receiveMethodCall(add);
+        }
+        final Response<Object> response = handler.receiveMethodCall(sum);
+        final long time = System.nanoTime() - start;
+
+        puts(name, "sum", response.body(), "ns/call", (double) time / CALLS);
+    }
+}
@@ -0,0 +1,176 @@
+package io.advantageous.qbit.queue.impl;
+
+import io.advantageous.qbit.queue.Queue;
+import io.advantageous.qbit.queue.QueueBuilder;
+import io.advantageous.qbit.queue.ReceiveQueueListener;
+import io.advantageous.qbit.queue.SendQueue;
+import io.advantageous.qbit.service.ServiceBuilder;
+import io.advantageous.qbit.service.ServiceProxyUtils;
+import io.advantageous.qbit.service.ServiceQueue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class EventLoopBasicQueueTest extends BasicSendReceiveTest {
+
+    private EventLoopGroup eventLoopGroup;
+
+    @Before
+    public void setup() {
+
+        eventLoopGroup = new EventLoopGroup("test", 2);
+
+        final QueueBuilder queueBuilder = QueueBuilder.queueBuilder();
+
+        queue = queueBuilder.setArrayBlockingQueue().setBatchSize(10)
+                .setCheckEvery(5).setCheckIfBusy(false)
+                .setEventLoopGroup(eventLoopGroup)
+                .setName("Queue test").setPollTimeUnit(TimeUnit.MILLISECONDS)
+                .setPollWait(50).build();
+
+        receiveQueue = queue.receiveQueue();
+        sendQueue = queue.sendQueue();
+    }
+
+    @After
+    public void tearDown() {
+        queue.stop();
+        eventLoopGroup.stop();
+    }
+
+    @Test
+    public void manyQueuesShareTheLoopThreads() throws Exception {
+
+        final int queueCount = 50;
+        final int amount = 1_000;
+        final CountDownLatch latch = new CountDownLatch(queueCount);
+        final Set<String> threadNames = ConcurrentHashMap.newKeySet();
+        final AtomicInteger idleCount = new AtomicInteger();
+        final List<Queue<String>> queues = new ArrayList<>();
+
+        for (int index = 0; index < queueCount; index++) {
+            final Queue<String> managed = QueueBuilder.queueBuilder().setBatchSize(10)
+                    .setName("Queue " + index).setPollTimeUnit(TimeUnit.MILLISECONDS).setPollWait(10)
+                    .setEventLoopGroup(eventLoopGroup).build();
+            queues.add(managed);
+
+            final AtomicInteger count = new AtomicInteger();
+            final AtomicReference<Thread> owner = new AtomicReference<>();
+            managed.startListener(new ReceiveQueueListener<String>() {
+                @Override
+                public void receive(String item) {
+                    /* A queue is pinned to one loop thread. */
+                    owner.compareAndSet(null, Thread.currentThread());
+                    assertTrue(owner.get() == Thread.currentThread());
+                    threadNames.add(Thread.currentThread().getName());
+                    if (count.incrementAndGet() == amount) {
+                        latch.countDown();
+                    }
+                }
+
+                @Override
+                public void idle() {
+                    idleCount.incrementAndGet();
+                }
+            });
+        }
+
+        for (Queue<String> managed : queues) {
+            final SendQueue<String> sender = managed.sendQueue();
+            for (int index = 0; index < amount; index++) {
+                sender.send("" + index);
+            }
+            sender.flushSends();
+        }
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertTrue(threadNames.size() <= eventLoopGroup.threadCount());
+        assertTrue(idleCount.get() > 0);
+
+        queues.forEach(Queue::stop);
+    }
+
+    @Test
+    public void sendWakesParkedLoop() throws Exception {
+
+        /* Park for up to 5 seconds so only an unpark from the sender can deliver the item quickly. */
+        final EventLoopGroup slowGroup = new EventLoopGroup("slow", 1, TimeUnit.SECONDS.toNanos(5));
+        final Queue<String> managed = QueueBuilder.queueBuilder().setBatchSize(10)
+                .setName("wake up").setPollTimeUnit(TimeUnit.SECONDS).setPollWait(10)
+                .setEventLoopGroup(slowGroup).build();
+
+        try {
+            final AtomicReference<CountDownLatch> latch = new AtomicReference<>(new CountDownLatch(1));
+            managed.startListener(item -> latch.get().countDown());
+            final SendQueue<String> sender = managed.sendQueue();
+
+            for (int round = 0; round < 3; round++) {
+                /* Long enough for the loop to be parked with a long park time. */
+                Thread.sleep(1_000);
+                latch.set(new CountDownLatch(1));
+                final long start = System.nanoTime();
+                sender.sendAndFlush("hi");
+                assertTrue(latch.get().await(10, TimeUnit.SECONDS));
+                final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                assertTrue("took " + millis, millis < 250);
+            }
+        } finally {
+            managed.stop();
+            slowGroup.stop();
+        }
+    }
+
+    @Test
+    public void serviceRunsOnEventLoop() throws Exception {
+
+        final AtomicReference<String> threadName = new AtomicReference<>();
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        final ServiceBuilder serviceBuilder = ServiceBuilder.serviceBuilder()
+                .setEventLoopGroup(eventLoopGroup);
+
+        final ServiceQueue serviceQueue = serviceBuilder.setServiceObject(new ServiceImpl(threadName, latch))
+                .buildAndStartAll();
+
+        final ServiceI proxy = serviceQueue.createProxy(ServiceI.class);
+        proxy.callme();
+        ServiceProxyUtils.flushServiceProxy(proxy);
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertTrue(threadName.get().startsWith("EventLoop|test|"));
+        assertEquals(null, serviceBuilder.getRequestQueueBuilder().getEventLoopGroup());
+
+        serviceQueue.stop();
+    }
+
+    public interface ServiceI {
+        void callme();
+    }
+
+    public static class ServiceImpl {
+        private final AtomicReference<String> threadName;
+        private final CountDownLatch latch;
+
+        ServiceImpl(AtomicReference<String> threadName, CountDownLatch latch) {
+            this.threadName = threadName;
+            this.latch = latch;
+        }
+
+        public void callme() {
+            threadName.set(Thread.currentThread().getName());
+            latch.countDown();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package io.advantageous.qbit.queue.impl;
+
+import io.advantageous.qbit.queue.Queue;
+import io.advantageous.qbit.queue.QueueBuilder;
+import io.advantageous.qbit.queue.SendQueue;
+import io.advantageous.qbit.queue.impl.sender.BasicBlockingQueueSender;
+import io.advantageous.qbit.queue.impl.sender.BasicSendQueueWithTransferQueue;
+import io.advantageous.qbit.queue.impl.sender.NoBatchSendQueue;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.advantageous.boon.core.IO.puts;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PooledBatchBasicQueueTest extends BasicSendReceiveTest {
+
+    private static final int ITEMS = 1_000_000;
+
+    @Before
+    public void setup() {
+
+        final QueueBuilder queueBuilder = QueueBuilder.queueBuilder();
+
+        queue = queueBuilder.setArrayBlockingQueue().setBatchSize(50).setPooledBatches(true)
+                .setName("Queue test").setPollTimeUnit(TimeUnit.MILLISECONDS)
+                .setPollWait(50).build();
+
+        receiveQueue = queue.receiveQueue();
+        sendQueue = queue.sendQueue();
+    }
+
+
+    @Test
+    public void batchesAreReused() {
+
+        final BatchArrayPool pool = new BatchArrayPool(10, 4);
+        final PooledBatch batch = pool.acquire();
+        assertEquals(1, pool.misses());
+
+        batch.fill(new Object[]{"a", "b"}, 2);
+        assertEquals(2, batch.size());
+        batch.release();
+        assertEquals(0, batch.size());
+
+        assertTrue(batch == pool.acquire());
+        assertEquals(1, pool.misses());
+
+        /* Until the pool has handed out all of its batches an empty pool creates one straight away. */
+        assertTrue(batch != pool.acquire());
+        assertEquals(2, pool.misses());
+    }
+
+
+    @Test
+    public void coldPoolDoesNotWaitForReleases() {
+
+        final BatchArrayPool pool = new BatchArrayPool(10, 4);
+
+        for (int index = 0; index < 4; index++) {
+            pool.acquire();
+        }
+        assertEquals(4, pool.misses());
+
+        /* With every batch in flight the sender backs off before creating another. */
+        pool.acquire();
+        assertEquals(5, pool.misses());
+    }
+
+
+    @Test
+    public void pooledAllocatesLessThanCurrentSenders() throws Exception {
+
+        final long pooled = allocatedBytesToSend(QueueBuilder.queueBuilder().setArrayBlockingQueue()
+                .setBatchSize(50).setPooledBatches(true), BasicBlockingQueueSender.class);
+
+        final long blocking = allocatedBytesToSend(QueueBuilder.queueBuilder().setArrayBlockingQueue()
+                .setBatchSize(50), BasicBlockingQueueSender.class);
+
+        final long transfer = allocatedBytesToSend(QueueBuilder.queueBuilder().setLinkTransferQueue()
+                .setBatchSize(50), BasicSendQueueWithTransferQueue.class);
+
+        final long noBatch = allocatedBytesToSend(QueueBuilder.queueBuilder()
+                .setBatchSize(1), NoBatchSendQueue.class);
+
+        puts("bytes allocated sending", ITEMS, "pooled", pooled, "blocking", blocking,
+                "transfer", transfer, "noBatch", noBatch);
+
+        assertTrue(pooled < blocking / 4);
+        assertTrue(pooled < transfer / 4);
+        assertTrue(pooled < noBatch / 4);
+    }
+
+
+    private long allocatedBytesToSend(final QueueBuilder queueBuilder,
+                                      final Class<?> expectedSender) throws Exception {
+
+        final Queue<String> allocQueue = queueBuilder.setName("alloc test").setSize(100_000)
+                .setPollTimeUnit(TimeUnit.MILLISECONDS).setPollWait(50).build();
+
+        final AtomicInteger count = new AtomicInteger();
+        allocQueue.startListener(item -> count.incrementAndGet());
+
+        final SendQueue<String> sender = allocQueue.sendQueue();
+        assertEquals(expectedSender, sender.getClass());
+
+        /* Warm up so the JIT is not part of the measurement. */
+        send(sender, ITEMS);
+        waitForCount(count, ITEMS);
+
+        final com.sun.management.ThreadMXBean threadMXBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long threadId = Thread.currentThread().getId();
+
+        final long before = threadMXBean.getThreadAllocatedBytes(threadId);
+        send(sender, ITEMS);
+        final long after = threadMXBean.getThreadAllocatedBytes(threadId);
+
+        waitForCount(count, ITEMS * 2);
+        allocQueue.stop();
+        return after - before;
+    }
+
+    private void send(final SendQueue<String> sender, final int items) {
+        for (int index = 0; index < items; index++) {
+            sender.send("item");
+        }
+        sender.flushSends();
+    }
+
+    private void waitForCount(final AtomicInteger count, final int expected) throws InterruptedException {
+        for (int index = 0; index < 500 && count.get() < expected; index++) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, count.get());
+    }
+}
@@ -0,0 +1,217 @@
+package io.advantageous.qbit.queue.impl;
+
+import io.advantageous.boon.core.Sys;
+import io.advantageous.qbit.queue.Queue;
+import io.advantageous.qbit.queue.QueueBuilder;
+import io.advantageous.qbit.queue.QueueException;
+import io.advantageous.qbit.queue.SendQueue;
+import io.advantageous.qbit.queue.UnableToEnqueueHandler;
+import io.advantageous.qbit.queue.WaitStrategy;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RingBufferBasicQueueTest extends BasicSendReceiveTest {
+
+
+    @Before
+    public void setup() {
+
+        final QueueBuilder queueBuilder = QueueBuilder.queueBuilder();
+
+        queue = queueBuilder.setRingBufferQueue(16_384, WaitStrategy.parking()).setBatchSize(50)
+                .setName("Queue test").setPollTimeUnit(TimeUnit.MILLISECONDS)
+                .setPollWait(50).build();
+
+        receiveQueue = queue.receiveQueue();
+        sendQueue = queue.sendQueue();
+    }
+
+
+    @Test(expected = QueueException.class)
+    public void testFull() {
+
+        final QueueBuilder queueBuilder = QueueBuilder.queueBuilder();
+
+        queue = queueBuilder.setRingBufferQueue(8).setBatchSize(5)
+                .setName("Queue test").setPollTimeUnit(TimeUnit.MILLISECONDS)
+                .setPollWait(50).build();
+
+        sendQueue = queue.sendQueue();
+
+        for (int index = 0; index < 2000; index++) {
+            sendQueue.send("" + index);
+        }
+    }
+
+    @Test
+    public void testFullGoesToUnableToEnqueueHandler() {
+
+        final List<Object> rejected = new ArrayList<>();
+
+        queue = QueueBuilder.queueBuilder().setRingBufferQueue(8).setBatchSize(5)
+                .setUnableToEnqueueHandler(new UnableToEnqueueHandler() {
+                    @Override
+                    public boolean unableToEnqueue(BlockingQueue<Object> queue, String queueName, Object item) {
+                        rejected.add(item);
+                        return false;
+                    }
+                })
+                .setName("Queue test").setPollTimeUnit(TimeUnit.MILLISECONDS)
+                .setPollWait(50).build();
+
+        sendQueue = queue.sendQueue();
+
+        for (int index = 0; index < 20; index++) {
+            sendQueue.send("" + index);
+        }
+        sendQueue.flushSends();
+
+        /* A batch goes into the ring whole or not at all, so only the first batch of 5 fits. */
+        assertEquals(5, queue.size());
+        assertEquals(3, rejected.size());
+        assertArrayEquals(new Object[]{"5", "6", "7", "8", "9"}, (Object[]) rejected.get(0));
+    }
+
+    @Test
+    public void testUnableToEnqueueHandlerCanDrainTheRing() {
+
+        final List<Object> seen = new ArrayList<>();
+        final List<Object> drained = new ArrayList<>();
+
+        queue = QueueBuilder.queueBuilder().setRingBufferQueue(8).setBatchSize(4)
+                .setUnableToEnqueueHandler(new UnableToEnqueueHandler() {
+                    @Override
+                    public boolean unableToEnqueue(BlockingQueue<Object> queue, String queueName, Object item) {
+                        queue.forEach(seen::add);
+                        assertEquals("0", queue.peek());
+                        assertEquals("0", queue.poll());
+                        queue.drainTo(drained, 3);
+                        queue.drainTo(drained);
+                        return queue.offer(item);
+                    }
+                })
+                .setName("Queue test").setPollTimeUnit(TimeUnit.MILLISECONDS)
+                .setPollWait(50).build();
+
+        sendQueue = queue.sendQueue();
+        receiveQueue = queue.receiveQueue();
+
+        for (int index = 0; index < 12; index++) {
+            sendQueue.send("" + index);
+        }
+
+        assertEquals(8, seen.size());
+        assertEquals(Arrays.asList("1", "2", "3", "4", "5", "6", "7"), drained);
+        assertEquals(4, queue.size());
+        assertEquals("8", receiveQueue.poll());
+    }
+
+    @Test
+    public void testEnqueueTimeoutWaitsForConsumer() throws Exception {
+
+        queue = QueueBuilder.queueBuilder().setRingBufferQueue(8).setBatchSize(4)
+                .setEnqueueTimeout(10).setEnqueueTimeoutTimeUnit(TimeUnit.SECONDS)
+                .setName("Queue test").setPollTimeUnit(TimeUnit.MILLISECONDS)
+                .setPollWait(50).build();
+
+        sendQueue = queue.sendQueue();
+        receiveQueue = queue.receiveQueue();
+
+        for (int index = 0; index < 8; index++) {
+            sendQueue.send("" + index);
+        }
+
+        final Thread consumer = new Thread(() -> {
+            Sys.sleep(100);
+            for (int index = 0; index < 4; index++) {
+                receiveQueue.poll();
+            }
+        });
+        consumer.start();
+
+        sendQueue.sendMany("8", "9", "10", "11");
+        consumer.join();
+
+        assertEquals(8, queue.size());
+    }
+
+    @Test
+    public void testBusySpin() throws Exception {
+        manyProducers(WaitStrategy.busySpin());
+    }
+
+    @Test
+    public void testYielding() throws Exception {
+        manyProducers(WaitStrategy.yielding());
+    }
+
+    @Test
+    public void testParking() throws Exception {
+        manyProducers(WaitStrategy.parking());
+    }
+
+    @Test
+    public void testBlocking() throws Exception {
+        manyProducers(WaitStrategy.blocking());
+    }
+
+
+    private void manyProducers(final WaitStrategy waitStrategy) throws Exception {
+
+        final Queue<Long> ringQueue = QueueBuilder.queueBuilder()
+                .setRingBufferQueue(1024, waitStrategy).setBatchSize(100)
+                .setEnqueueTimeout(60).setEnqueueTimeoutTimeUnit(TimeUnit.SECONDS)
+                .setName("ring " + waitStrategy).setPollTimeUnit(TimeUnit.MILLISECONDS)
+                .setPollWait(50).build();
+
+        final int producers = 4;
+        final int perProducer = 20_000;
+        final AtomicLong total = new AtomicLong();
+        final CountDownLatch latch = new CountDownLatch(producers * perProducer);
+
+        ringQueue.startListener(item -> {
+            total.addAndGet(item);
+            latch.countDown();
+        });
+
+        /* The busy spin and yielding consumers compete with the producers for the CPU,
+        so the test only waits on the latch and never on how long a hand off takes. */
+        try {
+            final List<Thread> threads = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                final Thread thread = new Thread(() -> {
+                    final SendQueue<Long> producer = ringQueue.sendQueue();
+                    for (long index = 0; index < perProducer; index++) {
+                        producer.send(index);
+                    }
+                    producer.flushSends();
+                });
+                threads.add(thread);
+                thread.start();
+            }
+
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            assertTrue(latch.await(60, TimeUnit.SECONDS));
+            final long expected = producers * ((long) perProducer * (perProducer - 1) / 2);
+            assertEquals(expected, total.get());
+            assertEquals(0, ringQueue.size());
+        } finally {
+            ringQueue.stop();
+        }
+    }
+}
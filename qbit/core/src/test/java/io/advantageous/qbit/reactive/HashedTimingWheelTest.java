@@ -0,0 +1,86 @@
+package io.advantageous.qbit.reactive;
+
+import io.advantageous.qbit.reactive.HashedTimingWheel.Timeout;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class HashedTimingWheelTest {
+
+    @Test
+    public void testExpireCancelAndLaterRounds() throws Exception {
+
+        final HashedTimingWheel<String> wheel = new HashedTimingWheel<>(8, 10, 1_000);
+        final List<String> expired = new ArrayList<>();
+
+        final Timeout<String> soon = new Timeout<>("soon");
+        final Timeout<String> cancelled = new Timeout<>("cancelled");
+        /* Same bucket as soon, but three turns of the wheel later. */
+        final Timeout<String> later = new Timeout<>("later");
+
+        wheel.schedule(soon, 1_050);
+        wheel.schedule(cancelled, 1_050);
+        wheel.schedule(later, 1_050 + 3 * 80);
+        assertEquals(3, wheel.size());
+
+        assertTrue(wheel.cancel(cancelled));
+        assertFalse(wheel.cancel(cancelled));
+        assertEquals(2, wheel.size());
+
+        wheel.advance(1_049, timeout -> expired.add(timeout.item()));
+        assertTrue(expired.isEmpty());
+
+        wheel.advance(1_050, timeout -> expired.add(timeout.item()));
+        assertEquals(1, expired.size());
+        assertEquals("soon", expired.get(0));
+        assertFalse(soon.isScheduled());
+
+        /* A big jump only visits each bucket once but still expires everything that is due. */
+        wheel.advance(10_000, timeout -> expired.add(timeout.item()));
+        assertEquals(2, expired.size());
+        assertEquals("later", expired.get(1));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testScheduleInThePastFiresOnNextTick() throws Exception {
+
+        final HashedTimingWheel<String> wheel = new HashedTimingWheel<>(16, 1, 100);
+        final List<String> expired = new ArrayList<>();
+
+        wheel.advance(200, timeout -> expired.add(timeout.item()));
+        wheel.schedule(new Timeout<>("late"), 150);
+
+        wheel.advance(200, timeout -> expired.add(timeout.item()));
+        assertTrue(expired.isEmpty());
+
+        wheel.advance(201, timeout -> expired.add(timeout.item()));
+        assertEquals(1, expired.size());
+    }
+
+    @Test
+    public void testRescheduleFromHandler() throws Exception {
+
+        final HashedTimingWheel<String> wheel = new HashedTimingWheel<>(4, 1, 0);
+        final List<Long> fired = new ArrayList<>();
+
+        final Timeout<String> repeating = new Timeout<>("repeating");
+        wheel.schedule(repeating, 3);
+
+        for (long now = 1; now <= 20; now++) {
+            final long time = now;
+            wheel.advance(now, timeout -> {
+                fired.add(time);
+                wheel.schedule(timeout, time + 5);
+            });
+        }
+
+        assertEquals(4, fired.size());
+        assertEquals(Long.valueOf(3), fired.get(0));
+        assertEquals(Long.valueOf(8), fired.get(1));
+        assertEquals(Long.valueOf(18), fired.get(3));
+    }
+}
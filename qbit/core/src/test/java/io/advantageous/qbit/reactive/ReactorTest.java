@@ -3,6 +3,8 @@ package io.advantageous.qbit.reactive;
 import io.advantageous.qbit.util.TestTimer;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -277,4 +279,96 @@ public class ReactorTest {
 
 
     }
-}
\ No newline at end of file
+
+
+    @Test
+    public void testManyCallbacksCompleteAndTimeOut() throws Exception {
+
+
+        final TestTimer testTimer = new TestTimer();
+        testTimer.setTime();
+        final Reactor reactor = ReactorBuilder.reactorBuilder().setTimer(testTimer).build();
+        final AtomicInteger results = new AtomicInteger();
+        final AtomicInteger timeouts = new AtomicInteger();
+
+        final List<AsyncFutureCallback<Integer>> callbacks = new ArrayList<>();
+        for (int index = 0; index < 10_000; index++) {
+            callbacks.add(reactor.callbackBuilder()
+                    .setTimeoutTimeUnit(TimeUnit.SECONDS).setTimeoutDuration(1 + index % 3)
+                    .setOnTimeout(timeouts::incrementAndGet)
+                    .setCallback(Integer.class, value -> results.incrementAndGet())
+                    .build());
+        }
+
+        /* Half of them come back before the first process. */
+        for (int index = 0; index < callbacks.size(); index += 2) {
+            callbacks.get(index).accept(index);
+        }
+
+        reactor.process();
+        assertEquals(5_000, results.get());
+        assertEquals(0, timeouts.get());
+
+        /* Already ran, a second process should not run them again. */
+        reactor.process();
+        assertEquals(5_000, results.get());
+
+        /* Only the ones with a one second timeout expire. */
+        testTimer.seconds(1);
+        testTimer.ms(500);
+        reactor.process();
+        assertEquals(5_000, results.get());
+        assertEquals(1_667, timeouts.get());
+
+        testTimer.seconds(5);
+        reactor.process();
+        assertEquals(5_000, timeouts.get());
+
+        /* Late results for timed out callbacks are dropped. */
+        callbacks.get(1).accept(1);
+        reactor.process();
+        assertEquals(5_000, results.get());
+    }
+
+
+    @Test
+    public void testCoordinatorTimeOut() throws Exception {
+
+
+        final TestTimer testTimer = new TestTimer();
+        testTimer.setTime();
+        final Reactor reactor = ReactorBuilder.reactorBuilder().setTimer(testTimer).build();
+        final AtomicBoolean timedOut = new AtomicBoolean();
+        final AtomicBoolean finished = new AtomicBoolean();
+        final AtomicBoolean complete = new AtomicBoolean();
+
+        reactor.coordinatorBuilder().setCoordinator(complete::get)
+                .setTimeoutDuration(2).setTimeoutTimeUnit(TimeUnit.SECONDS)
+                .setTimeOutHandler(() -> timedOut.set(true))
+                .setFinishedHandler(() -> finished.set(true)).build();
+
+        final CallbackCoordinator completes = reactor.coordinatorBuilder()
+                .setCoordinator(() -> true)
+                .setTimeoutDuration(2).setTimeoutTimeUnit(TimeUnit.SECONDS)
+                .setTimeOutHandler(() -> fail("completed coordinator should not time out"))
+                .build();
+
+        reactor.process();
+        assertFalse(timedOut.get());
+        assertTrue(completes.checkComplete());
+
+        testTimer.seconds(1);
+        reactor.process();
+        assertFalse(timedOut.get());
+
+        testTimer.seconds(3);
+        reactor.process();
+        assertTrue(timedOut.get());
+        assertFalse(finished.get());
+
+        /* Completing after the time out does nothing, we are no longer tracking it. */
+        complete.set(true);
+        reactor.process();
+        assertFalse(finished.get());
+    }
+}
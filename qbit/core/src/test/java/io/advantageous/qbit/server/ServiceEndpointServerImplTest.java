@@ -26,6 +26,7 @@ import io.advantageous.qbit.annotation.RequestMapping;
 import io.advantageous.qbit.annotation.RequestMethod;
 import io.advantageous.qbit.http.request.HttpRequest;
 import io.advantageous.qbit.http.request.HttpRequestBuilder;
+import io.advantageous.qbit.http.request.HttpResponseReceiver;
 import io.advantageous.qbit.http.request.HttpTextReceiver;
 import io.advantageous.qbit.http.server.HttpServer;
 import io.advantageous.qbit.http.server.websocket.WebSocketMessage;
@@ -48,6 +49,8 @@ import io.advantageous.qbit.test.TimedTesting;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.atomic.*;
 import java.util.function.*;
@@ -284,6 +287,27 @@ public class ServiceEndpointServerImplTest extends TimedTesting {
 
     }
 
+    @Test
+    public void testAsyncCallHttpByteBufferReceiver() throws Exception {
+
+        final HttpRequest request = new HttpRequestBuilder().setUri("/services/mock/callWithReturn")
+                .setResponse(new MockByteBufferReceiver()).setBody("").build();
+
+        httpServer.sendRequest(request);
+
+        Sys.sleep(10);
+        serviceServerImpl.flush();
+
+        Sys.sleep(10);
+
+        waitForTrigger(20, o -> responseCounter == 1 && callMeCounter == 1);
+
+        ok |= responseCounter == 1 || die();
+        ok |= callMeCounter == 1 || die();
+        ok |= lastResponse.equals("\"bacon\"") || die();
+
+    }
+
     @Test
     public void testWeSocketCallThatIsCrap() throws Exception {
 
@@ -446,6 +470,21 @@ public class ServiceEndpointServerImplTest extends TimedTesting {
         }
     }
 
+    class MockByteBufferReceiver implements HttpResponseReceiver<Object> {
+
+        @Override
+        public boolean isByteBuffer() {
+            return true;
+        }
+
+        @Override
+        public void response(int code, String mimeType, Object body) {
+            final String text = body instanceof ByteBuffer
+                    ? StandardCharsets.UTF_8.decode(((ByteBuffer) body).duplicate()).toString() : body.toString();
+            new MockReceiver().response(code, mimeType, text);
+        }
+    }
+
     class MockWebSocketSender implements WebSocketSender {
         @Override
         public void sendText(final String message) {
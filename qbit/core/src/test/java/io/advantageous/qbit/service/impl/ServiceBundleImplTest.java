@@ -97,6 +97,51 @@ public class ServiceBundleImplTest {
     }
 
 
+    @Test
+    public void testServiceSlotAndMethodId() {
+
+        serviceBundle.addService(new MockService());
+        final int serviceSlot = serviceBundle.serviceSlot("mockService");
+        ok = serviceSlot >= 0 || die();
+        ok = serviceBundle.methodId(serviceSlot, "method1") >= 0 || die();
+        ok = serviceBundle.methodId(serviceSlot, "noSuchMethod") == -1 || die();
+        ok = serviceBundle.serviceSlot("noSuchService") == -1 || die();
+
+        proxy = serviceBundle.createLocalProxy(MockServiceInterface.class, "mockService");
+        serviceBundle.startReturnHandlerProcessor();
+
+        proxy.method1();
+        proxy.clientProxyFlush();
+
+        Sys.sleep(1000);
+
+        ok = callCount == 1 || die();
+    }
+
+    @Test
+    public void testReplacedServiceGivesUpItsSlot() {
+
+        final AtomicReference<String> calledBy = new AtomicReference<>();
+        serviceBundle.addServiceConsumer("/workers", methodCall -> calledBy.set("old"));
+        final int oldSlot = serviceBundle.serviceSlot("/workers");
+
+        serviceBundle.addServiceConsumer("/workers", methodCall -> calledBy.set("new"));
+        final int newSlot = serviceBundle.serviceSlot("/workers");
+
+        ok = oldSlot >= 0 || die();
+        ok = newSlot != oldSlot || die();
+
+        /* A call carrying the old slot is routed by its address instead. */
+        serviceBundle.call(MethodCallBuilder.methodCallBuilder().setAddress("/workers").setName("work")
+                .setServiceSlot(oldSlot).build());
+        serviceBundle.flushSends();
+
+        for (int index = 0; index < 100 && calledBy.get() == null; index++) {
+            Sys.sleep(10);
+        }
+        ok = "new".equals(calledBy.get()) || die(calledBy.get());
+    }
+
     @Test
     public void testWithService() {
 
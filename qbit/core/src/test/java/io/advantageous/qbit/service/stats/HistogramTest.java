@@ -0,0 +1,172 @@
+package io.advantageous.qbit.service.stats;
+
+import io.advantageous.boon.core.Lists;
+import io.advantageous.qbit.QBit;
+import io.advantageous.qbit.boon.service.impl.BoonServiceMethodCallHandler;
+import io.advantageous.qbit.boon.spi.BoonProtocolEncoder;
+import io.advantageous.qbit.boon.spi.BoonProtocolParser;
+import io.advantageous.qbit.json.JsonMapper;
+import io.advantageous.qbit.message.MethodCall;
+import io.advantageous.qbit.message.MethodCallBuilder;
+import io.advantageous.qbit.message.Response;
+import io.advantageous.qbit.queue.SendQueue;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class HistogramTest {
+
+    @Test
+    public void testSmallValuesAreExact() {
+        final Histogram histogram = new Histogram();
+        for (int index = 1; index <= 30; index++) {
+            histogram.record(index);
+        }
+
+        assertEquals(30, histogram.getCount());
+        assertEquals(1, histogram.getMin());
+        assertEquals(30, histogram.getMax());
+        assertEquals(15.5, histogram.getMean(), 0.001);
+        assertEquals(15, histogram.valueAtPercentile(50));
+        assertEquals(30, histogram.valueAtPercentile(100));
+        assertEquals(1, histogram.valueAtPercentile(0));
+    }
+
+    @Test
+    public void testPercentilesAreWithinPrecision() {
+        final Histogram histogram = new Histogram();
+        final Random random = new Random(7);
+        final long[] values = new long[100_000];
+
+        for (int index = 0; index < values.length; index++) {
+            /* Log normal-ish latencies from microseconds to seconds. */
+            values[index] = (long) Math.exp(random.nextGaussian() * 2 + 10);
+            histogram.record(values[index]);
+        }
+        Arrays.sort(values);
+
+        for (double percentile : new double[]{50, 90, 99, 99.9}) {
+            final long exact = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+            final long estimate = histogram.valueAtPercentile(percentile);
+            assertTrue(percentile + " exact " + exact + " estimate " + estimate,
+                    estimate >= exact && estimate <= exact + exact / 16 + 1);
+        }
+        assertEquals(values[values.length - 1], histogram.valueAtPercentile(100));
+    }
+
+    @Test
+    public void testLargeAndNegativeValues() {
+        final Histogram histogram = new Histogram();
+        histogram.record(Long.MAX_VALUE);
+        histogram.record(-5);
+
+        assertEquals(0, histogram.getMin());
+        assertEquals(Long.MAX_VALUE, histogram.getMax());
+        assertEquals(Long.MAX_VALUE, histogram.valueAtPercentile(100));
+        assertEquals(0, histogram.valueAtPercentile(50));
+    }
+
+    @Test
+    public void testSnapshotMerge() {
+        final Histogram first = new Histogram();
+        final Histogram second = new Histogram();
+        for (int index = 0; index < 1000; index++) {
+            first.record(100);
+            second.record(10_000);
+        }
+
+        final HistogramSnapshot merged = first.snapshot().merge(second.snapshot());
+        assertEquals(2000, merged.getCount());
+        assertEquals(100, merged.getMin());
+        assertEquals(10_000, merged.getMax());
+        /* Reported as the top of the bucket 100 falls in. */
+        assertEquals(103, merged.valueAtPercentile(50));
+        assertEquals(10_000, merged.valueAtPercentile(51));
+
+        first.add(second.snapshot());
+        assertEquals(merged.valueAtPercentile(75), first.valueAtPercentile(75));
+
+        first.reset();
+        assertTrue(first.isEmpty());
+        assertEquals(0, first.valueAtPercentile(99));
+        assertEquals(0, first.snapshot().getCount());
+    }
+
+    @Test
+    public void testMergeDifferentPrecision() {
+        final Histogram coarse = new Histogram(2);
+        final Histogram fine = new Histogram(8);
+        for (int index = 1; index <= 1000; index++) {
+            coarse.record(index);
+        }
+
+        fine.add(coarse.snapshot());
+        assertEquals(1000, fine.getCount());
+        assertEquals(1000, fine.getMax());
+        final long median = fine.valueAtPercentile(50);
+        assertTrue("median " + median, median >= 500 && median <= 640);
+    }
+
+    @Test
+    public void testSnapshotJsonRoundTrip() {
+        final Histogram histogram = new Histogram();
+        for (int index = 1; index <= 1000; index++) {
+            histogram.record(index);
+        }
+        final HistogramSnapshot snapshot = histogram.snapshot();
+
+        final JsonMapper jsonMapper = QBit.factory().createJsonMapper();
+        final HistogramSnapshot copy = jsonMapper.fromJson(jsonMapper.toJson(snapshot), HistogramSnapshot.class);
+
+        assertSameSnapshot(snapshot, copy);
+    }
+
+    @Test
+    public void testSnapshotRemoteCallRoundTrip() {
+        final Histogram histogram = new Histogram();
+        for (int index = 1; index <= 1000; index++) {
+            histogram.record(index);
+        }
+        final HistogramSnapshot snapshot = histogram.snapshot();
+
+        final AtomicReference<HistogramSnapshot> received = new AtomicReference<>();
+        final AtomicReference<String> receivedName = new AtomicReference<>();
+
+        class StatService {
+            public void recordTimingHistogram(final String name, final HistogramSnapshot histogramSnapshot) {
+                receivedName.set(name);
+                received.set(histogramSnapshot);
+            }
+        }
+
+        final MethodCall<Object> methodCall = new MethodCallBuilder().setId(1L).setAddress("/stats")
+                .setReturnAddress("return").setObjectName("statService").setName("recordTimingHistogram")
+                .setTimestamp(0L).setBody(new Object[]{"timing", snapshot}).build();
+
+        final String encoded = new BoonProtocolEncoder().encodeMethodCalls("return", Lists.list(methodCall));
+        final MethodCall<Object> parsed = new BoonProtocolParser().parseMethodCalls("", encoded).get(0);
+
+        final BoonServiceMethodCallHandler handler = new BoonServiceMethodCallHandler(true);
+        handler.init(new StatService(), "", "", new SendQueue<Response<Object>>() {
+        });
+        handler.receiveMethodCall(parsed);
+
+        assertEquals("timing", receivedName.get());
+        assertSameSnapshot(snapshot, received.get());
+    }
+
+    private static void assertSameSnapshot(final HistogramSnapshot expected, final HistogramSnapshot actual) {
+        assertNotNull(actual);
+        assertEquals(expected.getPrecision(), actual.getPrecision());
+        assertEquals(expected.getCount(), actual.getCount());
+        assertEquals(expected.getSum(), actual.getSum());
+        assertEquals(expected.getMin(), actual.getMin());
+        assertEquals(expected.getMax(), actual.getMax());
+        assertEquals(expected.valueAtPercentile(50), actual.valueAtPercentile(50));
+        assertEquals(expected.valueAtPercentile(99), actual.valueAtPercentile(99));
+    }
+}
@@ -0,0 +1,80 @@
+package io.advantageous.qbit.service.stats;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class StatCounterRegistryTest {
+
+    @Test
+    public void testSameCounterForName() {
+        final StatCounterRegistry registry = new StatCounterRegistry();
+        final StatCounter counter = registry.counter("calls");
+        assertSame(counter, registry.counter("calls"));
+        assertNotSame(counter, registry.counter("errors"));
+        assertEquals(2, registry.size());
+
+        counter.increment();
+        counter.add(4);
+
+        final Map<String, Long> drained = new HashMap<>();
+        registry.drain(drained::put);
+        assertEquals(1, drained.size());
+        assertEquals(Long.valueOf(5), drained.get("calls"));
+
+        /* Nothing new, nothing drained. */
+        drained.clear();
+        registry.drain(drained::put);
+        assertTrue(drained.isEmpty());
+    }
+
+    @Test
+    public void testManyRecordersWhileDraining() throws Exception {
+        final StatCounterRegistry registry = new StatCounterRegistry();
+        final int threads = 8;
+        final int incrementsPerThread = 1_000_000;
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threads);
+        final AtomicBoolean finished = new AtomicBoolean();
+
+        for (int index = 0; index < threads; index++) {
+            final String name = index % 2 == 0 ? "even" : "odd";
+            new Thread(() -> {
+                /* Every thread registers on its own, they all share the same two counters. */
+                final StatCounter counter = registry.counter(name);
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                for (int count = 0; count < incrementsPerThread; count++) {
+                    counter.increment();
+                }
+                done.countDown();
+            }).start();
+        }
+
+        final Map<String, Long> totals = new HashMap<>();
+        final StatCounterRegistry.CountConsumer fold = (name, count) -> totals.merge(name, count, Long::sum);
+
+        final long startTime = System.nanoTime();
+        start.countDown();
+        while (!finished.get()) {
+            finished.set(done.getCount() == 0);
+            registry.drain(fold);
+        }
+        final long duration = System.nanoTime() - startTime;
+        registry.drain(fold);
+
+        assertEquals(Long.valueOf(threads / 2 * incrementsPerThread), totals.get("even"));
+        assertEquals(Long.valueOf(threads / 2 * incrementsPerThread), totals.get("odd"));
+
+        System.out.printf("%d increments on %d threads in %d ms%n",
+                threads * incrementsPerThread, threads, duration / 1_000_000);
+    }
+}
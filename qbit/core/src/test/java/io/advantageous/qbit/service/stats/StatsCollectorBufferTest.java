@@ -2,9 +2,15 @@ package io.advantageous.qbit.service.stats;
 
 import org.junit.Test;
 
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 public class StatsCollectorBufferTest {
 
@@ -78,4 +84,55 @@ public class StatsCollectorBufferTest {
         assertEquals(6, holder.get());
 
     }
-}
\ No newline at end of file
+
+
+    @Test
+    public void testTimingHistogram() {
+        final AtomicReference<HistogramSnapshot> holder = new AtomicReference<>();
+        StatsCollector collector = new StatsCollector() {
+            @Override
+            public void recordTimingHistogram(String name, HistogramSnapshot snapshot) {
+                holder.set(snapshot);
+            }
+        };
+        StatsCollectorBuffer buffer = new StatsCollectorBuffer(collector);
+
+        for (int index = 1; index <= 100; index++) {
+            buffer.recordTiming("Rick", index);
+        }
+
+        buffer.sendStats();
+
+        assertEquals(100, holder.get().getCount());
+        assertEquals(100, holder.get().getMax());
+        assertEquals(1, holder.get().getMin());
+        final long median = holder.get().valueAtPercentile(50);
+        assertTrue("median " + median, median >= 50 && median <= 53);
+
+        /* Nothing new was recorded, nothing is sent. */
+        holder.set(null);
+        buffer.sendStats();
+        assertNull(holder.get());
+    }
+
+    @Test
+    public void testProxyGetsMaxTiming() {
+        /* A service proxy only reaches methods the target declares, older stat services have no histograms. */
+        final List<String> calls = new ArrayList<>();
+        final StatsCollector proxy = (StatsCollector) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{StatsCollector.class}, (p, method, args) -> {
+                    if (args != null) {
+                        calls.add(method.getName() + " " + args[0] + " " + args[1]);
+                    }
+                    return null;
+                });
+        StatsCollectorBuffer buffer = new StatsCollectorBuffer(proxy);
+
+        buffer.recordTiming("Rick", 6);
+        buffer.recordTiming("Rick", 2);
+        buffer.sendStats();
+
+        assertEquals(1, calls.size());
+        assertEquals("recordTiming Rick 6", calls.get(0));
+    }
+}
@@ -4,6 +4,8 @@ package io.advantageous.qbit.transformer;
 import io.advantageous.qbit.annotation.*;
 import io.advantageous.qbit.reactive.Callback;
 
+import java.util.Map;
+
 import static io.advantageous.boon.core.Str.sputs;
 
 
@@ -53,6 +55,14 @@ public class SampleService {
         return sputs(arg1, arg2, employee);
     }
 
+    @RequestMapping(value = "/twoBodies/", method = RequestMethod.POST)
+    public String twoBodies(final Map<Integer, Employee> employees,
+                            final Map<String, Object> raw) {
+
+
+        return sputs(employees, raw);
+    }
+
     @RequestMapping("/simpleBadConfig1/{0}/")
     public void simpleBadConfig(Callback<String> callback, @PathVariable(defaultValue = "missing") final String arg1) {
         callback.accept("simple3");
@@ -10,8 +10,10 @@ import io.advantageous.qbit.meta.transformer.StandardRequestTransformer;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static io.advantageous.boon.core.IO.puts;
@@ -193,4 +195,86 @@ public class StandardRequestTransformerTest {
         puts(args.get(2));
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testTransformComplexWithByteBody() throws Exception {
+
+        /* Same endpoint as testTransformComplexWithBody, the body arrives as UTF-8 bytes like it does from the wire. */
+
+        HttpRequestBuilder requestBuilder = new HttpRequestBuilder();
+        requestBuilder.addHeader("arg2", "" + 2);
+        requestBuilder.addParam("arg1", "" + 1);
+        requestBuilder.setUri("/services/sample/service/method3/");
+        requestBuilder.setBodyBytes(toJson(new Employee("Ren\u00e9e", "\u738b")).getBytes(StandardCharsets.UTF_8));
+        requestBuilder.setMethod("POST");
+        final HttpRequest request = requestBuilder.build();
+
+
+        List<String> errorsList = new ArrayList<>();
+
+        final MethodCall<Object> methodCall = standardRequestTransformer.transform(request, errorsList);
+        assertNotNull(methodCall);
+        assertEquals(0, errorsList.size());
+        @SuppressWarnings("unchecked") List<Object> args = (List<Object>) methodCall.body();
+        assertEquals(3, args.size());
+        final Employee employee = (Employee) args.get(2);
+        assertEquals("Ren\u00e9e", employee.getFirstName());
+        assertEquals("\u738b", employee.getLastName());
+    }
+
+    @Test
+    public void testTransformSharedBodyConvertsMapEntries() throws Exception {
+
+        /*
+            @RequestMapping(value = "/twoBodies/", method = RequestMethod.POST)
+            public String twoBodies(final Map<Integer, Employee> employees,
+                                    final Map<String, Object> raw) {
+         */
+
+        HttpRequestBuilder requestBuilder = new HttpRequestBuilder();
+        requestBuilder.setUri("/services/sample/service/twoBodies/");
+        requestBuilder.setBody(toJson(safeMap(1, new Employee("Rick", "Hightower"))));
+        requestBuilder.setMethod("POST");
+        final HttpRequest request = requestBuilder.build();
+
+        List<String> errorsList = new ArrayList<>();
+
+        final MethodCall<Object> methodCall = standardRequestTransformer.transform(request, errorsList);
+        assertNotNull(methodCall);
+        assertEquals(0, errorsList.size());
+        @SuppressWarnings("unchecked") List<Object> args = (List<Object>) methodCall.body();
+        assertEquals(2, args.size());
+
+        final Map<?, ?> employees = (Map<?, ?>) args.get(0);
+        final Employee employee = (Employee) employees.get(1);
+        assertEquals("Rick", employee.getFirstName());
+        assertEquals("Hightower", employee.getLastName());
+
+        final Map<?, ?> raw = (Map<?, ?>) args.get(1);
+        assertEquals("Rick", ((Map<?, ?>) raw.get("1")).get("firstName"));
+    }
+
+    @Test
+    public void testTransformDecodesPathParamsAndReusesBinder() throws Exception {
+
+        /* Same endpoint as testTransformComplex, the second call runs the binder compiled by the first. */
+
+        for (String arg4 : new String[]{"a%20b", "plain"}) {
+            HttpRequestBuilder requestBuilder = new HttpRequestBuilder();
+            requestBuilder.addHeader("arg2", "" + 2);
+            requestBuilder.addParam("arg1", "one+two");
+            requestBuilder.setUri("/services/sample/service/CALL1/foo/" + arg4 + "/2.2");
+            final HttpRequest request = requestBuilder.build();
+
+            List<String> errorsList = new ArrayList<>();
+
+            final MethodCall<Object> methodCall = standardRequestTransformer.transform(request, errorsList);
+            assertNotNull(methodCall);
+            assertEquals(0, errorsList.size());
+            @SuppressWarnings("unchecked") List<Object> args = (List<Object>) methodCall.body();
+            assertEquals("one two", args.get(0));
+            assertEquals("2.2", args.get(2));
+            assertEquals(arg4.equals("plain") ? "plain" : "a b", args.get(3));
+        }
+    }
+}
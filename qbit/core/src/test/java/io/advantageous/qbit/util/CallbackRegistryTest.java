@@ -0,0 +1,92 @@
+package io.advantageous.qbit.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class CallbackRegistryTest {
+
+    @Test
+    public void testPutGetRemove() throws Exception {
+        final CallbackRegistry<String> registry = new CallbackRegistry<>();
+
+        assertNull(registry.put(1L, "proxyA", 100, "a1"));
+        assertNull(registry.put(1L, "proxyB", 100, "b1"));
+        assertNull(registry.put(2L, null, 100, "n2"));
+        assertEquals(3, registry.size());
+
+        assertEquals("a1", registry.get(1L, "proxyA"));
+        assertEquals("b1", registry.get(1L, new String("proxyB")));
+        assertEquals("n2", registry.get(2L, null));
+        assertNull(registry.get(1L, "proxyC"));
+
+        assertEquals("a1", registry.put(1L, "proxyA", 100, "a1-again"));
+        assertEquals(3, registry.size());
+
+        assertEquals("a1-again", registry.remove(1L, "proxyA"));
+        assertNull(registry.remove(1L, "proxyA"));
+        assertEquals("b1", registry.get(1L, "proxyB"));
+        assertEquals(2, registry.size());
+    }
+
+    @Test
+    public void testMatchesHashMapUnderChurn() throws Exception {
+        final CallbackRegistry<Long> registry = new CallbackRegistry<>();
+        final Map<String, Long> expected = new HashMap<>();
+        final Random random = new Random(42);
+        final String[] scopes = {"a", "b", "c", "d"};
+
+        for (int index = 0; index < 200_000; index++) {
+            final long id = random.nextInt(5_000);
+            final String scope = scopes[random.nextInt(scopes.length)];
+            final String key = scope + id;
+            if (random.nextBoolean()) {
+                assertEquals(expected.put(key, id), registry.put(id, scope, index, id));
+            } else {
+                assertEquals(expected.remove(key), registry.remove(id, scope));
+            }
+        }
+
+        assertEquals(expected.size(), registry.size());
+        for (Map.Entry<String, Long> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), registry.get(entry.getValue(), entry.getKey().substring(0, 1)));
+        }
+    }
+
+    @Test
+    public void testExpireOnlyTouchesOldCallbacks() throws Exception {
+        final CallbackRegistry<Integer> registry = new CallbackRegistry<>();
+
+        for (int index = 0; index < 100_000; index++) {
+            registry.put(index, "proxy", index, index);
+            /* Most calls come back. */
+            if (index % 10 != 0) {
+                assertEquals(Integer.valueOf(index), registry.remove(index, "proxy"));
+            }
+        }
+        assertEquals(10_000, registry.size());
+
+        final List<Integer> expired = new ArrayList<>();
+        assertEquals(5_000, registry.expireOlderThan(50_000, expired::add));
+        assertEquals(5_000, expired.size());
+        assertEquals(Integer.valueOf(0), expired.get(0));
+        assertEquals(Integer.valueOf(49_990), expired.get(expired.size() - 1));
+        assertEquals(5_000, registry.size());
+
+        assertEquals(0, registry.expireOlderThan(50_000, expired::add));
+        assertNull(registry.get(10, "proxy"));
+        assertEquals(Integer.valueOf(50_000), registry.get(50_000, "proxy"));
+
+        /* Re-registering a key moves its deadline. */
+        registry.put(50_000, "proxy", 200_000, -1);
+        registry.expireOlderThan(150_000, expired::add);
+        assertEquals(1, registry.size());
+        assertEquals(Integer.valueOf(-1), registry.remove(50_000, "proxy"));
+    }
+}
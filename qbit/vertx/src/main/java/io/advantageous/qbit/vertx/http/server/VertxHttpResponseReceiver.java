@@ -9,6 +9,7 @@ import io.advantageous.qbit.util.MultiMap;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.HttpServerResponse;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.Map;
@@ -48,6 +49,18 @@ public class VertxHttpResponseReceiver implements HttpResponseReceiver<Object> {
             byte[] bBody = ((byte[]) body);
             response.putHeader("Content-Length", String.valueOf(bBody.length));
             buffer = Buffer.buffer(bBody);
+        } else if (body instanceof ByteBuffer) {
+            /* Copied into the Vert.x buffer here, the caller reuses the ByteBuffer once we return. */
+            final ByteBuffer bBody = ((ByteBuffer) body);
+            final int length = bBody.remaining();
+            response.putHeader("Content-Length", String.valueOf(length));
+            if (bBody.hasArray()) {
+                buffer = Buffer.buffer(length).appendBytes(bBody.array(), bBody.arrayOffset() + bBody.position(), length);
+            } else {
+                final byte[] bytes = new byte[length];
+                bBody.duplicate().get(bytes);
+                buffer = Buffer.buffer(bytes);
+            }
         } else if (body instanceof String) {
             String sBody = ((String) body);
             byte[] bBody = sBody.getBytes(StandardCharsets.UTF_8);
@@ -57,6 +70,15 @@ public class VertxHttpResponseReceiver implements HttpResponseReceiver<Object> {
         return buffer;
     }
 
+    /**
+     * Decorators take the body as text, so a decorated response stays on the text path instead of
+     * being encoded to a ByteBuffer only to be decoded again.
+     */
+    @Override
+    public boolean isByteBuffer() {
+        return decorators.isEmpty();
+    }
+
     @Override
     public void response(int code, String contentType, Object body) {
 
@@ -68,8 +90,9 @@ public class VertxHttpResponseReceiver implements HttpResponseReceiver<Object> {
                          final MultiMap<String, String> responseHeaders) {
 
 
+        /* Decorators get the body as text, they may keep it past this call. */
         final HttpResponse<?> decoratedResponse = decorators.size() > 0 ? httpResponseCreator.createResponse(
-                decorators, requestPath, requestMethod, code, contentType, body,
+                decorators, requestPath, requestMethod, code, contentType, asText(body),
                 responseHeaders, this.requestHeaders,
                 this.requestParams) : null;
 
@@ -83,6 +106,14 @@ public class VertxHttpResponseReceiver implements HttpResponseReceiver<Object> {
         }
     }
 
+    private static Object asText(final Object body) {
+        if (body instanceof ByteBuffer) {
+            final ByteBuffer bBody = ((ByteBuffer) body).duplicate();
+            return StandardCharsets.UTF_8.decode(bBody).toString();
+        }
+        return body;
+    }
+
     private void doResponse(final int code, final String contentType, final Object body,
                             final MultiMap<String, String> headers) {
         if (headers != null && !headers.isEmpty()) {